@@ -12,18 +12,24 @@
 package org.eclipse.scanning.api.annotation.scan;
 
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Hashtable;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.scanning.api.IServiceResolver;
 import org.eclipse.scanning.api.event.EventException;
@@ -42,8 +48,10 @@ import org.slf4j.LoggerFactory;
  * to be injected into the method.
  *
  * If attemps to parse all the reflection stuff up-front so that a call
- * to invoke(...) during the scan can be as efficiently despatched using
- * method.invoke(...) as possible.
+ * to invoke(...) during the scan can be as efficiently despatched as possible.
+ * The annotated methods of a class are found once, including annotations on
+ * the methods they override, and compiled to method handles which are
+ * shared by all managers.
  *
  * This class could be made into a general purpose annotation parsing
  * and method calling class once tested.
@@ -60,7 +68,6 @@ public class AnnotationManager {
 	private static Logger logger = LoggerFactory.getLogger(AnnotationManager.class);
 
 	private Map<Class<? extends Annotation>, Collection<MethodWrapper>> annotationMap;
-	private Map<Class<?>, Collection<Class<?>>>                         cachedClasses;
 	private Map<Class<?>, Object>                                       services;
 	private Collection<Object>                                          extraContext;
 
@@ -105,7 +112,6 @@ public class AnnotationManager {
 	private AnnotationManager(IServiceResolver resolver, Collection<Class<? extends Annotation>> a) {
 		this.resolver = resolver;
 		this.annotationMap = new Hashtable<>(31); // Intentionally synch
-		this.cachedClasses = new Hashtable<>(31); // Intentionally synch
 		this.annotations = a;
 
 		if (resolver!=null) {
@@ -184,20 +190,16 @@ public class AnnotationManager {
 
 		if (device==null) return;
 
-		final Method[] methods = device.getClass().getMethods();
-		for (int i = 0; i < methods.length; i++) {
-			final Annotation[] as = methods[i].getAnnotations();
-			if (as!=null) for (Annotation annotation : as) {
-				Class<? extends Annotation> clazz = annotation.annotationType();
-				if (this.annotations.contains(clazz)) {
-					Collection<MethodWrapper> ms = annotationMap.get(clazz);
-					if (ms == null) {
-						ms = new ArrayList<>(31);
-						annotationMap.put(clazz, ms);
-					}
-					ms.add(new MethodWrapper(clazz, device, methods[i]));
-				}
+		final Map<Class<? extends Annotation>, List<MethodInvoker>> invokers = compiled.get(device.getClass());
+		for (Map.Entry<Class<? extends Annotation>, List<MethodInvoker>> entry : invokers.entrySet()) {
+			final Class<? extends Annotation> clazz = entry.getKey();
+			if (!this.annotations.contains(clazz)) continue;
+			Collection<MethodWrapper> ms = annotationMap.get(clazz);
+			if (ms == null) {
+				ms = new ArrayList<>(31);
+				annotationMap.put(clazz, ms);
 			}
+			for (MethodInvoker invoker : entry.getValue()) ms.add(new MethodWrapper(clazz, device, invoker));
 		}
 	}
 
@@ -229,100 +231,172 @@ public class AnnotationManager {
 		}
 	}
 
-	private class MethodWrapper {
+	/**
+	 * The annotated methods of each class, compiled once and shared by
+	 * every manager. Annotations are found on the method of the class or on
+	 * the method it overrides in any superclass or interface.
+	 */
+	private static final ClassValue<Map<Class<? extends Annotation>, List<MethodInvoker>>> compiled = new ClassValue<Map<Class<? extends Annotation>, List<MethodInvoker>>>() {
+		@Override
+		protected Map<Class<? extends Annotation>, List<MethodInvoker>> computeValue(Class<?> type) {
+			return compile(type);
+		}
+	};
 
-		private Object          instance;
-		private Method          method;
-		private List<Class<?>>  argClasses;
-		private Object[]        arguments; // Must be object[] for speed and is not variable
-
-		MethodWrapper(final Class<? extends Annotation> aclass, Object instance, Method method) throws IllegalArgumentException {
-			this.instance = instance;
-			this.method   = method;
-
-			final Class<?>[] args = method.getParameterTypes();
-			this.argClasses = args!=null?Arrays.asList(args):null;
-
-			if (argClasses!=null) {
-				final Set<?> unique = new HashSet<>(argClasses);
-
-				/**
-				 * We do not allow duplications in the classes list because a given service or
-				 * information object should be required once. Type is used to determine argument
-				 * position as well, therefore duplicates do not work with the current alg.
-				 */
-			    if (unique.size()!=argClasses.size()) throw new IllegalArgumentException("Duplicated types are not allowed in injected methods!\n"
-					+ "Your annotation of @"+aclass.getSimpleName()+" sits over a method '"+method.getName()+"' on class '"+instance.getClass().getSimpleName()+"' with duplicated types!\n"
-				    + "More than one of any given type is not allowed. Have you seen '"+ScanInformation.class.getSimpleName()+"' class, which can be used to provide various metrics about the scan?");
-			}
+	private static Map<Class<? extends Annotation>, List<MethodInvoker>> compile(Class<?> type) {
 
-			if (args!=null) {
-				this.arguments= new Object[args.length];
-				for (int i = 0; i < args.length; i++) {
-					if (args[i] == IPosition.class) continue;
-				    // Find OSGi service for it, if any.
-					try {
-						arguments[i] = getService(args[i]);
-					} catch (Exception ne) {
-						continue;
-					}
+		final Map<Class<? extends Annotation>, List<MethodInvoker>> ret = new HashMap<>();
+		final Collection<Class<?>> hierarchy = getHierarchy(type);
+
+		for (Method method : type.getMethods()) {
+			if (method.isBridge()) continue; // The method it bridges to is also public
+
+			final Set<Class<? extends Annotation>> found = new LinkedHashSet<>();
+			for (Annotation annotation : method.getAnnotations()) found.add(annotation.annotationType());
+			for (Class<?> superType : hierarchy) {
+				try {
+					Method overridden = superType.getDeclaredMethod(method.getName(), method.getParameterTypes());
+					for (Annotation annotation : overridden.getAnnotations()) found.add(annotation.annotationType());
+				} catch (NoSuchMethodException ne) {
+					continue;
 				}
 			}
+			if (found.isEmpty()) continue;
+
+			final MethodInvoker invoker;
+			try {
+				invoker = new MethodInvoker(method);
+			} catch (IllegalAccessException ne) {
+				logger.warn("Cannot call annotated method '"+method.getName()+"' on "+type.getSimpleName(), ne);
+				continue;
+			}
+			for (Class<? extends Annotation> aclass : found) {
+				ret.computeIfAbsent(aclass, k -> new ArrayList<>(3)).add(invoker);
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * All the superclasses and interfaces of a type, nearest first.
+	 */
+	private static Collection<Class<?>> getHierarchy(Class<?> type) {
+		final Set<Class<?>> ret = new LinkedHashSet<>();
+		for (Class<?> clazz = type; clazz!=null; clazz = clazz.getSuperclass()) {
+			if (clazz!=type) ret.add(clazz);
+			addInterfaces(clazz, ret);
+		}
+		return ret;
+	}
+
+	private static void addInterfaces(Class<?> clazz, Set<Class<?>> ret) {
+		for (Class<?> iface : clazz.getInterfaces()) {
+			if (ret.add(iface)) addInterfaces(iface, ret);
 		}
+	}
 
-		public void invoke(Object... objects) throws IllegalAccessException, IllegalArgumentException, InvocationTargetException {
+	/**
+	 * A method compiled into a method handle which takes the instance
+	 * and an array of arguments. The argument which each type of context
+	 * object goes into is worked out the first time it is seen.
+	 */
+	private static final class MethodInvoker {
 
-			if (arguments!=null) { // Put the context into the args (if there are any)
+		private final Method                 method;
+		private final Class<?>[]             argClasses;
+		private final MethodHandle           handle; // (Object,Object[])void
+		private final Map<Class<?>, Integer> indices;
 
-				List<Object> context = getContext(objects);
-				for (int i = 0; i < context.size(); i++) {
+		MethodInvoker(Method method) throws IllegalAccessException {
+			this.method     = method;
+			this.argClasses = method.getParameterTypes();
+			this.indices    = new ConcurrentHashMap<>(7);
 
-				    final Collection<Class<?>> classes = getCachedClasses(context.get(i));
+			try {
+				method.setAccessible(true); // Once, public methods of private classes need this.
+			} catch (RuntimeException ne) {
+				logger.trace("Cannot make '"+method.getName()+"' accessible", ne);
+			}
+			MethodHandle mh = MethodHandles.lookup().unreflect(method);
+			if (Modifier.isStatic(method.getModifiers())) mh = MethodHandles.dropArguments(mh, 0, Object.class);
+			mh = mh.asType(mh.type().changeReturnType(void.class));
+			this.handle = mh.asSpreader(Object[].class, argClasses.length)
+					        .asType(MethodType.methodType(void.class, Object.class, Object[].class));
+		}
 
-				    // Find the first class in classes which is in argClasses
-				    // NOTE this is why duplicates are not supported, type of argument used to map to injected class.
-			Optional<Class<?>> contained = classes.stream().filter(x -> argClasses.contains(x)).findFirst();
-			if (contained.isPresent()) {
-			    final int index = argClasses.indexOf(contained.get());
-			    arguments[index] = context.get(i);
-                    }
-				}
-				boolean accessible = method.isAccessible();
-				try {
-					method.setAccessible(true);
-					method.invoke(instance, arguments);
-				} finally {
-					method.setAccessible(accessible);
+		/**
+		 * The index of the argument which an object of this type is injected
+		 * into or -1 if the method does not take it.
+		 * NOTE Type is used to find the argument, this is why duplicates are not supported.
+		 */
+		int getIndex(Class<?> type) {
+			Integer index = indices.get(type);
+			if (index==null) {
+				index = -1;
+				for (int i = 0; i < argClasses.length; i++) {
+					if (argClasses[i].isAssignableFrom(type)) {
+						index = i;
+						break;
+					}
 				}
-			} else {
-				method.invoke(instance);
+				indices.put(type, index);
 			}
+			return index;
 		}
 	}
 
-	/**
-	 * TODO Cache for speed?
-	 * @param object
-	 * @return
-	 */
-	private Collection<Class<?>> getCachedClasses(Object object) {
-
-		final Class<?> clazz = object.getClass();
-		if (cachedClasses.containsKey(clazz)) return cachedClasses.get(clazz);
+	private class MethodWrapper {
 
-		final Collection<Class<?>> classes = new HashSet<>();
-		classes.add(clazz);
-		Class<?>[] interfaces = clazz.getInterfaces();
-		for (Class<?> class1 : interfaces)  classes.add(class1);
+		private final MethodInvoker invoker;
+		private final MethodHandle  handle;    // (Object[])void bound to the instance
+		private final Object[]      arguments; // Must be object[] for speed and is not variable
+
+		MethodWrapper(final Class<? extends Annotation> aclass, Object instance, MethodInvoker invoker) throws IllegalArgumentException {
+			this.invoker = invoker;
+			this.handle  = invoker.handle.bindTo(instance);
+
+			final Class<?>[] args = invoker.argClasses;
+			final Set<?> unique = new HashSet<>(Arrays.asList(args));
+
+			/**
+			 * We do not allow duplications in the classes list because a given service or
+			 * information object should be required once. Type is used to determine argument
+			 * position as well, therefore duplicates do not work with the current alg.
+			 */
+		    if (unique.size()!=args.length) throw new IllegalArgumentException("Duplicated types are not allowed in injected methods!\n"
+				+ "Your annotation of @"+aclass.getSimpleName()+" sits over a method '"+invoker.method.getName()+"' on class '"+instance.getClass().getSimpleName()+"' with duplicated types!\n"
+			    + "More than one of any given type is not allowed. Have you seen '"+ScanInformation.class.getSimpleName()+"' class, which can be used to provide various metrics about the scan?");
+
+			this.arguments= new Object[args.length];
+			for (int i = 0; i < args.length; i++) {
+				if (args[i] == IPosition.class) continue;
+			    // Find OSGi service for it, if any.
+				try {
+					arguments[i] = getService(args[i]);
+				} catch (Exception ne) {
+					continue;
+				}
+			}
+		}
 
-		// TODO Currently only support one level deep
-		classes.add(clazz.getSuperclass());
-		interfaces = clazz.getSuperclass().getInterfaces();
-		for (Class<?> class1 : interfaces)  classes.add(class1);
+		public void invoke(Object... objects) throws InvocationTargetException {
 
-		cachedClasses.put(clazz, classes);
+			if (arguments.length>0) { // Put the context into the args (if there are any)
+				if (extraContext!=null) for (Object object : extraContext) inject(object);
+				if (objects!=null) for (Object object : objects) inject(object);
+			}
+			try {
+				handle.invokeExact(arguments);
+			} catch (Throwable ne) {
+				throw new InvocationTargetException(ne);
+			}
+		}
 
-		return classes;
+		private void inject(Object object) {
+			if (object==null) return;
+			final int index = invoker.getIndex(object.getClass());
+			if (index>-1) arguments[index] = object;
+		}
 	}
 
 	public List<Object> getContext(Object[] objects) {
@@ -369,7 +443,6 @@ public class AnnotationManager {
 
 	public void dispose() {
 		annotationMap.clear();
-		cachedClasses.clear();
 		if (extraContext!=null) extraContext.clear();
 	}
 }
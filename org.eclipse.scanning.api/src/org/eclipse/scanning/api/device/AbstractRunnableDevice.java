@@ -260,7 +260,7 @@ public abstract class AbstractRunnableDevice<T> implements IRunnableEventDevice<
 			long currentTime = System.currentTimeMillis();
 			if (lastPositionTime>-1) {
 				long time = currentTime-lastPositionTime;
-				System.out.println("Point "+count+" timed at "+time+" ms");
+				logger.info("Point {} timed at {} ms", count, time);
 				total+=time;
 			}
 			lastPositionTime = currentTime;
@@ -377,9 +377,9 @@ public abstract class AbstractRunnableDevice<T> implements IRunnableEventDevice<
 
 		if (isRequireMetrics()) {
 			long time = System.currentTimeMillis()-startTime;
-			System.out.println("Ran "+(position.getStepIndex()+1)+" points in *total* time of "+time+" ms.");
+			logger.info("Ran {} points in *total* time of {} ms.", position.getStepIndex()+1, time);
 			if (position.getStepIndex()>0) {
-				System.out.println("Average point time of "+(total/position.getStepIndex())+" ms/pnt");
+				logger.info("Average point time of {} ms/pnt", total/position.getStepIndex());
 			}
 		}
 
@@ -14,7 +14,18 @@ package org.eclipse.scanning.api.device;
 import static java.util.function.Function.identity;
 import static java.util.stream.Collectors.toMap;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.scanning.api.INameable;
 import org.eclipse.scanning.api.IScannable;
@@ -29,7 +40,10 @@ import org.eclipse.scanning.api.event.scan.DeviceAction;
 import org.eclipse.scanning.api.event.scan.DeviceInformation;
 import org.eclipse.scanning.api.event.scan.DeviceRequest;
 import org.eclipse.scanning.api.malcolm.attributes.IDeviceAttribute;
+import org.eclipse.scanning.api.scan.PositionEvent;
 import org.eclipse.scanning.api.scan.ScanningException;
+import org.eclipse.scanning.api.scan.event.IPositionListenable;
+import org.eclipse.scanning.api.scan.event.IPositionListener;
 
 /**
  * TODO FIXME Is the idea of having request/response calls correct for exposing
@@ -79,7 +93,7 @@ public class DeviceRequestHandler implements IRequestHandler<DeviceRequest> {
 	public DeviceRequest process(DeviceRequest request) {
 		try {
 			if (request.getDeviceType()==DeviceType.SCANNABLE) {
-				processScannables(request, cservice);
+				processScannables(request, cservice, dservice!=null ? dservice.getDeviceExecutor() : null);
 			} else {
 				processRunnables(request, dservice);
 			}
@@ -101,9 +115,12 @@ public class DeviceRequestHandler implements IRequestHandler<DeviceRequest> {
 		}
 	}
 
-	private static void processScannables(DeviceRequest request, IScannableDeviceService cservice) throws Exception {
+	private static void processScannables(DeviceRequest request, IScannableDeviceService cservice, Executor executor) throws Exception {
 
-		if (request.getDeviceName()!=null) { // Named device required
+		if (request.getDeviceValues()!=null) { // Several devices in one request
+			processScannableBatch(request, cservice, executor);
+
+		} else if (request.getDeviceName()!=null) { // Named device required
 
 			IScannable<Object> device = cservice.getScannable(request.getDeviceName());
 			DeviceAction action = request.getDeviceAction();
@@ -157,6 +174,131 @@ public class DeviceRequestHandler implements IRequestHandler<DeviceRequest> {
 	}
 
 
+	/**
+	 * Sets, for a SET request, and then reads the scannables named in the request.
+	 * Scannables at the same level are set at the same time and each level waits
+	 * for the one before it, as in a scan. The positions are all read at the same time.
+	 *
+	 * @param request
+	 * @param cservice
+	 * @param executor runs the tasks of the request, if null they are run in turn by this thread.
+	 * @throws Exception
+	 */
+	private static void processScannableBatch(DeviceRequest request, IScannableDeviceService cservice, Executor executor) throws Exception {
+
+		final Map<String, Object>             values  = request.getDeviceValues();
+		final Map<String, IScannable<Object>> devices = new LinkedHashMap<>(values.size());
+		for (String name : values.keySet()) {
+			IScannable<Object> device = cservice.getScannable(name);
+			if (device==null) throw new EventException("There is no created device called '"+name+"'");
+			devices.put(name, device);
+		}
+
+		if (request.getDeviceAction()==DeviceAction.SET) {
+			final Map<Integer, Map<String, Callable<Object>>> levels = new TreeMap<>();
+			final List<PerformedListener> listeners = new ArrayList<>(values.size());
+			try {
+				for (String name : devices.keySet()) {
+					final Object value = values.get(name);
+					if (value==null) continue; // Only read
+					final IScannable<Object> device = devices.get(name);
+					if (device instanceof IPositionListenable) listeners.add(new PerformedListener((IPositionListenable)device));
+					Map<String, Callable<Object>> level = levels.computeIfAbsent(device.getLevel(), l -> new LinkedHashMap<>());
+					level.put(name, () -> device.setPosition(value, request.getPosition()));
+				}
+				for (Map<String, Callable<Object>> level : levels.values()) invokeAll(level, executor);
+
+				// The response must not overtake the position events of the moves.
+				for (PerformedListener listener : listeners) listener.await();
+			} finally {
+				for (PerformedListener listener : listeners) listener.remove();
+			}
+		}
+
+		final Map<String, Callable<Object>> reads = new LinkedHashMap<>(devices.size());
+		for (String name : devices.keySet()) {
+			final IScannable<Object> device = devices.get(name);
+			reads.put(name, () -> device.getPosition());
+		}
+		request.setDeviceValues(invokeAll(reads, executor));
+	}
+
+	/**
+	 * Runs the tasks at the same time and waits for them all.
+	 *
+	 * @param tasks by device name
+	 * @param executor runs the tasks, if null they are run in turn by this thread.
+	 * @return results by device name
+	 * @throws Exception the first failure, if any task failed
+	 */
+	private static Map<String, Object> invokeAll(Map<String, Callable<Object>> tasks, Executor executor) throws Exception {
+
+		final Map<String, FutureTask<Object>> futures = new LinkedHashMap<>(tasks.size());
+		for (Map.Entry<String, Callable<Object>> e : tasks.entrySet()) {
+			final FutureTask<Object> future = new FutureTask<>(e.getValue());
+			futures.put(e.getKey(), future);
+			if (executor!=null) {
+				executor.execute(future);
+			} else {
+				future.run();
+			}
+		}
+
+		final Map<String, Object> ret = new LinkedHashMap<>(futures.size());
+		ScanningException failure = null;
+		for (Map.Entry<String, FutureTask<Object>> e : futures.entrySet()) {
+			try {
+				ret.put(e.getKey(), e.getValue().get());
+			} catch (ExecutionException ne) {
+				if (failure==null) failure = new ScanningException("Cannot process '"+e.getKey()+"'", ne.getCause());
+			}
+		}
+		if (failure!=null) throw failure;
+		return ret;
+	}
+
+	/**
+	 * Waits for a device which is being set to send the event for its new position.
+	 * Devices which send no events while they are set are not waited for.
+	 */
+	private static final class PerformedListener implements IPositionListener {
+
+		private final IPositionListenable device;
+		private final CountDownLatch      performed;
+		private volatile boolean          fired;
+
+		PerformedListener(IPositionListenable device) {
+			this.device    = device;
+			this.performed = new CountDownLatch(1);
+			device.addPositionListener(this);
+		}
+
+		@Override
+		public boolean positionWillPerform(PositionEvent event) {
+			fired = true;
+			return true;
+		}
+
+		@Override
+		public void positionChanged(PositionEvent event) {
+			fired = true;
+		}
+
+		@Override
+		public void positionPerformed(PositionEvent event) {
+			fired = true;
+			performed.countDown(); // The event has been published before the listeners are told
+		}
+
+		void await() throws InterruptedException {
+			if (fired) performed.await(Long.getLong("org.eclipse.scanning.device.request.eventTimeout", 1000), TimeUnit.MILLISECONDS);
+		}
+
+		void remove() {
+			device.removePositionListener(this);
+		}
+	}
+
 	private static void merge(DeviceInformation<?> info, IScannable<?> device) throws Exception {
 		info.setLevel(device.getLevel());
 		info.setUnit(device.getUnit());
@@ -0,0 +1,41 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.api.device;
+
+import java.util.List;
+
+import org.eclipse.scanning.api.points.IPosition;
+import org.eclipse.scanning.api.scan.ScanningException;
+
+/**
+ * A writable detector which can write the frames of several points in one
+ * call, for instance a hardware triggered detector which delivers frames in
+ * bursts. The detector should write each dataset using one slice for each
+ * contiguous run of positions, see IScanRankService.createScanSlices(...).
+ * The file written must be the same as if write(IPosition) had been called
+ * for each position in turn.
+ * <p>
+ * The sequencer only writes in batches if every writable detector in the scan
+ * implements this interface and the system property
+ * <code>org.eclipse.scanning.sequencer.write.batch.size</code> is greater than one.
+ * @param <T> Class of model required by detector to configure it.
+ */
+public interface IBatchWritableDetector<T> extends IWritableDetector<T> {
+
+	/**
+	 * Write the frames of the positions, which are in the order that they were run.
+	 *
+	 * @param positions
+	 * @return true for a successful write. If false the events will not be fired and the scan will continue.
+	 * @throws ScanningException
+	 * @throws InterruptedException
+	 */
+	boolean write(List<? extends IPosition> positions) throws ScanningException, InterruptedException;
+
+}
@@ -0,0 +1,36 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.api.device;
+
+import java.util.Collection;
+
+/**
+ * The devices reserved for one scan by an {@link IDeviceLockManager}.
+ * The devices are released when the lock is closed.
+ */
+public interface IDeviceLock extends AutoCloseable {
+
+	/**
+	 * The name of the scan which holds the lock.
+	 * @return
+	 */
+	String getOwner();
+
+	/**
+	 * The names of the scannables and detectors reserved.
+	 * @return
+	 */
+	Collection<String> getNames();
+
+	/**
+	 * Releases the devices. Calling close more than once does nothing.
+	 */
+	@Override
+	void close();
+}
@@ -0,0 +1,55 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.api.device;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reserves the scannables, detectors and Malcolm devices of a scan so that
+ * scans which use different hardware may run at the same time and scans which
+ * share hardware run one after the other.
+ * <pre>
+ * IDeviceLock lock = manager.lock(bean.getName(), Arrays.asList("x", "y", "mandelbrot"), 1, TimeUnit.SECONDS);
+ * if (lock!=null) try {
+ *     // Run the scan
+ * } finally {
+ *     lock.close();
+ * }
+ * </pre>
+ * All the devices are reserved together or none are, so two scans waiting
+ * for each other's devices cannot deadlock.
+ */
+public interface IDeviceLockManager {
+
+	/**
+	 * Reserves all the devices, waiting until none of them is held by another scan.
+	 *
+	 * @param owner the name of the scan reserving the devices
+	 * @param names of the devices
+	 * @param time to wait
+	 * @param unit of time
+	 * @return the lock or null if the devices were not free in time.
+	 * @throws InterruptedException
+	 */
+	IDeviceLock lock(String owner, Collection<String> names, long time, TimeUnit unit) throws InterruptedException;
+
+	/**
+	 * The devices of those given which are held now.
+	 * @param names of the devices
+	 * @return map of device name to the owner holding it, empty if the devices are free.
+	 */
+	Map<String, String> getConflicts(Collection<String> names);
+
+	/**
+	 * @return map of device name to owner for all the devices held now.
+	 */
+	Map<String, String> getOwners();
+}
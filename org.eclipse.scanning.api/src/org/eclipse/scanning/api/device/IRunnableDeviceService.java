@@ -12,6 +12,7 @@
 package org.eclipse.scanning.api.device;
 
 import java.util.Collection;
+import java.util.concurrent.Executor;
 
 import org.eclipse.scanning.api.device.models.DeviceRole;
 import org.eclipse.scanning.api.event.core.IPublisher;
@@ -19,7 +20,9 @@ import org.eclipse.scanning.api.event.scan.DeviceInformation;
 import org.eclipse.scanning.api.event.scan.ScanBean;
 import org.eclipse.scanning.api.malcolm.IMalcolmService;
 import org.eclipse.scanning.api.scan.ScanningException;
+import org.eclipse.scanning.api.scan.checkpoint.IScanCheckpointStore;
 import org.eclipse.scanning.api.scan.event.IPositionerService;
+import org.eclipse.scanning.api.scan.timing.ScanTimingModel;
 
 
 /**
@@ -217,4 +220,45 @@ public interface IRunnableDeviceService extends IPositionerService {
 		throw new IllegalArgumentException("The get active scanner method is not availble!");
 	}
 
+	/**
+	 * The lock manager which reserves the devices of each scan run by the
+	 * server, so that scans using different hardware may run at the same time.
+	 *
+	 * @return the lock manager or null if this service cannot reserve devices.
+	 */
+	default IDeviceLockManager getDeviceLockManager() {
+		return null;
+	}
+
+	/**
+	 * The timing model calibrated from the scans which this service has run, used
+	 * with the timing models the devices provide to estimate the time of a scan.
+	 *
+	 * @return a copy of the timing model or null if the service does not calibrate one.
+	 */
+	default ScanTimingModel getScanTimingModel() {
+		return null;
+	}
+
+	/**
+	 * The store of the checkpoints which the scans run by this service save,
+	 * used to resume a scan which was running when the server stopped.
+	 *
+	 * @return the store or null if scans are not checkpointed.
+	 */
+	default IScanCheckpointStore getCheckpointStore() {
+		return null;
+	}
+
+	/**
+	 * The executor which the scans run by this service use to work their devices, so
+	 * that other work on devices, for instance a request to set several at once, shares
+	 * its threads rather than making its own.
+	 *
+	 * @return the executor or null if the work should be run by the thread asking for it.
+	 */
+	default Executor getDeviceExecutor() {
+		return null;
+	}
+
 }
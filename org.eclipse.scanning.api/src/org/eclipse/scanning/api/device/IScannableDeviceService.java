@@ -14,6 +14,7 @@ package org.eclipse.scanning.api.device;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -119,6 +120,28 @@ public interface IScannableDeviceService {
 		return scannables;
 	}
 
+	/**
+	 * Reads the positions of several scannables. A remote service reads them
+	 * all with one request.
+	 *
+	 * @param scannableNames names of scannables to read
+	 * @return positions by scannable name, in the order of the names
+	 * @throws ScanningException if a scannable cannot be found or read
+	 */
+	default Map<String, Object> getPositions(Collection<String> scannableNames) throws ScanningException {
+		final Map<String, Object> positions = new LinkedHashMap<>(scannableNames.size());
+		for (String name : scannableNames) {
+			try {
+				positions.put(name, getScannable(name).getPosition());
+			} catch (ScanningException ne) {
+				throw ne;
+			} catch (Exception ne) {
+				throw new ScanningException("Cannot read value of "+name, ne);
+			}
+		}
+		return positions;
+	}
+
 	/**
 	 * Returns the set of global per-scan monitors that should be added to all scans.
 	 * This is used to support legacy (GDA8) spring configurations. Should not be called
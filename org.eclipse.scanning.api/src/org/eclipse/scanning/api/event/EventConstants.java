@@ -106,4 +106,10 @@ public interface EventConstants {
 	 */
 	public static final String AXIS_CONFIGURATION_TOPIC      = "org.eclipse.scanning.axis.configuration.topic";
 
+	/**
+	 * The latencies of the stages of a running scan are published on this topic
+	 * as a ScanLatencyBean, if the system property org.eclipse.scanning.sequencer.latency is set.
+	 */
+	public static final String LATENCY_TOPIC = "org.eclipse.scanning.latency.topic";
+
 }
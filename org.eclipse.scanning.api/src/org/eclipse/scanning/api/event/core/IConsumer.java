@@ -182,4 +182,27 @@ public interface IConsumer<T> extends IQueueConnection<T> {
 	 */
 	void setPauseOnStart(boolean pauseOnStart);
 
+	/**
+	 * The number of processes which may run at the same time. By default one so
+	 * the beans of the queue are run one after another. When more than one, each
+	 * process is run in a thread of its own and should wait for any resources it
+	 * shares with the others, as ScanProcess does for its devices.
+	 *
+	 * @return
+	 */
+	default int getMaximumRunningProcesses() {
+		return 1;
+	}
+
+	/**
+	 * The number of processes which may run at the same time.
+	 *
+	 * NOTE: setMaximumRunningProcesses(...) must be called before the consumer is started!
+	 *
+	 * @param maximum
+	 */
+	default void setMaximumRunningProcesses(int maximum) {
+		throw new IllegalArgumentException("The consumer "+getName()+" can only run one process at a time!");
+	}
+
 }
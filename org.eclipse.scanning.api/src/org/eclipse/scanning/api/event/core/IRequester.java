@@ -11,6 +11,7 @@
  *******************************************************************************/
 package org.eclipse.scanning.api.event.core;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 import org.eclipse.scanning.api.event.EventException;
@@ -98,4 +99,20 @@ public interface IRequester<T extends IdBean> extends IRequestResponseConnection
 	 */
 	T post(T request, ResponseConfiguration.ResponseWaiter waiter) throws EventException, InterruptedException;
 
+	/**
+	 * Sends the request and returns without waiting for the response. The future
+	 * completes with the request, with the response merged into it, when the response
+	 * comes in. For {@link ResponseType#ONE_OR_MORE} it completes when the timeout has been
+	 * reached, with all the responses which came in merged. If no response comes in before
+	 * the timeout the future completes exceptionally with an {@link EventException}.
+	 * <p>
+	 * This allows a client to have several requests outstanding at the same time, the
+	 * responses are routed to each request using its unique id.
+	 *
+	 * @param request
+	 * @return
+	 * @throws EventException if the request cannot be sent
+	 */
+	CompletableFuture<T> postAsync(T request) throws EventException;
+
 }
@@ -84,6 +84,15 @@ public class DeviceRequest extends IdBean {
 	 */
 	private Object deviceValue;
 
+	/**
+	 * The values of several scannables, by name, to read or set
+	 * in one request. If this is set for a scannable request the
+	 * device name is not used and the server fills in the position of
+	 * each scannable. With {@link DeviceAction#SET} the values are moved
+	 * to first, in level order.
+	 */
+	private Map<String, Object> deviceValues;
+
 	/**
 	 * Set wether a create call (one where the model is non-null)
 	 * should call configure on the device.
@@ -140,6 +149,7 @@ public class DeviceRequest extends IdBean {
 		deviceType       = dr.deviceType;
 		deviceAction     = dr.deviceAction;
 		deviceValue      = dr.deviceValue;
+		deviceValues     = dr.deviceValues;
 		configure        = dr.configure;
 		position         = dr.position;
 		attributeName    = dr.attributeName;
@@ -242,6 +252,7 @@ public class DeviceRequest extends IdBean {
 		result = prime * result + ((deviceName == null) ? 0 : deviceName.hashCode());
 		result = prime * result + ((deviceType == null) ? 0 : deviceType.hashCode());
 		result = prime * result + ((deviceValue == null) ? 0 : deviceValue.hashCode());
+		result = prime * result + ((deviceValues == null) ? 0 : deviceValues.hashCode());
 		result = prime * result + ((devices == null) ? 0 : devices.hashCode());
 		result = prime * result + Arrays.hashCode(errorFieldNames);
 		result = prime * result + ((errorMessage == null) ? 0 : errorMessage.hashCode());
@@ -288,6 +299,11 @@ public class DeviceRequest extends IdBean {
 				return false;
 		} else if (!deviceValue.equals(other.deviceValue))
 			return false;
+		if (deviceValues == null) {
+			if (other.deviceValues != null)
+				return false;
+		} else if (!deviceValues.equals(other.deviceValues))
+			return false;
 		if (devices == null) {
 			if (other.devices != null)
 				return false;
@@ -436,6 +452,14 @@ public class DeviceRequest extends IdBean {
 		this.deviceValue = deviceValue;
 	}
 
+	public Map<String, Object> getDeviceValues() {
+		return deviceValues;
+	}
+
+	public void setDeviceValues(Map<String, Object> deviceValues) {
+		this.deviceValues = deviceValues;
+	}
+
 	@Override
 	public String toString() {
 		return "DeviceRequest [deviceType=" + deviceType + ", deviceName=" + deviceName + ", deviceValue=" + deviceValue
@@ -14,6 +14,7 @@ package org.eclipse.scanning.api.event.scan;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.Iterator;
+import java.util.Map;
 
 import org.eclipse.scanning.api.event.status.Status;
 import org.eclipse.scanning.api.event.status.StatusBean;
@@ -76,6 +77,12 @@ public final class ScanBean extends StatusBean {
 	private String  datasetPath;
 	private int     scanNumber;
 
+	// Timing information, detector name to ms taken to configure
+	private Map<String, Long> configureTimes;
+
+	// Moves not made because the scannable was already within tolerance
+	private long skippedMoves;
+
 	public ScanBean() {
         super();
 	}
@@ -199,6 +206,8 @@ public final class ScanBean extends StatusBean {
 				+ ", filePath=" + filePath
 				+ ", scanNumber=" + scanNumber
 				+ ", datasetPath=" + datasetPath
+				+ ", configureTimes=" + configureTimes
+				+ ", skippedMoves=" + skippedMoves
 				+ " "+super.toString()+"]";
 	}
 
@@ -278,6 +287,7 @@ public final class ScanBean extends StatusBean {
 		final int prime = 31;
 		int result = super.hashCode();
 		result = prime * result + ((beamline == null) ? 0 : beamline.hashCode());
+		result = prime * result + ((configureTimes == null) ? 0 : configureTimes.hashCode());
 		result = prime * result + ((datasetPath == null) ? 0 : datasetPath.hashCode());
 		result = prime * result + ((deviceName == null) ? 0 : deviceName.hashCode());
 		result = prime * result + ((deviceState == null) ? 0 : deviceState.hashCode());
@@ -288,6 +298,7 @@ public final class ScanBean extends StatusBean {
 		result = prime * result + scanNumber;
 		result = prime * result + ((scanRequest == null) ? 0 : scanRequest.hashCode());
 		result = prime * result + size;
+		result = prime * result + (int) (skippedMoves ^ (skippedMoves >>> 32));
 		return result;
 	}
 
@@ -305,6 +316,11 @@ public final class ScanBean extends StatusBean {
 				return false;
 		} else if (!beamline.equals(other.beamline))
 			return false;
+		if (configureTimes == null) {
+			if (other.configureTimes != null)
+				return false;
+		} else if (!configureTimes.equals(other.configureTimes))
+			return false;
 		if (datasetPath == null) {
 			if (other.datasetPath != null)
 				return false;
@@ -333,6 +349,8 @@ public final class ScanBean extends StatusBean {
 			return false;
 		if (scanNumber != other.scanNumber)
 			return false;
+		if (skippedMoves != other.skippedMoves)
+			return false;
 		if (scanRequest == null) {
 			if (other.scanRequest != null)
 				return false;
@@ -358,4 +376,32 @@ public final class ScanBean extends StatusBean {
 	public void setDeviceName(String deviceName) {
 		this.deviceName = deviceName;
 	}
+
+	/**
+	 * The time in ms that each detector took to configure
+	 * before the scan started, by detector name.
+	 *
+	 * @return times or null if no detectors were configured.
+	 */
+	public Map<String, Long> getConfigureTimes() {
+		return configureTimes;
+	}
+
+	public void setConfigureTimes(Map<String, Long> configureTimes) {
+		this.configureTimes = configureTimes;
+	}
+
+	/**
+	 * The number of moves which the scan did not make because the
+	 * scannable was already within tolerance of the value.
+	 *
+	 * @return skipped moves, set when the scan finishes.
+	 */
+	public long getSkippedMoves() {
+		return skippedMoves;
+	}
+
+	public void setSkippedMoves(long skippedMoves) {
+		this.skippedMoves = skippedMoves;
+	}
 }
@@ -0,0 +1,105 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.api.event.scan;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Published on {@link org.eclipse.scanning.api.event.EventConstants#LATENCY_TOPIC}
+ * while a scan runs if latencies are being recorded, which is switched on using the
+ * system property <code>org.eclipse.scanning.sequencer.latency</code>.
+ */
+public class ScanLatencyBean implements Serializable {
+
+	private static final long serialVersionUID = -3140744930487614208L;
+
+	private String             uniqueId;
+	private String             name;
+	private boolean            finished;
+	private List<StageLatency> stages;
+
+	public ScanLatencyBean() {
+		// no-arg constructor for json
+	}
+
+	/**
+	 * The unique id of the ScanBean of the scan, if any.
+	 * @return
+	 */
+	public String getUniqueId() {
+		return uniqueId;
+	}
+	public void setUniqueId(String uniqueId) {
+		this.uniqueId = uniqueId;
+	}
+	public String getName() {
+		return name;
+	}
+	public void setName(String name) {
+		this.name = name;
+	}
+	/**
+	 * @return true for the last latencies, which are sent when the scan ends.
+	 */
+	public boolean isFinished() {
+		return finished;
+	}
+	public void setFinished(boolean finished) {
+		this.finished = finished;
+	}
+	public List<StageLatency> getStages() {
+		return stages;
+	}
+	public void setStages(List<StageLatency> stages) {
+		this.stages = stages;
+	}
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + (finished ? 1231 : 1237);
+		result = prime * result + ((name == null) ? 0 : name.hashCode());
+		result = prime * result + ((stages == null) ? 0 : stages.hashCode());
+		result = prime * result + ((uniqueId == null) ? 0 : uniqueId.hashCode());
+		return result;
+	}
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		ScanLatencyBean other = (ScanLatencyBean) obj;
+		if (finished != other.finished)
+			return false;
+		if (name == null) {
+			if (other.name != null)
+				return false;
+		} else if (!name.equals(other.name))
+			return false;
+		if (stages == null) {
+			if (other.stages != null)
+				return false;
+		} else if (!stages.equals(other.stages))
+			return false;
+		if (uniqueId == null) {
+			if (other.uniqueId != null)
+				return false;
+		} else if (!uniqueId.equals(other.uniqueId))
+			return false;
+		return true;
+	}
+	@Override
+	public String toString() {
+		return "ScanLatencyBean [uniqueId=" + uniqueId + ", name=" + name + ", finished=" + finished + ", stages=" + stages + "]";
+	}
+}
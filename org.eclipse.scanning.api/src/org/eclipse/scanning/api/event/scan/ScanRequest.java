@@ -23,6 +23,7 @@ import org.eclipse.scanning.api.points.IPosition;
 import org.eclipse.scanning.api.points.models.CompoundModel;
 import org.eclipse.scanning.api.points.models.IScanPathModel;
 import org.eclipse.scanning.api.points.models.ScanRegion;
+import org.eclipse.scanning.api.scan.models.ChunkingModel;
 import org.eclipse.scanning.api.scan.models.ScanMetadata;
 import org.eclipse.scanning.api.script.ScriptRequest;
 import org.eclipse.scanning.api.script.ScriptResponse;
@@ -117,10 +118,45 @@ public class ScanRequest<T> implements Serializable {
 	 */
 	private boolean ignorePreprocess;
 
+	/**
+	 * How the datasets of the scan are chunked, may be null
+	 * in which case each device chooses its own chunking.
+	 */
+	private ChunkingModel chunkingModel;
+
+	/**
+	 * The step the scan starts from, zero unless the scan resumes one which
+	 * stopped before it finished, see {@link org.eclipse.scanning.api.scan.checkpoint.ScanCheckpoint}
+	 */
+	private int startStep;
+
 	public ScanRequest() {
 
 	}
 
+	/**
+	 * A copy of the request, the models, positions and scripts it holds are shared with the copy.
+	 * @param toCopy
+	 */
+	public ScanRequest(ScanRequest<T> toCopy) {
+		this.compoundModel        = toCopy.compoundModel;
+		this.detectors            = toCopy.detectors!=null ? new HashMap<>(toCopy.detectors) : null;
+		this.monitorNamesPerPoint = toCopy.monitorNamesPerPoint!=null ? new ArrayList<>(toCopy.monitorNamesPerPoint) : null;
+		this.monitorNamesPerScan  = toCopy.monitorNamesPerScan!=null ? new ArrayList<>(toCopy.monitorNamesPerScan) : null;
+		this.sampleData           = toCopy.sampleData;
+		this.scanMetadata         = toCopy.scanMetadata!=null ? new ArrayList<>(toCopy.scanMetadata) : null;
+		this.filePath             = toCopy.filePath;
+		this.start                = toCopy.start;
+		this.before               = toCopy.before;
+		this.beforeResponse       = toCopy.beforeResponse;
+		this.end                  = toCopy.end;
+		this.after                = toCopy.after;
+		this.afterResponse        = toCopy.afterResponse;
+		this.ignorePreprocess     = toCopy.ignorePreprocess;
+		this.chunkingModel        = toCopy.chunkingModel;
+		this.startStep            = toCopy.startStep;
+	}
+
 	public ScanRequest(IScanPathModel m, String filePath, List<String> monitorNamesPerPoint, List<String> monitorNamesPerScan) {
 		super();
 		this.compoundModel = new CompoundModel<T>(m);
@@ -176,6 +212,7 @@ public class ScanRequest<T> implements Serializable {
 		result = prime * result + ((after == null) ? 0 : after.hashCode());
 		result = prime * result + ((afterResponse == null) ? 0 : afterResponse.hashCode());
 		result = prime * result + ((before == null) ? 0 : before.hashCode());
+		result = prime * result + ((chunkingModel == null) ? 0 : chunkingModel.hashCode());
 		result = prime * result + ((beforeResponse == null) ? 0 : beforeResponse.hashCode());
 		result = prime * result + ((detectors == null) ? 0 : detectors.hashCode());
 		result = prime * result + ((end == null) ? 0 : end.hashCode());
@@ -185,6 +222,7 @@ public class ScanRequest<T> implements Serializable {
 		result = prime * result + ((monitorNamesPerScan == null) ? 0 : monitorNamesPerScan.hashCode());
 		result = prime * result + ((scanMetadata == null) ? 0 : scanMetadata.hashCode());
 		result = prime * result + ((start == null) ? 0 : start.hashCode());
+		result = prime * result + startStep;
 		return result;
 	}
 
@@ -218,6 +256,11 @@ public class ScanRequest<T> implements Serializable {
 				return false;
 		} else if (!beforeResponse.equals(other.beforeResponse))
 			return false;
+		if (chunkingModel == null) {
+			if (other.chunkingModel != null)
+				return false;
+		} else if (!chunkingModel.equals(other.chunkingModel))
+			return false;
 		if (detectors == null) {
 			if (other.detectors != null)
 				return false;
@@ -255,6 +298,8 @@ public class ScanRequest<T> implements Serializable {
 				return false;
 		} else if (!start.equals(other.start))
 			return false;
+		if (startStep != other.startStep)
+			return false;
 		return true;
 	}
 
@@ -352,6 +397,22 @@ public class ScanRequest<T> implements Serializable {
 		this.scanMetadata.add(scanMetadata);
 	}
 
+	public ChunkingModel getChunkingModel() {
+		return chunkingModel;
+	}
+
+	public void setChunkingModel(ChunkingModel chunkingModel) {
+		this.chunkingModel = chunkingModel;
+	}
+
+	public int getStartStep() {
+		return startStep;
+	}
+
+	public void setStartStep(int startStep) {
+		this.startStep = startStep;
+	}
+
 	public CompoundModel<T> getCompoundModel() {
 		return compoundModel;
 	}
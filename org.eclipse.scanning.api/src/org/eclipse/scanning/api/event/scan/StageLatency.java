@@ -0,0 +1,123 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.api.event.scan;
+
+import java.io.Serializable;
+
+/**
+ * The latency of one stage of a scan, for instance the move or the
+ * exposure of one detector. Times are in microseconds.
+ */
+public class StageLatency implements Serializable {
+
+	private static final long serialVersionUID = 4362208329173648519L;
+
+	private String name;
+	private long   count;
+	private long   mean;
+	private long   p50;
+	private long   p99;
+	private long   max;
+
+	public StageLatency() {
+		// no-arg constructor for json
+	}
+
+	public StageLatency(String name, long count, long mean, long p50, long p99, long max) {
+		this.name  = name;
+		this.count = count;
+		this.mean  = mean;
+		this.p50   = p50;
+		this.p99   = p99;
+		this.max   = max;
+	}
+
+	/**
+	 * The stage, for instance 'move' or 'expose.mandelbrot' for the exposure of one detector.
+	 * @return
+	 */
+	public String getName() {
+		return name;
+	}
+	public void setName(String name) {
+		this.name = name;
+	}
+	public long getCount() {
+		return count;
+	}
+	public void setCount(long count) {
+		this.count = count;
+	}
+	public long getMean() {
+		return mean;
+	}
+	public void setMean(long mean) {
+		this.mean = mean;
+	}
+	public long getP50() {
+		return p50;
+	}
+	public void setP50(long p50) {
+		this.p50 = p50;
+	}
+	public long getP99() {
+		return p99;
+	}
+	public void setP99(long p99) {
+		this.p99 = p99;
+	}
+	public long getMax() {
+		return max;
+	}
+	public void setMax(long max) {
+		this.max = max;
+	}
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + (int) (count ^ (count >>> 32));
+		result = prime * result + (int) (max ^ (max >>> 32));
+		result = prime * result + (int) (mean ^ (mean >>> 32));
+		result = prime * result + ((name == null) ? 0 : name.hashCode());
+		result = prime * result + (int) (p50 ^ (p50 >>> 32));
+		result = prime * result + (int) (p99 ^ (p99 >>> 32));
+		return result;
+	}
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		StageLatency other = (StageLatency) obj;
+		if (count != other.count)
+			return false;
+		if (max != other.max)
+			return false;
+		if (mean != other.mean)
+			return false;
+		if (name == null) {
+			if (other.name != null)
+				return false;
+		} else if (!name.equals(other.name))
+			return false;
+		if (p50 != other.p50)
+			return false;
+		if (p99 != other.p99)
+			return false;
+		return true;
+	}
+	@Override
+	public String toString() {
+		return name + " [count=" + count + ", mean=" + mean + "us, p50=" + p50 + "us, p99=" + p99 + "us, max=" + max + "us]";
+	}
+}
@@ -0,0 +1,100 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.api.points;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A position which is a view over one row of a {@link PositionBlock}.
+ * The values and indices are read from the columns of the block so
+ * making the view does not copy the point.
+ * <p>
+ * The view may be moved to another row with {@link #setRow(int)} to iterate
+ * over a block without making an object per point. A view which is being
+ * moved must not be kept by the code it is passed to, for instance by adding
+ * it to a list.
+ */
+public final class BlockPosition extends AbstractPosition {
+
+	private static final long serialVersionUID = 2734591230641287451L;
+
+	private final PositionBlock block;
+	private int                 row;
+
+	public BlockPosition(PositionBlock block, int row) {
+		this.block = block;
+		setRow(row);
+	}
+
+	/**
+	 * Move the view to another row of the block. The step index,
+	 * exposure time and dimension names become those of the row.
+	 * @param row
+	 */
+	public void setRow(int row) {
+		this.row = row;
+		setStepIndex(block.getStepIndex(row));
+		setExposureTime(block.getExposureTime(row));
+		this.dimensionNames = block.getDimensionNames();
+	}
+
+	public int getRow() {
+		return row;
+	}
+
+	public PositionBlock getBlock() {
+		return block;
+	}
+
+	@Override
+	public int size() {
+		return block.getNames().size();
+	}
+
+	@Override
+	public List<String> getNames() {
+		return block.getNames();
+	}
+
+	@Override
+	public int getIndex(String name) {
+		int column = block.getColumn(name);
+		return column<0 ? -1 : block.getColumnIndex(column, row);
+	}
+
+	@Override
+	public int getIndex(int dimension) {
+		return block.getIndex(dimension, row);
+	}
+
+	@Override
+	public Object get(String name) {
+		int column = block.getColumn(name);
+		return column<0 ? null : block.getValue(column, row);
+	}
+
+	@Override
+	public double getValue(String name) {
+		return block.getValue(name, row);
+	}
+
+	@Override
+	public int getScanRank() {
+		return dimensionNames.size();
+	}
+
+	/**
+	 * The dimension names are those of the block unless they have been set.
+	 */
+	@Override
+	public List<Collection<String>> getDimensionNames() {
+		return dimensionNames;
+	}
+}
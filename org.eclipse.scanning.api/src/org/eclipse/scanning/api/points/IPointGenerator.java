@@ -12,11 +12,14 @@
 package org.eclipse.scanning.api.points;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
 import org.eclipse.scanning.api.IModelProvider;
 import org.eclipse.scanning.api.IValidator;
+import org.eclipse.scanning.api.points.models.BoundingBox;
+import org.eclipse.scanning.api.points.models.IBoundingBoxModel;
 
 
 /**
@@ -90,6 +93,81 @@ public interface IPointGenerator<T> extends Iterable<IPosition>, IValidator<T>,
 	@Override
 	Iterator<IPosition> iterator();
 
+	/**
+	 * Iterator over the points starting from the point at fromIndex, such
+	 * that the first call to next() returns that point. The step index of
+	 * the points is the same as for iterator().
+	 *
+	 * By default the points before fromIndex are iterated over. Generators
+	 * which can calculate a point from its index override this to jump
+	 * straight to the point, which is faster when seeking in a large scan.
+	 *
+	 * @param fromIndex
+	 * @return
+	 * @throws GeneratorException if fromIndex is negative
+	 */
+	default Iterator<IPosition> iterator(int fromIndex) throws GeneratorException {
+		if (fromIndex<0) throw new GeneratorException("The index "+fromIndex+" must not be negative!");
+		Iterator<IPosition> it = iterator();
+		for (int i = 0; i < fromIndex && it.hasNext(); i++) it.next();
+		return it;
+	}
+
+	/**
+	 * The point at the given index of the scan, where the first point is 0.
+	 *
+	 * By default the points before the index are iterated over. Generators
+	 * which can calculate a point from its index override this.
+	 *
+	 * @param index
+	 * @return the point at index
+	 * @throws GeneratorException if the index is outside the scan
+	 */
+	default IPosition getPoint(int index) throws GeneratorException {
+		Iterator<IPosition> it = iterator(index);
+		if (!it.hasNext()) throw new GeneratorException("The index "+index+" is outside the scan!");
+		return it.next();
+	}
+
+	/**
+	 * Creates a block of up to size consecutive points starting at fromIndex.
+	 * The block holds the points in primitive arrays so it is much smaller than
+	 * a list of the points and it does not need an object per point.
+	 *
+	 * By default the points are iterated over and copied into the block.
+	 * Generators which can calculate a point from its index override this
+	 * to fill the block directly.
+	 *
+	 * @param fromIndex
+	 * @param size
+	 * @return
+	 * @throws GeneratorException
+	 */
+	default PositionBlock createBlock(int fromIndex, int size) throws GeneratorException {
+		return PositionBlock.of(iterator(fromIndex), size);
+	}
+
+	/**
+	 * The size, shape and names of the scan in one object. Consumers which need
+	 * several of these should call this rather than size(), getShape() etc.
+	 * separately, because each of those may have to run over the scan.
+	 *
+	 * By default the information is worked out each time. Compound generators
+	 * override this to work it out once for a given compound model.
+	 *
+	 * @return
+	 * @throws GeneratorException
+	 */
+	default ScanPathInfo getScanPathInfo() throws GeneratorException {
+		IPosition first = getFirstPoint();
+		List<? extends Collection<String>> dimensionNames = first instanceof AbstractPosition
+				                                         ? ((AbstractPosition)first).getDimensionNames()
+				                                         : Collections.singletonList(first.getNames());
+		T model = getModel();
+		BoundingBox box = model instanceof IBoundingBoxModel ? ((IBoundingBoxModel)model).getBoundingBox() : null;
+		return new ScanPathInfo(size(), getShape(), dimensionNames, box);
+	}
+
 	/**
 	 * Relatively slow because all the points have to exist in memory.
 	 * Points are lightweight and it is normally ok to have them all in memory.
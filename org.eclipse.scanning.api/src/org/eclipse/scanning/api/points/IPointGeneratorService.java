@@ -134,4 +134,36 @@ public interface IPointGeneratorService {
 	 * @return
 	 */
 	<T extends IScanPathModel> IPointGenerator<T> createGenerator(String id) throws GeneratorException;
+
+	/**
+	 * The engine which makes the points of generators based on the scan point generator
+	 * (SPG) library, for instance grid, spiral and compound generators.
+	 */
+	enum Engine {
+
+		/**
+		 * The SPG python library run in Jython.
+		 */
+		JYTHON,
+
+		/**
+		 * A compiled Java port of the SPG library which makes the same points
+		 * without crossing into Jython for each point.
+		 */
+		JAVA;
+	}
+
+	/**
+	 * The engine used for the generators which this service creates.
+	 * @return
+	 */
+	Engine getEngine();
+
+	/**
+	 * Set the engine used for the generators which this service creates
+	 * from now on. Generators which have already been created are not changed.
+	 *
+	 * @param engine
+	 */
+	void setEngine(Engine engine);
 }
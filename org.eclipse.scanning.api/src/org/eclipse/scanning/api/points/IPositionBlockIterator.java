@@ -0,0 +1,28 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.api.points;
+
+import java.util.Iterator;
+
+/**
+ * An iterator which can read its next positions into a {@link PositionBlock}
+ * without making a position per point.
+ */
+public interface IPositionBlockIterator extends Iterator<IPosition> {
+
+	/**
+	 * Reads up to size of the next positions into a block and
+	 * moves the iterator past them.
+	 *
+	 * @param size the maximum number of positions to read
+	 * @return the block, which is empty at the end of the scan, or null if
+	 *         this iterator cannot make blocks. The iterator does not move if null is returned.
+	 */
+	PositionBlock nextBlock(int size);
+}
@@ -0,0 +1,303 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.api.points;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * A block of consecutive scan points held in columns of primitives rather
+ * than as one position object per point. There is a double[] of values for
+ * each name and an int[] of indices for each scan dimension. The names and
+ * dimension names are shared by every point and cannot be changed.
+ * <p>
+ * Points are read either directly with {@link #getValue(int, int)} and
+ * {@link #getIndex(int, int)} or through a {@link BlockPosition}, which is
+ * an {@link IPosition} view over one row of the block.
+ * <p>
+ * A block cannot be changed once it is built.
+ */
+public final class PositionBlock implements Iterable<IPosition>, Serializable {
+
+	private static final long serialVersionUID = -4183012549736025394L;
+
+	private final List<String>             names;
+	private final List<Collection<String>> dimensionNames;
+	private final Map<String, Integer>     columns;
+	private final int[]                    nameDimension; // The scan dimension of each name
+
+	private final double[][] values;  // [column][row]
+	private final int[][]    indices; // [dimension][row]
+	private final int[]      stepIndices;
+	private final double[]   exposureTimes;
+	private final int        size;
+
+	private PositionBlock(Builder builder) {
+		this.names          = builder.names;
+		this.dimensionNames = builder.dimensionNames;
+		this.columns        = builder.columns;
+		this.nameDimension  = builder.nameDimension;
+		this.size           = builder.size;
+
+		this.values = new double[builder.values.length][];
+		for (int c = 0; c < values.length; c++) values[c] = Arrays.copyOf(builder.values[c], size);
+		this.indices = new int[builder.indices.length][];
+		for (int d = 0; d < indices.length; d++) indices[d] = Arrays.copyOf(builder.indices[d], size);
+		this.stepIndices   = Arrays.copyOf(builder.stepIndices, size);
+		this.exposureTimes = Arrays.copyOf(builder.exposureTimes, size);
+	}
+
+	/**
+	 * Reads up to size positions from the iterator into a block. The names and
+	 * dimension names of the block are those of the first position.
+	 *
+	 * @param iterator
+	 * @param size the maximum number of positions to read
+	 * @return
+	 * @throws IllegalArgumentException if a position does not have a value for each name of the first
+	 */
+	public static PositionBlock of(Iterator<IPosition> iterator, int size) {
+		if (size<1 || !iterator.hasNext()) return new Builder(Collections.emptyList(), Collections.emptyList(), 0).build();
+
+		IPosition first = iterator.next();
+		List<Collection<String>> dimensionNames = first instanceof AbstractPosition
+				                                ? ((AbstractPosition)first).getDimensionNames()
+				                                : Collections.<Collection<String>>singletonList(first.getNames());
+		Builder builder = new Builder(first.getNames(), dimensionNames, size);
+		builder.add(first);
+		while(builder.size()<size && iterator.hasNext()) builder.add(iterator.next());
+		return builder.build();
+	}
+
+	/**
+	 * The number of points in the block
+	 * @return
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * The names of the values of each point, which are the columns of the block.
+	 * @return
+	 */
+	public List<String> getNames() {
+		return names;
+	}
+
+	public List<Collection<String>> getDimensionNames() {
+		return dimensionNames;
+	}
+
+	public int getScanRank() {
+		return dimensionNames.size();
+	}
+
+	/**
+	 * The column of a name
+	 * @param name
+	 * @return the column or -1 if the block has no values for the name
+	 */
+	public int getColumn(String name) {
+		Integer column = columns.get(name);
+		return column!=null ? column : -1;
+	}
+
+	public double getValue(int column, int row) {
+		return values[column][row];
+	}
+
+	public double getValue(String name, int row) {
+		int column = getColumn(name);
+		if (column<0) throw new IllegalArgumentException("The block has no values for "+name);
+		return values[column][row];
+	}
+
+	/**
+	 * The index of a point in a scan dimension.
+	 * @param dimension
+	 * @param row
+	 * @return
+	 */
+	public int getIndex(int dimension, int row) {
+		return indices[dimension][row];
+	}
+
+	/**
+	 * The index of a point in the scan dimension of the column.
+	 * @param column
+	 * @param row
+	 * @return
+	 */
+	int getColumnIndex(int column, int row) {
+		return indices[nameDimension[column]][row];
+	}
+
+	public int getStepIndex(int row) {
+		return stepIndices[row];
+	}
+
+	public double getExposureTime(int row) {
+		return exposureTimes[row];
+	}
+
+	/**
+	 * A view over the point at a row. The view is small, it does not copy the
+	 * values of the point.
+	 * @param row
+	 * @return
+	 */
+	public BlockPosition getPosition(int row) {
+		if (row<0 || row>=size) throw new IndexOutOfBoundsException("The row "+row+" is outside the block of size "+size);
+		return new BlockPosition(this, row);
+	}
+
+	/**
+	 * Iterates over views of the rows of the block.
+	 */
+	@Override
+	public Iterator<IPosition> iterator() {
+		return new Iterator<IPosition>() {
+			private int row = 0;
+			@Override
+			public boolean hasNext() {
+				return row<size;
+			}
+			@Override
+			public IPosition next() {
+				if (!hasNext()) throw new NoSuchElementException();
+				return new BlockPosition(PositionBlock.this, row++);
+			}
+		};
+	}
+
+	@Override
+	public String toString() {
+		return "PositionBlock [names=" + names + ", dimensionNames=" + dimensionNames + ", size=" + size + "]";
+	}
+
+	/**
+	 * Builds a block by adding points one at a time. The columns grow
+	 * as required, the capacity is only a guess at the number of points.
+	 */
+	public static final class Builder {
+
+		private final List<String>             names;
+		private final List<Collection<String>> dimensionNames;
+		private final Map<String, Integer>     columns;
+		private final int[]                    nameDimension;
+
+		private double[][] values;
+		private int[][]    indices;
+		private int[]      stepIndices;
+		private double[]   exposureTimes;
+		private int        size;
+
+		/**
+		 *
+		 * @param names of the values of each point
+		 * @param dimensionNames the names in each dimension of the scan, every name must be in one dimension
+		 * @param capacity
+		 */
+		public Builder(List<String> names, List<? extends Collection<String>> dimensionNames, int capacity) {
+
+			this.names = Collections.unmodifiableList(new ArrayList<>(names));
+			List<Collection<String>> dnames = new ArrayList<>(dimensionNames.size());
+			for (Collection<String> dimension : dimensionNames) dnames.add(Collections.unmodifiableList(new ArrayList<>(dimension)));
+			this.dimensionNames = Collections.unmodifiableList(dnames);
+
+			this.columns       = new HashMap<>(names.size()*2);
+			this.nameDimension = new int[names.size()];
+			for (int c = 0; c < nameDimension.length; c++) {
+				String name = this.names.get(c);
+				columns.put(name, c);
+				nameDimension[c] = -1;
+				for (int d = 0; d < dnames.size(); d++) {
+					if (dnames.get(d).contains(name)) {
+						nameDimension[c] = d;
+						break;
+					}
+				}
+				if (nameDimension[c]<0) throw new IllegalArgumentException("The name "+name+" is not in any dimension of "+dimensionNames);
+			}
+
+			capacity = Math.max(capacity, 1);
+			this.values = new double[names.size()][capacity];
+			this.indices = new int[dnames.size()][capacity];
+			this.stepIndices   = new int[capacity];
+			this.exposureTimes = new double[capacity];
+		}
+
+		/**
+		 * Add a point from primitives.
+		 *
+		 * @param values the value of each name, in the order of the names
+		 * @param indices the index of the point in each dimension
+		 * @param stepIndex
+		 * @param exposureTime
+		 * @return this builder
+		 */
+		public Builder add(double[] values, int[] indices, int stepIndex, double exposureTime) {
+			ensureCapacity(size+1);
+			for (int c = 0; c < this.values.length; c++) this.values[c][size] = values[c];
+			for (int d = 0; d < this.indices.length; d++) this.indices[d][size] = indices[d];
+			stepIndices[size]   = stepIndex;
+			exposureTimes[size] = exposureTime;
+			size++;
+			return this;
+		}
+
+		/**
+		 * Add a point from a position which has a numeric value for each name.
+		 *
+		 * @param position
+		 * @return this builder
+		 */
+		public Builder add(IPosition position) {
+			ensureCapacity(size+1);
+			for (int c = 0; c < values.length; c++) {
+				Object value = position.get(names.get(c));
+				if (!(value instanceof Number)) throw new IllegalArgumentException("The position "+position+" does not have a number for "+names.get(c));
+				values[c][size] = ((Number)value).doubleValue();
+			}
+			for (int d = 0; d < indices.length; d++) {
+				indices[d][size] = position.getIndex(dimensionNames.get(d).iterator().next());
+			}
+			stepIndices[size]   = position.getStepIndex();
+			exposureTimes[size] = position.getExposureTime();
+			size++;
+			return this;
+		}
+
+		public int size() {
+			return size;
+		}
+
+		private void ensureCapacity(int capacity) {
+			if (capacity<=stepIndices.length) return;
+			int length = Math.max(capacity, stepIndices.length*2);
+			for (int c = 0; c < values.length; c++)  values[c]  = Arrays.copyOf(values[c], length);
+			for (int d = 0; d < indices.length; d++) indices[d] = Arrays.copyOf(indices[d], length);
+			stepIndices   = Arrays.copyOf(stepIndices, length);
+			exposureTimes = Arrays.copyOf(exposureTimes, length);
+		}
+
+		public PositionBlock build() {
+			return new PositionBlock(this);
+		}
+	}
+}
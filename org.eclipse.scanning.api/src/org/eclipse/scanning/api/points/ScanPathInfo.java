@@ -0,0 +1,116 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.api.points;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.scanning.api.points.models.BoundingBox;
+
+/**
+ * The size, shape and names of the path of a scan. These can be slow to
+ * calculate, for instance when a region excludes points the whole scan has
+ * to be run over, so they are worked out once for a scan and kept in this
+ * object. The object cannot be changed once it is made.
+ *
+ * @see IPointGenerator#getScanPathInfo()
+ */
+public final class ScanPathInfo implements Serializable {
+
+	private static final long serialVersionUID = 5291740233386124719L;
+
+	private final int                      size;
+	private final int[]                    shape;
+	private final List<Collection<String>> dimensionNames;
+	private final BoundingBox              boundingBox;
+
+	/**
+	 *
+	 * @param size the number of points in the scan
+	 * @param shape the shape of the scan
+	 * @param dimensionNames the names of the scannables in each dimension of the positions of the scan
+	 * @param boundingBox the box of the mapping part of the scan, may be null
+	 */
+	public ScanPathInfo(int size, int[] shape, List<? extends Collection<String>> dimensionNames, BoundingBox boundingBox) {
+		this.size  = size;
+		this.shape = shape.clone();
+
+		List<Collection<String>> dnames = new ArrayList<>(dimensionNames.size());
+		for (Collection<String> dimension : dimensionNames) dnames.add(Collections.unmodifiableList(new ArrayList<>(dimension)));
+		this.dimensionNames = Collections.unmodifiableList(dnames);
+		this.boundingBox = boundingBox!=null ? copy(boundingBox) : null;
+	}
+
+	private static BoundingBox copy(BoundingBox box) {
+		BoundingBox ret = new BoundingBox(box.getFastAxisStart(), box.getSlowAxisStart(), box.getFastAxisLength(), box.getSlowAxisLength());
+		ret.setFastAxisName(box.getFastAxisName());
+		ret.setSlowAxisName(box.getSlowAxisName());
+		ret.setRegionName(box.getRegionName());
+		return ret;
+	}
+
+	/**
+	 * The number of points in the scan.
+	 * @return
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * The shape of the scan, a copy is returned each time.
+	 * @return
+	 */
+	public int[] getShape() {
+		return shape.clone();
+	}
+
+	/**
+	 * The rank of the scan which is the length of its shape.
+	 * @return
+	 */
+	public int getRank() {
+		return shape.length;
+	}
+
+	/**
+	 * The names of the scannables in each dimension of the positions of the scan.
+	 * @return
+	 */
+	public List<Collection<String>> getDimensionNames() {
+		return dimensionNames;
+	}
+
+	/**
+	 * The scan rank of the positions of the scan, which is the number of their dimensions.
+	 * @return
+	 */
+	public int getScanRank() {
+		return dimensionNames.size();
+	}
+
+	/**
+	 * The bounding box of the mapping part of the scan. A copy is
+	 * returned each time because boxes may be changed.
+	 * @return the box or null if no part of the scan has one.
+	 */
+	public BoundingBox getBoundingBox() {
+		return boundingBox!=null ? copy(boundingBox) : null;
+	}
+
+	@Override
+	public String toString() {
+		return "ScanPathInfo [size=" + size + ", shape=" + Arrays.toString(shape) + ", dimensionNames=" + dimensionNames
+				+ ", boundingBox=" + boundingBox + "]";
+	}
+}
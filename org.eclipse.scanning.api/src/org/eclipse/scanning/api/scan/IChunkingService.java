@@ -0,0 +1,59 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.api.scan;
+
+import org.eclipse.scanning.api.scan.models.ChunkingModel;
+
+/**
+ * This service decides the chunk of a dataset written during a scan from the shape
+ * of the scan, the shape of the data written at each point and the size of one element.
+ * Devices use it when they create their datasets rather than fixed chunks, so
+ * that a frame of any size is chunked to suit the cache and the way it is read.
+ */
+public interface IChunkingService {
+
+	/**
+	 * Create the chunk of a dataset.
+	 *
+	 * @param model of the scan, may be null to use the default chunking.
+	 *        If the model has a chunk for this dataset name it is used as is.
+	 * @param datasetName the name of the dataset, used to find a chunk in the model
+	 * @param scanShape the shape of the scan, an axis of unknown length may be -1
+	 * @param dataShape the shape of the data written at each point, empty for a scalar
+	 * @param elementSize the size of one element in bytes
+	 * @return the chunk, with the rank of the scan plus the rank of the data
+	 */
+	int[] createChunk(ChunkingModel model, String datasetName, int[] scanShape, int[] dataShape, int elementSize);
+
+	/**
+	 * Create the chunk of a dataset of the given element class.
+	 *
+	 * @param model of the scan, may be null to use the default chunking.
+	 * @param datasetName the name of the dataset, used to find a chunk in the model
+	 * @param scanShape the shape of the scan, an axis of unknown length may be -1
+	 * @param elementClass the boxed class of one element, for instance Double.class
+	 * @param dataShape the shape of the data written at each point, empty for a scalar
+	 * @return the chunk, with the rank of the scan plus the rank of the data
+	 */
+	default int[] createChunk(ChunkingModel model, String datasetName, int[] scanShape, Class<?> elementClass, int... dataShape) {
+		return createChunk(model, datasetName, scanShape, dataShape, getElementSize(elementClass));
+	}
+
+	/**
+	 * The size in bytes of one element of the given class, 8 if not known.
+	 * @param elementClass
+	 * @return size
+	 */
+	static int getElementSize(Class<?> elementClass) {
+		if (elementClass==Byte.class    || elementClass==Boolean.class) return 1;
+		if (elementClass==Short.class)   return 2;
+		if (elementClass==Integer.class || elementClass==Float.class) return 4;
+		return 8;
+	}
+}
@@ -12,6 +12,9 @@
 package org.eclipse.scanning.api.scan;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -24,6 +27,9 @@ import org.eclipse.scanning.api.points.IDeviceDependentIterable;
 import org.eclipse.scanning.api.points.IPointGenerator;
 import org.eclipse.scanning.api.points.IPointGeneratorService;
 import org.eclipse.scanning.api.points.IPosition;
+import org.eclipse.scanning.api.points.ScanPathInfo;
+import org.eclipse.scanning.api.scan.timing.ScanTimeSimulator;
+import org.eclipse.scanning.api.scan.timing.ScanTimingModel;
 
 /**
  *
@@ -34,6 +40,10 @@ import org.eclipse.scanning.api.points.IPosition;
  * This class is an estimator and not a data holder. Please use ScanInformation
  * to hold data to be sent around.
  *
+ * The time of the scan is the size multiplied by the longest exposure unless
+ * a {@link ScanTimingModel} is given, in which case the path of the scan is
+ * walked with {@link ScanTimeSimulator} to include moves, readout and overheads.
+ *
  * @author Matthew Gerring
  *
  */
@@ -69,6 +79,11 @@ public class ScanEstimator {
 	 */
 	private int[] shape;
 
+	/**
+	 * Estimates the time of each point, null unless a timing model was given.
+	 */
+	private ScanTimeSimulator simulator;
+
 	/**
 	 *
 	 * @param pservice
@@ -108,6 +123,18 @@ public class ScanEstimator {
 		this(gen, detectors == null ? null : detectors.values(), timePerPoint);
 	}
 
+	/**
+	 *
+	 * @param gen
+	 * @param detectors
+	 * @param timePerPoint
+	 * @param timing models of the devices used to simulate the time of the scan, may be null
+	 * @throws GeneratorException
+	 */
+	public ScanEstimator(IPointGenerator<?> gen, Map<String, Object> detectors, long timePerPoint, ScanTimingModel timing) throws GeneratorException {
+		this(gen, detectors == null ? null : detectors.values(), timePerPoint, timing);
+	}
+
 	/**
 	 * Create a scan estimator for the given positions, (optional) detectors and (optional) time per point
 	 * @param positionIterable iteratable over positions in the scan
@@ -116,6 +143,19 @@ public class ScanEstimator {
 	 * @throws GeneratorException if the scan estimator cannot be created
 	 */
 	public ScanEstimator(Iterable<IPosition> positionIterable, Collection<Object> detectorModels, long timePerPoint) throws GeneratorException {
+		this(positionIterable, detectorModels, timePerPoint, null);
+	}
+
+	/**
+	 * Create a scan estimator for the given positions, (optional) detectors, (optional) time per point
+	 * and (optional) timing model.
+	 * @param positionIterable iteratable over positions in the scan
+	 * @param detectorModels detector models, may be <code>null</code>
+	 * @param timePerPoint time per point, only used if <code> detectorModels</code> is <code>null</code>
+	 * @param timing models of the devices used to simulate the time of the scan, may be <code>null</code>
+	 * @throws GeneratorException if the scan estimator cannot be created
+	 */
+	public ScanEstimator(Iterable<IPosition> positionIterable, Collection<Object> detectorModels, long timePerPoint, ScanTimingModel timing) throws GeneratorException {
 		// TODO FIXME If some detectors are malcolm, they may have a wait time.
 		// If some are malcolm we may wish to ignore the input point time from the user
 		// in favour of the malcolm time per point or maybe the device tells us how long it will take?
@@ -126,10 +166,54 @@ public class ScanEstimator {
 		}
 
 		this.generator = positionIterable;
-		this.size = getEstimatedSize(positionIterable);
-		this.rank = positionIterable.iterator().next().getScanRank();
-		this.timePerPoint = timePerPoint;
-		this.estimatedScanTime = size * timePerPoint;
+		if (positionIterable instanceof IPointGenerator && !(positionIterable instanceof IDeviceDependentIterable)) {
+			// One call which generators may answer without running over the scan again.
+			ScanPathInfo info = ((IPointGenerator<?>)positionIterable).getScanPathInfo();
+			this.size  = info.getSize();
+			this.rank  = info.getScanRank();
+			this.shape = info.getShape();
+		} else {
+			this.size = getEstimatedSize(positionIterable);
+			this.rank = positionIterable.iterator().next().getScanRank();
+		}
+		if (timing!=null) {
+			final Map<String, Double> exposureTimes = getExposureTimes(detectorModels);
+			if (exposureTimes.isEmpty() && timePerPoint>0) { // The time per point given takes the place of the detectors
+				timing = new ScanTimingModel(timing);
+				timing.setPointOverhead(timing.getPointOverhead()+timePerPoint/1000d);
+			}
+			// The path is only walked if the time of a point depends on the move to it
+			this.simulator = ScanTimeSimulator.isPathRequired(getScannableNames(positionIterable), timing)
+					       ? new ScanTimeSimulator(positionIterable, exposureTimes, timing)
+					       : new ScanTimeSimulator(size, exposureTimes, timing);
+			this.estimatedScanTime = simulator.getTotalTime();
+			this.timePerPoint      = size>0 ? estimatedScanTime/size : timePerPoint;
+		} else {
+			this.timePerPoint = timePerPoint;
+			this.estimatedScanTime = size * timePerPoint;
+		}
+	}
+
+	private static Collection<String> getScannableNames(Iterable<IPosition> gen) {
+		Collection<String> names = null;
+		if (gen instanceof IDeviceDependentIterable) names = ((IDeviceDependentIterable)gen).getScannableNames();
+		if (names==null) {
+			final Iterator<IPosition> it = gen.iterator();
+			names = it.hasNext() ? it.next().getNames() : Collections.emptyList();
+		}
+		return names;
+	}
+
+	private static Map<String, Double> getExposureTimes(Collection<Object> detectorModels) {
+		final Map<String, Double> ret = new HashMap<>();
+		if (detectorModels==null) return ret;
+		for (Object model : detectorModels) {
+			if (model instanceof IDetectorModel) {
+				IDetectorModel dmodel = (IDetectorModel)model;
+				ret.put(dmodel.getName(), dmodel.getExposureTime());
+			}
+		}
+		return ret;
 	}
 
 	private int getEstimatedSize(Iterable<IPosition> gen) throws GeneratorException {
@@ -163,6 +247,14 @@ public class ScanEstimator {
 		return estimatedScanTime;
 	}
 
+	/**
+	 * The estimated time of each point in ms in the order the scan runs.
+	 * @return the times or null if the estimator was not given a timing model.
+	 */
+	public double[] getPointTimes() {
+		return simulator!=null ? simulator.getPointTimes() : null;
+	}
+
 	public int getRank() {
 		return rank;
 	}
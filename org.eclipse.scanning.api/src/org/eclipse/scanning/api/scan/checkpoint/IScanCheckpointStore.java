@@ -0,0 +1,55 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.api.scan.checkpoint;
+
+import java.util.List;
+
+import org.eclipse.scanning.api.scan.ScanningException;
+
+/**
+ * Holds the checkpoints of the scans which are running, or which stopped
+ * before they finished, somewhere which survives the server stopping.
+ * <p>
+ * A scan saves its checkpoint periodically as it runs and deletes it when it
+ * completes or is aborted. A checkpoint found when the server starts is
+ * for a scan which was still running when the server stopped.
+ */
+public interface IScanCheckpointStore {
+
+	/**
+	 * Saves the checkpoint replacing any saved for the same scan. When this
+	 * returns the checkpoint is durable, if the save fails the previous
+	 * checkpoint is left as it was.
+	 *
+	 * @param checkpoint
+	 * @throws ScanningException
+	 */
+	void save(ScanCheckpoint checkpoint) throws ScanningException;
+
+	/**
+	 * @param uniqueId of the scan bean
+	 * @return the checkpoint of the scan or null if there is none.
+	 * @throws ScanningException if the checkpoint cannot be read.
+	 */
+	ScanCheckpoint load(String uniqueId) throws ScanningException;
+
+	/**
+	 * All the checkpoints held, those which cannot be read are left out.
+	 * @return
+	 * @throws ScanningException
+	 */
+	List<ScanCheckpoint> getCheckpoints() throws ScanningException;
+
+	/**
+	 * Deletes the checkpoint of the scan, if there is one.
+	 * @param uniqueId of the scan bean
+	 * @throws ScanningException
+	 */
+	void delete(String uniqueId) throws ScanningException;
+}
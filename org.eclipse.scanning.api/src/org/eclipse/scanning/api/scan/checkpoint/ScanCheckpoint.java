@@ -0,0 +1,281 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.api.scan.checkpoint;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.scanning.api.event.scan.DeviceState;
+import org.eclipse.scanning.api.event.scan.ScanBean;
+import org.eclipse.scanning.api.event.scan.ScanRequest;
+import org.eclipse.scanning.api.event.status.Status;
+
+/**
+ * How far a scan has got, written durably while the scan runs so that
+ * a scan which was stopped by the server dying may be resumed from the
+ * step after the last one completed.
+ * <p>
+ * The data of the steps up to and including lastStep has been written
+ * and flushed to the files of the scan when the checkpoint is saved.
+ */
+public class ScanCheckpoint {
+
+	/**
+	 * The unique id of the bean of the scan, which names the checkpoint.
+	 */
+	private String uniqueId;
+
+	/**
+	 * The bean of the scan, holding the request which was run.
+	 */
+	private ScanBean bean;
+
+	/**
+	 * The step number of the last step completed.
+	 */
+	private int lastStep = -1;
+
+	/**
+	 * The step number which the scan resumes from.
+	 */
+	private int nextStep;
+
+	/**
+	 * The number of steps in the whole scan.
+	 */
+	private int size;
+
+	/**
+	 * The file being written when the checkpoint was saved, may be null.
+	 */
+	private String filePath;
+
+	/**
+	 * All the files written by the scan in the order they were written, one for
+	 * the scan and one for each time it was resumed.
+	 */
+	private List<String> filePaths;
+
+	/**
+	 * The position of the scannables at the last step completed.
+	 */
+	private Map<String, Object> position;
+
+	/**
+	 * The state of the detectors when the checkpoint was saved.
+	 */
+	private Map<String, DeviceState> deviceStates;
+
+	/**
+	 * The time the checkpoint was saved in ms.
+	 */
+	private long time;
+
+	public ScanCheckpoint() {
+		// no-args constructor for json marshalling
+	}
+
+	public ScanCheckpoint(ScanBean bean) {
+		this.bean     = bean;
+		this.uniqueId = bean.getUniqueId();
+		this.size     = bean.getSize();
+	}
+
+	/**
+	 * Creates a copy of the bean of the checkpoint to resume the scan from the next step. It keeps
+	 * the same unique id so that it replaces the unfinished bean in the status set. The data
+	 * is written to a new file beside the last file of the scan, the files written before are kept.
+	 * The bean of the checkpoint is not changed.
+	 *
+	 * @return the bean to submit to the scan queue
+	 */
+	public ScanBean createResumeBean() {
+
+		final ScanBean resume = new ScanBean();
+		resume.merge(bean);
+		if (bean.getScanRequest()!=null) {
+			final ScanRequest<?> req = new ScanRequest<>(bean.getScanRequest());
+			req.setStartStep(nextStep);
+			if (filePath!=null) req.setFilePath(getResumePath(filePath, nextStep));
+			resume.setScanRequest(req);
+		}
+		resume.setFilePath(null);
+
+		resume.setPreviousStatus(resume.getStatus());
+		resume.setStatus(Status.SUBMITTED);
+		resume.setPoint(nextStep);
+		resume.setPercentComplete(size>0 ? 100d*nextStep/size : 0);
+		resume.setMessage("Resuming from point "+nextStep+" of "+size);
+		resume.setSubmissionTime(System.currentTimeMillis());
+		return resume;
+	}
+
+	/**
+	 * The file written when a scan is resumed, for instance scan-12_from40.nxs
+	 * for scan-12.nxs resumed at step 40.
+	 * @param path
+	 * @param step
+	 * @return
+	 */
+	public static String getResumePath(String path, int step) {
+		final String name = new File(path).getName();
+		final int    dot  = name.lastIndexOf('.');
+		final String base = path.substring(0, path.length()-name.length()+(dot>0 ? dot : name.length()));
+		final String ext  = dot>0 ? name.substring(dot) : "";
+		return base.replaceAll("_from\\d+$", "")+"_from"+step+ext;
+	}
+
+	public String getUniqueId() {
+		return uniqueId;
+	}
+
+	public void setUniqueId(String uniqueId) {
+		this.uniqueId = uniqueId;
+	}
+
+	public ScanBean getBean() {
+		return bean;
+	}
+
+	public void setBean(ScanBean bean) {
+		this.bean = bean;
+	}
+
+	public int getLastStep() {
+		return lastStep;
+	}
+
+	public void setLastStep(int lastStep) {
+		this.lastStep = lastStep;
+	}
+
+	public int getNextStep() {
+		return nextStep;
+	}
+
+	public void setNextStep(int nextStep) {
+		this.nextStep = nextStep;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public void setSize(int size) {
+		this.size = size;
+	}
+
+	public String getFilePath() {
+		return filePath;
+	}
+
+	public void setFilePath(String filePath) {
+		this.filePath = filePath;
+	}
+
+	public List<String> getFilePaths() {
+		return filePaths;
+	}
+
+	public void setFilePaths(List<String> filePaths) {
+		this.filePaths = filePaths;
+	}
+
+	public void addFilePath(String path) {
+		if (filePaths==null) filePaths = new ArrayList<>(3);
+		if (path!=null && !filePaths.contains(path)) filePaths.add(path);
+	}
+
+	public Map<String, Object> getPosition() {
+		return position;
+	}
+
+	public void setPosition(Map<String, Object> position) {
+		this.position = position;
+	}
+
+	public Map<String, DeviceState> getDeviceStates() {
+		return deviceStates;
+	}
+
+	public void setDeviceStates(Map<String, DeviceState> deviceStates) {
+		this.deviceStates = deviceStates;
+	}
+
+	public void putDeviceState(String name, DeviceState state) {
+		if (deviceStates==null) deviceStates = new LinkedHashMap<>(7);
+		deviceStates.put(name, state);
+	}
+
+	public long getTime() {
+		return time;
+	}
+
+	public void setTime(long time) {
+		this.time = time;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((filePath == null) ? 0 : filePath.hashCode());
+		result = prime * result + ((filePaths == null) ? 0 : filePaths.hashCode());
+		result = prime * result + lastStep;
+		result = prime * result + nextStep;
+		result = prime * result + size;
+		result = prime * result + (int) (time ^ (time >>> 32));
+		result = prime * result + ((uniqueId == null) ? 0 : uniqueId.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		ScanCheckpoint other = (ScanCheckpoint) obj;
+		if (filePath == null) {
+			if (other.filePath != null)
+				return false;
+		} else if (!filePath.equals(other.filePath))
+			return false;
+		if (filePaths == null) {
+			if (other.filePaths != null)
+				return false;
+		} else if (!filePaths.equals(other.filePaths))
+			return false;
+		if (lastStep != other.lastStep)
+			return false;
+		if (nextStep != other.nextStep)
+			return false;
+		if (size != other.size)
+			return false;
+		if (time != other.time)
+			return false;
+		if (uniqueId == null) {
+			if (other.uniqueId != null)
+				return false;
+		} else if (!uniqueId.equals(other.uniqueId))
+			return false;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "ScanCheckpoint [uniqueId=" + uniqueId + ", lastStep=" + lastStep + ", nextStep=" + nextStep
+				+ ", size=" + size + ", filePath=" + filePath + "]";
+	}
+}
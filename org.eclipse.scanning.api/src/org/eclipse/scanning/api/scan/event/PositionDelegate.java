@@ -49,7 +49,17 @@ public class PositionDelegate {
 		this.device    = device;
 	}
 
+	/**
+	 * There is no one to tell about positions, so the caller
+	 * need not make the position which would be sent.
+	 * @return true if there are no listeners and no publisher.
+	 */
+	public boolean isEmpty() {
+		return publisher==null && (listeners==null || listeners.isEmpty());
+	}
+
 	public boolean firePositionWillPerform(IPosition position) throws ScanningException {
+		if (isEmpty()) return true;
 		final PositionEvent evnt = new PositionEvent(position, device);
 		broadcast(LocationType.positionWillPerform, evnt);
 		if (listeners==null) return true;
@@ -74,6 +84,7 @@ public class PositionDelegate {
 	}
 
 	public void firePositionChanged(int finalLevel, IPosition position) throws ScanningException {
+		if (isEmpty()) return;
 		final PositionEvent evnt = new PositionEvent(position, device);
 		evnt.setLevel(finalLevel);
 		broadcast(LocationType.positionChanged, evnt);
@@ -84,6 +95,7 @@ public class PositionDelegate {
 	}
 
 	public void firePositionPerformed(int finalLevel, IPosition position) throws ScanningException {
+		if (isEmpty()) return;
 		final PositionEvent evnt = new PositionEvent(position, device);
 		evnt.setLevel(finalLevel);
 		broadcast(LocationType.positionPerformed, evnt);
@@ -94,6 +106,7 @@ public class PositionDelegate {
 	}
 
 	public void fireLevelPerformed(int level, List<? extends ILevel> levels, IPosition position) throws ScanningException {
+		if (isEmpty()) return;
 		final PositionEvent evnt = new PositionEvent(position, device);
 		evnt.setLevel(level);
 	    evnt.setLevelObjects(levels);
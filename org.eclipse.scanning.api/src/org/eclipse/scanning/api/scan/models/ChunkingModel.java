@@ -0,0 +1,143 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.api.scan.models;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * How the datasets of a scan are chunked in the NeXus file. May be set
+ * on the scan request, the defaults are used for anything not set.
+ */
+public class ChunkingModel {
+
+	/**
+	 * How the data is expected to be read back, which decides
+	 * the axes filled first when a chunk is made.
+	 */
+	public enum ReadPattern {
+
+		/**
+		 * Whole frames are read, for instance to view the image at a point.
+		 * A chunk holds whole frames, or as much of one frame as fits.
+		 */
+		FRAME,
+
+		/**
+		 * A few elements of each frame are read across the scan, for instance to
+		 * make a map of one region of interest. A chunk holds as many points of
+		 * the scan as fit.
+		 */
+		SCAN;
+	}
+
+	/**
+	 * The size in bytes which a chunk should not be larger than. The
+	 * default of 1MB is the size of the HDF5 chunk cache of a dataset.
+	 */
+	private long targetSize = 1024*1024;
+
+	private ReadPattern readPattern = ReadPattern.FRAME;
+
+	/**
+	 * The chunk to use for a dataset, by the name of the device and the field,
+	 * for instance <code>mandelbrot/data</code>. The chunk has the rank of the
+	 * scan plus the rank of the data.
+	 */
+	private Map<String, int[]> chunks = new HashMap<>();
+
+	public ChunkingModel() {
+		// no-args constructor for json marshalling
+	}
+
+	public ChunkingModel(long targetSize) {
+		this.targetSize = targetSize;
+	}
+
+	public long getTargetSize() {
+		return targetSize;
+	}
+
+	public void setTargetSize(long targetSize) {
+		this.targetSize = targetSize;
+	}
+
+	public ReadPattern getReadPattern() {
+		return readPattern;
+	}
+
+	public void setReadPattern(ReadPattern readPattern) {
+		this.readPattern = readPattern;
+	}
+
+	public Map<String, int[]> getChunks() {
+		return chunks;
+	}
+
+	public void setChunks(Map<String, int[]> chunks) {
+		this.chunks = chunks;
+	}
+
+	public void addChunk(String datasetName, int... chunk) {
+		chunks.put(datasetName, chunk);
+	}
+
+	public int[] getChunk(String datasetName) {
+		return chunks!=null ? chunks.get(datasetName) : null;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		if (chunks != null) {
+			for (String name : chunks.keySet()) result += name.hashCode() ^ Arrays.hashCode(chunks.get(name));
+		}
+		result = prime * result + ((readPattern == null) ? 0 : readPattern.hashCode());
+		result = prime * result + (int) (targetSize ^ (targetSize >>> 32));
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		ChunkingModel other = (ChunkingModel) obj;
+		if (chunks == null) {
+			if (other.chunks != null)
+				return false;
+		} else {
+			if (other.chunks == null || !chunks.keySet().equals(other.chunks.keySet()))
+				return false;
+			for (String name : chunks.keySet()) {
+				if (!Arrays.equals(chunks.get(name), other.chunks.get(name)))
+					return false;
+			}
+		}
+		if (readPattern != other.readPattern)
+			return false;
+		if (targetSize != other.targetSize)
+			return false;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder buf = new StringBuilder("ChunkingModel [targetSize=").append(targetSize).append(", readPattern=").append(readPattern);
+		if (chunks != null) {
+			for (String name : chunks.keySet()) buf.append(", ").append(name).append("=").append(Arrays.toString(chunks.get(name)));
+		}
+		return buf.append("]").toString();
+	}
+}
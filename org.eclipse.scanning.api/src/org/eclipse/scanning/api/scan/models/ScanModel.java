@@ -101,6 +101,17 @@ public class ScanModel {
 
 	private ScanInformation scanInformation;
 
+	/**
+	 * How the datasets of the scan are chunked, may be null.
+	 */
+	private ChunkingModel chunkingModel;
+
+	/**
+	 * The step number the scan starts at, greater than zero
+	 * when a scan which stopped before it finished is resumed.
+	 */
+	private int startStep;
+
 	public ScanModel() {
 		this(null);
 	}
@@ -315,6 +326,22 @@ public class ScanModel {
 		this.scanInformation = scanInformation;
 	}
 
+	public ChunkingModel getChunkingModel() {
+		return chunkingModel;
+	}
+
+	public void setChunkingModel(ChunkingModel chunkingModel) {
+		this.chunkingModel = chunkingModel;
+	}
+
+	public int getStartStep() {
+		return startStep;
+	}
+
+	public void setStartStep(int startStep) {
+		this.startStep = startStep;
+	}
+
 	@Override
 	public String toString() {
 		return "ScanModel [filePath=" + filePath + ", positionIterable=" + positionIterable + ", detectors=" + detectors
@@ -11,6 +11,8 @@
  *******************************************************************************/
 package org.eclipse.scanning.api.scan.rank;
 
+import java.util.List;
+
 import org.eclipse.scanning.api.points.IPosition;
 
 /**
@@ -32,6 +34,19 @@ public interface IScanRankService {
 	 */
 	IScanSlice createScanSlice(IPosition position, int... datashape);
 
+	/**
+	 * Slices covering a block of positions. Positions which follow each other
+	 * along the last dimension of the scan are joined into one slice, so a
+	 * detector writing a burst of frames needs one write per slice.
+	 * The slices are in the order of the positions and each covers
+	 * stop-start of the last scan dimension positions.
+	 *
+	 * @param positions
+	 * @param datashape
+	 * @return
+	 */
+	List<IScanSlice> createScanSlices(List<? extends IPosition> positions, int... datashape);
+
 	/**
 	 * Currently it is possible to implemnent the IScanRankService
 	 * directly in the API bundle. It may be necessary in future to
@@ -11,6 +11,9 @@
  *******************************************************************************/
 package org.eclipse.scanning.api.scan.rank;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.eclipse.scanning.api.points.IPosition;
 
 /**
@@ -47,4 +50,34 @@ class ScanRankService implements IScanRankService {
 		return new ScanSlice(start, stop, null);
 	}
 
+	@Override
+	public List<IScanSlice> createScanSlices(List<? extends IPosition> positions, int... datashape) {
+
+		final List<IScanSlice> ret = new ArrayList<>();
+		IScanSlice current = null;
+		IPosition  last    = null;
+		for (IPosition position : positions) {
+			if (current!=null && isNext(last, position)) {
+				current.getStop()[position.getScanRank()-1]++;
+			} else {
+				current = createScanSlice(position, datashape);
+				ret.add(current);
+			}
+			last = position;
+		}
+		return ret;
+	}
+
+	/**
+	 * @return true if the position is one further along the last dimension than the last one.
+	 */
+	private boolean isNext(IPosition last, IPosition position) {
+		final int scanRank = position.getScanRank();
+		if (scanRank<1 || last.getScanRank()!=scanRank) return false;
+		for (int dim = 0; dim < scanRank-1; dim++) {
+			if (position.getIndex(dim)!=last.getIndex(dim)) return false;
+		}
+		return position.getIndex(scanRank-1)==last.getIndex(scanRank-1)+1;
+	}
+
 }
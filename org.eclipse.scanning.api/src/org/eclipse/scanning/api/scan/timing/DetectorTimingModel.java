@@ -0,0 +1,91 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.api.scan.timing;
+
+/**
+ * How long a detector takes beyond its exposure time.
+ */
+public class DetectorTimingModel {
+
+	/**
+	 * Seconds to arm the detector, once at the start of the scan.
+	 */
+	private double armTime;
+
+	/**
+	 * Seconds to read out each frame after it is exposed.
+	 */
+	private double readoutTime;
+
+	public DetectorTimingModel() {
+		// no-args constructor for json marshalling
+	}
+
+	public DetectorTimingModel(double armTime, double readoutTime) {
+		this.armTime     = armTime;
+		this.readoutTime = readoutTime;
+	}
+
+	/**
+	 * @param exposureTime in seconds
+	 * @return the time in seconds to expose and read out one frame.
+	 */
+	public double getPointTime(double exposureTime) {
+		return exposureTime+readoutTime;
+	}
+
+	public double getArmTime() {
+		return armTime;
+	}
+
+	public void setArmTime(double armTime) {
+		this.armTime = armTime;
+	}
+
+	public double getReadoutTime() {
+		return readoutTime;
+	}
+
+	public void setReadoutTime(double readoutTime) {
+		this.readoutTime = readoutTime;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		long temp;
+		temp = Double.doubleToLongBits(armTime);
+		result = prime * result + (int) (temp ^ (temp >>> 32));
+		temp = Double.doubleToLongBits(readoutTime);
+		result = prime * result + (int) (temp ^ (temp >>> 32));
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		DetectorTimingModel other = (DetectorTimingModel) obj;
+		if (Double.doubleToLongBits(armTime) != Double.doubleToLongBits(other.armTime))
+			return false;
+		if (Double.doubleToLongBits(readoutTime) != Double.doubleToLongBits(other.readoutTime))
+			return false;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "DetectorTimingModel [armTime=" + armTime + ", readoutTime=" + readoutTime + "]";
+	}
+}
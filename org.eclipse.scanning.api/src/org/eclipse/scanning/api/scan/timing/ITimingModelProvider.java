@@ -0,0 +1,24 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.api.scan.timing;
+
+/**
+ * Implemented by a device which can say how long it takes so that
+ * the time of a scan may be estimated without moving or exposing it.
+ * Scannables provide a {@link MotionTimingModel} and detectors a
+ * {@link DetectorTimingModel}.
+ * @param <T> the timing model
+ */
+public interface ITimingModelProvider<T> {
+
+	/**
+	 * @return the timing model of the device, or null if it is not known.
+	 */
+	T getTimingModel();
+}
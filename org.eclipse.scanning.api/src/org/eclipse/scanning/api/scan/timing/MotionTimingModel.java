@@ -0,0 +1,124 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.api.scan.timing;
+
+/**
+ * How long a scannable takes to move. The scannable accelerates to its
+ * velocity, travels and decelerates to a stop then settles, or if the move
+ * is too short to reach the velocity, accelerates half way and decelerates
+ * the rest.
+ */
+public class MotionTimingModel {
+
+	/**
+	 * Units per second, zero for a scannable which takes no time to move.
+	 */
+	private double velocity;
+
+	/**
+	 * Units per second squared, zero for a scannable which reaches its velocity at once.
+	 */
+	private double acceleration;
+
+	/**
+	 * Seconds to wait after the move has finished.
+	 */
+	private double settleTime;
+
+	public MotionTimingModel() {
+		// no-args constructor for json marshalling
+	}
+
+	public MotionTimingModel(double velocity, double acceleration, double settleTime) {
+		this.velocity     = velocity;
+		this.acceleration = acceleration;
+		this.settleTime   = settleTime;
+	}
+
+	/**
+	 * @param distance to move, in the units of the scannable
+	 * @return the time of the move in seconds, zero if the distance is zero.
+	 */
+	public double getMoveTime(double distance) {
+		final double d = Math.abs(distance);
+		if (d==0) return 0;
+
+		double time;
+		if (velocity<=0) {
+			time = 0;
+		} else if (acceleration<=0) {
+			time = d/velocity;
+		} else {
+			final double ramp = velocity*velocity/acceleration; // Distance to reach the velocity and stop again
+			time = d>=ramp ? d/velocity+velocity/acceleration : 2*Math.sqrt(d/acceleration);
+		}
+		return time+settleTime;
+	}
+
+	public double getVelocity() {
+		return velocity;
+	}
+
+	public void setVelocity(double velocity) {
+		this.velocity = velocity;
+	}
+
+	public double getAcceleration() {
+		return acceleration;
+	}
+
+	public void setAcceleration(double acceleration) {
+		this.acceleration = acceleration;
+	}
+
+	public double getSettleTime() {
+		return settleTime;
+	}
+
+	public void setSettleTime(double settleTime) {
+		this.settleTime = settleTime;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		long temp;
+		temp = Double.doubleToLongBits(acceleration);
+		result = prime * result + (int) (temp ^ (temp >>> 32));
+		temp = Double.doubleToLongBits(settleTime);
+		result = prime * result + (int) (temp ^ (temp >>> 32));
+		temp = Double.doubleToLongBits(velocity);
+		result = prime * result + (int) (temp ^ (temp >>> 32));
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		MotionTimingModel other = (MotionTimingModel) obj;
+		if (Double.doubleToLongBits(acceleration) != Double.doubleToLongBits(other.acceleration))
+			return false;
+		if (Double.doubleToLongBits(settleTime) != Double.doubleToLongBits(other.settleTime))
+			return false;
+		if (Double.doubleToLongBits(velocity) != Double.doubleToLongBits(other.velocity))
+			return false;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "MotionTimingModel [velocity=" + velocity + ", acceleration=" + acceleration + ", settleTime=" + settleTime + "]";
+	}
+}
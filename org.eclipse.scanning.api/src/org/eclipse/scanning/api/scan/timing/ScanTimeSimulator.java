@@ -0,0 +1,190 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.api.scan.timing;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.scanning.api.points.IPosition;
+
+/**
+ * Walks the path of a scan using the timing models of its devices to
+ * estimate the time of each point and of the whole scan. No hardware is
+ * read or moved, the scan starts where its first point is.
+ * <p>
+ * At each point the scannables which change move together so the slowest
+ * decides the move time. The detectors expose together so the slowest
+ * exposure and readout decides the detector time. Devices without a timing
+ * model take no time beyond their exposure.
+ * <p>
+ * When no scannable has a motion model every point takes the same time and
+ * the path is not walked, only its size is needed.
+ * <p>
+ * Like ScanEstimator the estimate is made when the simulator is created.
+ */
+public class ScanTimeSimulator {
+
+	private final double[] pointTimes; // s, null if every point takes the same time
+	private final double   uniformTime; // s, the time of every point without topup
+	private final int      size;
+	private final double   totalTime;  // s
+	private final double   motionTime; // s, the time moving in the motion models only
+
+	/**
+	 * Walks the path of the scan.
+	 *
+	 * @param positions of the scan
+	 * @param exposureTimes in seconds by detector name, may be null
+	 * @param timing the timing models
+	 */
+	public ScanTimeSimulator(Iterable<IPosition> positions, Map<String, Double> exposureTimes, ScanTimingModel timing) {
+
+		final double detectorTime = getDetectorTime(exposureTimes, timing);
+		final Map<String, Double> last = new HashMap<>();
+		double[] times = new double[1024];
+		int      count = 0;
+		double   total = timing.getScanOverhead()+getArmTime(exposureTimes, timing);
+		double   moving = 0;
+		double   nextTopup = timing.getTopupPeriod()>0 ? timing.getTopupPeriod() : Double.POSITIVE_INFINITY;
+
+		for (IPosition position : positions) {
+
+			double  move  = 0;
+			boolean moved = false;
+			for (String name : position.getNames()) {
+				final Object value = position.get(name);
+				if (!(value instanceof Number)) continue;
+				final double val  = ((Number)value).doubleValue();
+				final Double prev = last.put(name, val);
+				if (prev==null || prev==val) continue;
+				moved = true;
+				final MotionTimingModel motion = timing.getMotion(name);
+				if (motion!=null) move = Math.max(move, motion.getMoveTime(val-prev));
+			}
+			moving+=move;
+			if (moved) move+=timing.getMoveOverhead();
+
+			double point = move+detectorTime+timing.getPointOverhead();
+			total+=point;
+			while (total>=nextTopup) {
+				point+=timing.getTopupPause();
+				total+=timing.getTopupPause();
+				nextTopup+=timing.getTopupPeriod();
+			}
+
+			if (count==times.length) times = Arrays.copyOf(times, count*2);
+			times[count++] = point;
+		}
+
+		this.pointTimes  = times;
+		this.uniformTime = count>0 ? (total-timing.getScanOverhead())/count : 0;
+		this.size        = count;
+		this.totalTime   = total;
+		this.motionTime  = moving;
+	}
+
+	/**
+	 * Estimates a scan in which no scannable has a motion model, so every point
+	 * takes the same time. Each point is taken to move.
+	 *
+	 * @param size of the scan
+	 * @param exposureTimes in seconds by detector name, may be null
+	 * @param timing the timing models
+	 */
+	public ScanTimeSimulator(int size, Map<String, Double> exposureTimes, ScanTimingModel timing) {
+
+		final double point = getDetectorTime(exposureTimes, timing)+timing.getPointOverhead()+(size>1 ? timing.getMoveOverhead() : 0);
+		double total = timing.getScanOverhead()+getArmTime(exposureTimes, timing)+size*point;
+		if (timing.getTopupPeriod()>0) {
+			// Each pause delays the scan into the next period
+			double topups = Math.floor(total/timing.getTopupPeriod());
+			total+=topups*timing.getTopupPause();
+		}
+		this.pointTimes  = null;
+		this.uniformTime = point;
+		this.size        = size;
+		this.totalTime   = total;
+		this.motionTime  = 0;
+	}
+
+	/**
+	 * @param scannableNames of the scan, may be null if they are not known
+	 * @param timing the timing models
+	 * @return true if a scannable of the scan has a motion model, so the path must be walked.
+	 */
+	public static boolean isPathRequired(Collection<String> scannableNames, ScanTimingModel timing) {
+		if (timing.getMotions().isEmpty()) return false;
+		if (scannableNames==null) return true;
+		for (String name : scannableNames) if (timing.getMotion(name)!=null) return true;
+		return false;
+	}
+
+	private static double getDetectorTime(Map<String, Double> exposureTimes, ScanTimingModel timing) {
+		double time = 0;
+		if (exposureTimes==null) return time;
+		for (Map.Entry<String, Double> entry : exposureTimes.entrySet()) {
+			final double exposure = entry.getValue()!=null ? entry.getValue() : 0;
+			final DetectorTimingModel detector = timing.getDetector(entry.getKey());
+			time = Math.max(time, detector!=null ? detector.getPointTime(exposure) : exposure);
+		}
+		return time;
+	}
+
+	private static double getArmTime(Map<String, Double> exposureTimes, ScanTimingModel timing) {
+		double time = 0;
+		if (exposureTimes==null) return time;
+		for (String name : exposureTimes.keySet()) {
+			final DetectorTimingModel detector = timing.getDetector(name);
+			if (detector!=null) time = Math.max(time, detector.getArmTime());
+		}
+		return time;
+	}
+
+	/**
+	 * @return the number of points
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * @param index of the point in the order the scan runs
+	 * @return the estimated time of the point in ms
+	 */
+	public double getPointTime(int index) {
+		if (index<0 || index>=size) throw new IndexOutOfBoundsException("There are "+size+" points, not "+index);
+		return (pointTimes!=null ? pointTimes[index] : uniformTime)*1000;
+	}
+
+	/**
+	 * @return the estimated time of each point in ms, in the order the scan runs.
+	 */
+	public double[] getPointTimes() {
+		final double[] ret = new double[size];
+		for (int i = 0; i < size; i++) ret[i] = getPointTime(i);
+		return ret;
+	}
+
+	/**
+	 * @return the estimated time of the scan in ms
+	 */
+	public long getTotalTime() {
+		return Math.round(totalTime*1000);
+	}
+
+	/**
+	 * @return the time in ms spent moving as given by the motion models alone,
+	 * without the move overhead.
+	 */
+	public long getMotionTime() {
+		return Math.round(motionTime*1000);
+	}
+}
@@ -0,0 +1,215 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.api.scan.timing;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The timing models of the devices of a scan, by name, and the
+ * time the scan itself takes at each point and at the start.
+ * Times are in seconds.
+ */
+public class ScanTimingModel {
+
+	private Map<String, MotionTimingModel>   motions   = new HashMap<>();
+	private Map<String, DetectorTimingModel> detectors = new HashMap<>();
+
+	/**
+	 * Seconds added to each point where a scannable moves, for instance the
+	 * round trip to the motor controller.
+	 */
+	private double moveOverhead;
+
+	/**
+	 * Seconds added to each point, for instance writing the point and publishing it.
+	 */
+	private double pointOverhead;
+
+	/**
+	 * Seconds added once to the scan, for instance configuring a Malcolm device.
+	 */
+	private double scanOverhead;
+
+	/**
+	 * Seconds between topups of the storage ring, zero if the scan does not wait for topup.
+	 */
+	private double topupPeriod;
+
+	/**
+	 * Seconds the scan waits at each topup.
+	 */
+	private double topupPause;
+
+	public ScanTimingModel() {
+		// no-args constructor for json marshalling
+	}
+
+	/**
+	 * Copies the model, the device timing models are shared.
+	 * @param toCopy
+	 */
+	public ScanTimingModel(ScanTimingModel toCopy) {
+		this.motions       = new HashMap<>(toCopy.motions);
+		this.detectors     = new HashMap<>(toCopy.detectors);
+		this.moveOverhead  = toCopy.moveOverhead;
+		this.pointOverhead = toCopy.pointOverhead;
+		this.scanOverhead  = toCopy.scanOverhead;
+		this.topupPeriod   = toCopy.topupPeriod;
+		this.topupPause    = toCopy.topupPause;
+	}
+
+	/**
+	 * Adds the device timing models of another model, replacing those with
+	 * the same name, and takes its overheads where they are set.
+	 * @param other
+	 */
+	public void merge(ScanTimingModel other) {
+		motions.putAll(other.motions);
+		detectors.putAll(other.detectors);
+		if (other.moveOverhead>0)  moveOverhead  = other.moveOverhead;
+		if (other.pointOverhead>0) pointOverhead = other.pointOverhead;
+		if (other.scanOverhead>0)  scanOverhead  = other.scanOverhead;
+		if (other.topupPeriod>0) {
+			topupPeriod = other.topupPeriod;
+			topupPause  = other.topupPause;
+		}
+	}
+
+	public void addMotion(String scannableName, MotionTimingModel motion) {
+		motions.put(scannableName, motion);
+	}
+
+	public MotionTimingModel getMotion(String scannableName) {
+		return motions.get(scannableName);
+	}
+
+	public void addDetector(String detectorName, DetectorTimingModel detector) {
+		detectors.put(detectorName, detector);
+	}
+
+	public DetectorTimingModel getDetector(String detectorName) {
+		return detectors.get(detectorName);
+	}
+
+	public Map<String, MotionTimingModel> getMotions() {
+		return motions;
+	}
+
+	public void setMotions(Map<String, MotionTimingModel> motions) {
+		this.motions = motions;
+	}
+
+	public Map<String, DetectorTimingModel> getDetectors() {
+		return detectors;
+	}
+
+	public void setDetectors(Map<String, DetectorTimingModel> detectors) {
+		this.detectors = detectors;
+	}
+
+	public double getMoveOverhead() {
+		return moveOverhead;
+	}
+
+	public void setMoveOverhead(double moveOverhead) {
+		this.moveOverhead = moveOverhead;
+	}
+
+	public double getPointOverhead() {
+		return pointOverhead;
+	}
+
+	public void setPointOverhead(double pointOverhead) {
+		this.pointOverhead = pointOverhead;
+	}
+
+	public double getScanOverhead() {
+		return scanOverhead;
+	}
+
+	public void setScanOverhead(double scanOverhead) {
+		this.scanOverhead = scanOverhead;
+	}
+
+	public double getTopupPeriod() {
+		return topupPeriod;
+	}
+
+	public void setTopupPeriod(double topupPeriod) {
+		this.topupPeriod = topupPeriod;
+	}
+
+	public double getTopupPause() {
+		return topupPause;
+	}
+
+	public void setTopupPause(double topupPause) {
+		this.topupPause = topupPause;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((detectors == null) ? 0 : detectors.hashCode());
+		result = prime * result + ((motions == null) ? 0 : motions.hashCode());
+		long temp;
+		temp = Double.doubleToLongBits(moveOverhead);
+		result = prime * result + (int) (temp ^ (temp >>> 32));
+		temp = Double.doubleToLongBits(pointOverhead);
+		result = prime * result + (int) (temp ^ (temp >>> 32));
+		temp = Double.doubleToLongBits(scanOverhead);
+		result = prime * result + (int) (temp ^ (temp >>> 32));
+		temp = Double.doubleToLongBits(topupPause);
+		result = prime * result + (int) (temp ^ (temp >>> 32));
+		temp = Double.doubleToLongBits(topupPeriod);
+		result = prime * result + (int) (temp ^ (temp >>> 32));
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		ScanTimingModel other = (ScanTimingModel) obj;
+		if (detectors == null) {
+			if (other.detectors != null)
+				return false;
+		} else if (!detectors.equals(other.detectors))
+			return false;
+		if (motions == null) {
+			if (other.motions != null)
+				return false;
+		} else if (!motions.equals(other.motions))
+			return false;
+		if (Double.doubleToLongBits(moveOverhead) != Double.doubleToLongBits(other.moveOverhead))
+			return false;
+		if (Double.doubleToLongBits(pointOverhead) != Double.doubleToLongBits(other.pointOverhead))
+			return false;
+		if (Double.doubleToLongBits(scanOverhead) != Double.doubleToLongBits(other.scanOverhead))
+			return false;
+		if (Double.doubleToLongBits(topupPause) != Double.doubleToLongBits(other.topupPause))
+			return false;
+		if (Double.doubleToLongBits(topupPeriod) != Double.doubleToLongBits(other.topupPeriod))
+			return false;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "ScanTimingModel [motions=" + motions + ", detectors=" + detectors + ", moveOverhead=" + moveOverhead
+				+ ", pointOverhead=" + pointOverhead + ", scanOverhead=" + scanOverhead + ", topupPeriod=" + topupPeriod
+				+ ", topupPause=" + topupPause + "]";
+	}
+}
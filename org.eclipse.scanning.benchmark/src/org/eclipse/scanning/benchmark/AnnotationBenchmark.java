@@ -0,0 +1,99 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.benchmark;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.scanning.api.annotation.scan.AnnotationManager;
+import org.eclipse.scanning.api.annotation.scan.PointEnd;
+import org.eclipse.scanning.api.annotation.scan.PointStart;
+import org.eclipse.scanning.api.points.IPosition;
+import org.eclipse.scanning.api.points.Point;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Calling &#64;PointStart and &#64;PointEnd on the devices of a scan
+ * through the {@link AnnotationManager}, compared with calling the same
+ * methods by reflection as the manager used to.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=5)
+@Measurement(iterations=10)
+public class AnnotationBenchmark {
+
+	@Param({"1", "10", "50"})
+	private int devices;
+
+	private List<CountingDevice> objects;
+	private AnnotationManager    manager;
+	private Method               pointStart;
+	private Method               pointEnd;
+	private IPosition            position;
+
+	@Setup
+	public void setup() throws Exception {
+		objects = new ArrayList<>(devices);
+		for (int i = 0; i < devices; i++) objects.add(new CountingDevice());
+
+		manager = new AnnotationManager(PointStart.class, PointEnd.class);
+		manager.addDevices(objects);
+
+		pointStart = CountingDevice.class.getMethod("pointStart", IPosition.class);
+		pointEnd   = CountingDevice.class.getMethod("pointEnd");
+		pointStart.setAccessible(true);
+		pointEnd.setAccessible(true);
+		position = new Point(0, 0d, 0, 0d);
+	}
+
+	@Benchmark
+	public void manager() throws Exception {
+		manager.invoke(PointStart.class, position);
+		manager.invoke(PointEnd.class, position);
+	}
+
+	@Benchmark
+	public void reflection() throws Exception {
+		final Object[] args = new Object[]{position};
+		for (CountingDevice device : objects) pointStart.invoke(device, args);
+		for (CountingDevice device : objects) pointEnd.invoke(device);
+	}
+
+	public static class CountingDevice {
+
+		private int started, ended;
+
+		@PointStart
+		public void pointStart(IPosition position) {
+			started++;
+		}
+
+		@PointEnd
+		public void pointEnd() {
+			ended++;
+		}
+
+		public int getCount() {
+			return started+ended;
+		}
+	}
+}
@@ -0,0 +1,54 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.benchmark;
+
+import static org.junit.Assert.assertFalse;
+
+import java.util.Collection;
+
+import org.junit.Test;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks of this bundle and writes the results as json so that
+ * they may be compared from one build to the next. It is a test so that
+ * surefire runs it headless, or it may be run as a java application.
+ * <p>
+ * Properties:
+ * <ul>
+ * <li><code>org.eclipse.scanning.benchmark.include</code> a regular expression for the benchmarks to run, all by default.</li>
+ * <li><code>org.eclipse.scanning.benchmark.result</code> the file to write the results to, jmh-result.json by default.</li>
+ * <li><code>org.eclipse.scanning.benchmark.format</code> JSON, CSV, SCSV, TEXT or LATEX, JSON by default.</li>
+ * <li><code>org.eclipse.scanning.benchmark.forks</code> the number of VMs to fork for each benchmark, 1 by default.</li>
+ * </ul>
+ */
+public class BenchmarkRunner {
+
+	public static void main(String[] args) throws Exception {
+		new BenchmarkRunner().runBenchmarks();
+	}
+
+	@Test
+	public void runBenchmarks() throws Exception {
+
+		Options options = new OptionsBuilder()
+				.include(System.getProperty("org.eclipse.scanning.benchmark.include", BenchmarkRunner.class.getPackage().getName()+".*Benchmark"))
+				.forks(Integer.getInteger("org.eclipse.scanning.benchmark.forks", 1))
+				.resultFormat(ResultFormatType.valueOf(System.getProperty("org.eclipse.scanning.benchmark.format", "JSON")))
+				.result(System.getProperty("org.eclipse.scanning.benchmark.result", "jmh-result.json"))
+				.build();
+
+		Collection<RunResult> results = new Runner(options).run();
+		assertFalse("No benchmarks were run", results.isEmpty());
+	}
+}
@@ -0,0 +1,121 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.benchmark;
+
+import java.net.URI;
+import java.util.Arrays;
+
+import org.eclipse.dawnsci.analysis.api.persistence.IMarshallerService;
+import org.eclipse.dawnsci.hdf5.nexus.NexusFileFactoryHDF5;
+import org.eclipse.dawnsci.json.MarshallerService;
+import org.eclipse.dawnsci.nexus.builder.impl.DefaultNexusBuilderFactory;
+import org.eclipse.dawnsci.remotedataset.test.mock.LoaderServiceMock;
+import org.eclipse.scanning.api.event.EventConstants;
+import org.eclipse.scanning.api.event.IEventService;
+import org.eclipse.scanning.api.points.IPointGeneratorService;
+import org.eclipse.scanning.connector.activemq.ActivemqConnectorService;
+import org.eclipse.scanning.event.EventServiceImpl;
+import org.eclipse.scanning.example.classregistry.ScanningExampleClassRegistry;
+import org.eclipse.scanning.example.detector.MandelbrotDetector;
+import org.eclipse.scanning.example.detector.MandelbrotModel;
+import org.eclipse.scanning.example.detector.PosDetector;
+import org.eclipse.scanning.example.detector.PosDetectorModel;
+import org.eclipse.scanning.example.scannable.MockScannableConnector;
+import org.eclipse.scanning.points.PointGeneratorService;
+import org.eclipse.scanning.points.classregistry.ScanningAPIClassRegistry;
+import org.eclipse.scanning.points.serialization.PointsModelMarshaller;
+import org.eclipse.scanning.sequencer.RunnableDeviceServiceImpl;
+import org.eclipse.scanning.sequencer.ServiceHolder;
+import org.eclipse.scanning.sequencer.nexus.ChunkingService;
+import org.eclipse.scanning.server.servlet.Services;
+import org.eclipse.scanning.test.BrokerDelegate;
+
+/**
+ * Wires the services together without OSGi, as the tests do, so that
+ * the benchmarks may be run headless. The broker is started in this
+ * VM and is shared by all the benchmarks run by the VM.
+ *
+ * DO NOT COPY THIS IN NON-TEST CODE!
+ */
+final class BenchmarkServices {
+
+	private static BenchmarkServices instance;
+
+	private final BrokerDelegate            broker;
+	private final IMarshallerService        marshaller;
+	private final IEventService             eventService;
+	private final MockScannableConnector    connector;
+	private final RunnableDeviceServiceImpl deviceService;
+	private final IPointGeneratorService    generatorService;
+
+	private BenchmarkServices() throws Exception {
+
+		broker = new BrokerDelegate();
+		broker.start();
+
+		marshaller = new MarshallerService(
+				Arrays.asList(new ScanningAPIClassRegistry(), new ScanningExampleClassRegistry()),
+				Arrays.asList(new PointsModelMarshaller()));
+		ActivemqConnectorService.setJsonMarshaller(marshaller);
+		eventService = new EventServiceImpl(new ActivemqConnectorService());
+
+		connector        = new MockScannableConnector(eventService.createPublisher(broker.getUri(), EventConstants.POSITION_TOPIC));
+		deviceService    = new RunnableDeviceServiceImpl(connector);
+		deviceService._register(MandelbrotModel.class, MandelbrotDetector.class);
+		deviceService._register(PosDetectorModel.class, PosDetector.class);
+		generatorService = new PointGeneratorService();
+
+		// Provide lots of services that OSGi would normally.
+		Services.setEventService(eventService);
+		Services.setRunnableDeviceService(deviceService);
+		Services.setGeneratorService(generatorService);
+		Services.setConnector(connector);
+		ServiceHolder.setTestServices(new LoaderServiceMock(), new DefaultNexusBuilderFactory(), null);
+		org.eclipse.dawnsci.nexus.ServiceHolder.setNexusFileFactory(new NexusFileFactoryHDF5());
+		org.eclipse.scanning.example.Services.setEventService(eventService);
+		org.eclipse.scanning.example.Services.setPointGeneratorService(generatorService);
+		org.eclipse.scanning.example.Services.setRunnableDeviceService(deviceService);
+		org.eclipse.scanning.example.Services.setScannableDeviceService(connector);
+		org.eclipse.scanning.example.Services.setChunkingService(new ChunkingService());
+	}
+
+	/**
+	 * Starts the broker and services the first time it is called.
+	 * @return
+	 * @throws Exception
+	 */
+	static synchronized BenchmarkServices getInstance() throws Exception {
+		if (instance==null) instance = new BenchmarkServices();
+		return instance;
+	}
+
+	URI getUri() {
+		return broker.getUri();
+	}
+
+	IMarshallerService getMarshaller() {
+		return marshaller;
+	}
+
+	IEventService getEventService() {
+		return eventService;
+	}
+
+	MockScannableConnector getConnector() {
+		return connector;
+	}
+
+	RunnableDeviceServiceImpl getDeviceService() {
+		return deviceService;
+	}
+
+	IPointGeneratorService getGeneratorService() {
+		return generatorService;
+	}
+}
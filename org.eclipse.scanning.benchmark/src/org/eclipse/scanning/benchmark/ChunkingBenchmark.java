@@ -0,0 +1,160 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.benchmark;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.dawnsci.analysis.api.tree.DataNode;
+import org.eclipse.dawnsci.nexus.NexusFile;
+import org.eclipse.dawnsci.nexus.ServiceHolder;
+import org.eclipse.january.dataset.IDataset;
+import org.eclipse.january.dataset.ILazyDataset;
+import org.eclipse.january.dataset.ILazyWriteableDataset;
+import org.eclipse.january.dataset.LazyWriteableDataset;
+import org.eclipse.january.dataset.Random;
+import org.eclipse.scanning.api.scan.IChunkingService;
+import org.eclipse.scanning.api.scan.models.ChunkingModel;
+import org.eclipse.scanning.api.scan.models.ChunkingModel.ReadPattern;
+import org.eclipse.scanning.sequencer.nexus.ChunkingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Writes the frames of a grid scan to a file on local disk with the chunks of
+ * each policy, then reads it back as a whole frame at one point and as one
+ * pixel at every point, the way a map is made.
+ * <p>
+ * The policy <code>fixed</code> is one whole frame per chunk, as NexusScanInfo.createChunk()
+ * gives, <code>frame</code> and <code>scan</code> are the read patterns of the {@link ChunkingService}.
+ * The lossless filter is applied by the NeXus file when <code>compression</code> is set.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations=3)
+@Measurement(iterations=5)
+public class ChunkingBenchmark {
+
+	private static final String PATH = "/entry/instrument/detector/data";
+
+	@Param({"fixed", "frame", "scan"})
+	private String policy;
+
+	@Param({"false", "true"})
+	private boolean compression;
+
+	@Param({"256"})
+	private int frameSize; // Pixels along each side of the frame
+
+	@Param({"10"})
+	private int size; // Points along each grid axis
+
+	private int[]    shape;
+	private int[]    chunk;
+	private IDataset frame;
+	private File     dir;
+	private File     file;
+	private int      count;
+	private int      reads;
+
+	private NexusFile     reader;
+	private ILazyDataset  data;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		BenchmarkServices.getInstance(); // The NeXus file factory
+
+		final int[] scanShape = new int[]{size, size};
+		shape = new int[]{size, size, frameSize, frameSize};
+		if ("fixed".equals(policy)) {
+			chunk = new int[]{1, 1, frameSize, frameSize};
+		} else {
+			final ChunkingModel model = new ChunkingModel();
+			model.setReadPattern("scan".equals(policy) ? ReadPattern.SCAN : ReadPattern.FRAME);
+			chunk = new ChunkingService().createChunk(model, "detector/data", scanShape, Double.class, frameSize, frameSize);
+		}
+		frame = Random.rand(1, 1, frameSize, frameSize);
+		dir   = Files.createTempDirectory("chunking_benchmark").toFile();
+
+		// The file to read back
+		write(new File(dir, "read.nxs"));
+		reader = ServiceHolder.getNexusFileFactory().newNexusFile(new File(dir, "read.nxs").getAbsolutePath());
+		reader.openToRead();
+		final DataNode node = reader.getData(PATH);
+		data = node.getDataset();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		if (reader!=null) reader.close();
+		delete(dir);
+	}
+
+	@Setup(Level.Invocation)
+	public void createFile() {
+		file = new File(dir, "scan"+(count++)+".nxs");
+	}
+
+	@TearDown(Level.Invocation)
+	public void deleteFile() {
+		if (file!=null) file.delete();
+	}
+
+	@Benchmark
+	public void write() throws Exception {
+		write(file);
+	}
+
+	@Benchmark
+	public IDataset readFrame() throws Exception {
+		final int y = reads++ % size;
+		return data.getSlice(new int[]{y, size/2, 0, 0}, new int[]{y+1, size/2+1, frameSize, frameSize}, null);
+	}
+
+	@Benchmark
+	public IDataset readMap() throws Exception {
+		final int pixel = reads++ % frameSize;
+		return data.getSlice(new int[]{0, 0, pixel, pixel}, new int[]{size, size, pixel+1, pixel+1}, null);
+	}
+
+	private void write(File file) throws Exception {
+		final NexusFile nfile = ServiceHolder.getNexusFileFactory().newNexusFile(file.getAbsolutePath());
+		try {
+			nfile.createAndOpenToWrite();
+			final ILazyWriteableDataset lazy = new LazyWriteableDataset("data", Double.class, shape, shape, chunk, null);
+			nfile.createData(PATH, lazy, compression ? NexusFile.COMPRESSION_LZW_L1 : NexusFile.COMPRESSION_NONE, true);
+			for (int y = 0; y < size; y++) {
+				for (int x = 0; x < size; x++) {
+					lazy.setSlice(null, frame, new int[]{y, x, 0, 0}, new int[]{y+1, x+1, frameSize, frameSize}, null);
+				}
+			}
+		} finally {
+			nfile.close();
+		}
+	}
+
+	private static void delete(File file) {
+		if (file==null) return;
+		final File[] children = file.listFiles();
+		if (children!=null) for (File child : children) delete(child);
+		file.delete();
+	}
+}
@@ -0,0 +1,114 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.scanning.api.points.IPosition;
+import org.eclipse.scanning.api.points.MapPosition;
+import org.eclipse.scanning.api.scan.event.IPositioner;
+import org.eclipse.scanning.example.scannable.MockScannable;
+import org.eclipse.scanning.example.scannable.MockScannableConnector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Moving mock scannables at several levels with a positioner, which
+ * fans each level out to the sequencer pool.
+ * <p>
+ * moveNewPlan changes the level of one scannable before each move so the
+ * devices are sorted into a new level plan every time, as they were for every
+ * point before the plan was kept. Comparing it with move gives the cost of
+ * making the plan.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=5)
+@Measurement(iterations=10)
+public class LevelRunnerBenchmark {
+
+	private static final int LEVELS = 5;
+
+	@Param({"1", "10", "50"})
+	private int scannables;
+
+	private LevelScannable[] devices;
+	private MapPosition[]    positions;
+	private IPositioner      positioner;
+	private int              index;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		final BenchmarkServices services = BenchmarkServices.getInstance();
+		final MockScannableConnector connector = services.getConnector();
+
+		devices = new LevelScannable[scannables];
+		for (int i = 0; i < scannables; i++) {
+			devices[i] = new LevelScannable("bench"+i, 1+i%LEVELS);
+			connector.register(devices[i]);
+		}
+
+		// Two positions to move between
+		positions = new MapPosition[2];
+		for (int p = 0; p < positions.length; p++) {
+			positions[p] = new MapPosition();
+			for (int i = 0; i < scannables; i++) {
+				positions[p].put(devices[i].getName(), (double)p);
+				positions[p].putIndex(devices[i].getName(), p);
+			}
+		}
+		positioner = services.getDeviceService().createPositioner();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		positioner.close();
+	}
+
+	@Benchmark
+	public boolean move() throws Exception {
+		return positioner.setPosition(positions[index++ & 1]);
+	}
+
+	@Benchmark
+	public boolean moveNewPlan() throws Exception {
+		final LevelScannable changed = devices[0];
+		changed.setLevel(changed.getLevel()==1 ? LEVELS+1 : 1);
+		return positioner.setPosition(positions[index++ & 1]);
+	}
+
+	/**
+	 * Does not keep the positions it has been moved to, which the
+	 * mock scannable does, so that memory does not grow while the
+	 * benchmark runs.
+	 */
+	public static final class LevelScannable extends MockScannable {
+
+		LevelScannable(String name, int level) {
+			super(name, 0d, level);
+		}
+
+		@Override
+		public Number setPosition(Number value, IPosition loc) throws Exception {
+			setInitialPosition(value);
+			return value;
+		}
+	}
+}
@@ -0,0 +1,104 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.benchmark;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.dawnsci.analysis.api.persistence.IMarshallerService;
+import org.eclipse.scanning.api.event.scan.ScanBean;
+import org.eclipse.scanning.api.event.scan.ScanRequest;
+import org.eclipse.scanning.api.event.status.Status;
+import org.eclipse.scanning.api.points.models.BoundingBox;
+import org.eclipse.scanning.api.points.models.CompoundModel;
+import org.eclipse.scanning.api.points.models.GridModel;
+import org.eclipse.scanning.api.points.models.StepModel;
+import org.eclipse.scanning.example.detector.MandelbrotModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Round trips of the beans which are sent for every scan, and for
+ * every progress event of a scan, through the json marshaller.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=5)
+@Measurement(iterations=10)
+public class MarshallerBenchmark {
+
+	private IMarshallerService     marshaller;
+	private ScanRequest<?>         request;
+	private ScanBean               bean;
+	private String                 requestJson;
+	private String                 beanJson;
+
+	@Setup
+	public void setup() throws Exception {
+		marshaller = BenchmarkServices.getInstance().getMarshaller();
+
+		GridModel grid = new GridModel("x", "y", 100, 100);
+		grid.setBoundingBox(new BoundingBox(0, 0, 3, 3));
+		ScanRequest<Object> req = new ScanRequest<>();
+		req.setCompoundModel(new CompoundModel<>(new StepModel("T", 290, 300, 1), grid));
+		req.setMonitorNamesPerPoint(Arrays.asList("beamcurrent", "T"));
+		req.setFilePath("/tmp/benchmark.nxs");
+		Map<String, Object> detectors = new LinkedHashMap<>();
+		detectors.put("mandelbrot", new MandelbrotModel());
+		req.setDetectors(detectors);
+		request = req;
+
+		bean = new ScanBean(request);
+		bean.setUniqueId(UUID.randomUUID().toString());
+		bean.setName("Benchmark scan");
+		bean.setStatus(Status.RUNNING);
+		bean.setPercentComplete(42);
+		bean.setSize(110000);
+		bean.setPoint(46200);
+
+		requestJson = marshaller.marshal(request);
+		beanJson    = marshaller.marshal(bean);
+	}
+
+	@Benchmark
+	public String marshalScanRequest() throws Exception {
+		return marshaller.marshal(request);
+	}
+
+	@Benchmark
+	public Object unmarshalScanRequest() throws Exception {
+		return marshaller.unmarshal(requestJson, ScanRequest.class);
+	}
+
+	@Benchmark
+	public String marshalScanBean() throws Exception {
+		return marshaller.marshal(bean);
+	}
+
+	@Benchmark
+	public Object unmarshalScanBean() throws Exception {
+		return marshaller.unmarshal(beanJson, ScanBean.class);
+	}
+
+	@Benchmark
+	public Object roundTripScanBean() throws Exception {
+		return marshaller.unmarshal(marshaller.marshal(bean), ScanBean.class);
+	}
+}
@@ -0,0 +1,111 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.benchmark;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.scanning.api.device.IRunnableDevice;
+import org.eclipse.scanning.api.device.IRunnableDeviceService;
+import org.eclipse.scanning.api.points.IPointGenerator;
+import org.eclipse.scanning.api.points.models.BoundingBox;
+import org.eclipse.scanning.api.points.models.GridModel;
+import org.eclipse.scanning.api.scan.models.ScanModel;
+import org.eclipse.scanning.example.detector.PosDetectorModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A grid scan which writes a 64x64 frame for each point to NeXus
+ * through the local HDF5 library, writing the frames one at a time
+ * or in batches.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations=3)
+@Measurement(iterations=5)
+public class NexusWriteBenchmark {
+
+	private static final String BATCH_PROPERTY = "org.eclipse.scanning.sequencer.write.batch.size";
+
+	@Param({"1", "10"})
+	private int batch;
+
+	@Param({"10"})
+	private int size; // Points along each grid axis
+
+	private IRunnableDeviceService   service;
+	private IRunnableDevice<?>       detector;
+	private IPointGenerator<?>       generator;
+	private File                     dir;
+	private File                     file;
+	private int                      count;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		final BenchmarkServices services = BenchmarkServices.getInstance();
+		System.setProperty(BATCH_PROPERTY, String.valueOf(batch));
+
+		service  = services.getDeviceService();
+		detector = service.createRunnableDevice(new PosDetectorModel(1));
+
+		GridModel grid = new GridModel("xNex", "yNex", size, size);
+		grid.setBoundingBox(new BoundingBox(0, 0, 3, 3));
+		generator = services.getGeneratorService().createGenerator(grid);
+
+		dir = Files.createTempDirectory("nexus_benchmark").toFile();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		System.clearProperty(BATCH_PROPERTY);
+		delete(dir);
+	}
+
+	@Setup(Level.Invocation)
+	public void createFile() {
+		file = new File(dir, "scan"+(count++)+".nxs");
+	}
+
+	@TearDown(Level.Invocation)
+	public void deleteFile() {
+		delete(dir);
+		dir.mkdirs();
+	}
+
+	@Benchmark
+	public void scan() throws Exception {
+		final ScanModel smodel = new ScanModel();
+		smodel.setPositionIterable(generator);
+		smodel.setDetectors(detector);
+		smodel.setFilePath(file.getAbsolutePath());
+
+		IRunnableDevice<ScanModel> scanner = service.createRunnableDevice(smodel, null);
+		scanner.run(null);
+	}
+
+	private static void delete(File file) {
+		if (file==null) return;
+		final File[] children = file.listFiles();
+		if (children!=null) for (File child : children) delete(child);
+		file.delete();
+	}
+}
@@ -0,0 +1,82 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.benchmark;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.scanning.api.points.IPointGenerator;
+import org.eclipse.scanning.api.points.IPointGeneratorService;
+import org.eclipse.scanning.api.points.IPointGeneratorService.Engine;
+import org.eclipse.scanning.api.points.IPosition;
+import org.eclipse.scanning.api.points.models.BoundingBox;
+import org.eclipse.scanning.api.points.models.CompoundModel;
+import org.eclipse.scanning.api.points.models.GridModel;
+import org.eclipse.scanning.api.points.models.StepModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Making the points of a step and grid scan with the Jython
+ * and the Java engine for the scan point generator.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=5)
+@Measurement(iterations=10)
+public class PointGenerationBenchmark {
+
+	@Param({"JYTHON", "JAVA"})
+	private Engine engine;
+
+	@Param({"10", "100"})
+	private int    size; // Points along each grid axis
+
+	private IPointGeneratorService   service;
+	private CompoundModel<?>         model;
+	private IPointGenerator<?>       generator;
+
+	@Setup
+	public void setup() throws Exception {
+		service = BenchmarkServices.getInstance().getGeneratorService();
+		service.setEngine(engine);
+
+		GridModel grid = new GridModel("x", "y", size, size);
+		grid.setBoundingBox(new BoundingBox(0, 0, 3, 3));
+		model = new CompoundModel<>(new StepModel("T", 290, 300, 1), grid);
+		generator = service.createCompoundGenerator(model);
+	}
+
+	/**
+	 * Iterates over all the points of a generator which has already been made.
+	 */
+	@Benchmark
+	public void iterate(Blackhole hole) {
+		for (Iterator<IPosition> it = generator.iterator(); it.hasNext();) hole.consume(it.next());
+	}
+
+	/**
+	 * Makes the generator from the model and finds its size, as is done
+	 * when a scan is submitted.
+	 */
+	@Benchmark
+	public int createAndSize() throws Exception {
+		return service.createCompoundGenerator(model).size();
+	}
+}
@@ -0,0 +1,74 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.scanning.api.points.IPosition;
+import org.eclipse.scanning.api.points.MapPosition;
+import org.eclipse.scanning.api.points.Point;
+import org.eclipse.scanning.api.points.Scalar;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Making positions and joining them with compound(), which
+ * the generators do for every point of a scan.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=5)
+@Measurement(iterations=10)
+public class PositionBenchmark {
+
+	private IPosition outer;
+	private IPosition inner;
+	private int       index;
+
+	@Setup
+	public void setup() {
+		outer = new Scalar<>("T", 4, 294d);
+		inner = new Point("x", 3, 0.3d, "y", 7, 0.7d);
+	}
+
+	@Benchmark
+	public IPosition createMapPosition() {
+		final int i = index++ & 0xff;
+		final MapPosition pos = new MapPosition();
+		pos.put("x", i*0.1d);
+		pos.putIndex("x", i);
+		pos.put("y", i*0.2d);
+		pos.putIndex("y", i);
+		return pos;
+	}
+
+	@Benchmark
+	public IPosition createPoint() {
+		final int i = index++ & 0xff;
+		return new Point("x", i, i*0.1d, "y", i, i*0.2d);
+	}
+
+	@Benchmark
+	public IPosition compound() {
+		return inner.compound(outer);
+	}
+
+	@Benchmark
+	public Object compoundAndGet() {
+		return inner.compound(outer).get("x");
+	}
+}
@@ -17,7 +17,6 @@ import java.net.URI;
 import javax.jms.JMSException;
 import javax.jms.Queue;
 import javax.jms.QueueConnection;
-import javax.jms.QueueConnectionFactory;
 import javax.jms.QueueSession;
 import javax.jms.Session;
 import javax.jms.Topic;
@@ -85,6 +84,7 @@ class AbstractConnection {
 			return session.createTopic(topicName);
 
 		} catch (Exception ne) {
+			getPool().invalidate(connection);
 			createConnection();
 			createQSession();
 
@@ -109,6 +109,7 @@ class AbstractConnection {
 			return qSession.createQueue(queueName);
 
 		} catch (Exception ne) {
+			getPool().invalidate(connection);
 			createConnection();
 			createQSession();
 
@@ -125,16 +126,22 @@ class AbstractConnection {
 		this.qSession     = connection.createQueueSession(false, Session.AUTO_ACKNOWLEDGE);
 	}
 
+	/**
+	 * The connection is shared with the other connections to the same uri,
+	 * it is given back to the pool on disconnect rather than closed.
+	 *
+	 * @throws JMSException
+	 */
 	protected void createConnection() throws JMSException {
-		Object factory = service.createConnectionFactory(uri);
-		QueueConnectionFactory connectionFactory = (QueueConnectionFactory)factory;
-		this.connection = connectionFactory.createQueueConnection();
-		connection.start();
+		this.connection = getPool().getConnection();
+	}
+
+	ConnectionPool getPool() {
+		return ConnectionPool.getPool(service, uri);
 	}
 
 	public void disconnect() throws EventException {
 		try {
-			if (connection!=null)        connection.close();
 			if (session!=null)           session.close();
 			if (qSession!=null)          qSession.close();
 
@@ -142,6 +149,7 @@ class AbstractConnection {
 			logger.error("Internal error - unable to close connection!", ne);
 
 		} finally {
+			getPool().release(connection);
 			connection = null;
 			session = null;
 			qSession = null;
@@ -258,7 +266,7 @@ class AbstractConnection {
 		return id1.equals(id2);
 	}
 
-	private Object getUniqueId(Object bean) {
+	static Object getUniqueId(Object bean) {
 
 		if (bean instanceof StatusBean) {
 			return ((StatusBean)bean).getUniqueId();
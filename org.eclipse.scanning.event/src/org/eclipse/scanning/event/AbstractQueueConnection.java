@@ -12,26 +12,19 @@
 package org.eclipse.scanning.event;
 
 import java.net.URI;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Enumeration;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
-import javax.jms.JMSException;
 import javax.jms.Message;
 import javax.jms.MessageConsumer;
-import javax.jms.MessageProducer;
 import javax.jms.Queue;
 import javax.jms.QueueBrowser;
-import javax.jms.QueueConnection;
-import javax.jms.QueueConnectionFactory;
 import javax.jms.QueueSession;
-import javax.jms.Session;
 import javax.jms.TextMessage;
 
 import org.eclipse.scanning.api.event.EventConstants;
@@ -168,106 +161,87 @@ public abstract class AbstractQueueConnection<U extends StatusBean> extends Abst
 		return id;
 	}
 
+	/**
+	 * Get a set of beans using the indexed store for the set rather than
+	 * browsing the queue.
+	 *
+	 * @param setName
+	 * @param fieldName to sort by, may be null
+	 * @return
+	 * @throws EventException
+	 */
+	protected List<U> getStatusSet(String setName, String fieldName) throws EventException {
+		try {
+			return getStore(setName).getBeans(beanClass, getComparator(fieldName));
+		} catch (Exception e) {
+			throw new EventException("Cannot get the beans for set " + setName, e);
+		}
+	}
+
+	StatusSetStore getStore(String queueName) {
+		return StatusSetStore.getStore(uri, queueName, service);
+	}
+
 	@Override
 	public void cleanQueue(String queueName) throws EventException {
 
 		try {
-			QueueConnection qCon = null;
+			final StatusSetStore store = getStore(queueName);
+			final Map<String, String> entries = store.getEntries();
 
-			try {
-				QueueConnectionFactory connectionFactory = (QueueConnectionFactory)service.createConnectionFactory(uri);
-				qCon  = connectionFactory.createQueueConnection();
-				QueueSession    qSes  = qCon.createQueueSession(false, Session.AUTO_ACKNOWLEDGE);
-				Queue queue   = qSes.createQueue(queueName);
-				qCon.start();
+			for (Map.Entry<String, String> entry : entries.entrySet()) {
 
-				QueueBrowser qb = qSes.createBrowser(queue);
-
-				@SuppressWarnings("rawtypes")
-				Enumeration  e  = qb.getEnumeration();
-
-				Map<String, StatusBean> failIds = new LinkedHashMap<String, StatusBean>(7);
-				List<String>          removeIds = new ArrayList<String>(7);
-				while(e.hasMoreElements()) {
-					Message m = (Message)e.nextElement();
-					if (m==null) continue;
-					if (m instanceof TextMessage) {
-						TextMessage t = (TextMessage)m;
-
-						try {
-							final String     json  = t.getText();
-							@SuppressWarnings("unchecked")
-							final Class<U> statusBeanClass = (Class<U>) StatusBean.class;
-							final StatusBean qbean = service.unmarshal(json, beanClass != null ? beanClass : statusBeanClass);
-							if (qbean==null)               continue;
-							if (qbean.getStatus()==null)   continue;
-							if (!qbean.getStatus().isStarted() || qbean.getStatus()==Status.PAUSED) {
-								failIds.put(t.getJMSMessageID(), qbean);
-								continue;
-							}
-
-							// If it has failed, we clear it up
-							if (qbean.getStatus()==Status.FAILED) {
-								removeIds.add(t.getJMSMessageID());
-								continue;
-							}
-							if (qbean.getStatus()==Status.NONE) {
-								removeIds.add(t.getJMSMessageID());
-								continue;
-							}
-
-							// If it is running and older than a certain time, we clear it up
-							if (qbean.getStatus().isRunning()) {
-								final long submitted = qbean.getSubmissionTime();
-								final long current   = System.currentTimeMillis();
-								if (current-submitted > getMaximumRunningAge()) {
-									removeIds.add(t.getJMSMessageID());
-									continue;
-								}
-							}
-
-							if (qbean.getStatus().isFinal()) {
-								final long submitted = qbean.getSubmissionTime();
-								final long current   = System.currentTimeMillis();
-								if (current-submitted > getMaximumCompleteAge()) {
-									removeIds.add(t.getJMSMessageID());
-								}
-							}
-
-						} catch (Exception ne) {
-							logger.warn("Message "+t.getText()+" is not legal and will be removed.", ne);
-							removeIds.add(t.getJMSMessageID());
+				final String key  = entry.getKey();
+				final String json = entry.getValue();
+				try {
+					@SuppressWarnings("unchecked")
+					final Class<U> statusBeanClass = (Class<U>) StatusBean.class;
+					final StatusBean qbean = service.unmarshal(json, beanClass != null ? beanClass : statusBeanClass);
+					if (qbean==null)               continue;
+					if (qbean.getStatus()==null)   continue;
+
+					// We fail the non-started jobs now - otherwise we could
+					// actually start them late. TODO check this
+					if (!qbean.getStatus().isStarted() || qbean.getStatus()==Status.PAUSED) {
+						qbean.setStatus(Status.FAILED);
+						if (store.update(key, service.marshal(qbean), false)) {
+							logger.warn("Failed job "+qbean.getName()+" key("+key+")");
 						}
+						continue;
 					}
-				}
-
-				// We fail the non-started jobs now - otherwise we could
-				// actually start them late. TODO check this
-				final List<String> ids = new ArrayList<String>();
-				ids.addAll(failIds.keySet());
-				ids.addAll(removeIds);
 
-				if (ids.size()>0) {
-
-					for (String jMSMessageID : ids) {
-						MessageConsumer consumer = qSes.createConsumer(queue, "JMSMessageID = '"+jMSMessageID+"'");
-						Message m = consumer.receive(Constants.getReceiveFrequency());
-						consumer.close();
-						if (removeIds.contains(jMSMessageID)) continue; // We are done
-
-						if (m!=null && m instanceof TextMessage) {
-							MessageProducer producer = qSes.createProducer(queue);
-							final StatusBean    bean = failIds.get(jMSMessageID);
-							bean.setStatus(Status.FAILED);
-							producer.send(qSes.createTextMessage(service.marshal(bean)));
+					// If it has failed, we clear it up
+					if (qbean.getStatus()==Status.FAILED) {
+						store.remove(key);
+						continue;
+					}
+					if (qbean.getStatus()==Status.NONE) {
+						store.remove(key);
+						continue;
+					}
 
-							logger.warn("Failed job "+bean.getName()+" messageid("+jMSMessageID+")");
+					// If it is running and older than a certain time, we clear it up
+					if (qbean.getStatus().isRunning()) {
+						final long submitted = qbean.getSubmissionTime();
+						final long current   = System.currentTimeMillis();
+						if (current-submitted > getMaximumRunningAge()) {
+							store.remove(key);
+							continue;
+						}
+					}
 
+					if (qbean.getStatus().isFinal()) {
+						final long submitted = qbean.getSubmissionTime();
+						final long current   = System.currentTimeMillis();
+						if (current-submitted > getMaximumCompleteAge()) {
+							store.remove(key);
 						}
 					}
+
+				} catch (Exception ne) {
+					logger.warn("Message "+json+" is not legal and will be removed.", ne);
+					store.remove(key);
 				}
-			} finally {
-				if (qCon!=null) qCon.close();
 			}
 		} catch (Exception ne) {
 			throw new EventException("Problem connecting to "+queueName+" in order to clean it!", ne);
@@ -278,37 +252,31 @@ public abstract class AbstractQueueConnection<U extends StatusBean> extends Abst
 	@Override
 	public void clearQueue(String qName) throws EventException {
 
-		QueueConnection qCon = null;
 		try {
-			QueueConnectionFactory connectionFactory = (QueueConnectionFactory)service.createConnectionFactory(uri);
-			qCon  = connectionFactory.createQueueConnection(); // This times out when the server is not there.
-			QueueSession    qSes  = qCon.createQueueSession(false, Session.AUTO_ACKNOWLEDGE);
-			Queue queue   = qSes.createQueue(qName);
-			qCon.start();
-
-			QueueBrowser qb = qSes.createBrowser(queue);
-
-			@SuppressWarnings("rawtypes")
-			Enumeration  e  = qb.getEnumeration();
-			while(e.hasMoreElements()) {
-				Message msg = (Message)e.nextElement();
-				MessageConsumer consumer = qSes.createConsumer(queue, "JMSMessageID = '"+msg.getJMSMessageID()+"'");
-				Message rem = consumer.receive(Constants.getReceiveFrequency());
-				if (rem!=null) System.out.println("Removed "+rem);
-				consumer.close();
-			}
+			getPool().execute((qSes, producer) -> {
+				Queue queue   = qSes.createQueue(qName);
+				QueueBrowser qb = qSes.createBrowser(queue);
+				try {
+					@SuppressWarnings("rawtypes")
+					Enumeration  e  = qb.getEnumeration();
+					while(e.hasMoreElements()) {
+						Message msg = (Message)e.nextElement();
+						MessageConsumer consumer = qSes.createConsumer(queue, "JMSMessageID = '"+msg.getJMSMessageID()+"'");
+						Message rem = consumer.receive(Constants.getReceiveFrequency());
+						if (rem!=null) System.out.println("Removed "+rem);
+						consumer.close();
+					}
+				} finally {
+					qb.close();
+				}
+				return null;
+			}, true);
 
 		} catch (Exception ne) {
 			throw new EventException(ne);
 
 		} finally {
-			if (qCon!=null) {
-				try {
-					qCon.close();
-				} catch (JMSException e) {
-					logger.error("Cannot close queue!", e);
-				}
-			}
+			StatusSetStore.invalidate(uri, qName);
 		}
 	}
 
@@ -384,9 +352,6 @@ public abstract class AbstractQueueConnection<U extends StatusBean> extends Abst
 	@Override
 	public boolean remove(U bean, String queueName) throws EventException {
 
-		QueueConnection send     = null;
-		QueueSession    session  = null;
-
 		PauseBean pbean = new PauseBean(queueName);
 		pbean.setMessage("Pause to remove '"+bean.getName()+"' ");
 
@@ -395,60 +360,55 @@ public abstract class AbstractQueueConnection<U extends StatusBean> extends Abst
 		if (!isAlreadyPaused) publisher.broadcast(pbean);
 
 		try {
-
-			QueueConnectionFactory connectionFactory = (QueueConnectionFactory)service.createConnectionFactory(uri);
-			send  = connectionFactory.createQueueConnection(); // This times out when the server is not there.
-			session  = send.createQueueSession(false, Session.AUTO_ACKNOWLEDGE);
-			Queue queue   = session.createQueue(queueName);
-			send.start();
-
-			QueueBrowser qb = session.createBrowser(queue);
-			@SuppressWarnings("rawtypes")
-			Enumeration  e  = qb.getEnumeration();
-
-			String jMSMessageID = null;
-			while(e.hasMoreElements()) {
-				Message m = (Message)e.nextElement();
-				if (m==null) continue;
-				if (m instanceof TextMessage) {
-					TextMessage t = (TextMessage)m;
-
-					final U qbean = service.unmarshal(t.getText(), null);
-					if (qbean==null) continue;
-					if (isSame(qbean, bean)) {
-						jMSMessageID = t.getJMSMessageID();
-						break;
-					}
-				}
-			}
-
-			qb.close();
-
-			if (jMSMessageID!=null) {
-				MessageConsumer consumer = session.createConsumer(queue, "JMSMessageID = '"+jMSMessageID+"'");
-				Message m = consumer.receive(1000);
-				consumer.close();
-				return m!=null; // It might have been removed ok
-			}
-
-			return false; // It was not removed
+			return getPool().execute((session, producer) -> remove(session, bean, queueName), true);
 
 		} catch (Exception ne) {
 			throw new EventException("Cannot remove item "+bean, ne);
 
 		}  finally {
+			StatusSetStore.invalidate(uri, queueName);
 			if (!isAlreadyPaused) {
 				pbean.setPause(false);
 				publisher.broadcast(pbean);
 			}
-			try {
-				if (send!=null)     send.close();
-				if (session!=null)  session.close();
-			} catch (Exception e) {
-				throw new EventException("Cannot close connection as expected!", e);
+		}
+
+	}
+
+	private boolean remove(QueueSession session, U bean, String queueName) throws Exception {
+
+		Queue queue   = session.createQueue(queueName);
+
+		QueueBrowser qb = session.createBrowser(queue);
+		@SuppressWarnings("rawtypes")
+		Enumeration  e  = qb.getEnumeration();
+
+		String jMSMessageID = null;
+		while(e.hasMoreElements()) {
+			Message m = (Message)e.nextElement();
+			if (m==null) continue;
+			if (m instanceof TextMessage) {
+				TextMessage t = (TextMessage)m;
+
+				final U qbean = service.unmarshal(t.getText(), null);
+				if (qbean==null) continue;
+				if (isSame(qbean, bean)) {
+					jMSMessageID = t.getJMSMessageID();
+					break;
+				}
 			}
 		}
 
+		qb.close();
+
+		if (jMSMessageID!=null) {
+			MessageConsumer consumer = session.createConsumer(queue, "JMSMessageID = '"+jMSMessageID+"'");
+			Message m = consumer.receive(1000);
+			consumer.close();
+			return m!=null; // It might have been removed ok
+		}
+
+		return false; // It was not removed
 	}
 
 	@Override
@@ -0,0 +1,341 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.event;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import javax.jms.Connection;
+import javax.jms.JMSException;
+import javax.jms.MessageProducer;
+import javax.jms.QueueConnection;
+import javax.jms.QueueConnectionFactory;
+import javax.jms.QueueSession;
+import javax.jms.Session;
+
+import org.eclipse.scanning.api.event.IEventConnectorService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A pool of broker connections for each connector service and uri.
+ *
+ * Connections are expensive to make and thread safe so there is one connection
+ * for each uri which the connection classes of the event module share. Sessions
+ * are not thread safe, they are borrowed from the pool and given back when the
+ * work is done so that submitting a bean or reading a queue does not open and close
+ * a connection each time.
+ *
+ * The connection is checked before it is used if it has failed or has not been
+ * checked for <code>org.eclipse.scanning.event.pool.checkTime</code> ms (default 5000).
+ * If it is not healthy a new connection is made and the idle sessions are thrown away.
+ * The number of idle sessions kept is set by <code>org.eclipse.scanning.event.pool.maxIdle</code>
+ * (default 8).
+ *
+ * Pooling may be switched off by setting <code>org.eclipse.scanning.event.pool.disabled</code>,
+ * each connection and session is then made when it is asked for and closed when it is released.
+ */
+final class ConnectionPool {
+
+	private static final Logger logger = LoggerFactory.getLogger(ConnectionPool.class);
+
+	private static final Map<IEventConnectorService, Map<URI, ConnectionPool>> pools = new WeakHashMap<>(3);
+
+	private final URI                    uri;
+	private final IEventConnectorService service;
+
+	// Guarded by this
+	private QueueConnection              connection;
+	private volatile boolean             failed;
+	private long                         checkTime;
+	private final Deque<PooledSession>   idle;
+
+	private ConnectionPool(IEventConnectorService service, URI uri) {
+		this.service = service;
+		this.uri     = uri;
+		this.idle    = new ArrayDeque<>(getMaximumIdle());
+	}
+
+	/**
+	 * Get the pool for a uri, creating it if required.
+	 *
+	 * @param service
+	 * @param uri
+	 * @return
+	 */
+	static ConnectionPool getPool(IEventConnectorService service, URI uri) {
+		synchronized (pools) {
+			Map<URI, ConnectionPool> forService = pools.get(service);
+			if (forService==null) {
+				forService = new HashMap<>(3);
+				pools.put(service, forService);
+			}
+			ConnectionPool pool = forService.get(uri);
+			if (pool==null) {
+				pool = new ConnectionPool(service, uri);
+				forService.put(uri, pool);
+			}
+			return pool;
+		}
+	}
+
+	/**
+	 * Work done with a session borrowed from the pool.
+	 *
+	 * @param <R>
+	 */
+	interface SessionTask<R> {
+		/**
+		 *
+		 * @param session
+		 * @param producer a producer with no destination which may be used to send to any queue or topic.
+		 * @return
+		 * @throws Exception
+		 */
+		R run(QueueSession session, MessageProducer producer) throws Exception;
+	}
+
+	/**
+	 * Run some work with a pooled session, the work is not run again if it fails.
+	 * Use this for work which sends something so that it is not sent twice.
+	 *
+	 * @param task
+	 * @return
+	 * @throws Exception
+	 */
+	<R> R execute(SessionTask<R> task) throws Exception {
+		return execute(task, false);
+	}
+
+	/**
+	 * Run some work with a pooled session. If a session cannot be borrowed because of
+	 * the broker the connection is checked, made again if required, and the work is run.
+	 * If the work itself fails it is only run once more if it is idempotent.
+	 *
+	 * @param task
+	 * @param idempotent true if the work may safely be run twice, for instance reading a queue.
+	 * @return
+	 * @throws Exception
+	 */
+	<R> R execute(SessionTask<R> task, boolean idempotent) throws Exception {
+		try {
+			return run(borrowChecked(), task);
+		} catch (JMSException ne) {
+			if (!idempotent) throw ne;
+			logger.debug("Retrying with a checked connection to "+uri, ne);
+			return run(borrowChecked(), task);
+		}
+	}
+
+	private PooledSession borrowChecked() throws JMSException {
+		try {
+			return borrow();
+		} catch (JMSException ne) {
+			// Nothing has been done yet so it is safe to try again.
+			logger.debug("Borrowing with a checked connection to "+uri, ne);
+			failed = true;
+			return borrow();
+		}
+	}
+
+	private <R> R run(PooledSession pooled, SessionTask<R> task) throws Exception {
+		boolean ok = false;
+		try {
+			R ret = task.run(pooled.session, pooled.producer);
+			ok = true;
+			return ret;
+		} finally {
+			if (ok) {
+				release(pooled);
+			} else {
+				invalidate(pooled);
+			}
+		}
+	}
+
+	/**
+	 * The shared connection, which is started. The connection must be given back
+	 * with {@link #release(Connection)} and must not be closed.
+	 *
+	 * @return
+	 * @throws JMSException
+	 */
+	synchronized QueueConnection getConnection() throws JMSException {
+		if (isDisabled()) return createConnection();
+		if (connection==null || failed || System.currentTimeMillis()-checkTime > getCheckTime()) check();
+		return connection;
+	}
+
+	/**
+	 * Gives back a connection from {@link #getConnection()}, connections which are not
+	 * shared are closed.
+	 *
+	 * @param con
+	 */
+	void release(Connection con) {
+		if (con==null || isShared(con)) return;
+		try {
+			con.close();
+		} catch (JMSException ne) {
+			logger.debug("Cannot close connection to "+uri, ne);
+		}
+	}
+
+	/**
+	 * Tell the pool that a connection it gave out has failed, it is checked
+	 * before it is next used.
+	 * @param con
+	 */
+	void invalidate(Connection con) {
+		if (isShared(con)) failed = true;
+	}
+
+	synchronized boolean isShared(Connection con) {
+		return con!=null && con==connection;
+	}
+
+	/**
+	 * Something holding on to a connection, for instance for a subscription, may ask
+	 * if it is still the one to use. Connections which are not shared are owned by
+	 * whoever asked for them and are always current.
+	 *
+	 * @param con
+	 * @return false if the connection has failed or been replaced
+	 */
+	synchronized boolean isCurrent(Connection con) {
+		if (con==null) return false;
+		if (isDisabled()) return true;
+		return con==connection && !failed;
+	}
+
+	/**
+	 * Borrow a session. It must be given back with {@link #release(PooledSession)} or, if it
+	 * might be broken, {@link #invalidate(PooledSession)}.
+	 *
+	 * @return
+	 * @throws JMSException
+	 */
+	PooledSession borrow() throws JMSException {
+		synchronized (this) {
+			QueueConnection con = getConnection();
+			PooledSession pooled = idle.pollFirst();
+			if (pooled!=null && pooled.connection==con) return pooled;
+			if (pooled!=null) pooled.close();
+			return new PooledSession(con);
+		}
+	}
+
+	void release(PooledSession pooled) {
+		synchronized (this) {
+			if (!isDisabled() && !failed && pooled.connection==connection && idle.size()<getMaximumIdle()) {
+				idle.addFirst(pooled);
+				return;
+			}
+		}
+		pooled.close();
+		release(pooled.connection);
+	}
+
+	void invalidate(PooledSession pooled) {
+		invalidate(pooled.connection);
+		pooled.close();
+		release(pooled.connection);
+	}
+
+	/**
+	 * Checks the shared connection and makes it again if it is not healthy.
+	 * @throws JMSException
+	 */
+	private void check() throws JMSException {
+		if (connection!=null) {
+			try {
+				connection.getClientID(); // Throws if the connection is closed or the transport has failed.
+				if (!failed) {
+					checkTime = System.currentTimeMillis();
+					return;
+				}
+				// Something using it failed, make sure it can still make a session.
+				connection.createQueueSession(false, Session.AUTO_ACKNOWLEDGE).close();
+				failed    = false;
+				checkTime = System.currentTimeMillis();
+				return;
+
+			} catch (JMSException ne) {
+				logger.warn("Connection to "+uri+" has failed, it will be made again.");
+				disconnect();
+			}
+		}
+		connection = createConnection();
+		connection.setExceptionListener(ne -> {
+			logger.warn("Connection to "+uri+" reported a failure.", ne);
+			failed = true;
+		});
+		failed    = false;
+		checkTime = System.currentTimeMillis();
+	}
+
+	private QueueConnection createConnection() throws JMSException {
+		QueueConnectionFactory connectionFactory = (QueueConnectionFactory)service.createConnectionFactory(uri);
+		QueueConnection con = connectionFactory.createQueueConnection(); // This times out when the server is not there.
+		con.start();
+		return con;
+	}
+
+	private void disconnect() {
+		for (PooledSession pooled : idle) pooled.close();
+		idle.clear();
+		try {
+			if (connection!=null) connection.close();
+		} catch (JMSException ne) {
+			logger.debug("Cannot close connection to "+uri, ne);
+		} finally {
+			connection = null;
+		}
+	}
+
+	private static boolean isDisabled() {
+		return Boolean.getBoolean("org.eclipse.scanning.event.pool.disabled");
+	}
+
+	private static long getCheckTime() {
+		return Long.getLong("org.eclipse.scanning.event.pool.checkTime", 5000);
+	}
+
+	private static int getMaximumIdle() {
+		return Integer.getInteger("org.eclipse.scanning.event.pool.maxIdle", 8);
+	}
+
+	/**
+	 * A session and an anonymous producer which belong to a pool.
+	 */
+	static final class PooledSession {
+
+		final QueueConnection connection;
+		final QueueSession    session;
+		final MessageProducer producer;
+
+		private PooledSession(QueueConnection connection) throws JMSException {
+			this.connection = connection;
+			this.session    = connection.createQueueSession(false, Session.AUTO_ACKNOWLEDGE);
+			this.producer   = session.createProducer(null);
+		}
+
+		private void close() {
+			try {
+				session.close();
+			} catch (JMSException ne) {
+				logger.debug("Cannot close pooled session", ne);
+			}
+		}
+	}
+}
@@ -14,24 +14,20 @@ package org.eclipse.scanning.event;
 import java.lang.ref.WeakReference;
 import java.net.URI;
 import java.util.ArrayList;
-import java.util.Enumeration;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 
-import javax.jms.JMSException;
-import javax.jms.Message;
-import javax.jms.MessageConsumer;
-import javax.jms.MessageProducer;
-import javax.jms.Queue;
-import javax.jms.QueueBrowser;
-import javax.jms.QueueConnectionFactory;
-import javax.jms.Session;
 import javax.jms.TextMessage;
 
 import org.eclipse.scanning.api.event.EventConstants;
@@ -75,12 +71,18 @@ final class ConsumerImpl<U extends StatusBean> extends AbstractQueueConnection<U
 
 	private IProcessCreator<U>            runner;
 	private boolean                       durable;
-	private MessageConsumer               mconsumer;
 
 	private volatile boolean              active;
 	private volatile Map<String, WeakReference<IConsumerProcess<U>>>  processes;
 	private Map<String, U>                overrideMap;
 
+	// When more than one process may run they are each started by a pool of that size,
+	// and hold a slot until their bean reaches a final status.
+	private int                           maximumRunningProcesses = 1;
+	private Semaphore                     runningProcesses;
+	private ExecutorService               processStarter;
+	private final Set<String>             slotHolders = ConcurrentHashMap.newKeySet();
+
 	/*
 	 * Concurrency design recommended by Keith Ralphs after investigating
 	 * how to pause and resume a collection cycle using Reentrant locks.
@@ -142,11 +144,8 @@ final class ConsumerImpl<U extends StatusBean> extends AbstractQueueConnection<U
 		if (alive!=null)   alive.disconnect();
 		if (command!=null) command.disconnect();
 		if (overrideMap!=null) overrideMap.clear();
-		try {
-			if (connection!=null) connection.close();
-		} catch (JMSException e) {
-			throw new EventException("Cannot close consumer connection!", e);
-		}
+		StatusSetStore.release(uri, getSubmitQueueName());
+		StatusSetStore.release(uri, getStatusSetName());
 	}
 
 	@Override
@@ -232,66 +231,42 @@ final class ConsumerImpl<U extends StatusBean> extends AbstractQueueConnection<U
 		return false;
 	}
 
+	/**
+	 * Updates the status of a bean which is still in the submission queue. The
+	 * message for the bean is found from the index of the queue and sent again
+	 * with the new status, keeping its place in the queue.
+	 *
+	 * @param bean
+	 * @throws EventException
+	 */
 	protected void updateQueue(U bean) throws EventException {
 		boolean resumeAfter = !awaitPaused;
-		Session session = null;
 		try {
 			pause();
 
-			session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
-			Queue queue = session.createQueue(getSubmitQueueName());
-			QueueBrowser qb = session.createBrowser(queue);
-
-			@SuppressWarnings("rawtypes")
-			Enumeration  e  = qb.getEnumeration();
-			while(e.hasMoreElements()) {
-
-				Message msg = (Message)e.nextElement();
-				TextMessage t = (TextMessage)msg;
-				String json   = t.getText();
-				final StatusBean b = service.unmarshal(json, getBeanClass());
-
-				MessageConsumer consumer = session.createConsumer(queue, "JMSMessageID = '"+msg.getJMSMessageID()+"'");
-				Message rem = consumer.receive(Constants.getReceiveFrequency());
-
-				consumer.close();
-
-				if (rem == null && b.getUniqueId().equals(bean.getUniqueId())) {
-					// Something went wrong, not sure why it does this, TODO investigate
-					createOverrideMap();
-					overrideMap.put(b.getUniqueId(), bean);
-					continue;
-				}
-
-				MessageProducer producer = session.createProducer(queue);
-				if (b.getUniqueId().equals(bean.getUniqueId())) {
-
-					b.setStatus(bean.getStatus());
-					t = session.createTextMessage(service.marshal(b));
-					t.setJMSMessageID(rem.getJMSMessageID());
-					t.setJMSExpiration(rem.getJMSExpiration());
-					t.setJMSTimestamp(rem.getJMSTimestamp());
-					t.setJMSPriority(rem.getJMSPriority());
-					t.setJMSCorrelationID(rem.getJMSCorrelationID());
-				}
-				producer.send(t);
-				producer.close();
+			final StatusSetStore store = getStore(getSubmitQueueName());
+			final String         json  = store.getEntries().get(bean.getUniqueId());
+			boolean updated = false;
+			if (json!=null) {
+				final U b = service.unmarshal(json, getBeanClass());
+				b.setStatus(bean.getStatus());
+				updated = store.update(bean.getUniqueId(), service.marshal(b), false);
+			}
 
+			if (!updated) {
+				// It may have just been consumed, in which case it is overridden when it is run.
+				createOverrideMap();
+				overrideMap.put(bean.getUniqueId(), bean);
 			}
 
 		} catch (Exception ne) {
-			throw new EventException("Cannot reorder queue!", ne);
+			throw new EventException("Cannot update queue!", ne);
 
 		} finally {
 			// Only resume if it wasn't in a paused state before this update
 			if (resumeAfter) {
 				resume();
 			}
-			try {
-				if (session!=null) session.close();
-			} catch (JMSException e) {
-				throw new EventException("Cannot close session!", e);
-			}
 		}
 	}
 
@@ -306,7 +281,7 @@ final class ConsumerImpl<U extends StatusBean> extends AbstractQueueConnection<U
 
 	@Override
 	public List<U> getStatusSet() throws EventException {
-		return getQueue(getStatusSetName(), "submissionTime");
+		return getStatusSet(getStatusSetName(), "submissionTime");
 	}
 
 	@Override
@@ -389,6 +364,7 @@ final class ConsumerImpl<U extends StatusBean> extends AbstractQueueConnection<U
 		@Override
 		public void beanChangePerformed(BeanEvent<U> evt) {
 			U bean = evt.getBean();
+			if (bean.getStatus().isFinal()) releaseSlot(bean.getUniqueId());
 			if (!bean.getStatus().isRequest()) return;
 
 			WeakReference<IConsumerProcess<U>> ref = processes.get(bean.getUniqueId());
@@ -437,6 +413,7 @@ final class ConsumerImpl<U extends StatusBean> extends AbstractQueueConnection<U
 			}
 		} finally {
 	        processes.clear();
+	        if (processStarter!=null) processStarter.shutdown();
 		}
 	}
 
@@ -472,6 +449,14 @@ final class ConsumerImpl<U extends StatusBean> extends AbstractQueueConnection<U
 	private void init() throws EventException {
 
 		this.waitTime = 0;
+		this.runningProcesses = maximumRunningProcesses>1 ? new Semaphore(maximumRunningProcesses) : null;
+		slotHolders.clear();
+		if (processStarter!=null) processStarter.shutdown();
+		this.processStarter = maximumRunningProcesses>1 ? Executors.newFixedThreadPool(maximumRunningProcesses, r -> {
+			Thread thread = new Thread(r, "Start process of "+getName());
+			thread.setDaemon(true);
+			return thread;
+		}) : null;
 
 		if (runner!=null) {
 			alive.setAlive(true);
@@ -499,23 +484,27 @@ final class ConsumerImpl<U extends StatusBean> extends AbstractQueueConnection<U
 		checkPaused(); // blocks until not paused.
 		if (!isActive()) return false; // Might have pasued for a long time.
 
-		// Consumes messages from the queue.
-	Message m = getMessage(uri, getSubmitQueueName());
-        if (m!=null) {
-		waitTime = 0; // We got a message
+		// Wait until fewer than the maximum number of processes are running
+		final Semaphore slots = runningProcesses;
+		if (slots!=null && !slots.tryAcquire(Constants.getReceiveFrequency(), TimeUnit.MILLISECONDS)) return true;
 
-		// TODO FIXME Check if we have the max number of processes
-		// exceeded and wait until we don't...
-
-		TextMessage t = (TextMessage)m;
+		boolean started = false;
+		try {
+			// Consumes messages from the queue.
+			TextMessage m = getStore(getSubmitQueueName()).takeNext(Constants.getReceiveFrequency());
+			if (m!=null) {
+				waitTime = 0; // We got a message
 
-		final String json  = t.getText();
+				final String json  = m.getText();
 
-			@SuppressWarnings("unchecked")
-			final U bean   = (U) service.unmarshal(json, getBeanClass());
+				@SuppressWarnings("unchecked")
+				final U bean   = (U) service.unmarshal(json, getBeanClass());
 
-		executeBean(bean);
-        }
+				started = executeBean(bean, slots);
+			}
+		} finally {
+			if (slots!=null && !started) slots.release();
+		}
         return true;
 	}
 
@@ -618,8 +607,6 @@ final class ConsumerImpl<U extends StatusBean> extends AbstractQueueConnection<U
 
 		try {
 			awaitPaused = true;
-			if (mconsumer!=null) mconsumer.close();
-			mconsumer = null; // Force unpaused consumers to make a new connection.
 			logger.info(getName()+" is paused");
 			System.out.println(getName()+" is paused");
 
@@ -641,7 +628,7 @@ final class ConsumerImpl<U extends StatusBean> extends AbstractQueueConnection<U
 
 		try {
 			awaitPaused = false;
-			// We don't have to actually start anything again because the getMessage(...) call reconnects automatically.
+			// We don't have to actually start anything again, the next bean is taken from the store of the queue.
 			paused.signalAll();
 			logger.info(getName()+" running");
 			System.out.println(getName()+" running");
@@ -669,7 +656,13 @@ final class ConsumerImpl<U extends StatusBean> extends AbstractQueueConnection<U
 		return awaitPaused ? ConsumerStatus.PAUSED : ConsumerStatus.RUNNING;
 	}
 
-	private void executeBean(U bean) throws EventException, InterruptedException {
+	/**
+	 * Runs the bean.
+	 * @param bean
+	 * @param slots the processes which may still run, null if one process runs at a time.
+	 * @return true if the process was started holding a slot, which is released when its bean reaches a final status.
+	 */
+	private boolean executeBean(U bean, Semaphore slots) throws EventException, InterruptedException {
 
 		// We record the bean in the status queue
 		if (overrideMap!=null && overrideMap.containsKey(bean.getUniqueId())) {
@@ -697,15 +690,50 @@ final class ConsumerImpl<U extends StatusBean> extends AbstractQueueConnection<U
 			bean.setStatus(Status.TERMINATED);
 			bean.setMessage("Run aborted before started");
 			status.broadcast(bean);
-			return;
+			return false;
 		}
 
-		if (bean.getStatus().isFinal()) return; // This is not the bean you are looking for.
+		if (bean.getStatus().isFinal()) return false; // This is not the bean you are looking for.
 
 		IConsumerProcess<U> process = runner.createProcess(bean, status);
 		processes.put(bean.getUniqueId(), new WeakReference<IConsumerProcess<U>>(process));
 
-		process.start(); // Depending on the process may run in a separate thread (default is not to)
+		if (slots==null) {
+			process.start(); // Depending on the process may run in a separate thread (default is not to)
+			return false;
+		}
+
+		// Start in the pool so that the next bean may be taken from the queue.
+		// A process which does not block is still running when start() returns.
+		slotHolders.add(bean.getUniqueId());
+		processStarter.execute(() -> {
+			try {
+				process.start();
+			} catch (Exception ne) {
+				logger.error("Cannot run {}", bean, ne);
+				bean.setStatus(Status.FAILED);
+				bean.setMessage(ne.getMessage());
+				try {
+					status.broadcast(bean);
+				} catch (EventException e) {
+					logger.error("Cannot broadcast that {} failed", bean, e);
+				}
+			} finally {
+				// Otherwise released when the final status is published
+				final U done = process.getBean()!=null ? process.getBean() : bean;
+				if (done.getStatus()!=null && done.getStatus().isFinal()) releaseSlot(bean.getUniqueId());
+			}
+		});
+		return true;
+	}
+
+	/**
+	 * Releases the slot of a process run with others, once.
+	 * @param uniqueId of the bean which the process ran
+	 */
+	private void releaseSlot(String uniqueId) {
+		final Semaphore slots = runningProcesses;
+		if (slots!=null && slotHolders.remove(uniqueId)) slots.release();
 	}
 
 	protected void checkTime(long waitTime) {
@@ -717,42 +745,6 @@ final class ConsumerImpl<U extends StatusBean> extends AbstractQueueConnection<U
 		}
 	}
 
-	private Message getMessage(URI uri, String submitQName) throws InterruptedException, JMSException {
-
-		try {
-			if (this.mconsumer == null) {
-				this.mconsumer = createConsumer(uri, submitQName);
-			}
-			return mconsumer.receive(Constants.getReceiveFrequency());
-
-		} catch (Exception ne) {
-			if (Thread.interrupted()) return null;
-			mconsumer = null;
-			try {
-				connection.close();
-			} catch (Exception expected) {
-				logger.info("Cannot close old connection", ne);
-			}
-			throw ne;
-		}
-	}
-
-	private MessageConsumer createConsumer(URI uri, String submitQName) throws JMSException {
-
-		QueueConnectionFactory connectionFactory = (QueueConnectionFactory)service.createConnectionFactory(uri);
-		this.connection = connectionFactory.createQueueConnection();
-		Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
-		Queue queue = session.createQueue(submitQName);
-
-		final MessageConsumer consumer = session.createConsumer(queue);
-		connection.start();
-
-		logger.info(getName()+" Submission ActiveMQ connection to "+uri+" made.");
-
-		return consumer;
-	}
-
-
 	@Override
 	public IProcessCreator<U> getRunner() {
 		return runner;
@@ -797,6 +789,17 @@ final class ConsumerImpl<U extends StatusBean> extends AbstractQueueConnection<U
 		return pauseOnStart;
 	}
 
+	@Override
+	public int getMaximumRunningProcesses() {
+		return maximumRunningProcesses;
+	}
+
+	@Override
+	public void setMaximumRunningProcesses(int maximum) {
+		if (maximum<1) throw new IllegalArgumentException("At least one process must be able to run!");
+		this.maximumRunningProcesses = maximum;
+	}
+
 	@Override
 	public void setPauseOnStart(boolean pauseOnStart) {
 		this.pauseOnStart = pauseOnStart;
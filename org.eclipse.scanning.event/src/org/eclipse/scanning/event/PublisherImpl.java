@@ -14,24 +14,19 @@ package org.eclipse.scanning.event;
 import java.io.PrintStream;
 import java.net.InetAddress;
 import java.net.URI;
-import java.util.Enumeration;
 
 import javax.jms.DeliveryMode;
 import javax.jms.JMSException;
-import javax.jms.Message;
-import javax.jms.MessageConsumer;
 import javax.jms.MessageProducer;
-import javax.jms.Queue;
-import javax.jms.QueueBrowser;
 import javax.jms.TextMessage;
 import javax.jms.Topic;
 
 import org.eclipse.scanning.api.event.EventException;
 import org.eclipse.scanning.api.event.IEventConnectorService;
+import org.eclipse.scanning.api.event.IdBean;
 import org.eclipse.scanning.api.event.alive.ConsumerCommandBean;
 import org.eclipse.scanning.api.event.alive.ConsumerStatus;
 import org.eclipse.scanning.api.event.alive.HeartbeatBean;
-import org.eclipse.scanning.api.event.alive.PauseBean;
 import org.eclipse.scanning.api.event.core.IConsumer;
 import org.eclipse.scanning.api.event.core.IPublisher;
 import org.slf4j.Logger;
@@ -90,6 +85,7 @@ class PublisherImpl<T> extends AbstractConnection implements IPublisher<T> {
 
 		String json = service.marshal(message);
 		TextMessage msg = createTextMessage(json);
+		if (message instanceof IdBean) msg.setJMSCorrelationID(((IdBean)message).getUniqueId()); // Routes responses to requesters
 		producer.send(msg, DeliveryMode.NON_PERSISTENT, priority, messageLifetime);
 		if (out!=null) out.println(json);
 	}
@@ -246,104 +242,23 @@ class PublisherImpl<T> extends AbstractConnection implements IPublisher<T> {
 	}
 
 	/**
+	 * Updates the bean in the status set using the indexed store for the set,
+	 * which finds the message to replace without reading the whole queue.
 	 *
 	 * @param bean
 	 * @throws Exception
 	 */
 	private boolean updateSet(T bean) throws Exception {
 
-
-		Queue     queue = createQueue(getStatusSetName());
-		QueueBrowser qb = qSession.createBrowser(queue);
-
-		@SuppressWarnings("rawtypes")
-		Enumeration  e  = qb.getEnumeration();
-
-		String jMSMessageID = null;
-		while(e.hasMoreElements()) {
-			Message m = (Message)e.nextElement();
-			if (m==null) continue;
-			if (m instanceof TextMessage) {
-				TextMessage t = (TextMessage)m;
-
-				final T qbean;
-				try {
-					@SuppressWarnings("unchecked")
-					Class<T> beanClass = (Class<T>) bean.getClass();
-					qbean = service.unmarshal(t.getText(), beanClass);
-					if (qbean==null) continue;
-				} catch (Exception ne) {
-					// If we cannot deserialize to the type passed in, it certainly is
-					// not going to be the bean which we are looking for.
-					continue;
-				}
-				if (isSame(qbean, bean)) {
-					jMSMessageID = t.getJMSMessageID();
-					break;
-				}
-			}
-		}
-
-		qb.close();
-
-		if (jMSMessageID!=null) {
-			MessageConsumer consumer = qSession.createConsumer(queue, "JMSMessageID = '"+jMSMessageID+"'");
-			Message m = consumer.receive(Constants.getReceiveFrequency());
-			consumer.close();
-			if (m!=null && m instanceof TextMessage) {
-				MessageProducer producer = qSession.createProducer(queue);
-				try {
-					TextMessage t = qSession.createTextMessage(service.marshal(bean));
-					t.setJMSMessageID(m.getJMSMessageID());
-					t.setJMSExpiration(m.getJMSExpiration());
-					t.setJMSTimestamp(m.getJMSTimestamp());
-					t.setJMSPriority(m.getJMSPriority());
-					t.setJMSCorrelationID(m.getJMSCorrelationID());
-
-					producer.send(t);
-				} finally {
-				    producer.close();
-				}
-
-				return true;
-			}
-		}
-
-		if (statusSetAddRequired) { // It wasn't found so we will add it.
-			MessageProducer producer = session.createProducer(queue);
-			try {
-				producer.setDeliveryMode(DeliveryMode.PERSISTENT);
-				String json = null;
-				try {
-					json = service.marshal(bean);
-				} catch (Exception neother) {
-					throw new EventException("Unable to marshall bean "+bean, neother);
-				}
-
-				TextMessage message = session.createTextMessage(json);
-				producer.send(message);
-
-			} finally {
-				producer.close();
-			}
-
-            return true;
+		String json = null;
+		try {
+			json = service.marshal(bean);
+		} catch (Exception neother) {
+			throw new EventException("Unable to marshall bean "+bean, neother);
 		}
 
-		return false;
-	}
-
-	@Override
-	protected boolean isSame(Object qbean, Object bean) {
-
-        if (qbean instanceof PauseBean && bean instanceof PauseBean) {
-		PauseBean q = (PauseBean)qbean;
-		PauseBean b = (PauseBean)bean;
-
-		if (q.getConsumerId()!=null && q.getConsumerId().equals(b.getConsumerId())) return true;
-		if (q.getQueueName()!=null  && q.getQueueName().equals(b.getQueueName()))   return true;
-        }
-		return super.isSame(qbean, bean);
+		StatusSetStore store = StatusSetStore.getStore(uri, getStatusSetName(), service);
+		return store.update(StatusSetStore.getKey(bean), json, statusSetAddRequired);
 	}
 
 	@Override
@@ -15,6 +15,7 @@ import java.lang.reflect.Method;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Enumeration;
 import java.util.HashMap;
@@ -23,14 +24,12 @@ import java.util.Map;
 import java.util.TreeSet;
 
 import javax.jms.Connection;
-import javax.jms.ConnectionFactory;
+import javax.jms.JMSException;
 import javax.jms.Message;
 import javax.jms.MessageConsumer;
 import javax.jms.MessageListener;
 import javax.jms.Queue;
 import javax.jms.QueueBrowser;
-import javax.jms.QueueConnection;
-import javax.jms.QueueConnectionFactory;
 import javax.jms.QueueSession;
 import javax.jms.Session;
 import javax.jms.TextMessage;
@@ -69,7 +68,9 @@ public final class QueueReader<T> {
 
 	/**
 	 * Read the status beans from any queue.
-	 * Returns a list of optionally date-ordered beans in the queue.
+	 * Returns a list of optionally date-ordered beans in the queue. Without
+	 * a comparator the beans are in the order of the queue, a bean which has
+	 * been updated keeps the place it had when it was submitted.
 	 *
 	 * @param uri
 	 * @param queueName
@@ -79,25 +80,27 @@ public final class QueueReader<T> {
 	 * @throws Exception
 	 */
 	public List<T> getBeans(final URI uri, final String queueName, final Class<T> beanClass) throws Exception {
+		// The session comes from the pool so that reading does not make a connection each time.
+		return ConnectionPool.getPool(service, uri).execute((qSes, producer) -> readBeans(qSes, queueName, beanClass), true);
+	}
 
-		QueueConnection qCon = null;
-		try {
-			QueueConnectionFactory connectionFactory = (QueueConnectionFactory)service.createConnectionFactory(uri);
-			qCon  = connectionFactory.createQueueConnection(); // This times out when the server is not there.
-			QueueSession    qSes  = qCon.createQueueSession(false, Session.AUTO_ACKNOWLEDGE);
-			Queue queue   = qSes.createQueue(queueName);
-			qCon.start();
+	private List<T> readBeans(final QueueSession qSes, final String queueName, final Class<T> beanClass) throws JMSException {
 
-			QueueBrowser qb = qSes.createBrowser(queue);
+		Queue queue   = qSes.createQueue(queueName);
+		QueueBrowser qb = qSes.createBrowser(queue);
+		try {
 			@SuppressWarnings("rawtypes")
 			Enumeration  e  = qb.getEnumeration();
 
 
 			final Collection<T> list;
+			final List<Long>    orders;
 			if (comparator!=null) {
-				list = new TreeSet<T>(comparator);
+				list   = new TreeSet<T>(comparator);
+				orders = null;
 			} else {
-				list = new ArrayList<T>(17);
+				list   = new ArrayList<T>(17);
+				orders = new ArrayList<>(17);
 			}
 
 			while(e.hasMoreElements()) {
@@ -111,6 +114,7 @@ public final class QueueReader<T> {
 					try {
 						final T bean = (T)service.unmarshal(json, beanClass != null ? beanClass : statusBeanClass);
 						list.add(bean);
+						if (orders!=null) orders.add(StatusSetStore.getOrder(m));
 
 					} catch (Exception unmarshallable) {
 						System.out.println("Removing old message "+json);
@@ -125,14 +129,24 @@ public final class QueueReader<T> {
 					}
 				}
 			}
+			if (orders!=null) return sort((List<T>)list, orders);
 			return list instanceof List ? (List<T>)list : new ArrayList<T>(list);
 
 		} finally {
-			if (qCon!=null) qCon.close();
+			qb.close();
 		}
 
 	}
 
+	private static <T> List<T> sort(List<T> beans, List<Long> orders) {
+		final List<Integer> indices = new ArrayList<>(beans.size());
+		for (int i = 0; i < beans.size(); i++) indices.add(i);
+		Collections.sort(indices, (a, b) -> Long.compare(orders.get(a), orders.get(b))); // Stable
+		final List<T> sorted = new ArrayList<>(beans.size());
+		for (int i : indices) sorted.add(beans.get(i));
+		return sorted;
+	}
+
 	/**
 	 *
 	 * @param uri
@@ -144,13 +158,12 @@ public final class QueueReader<T> {
 	public Map<String, T> getHeartbeats(final URI uri, final String topicName, final Class<T> clazz, final long monitorTime) throws Exception {
 
 		final Map<String, T> ret = new HashMap<String, T>(3);
+		final ConnectionPool pool = ConnectionPool.getPool(service, uri);
 		Connection topicConnection = null;
+		Session    session = null;
 		try {
-			ConnectionFactory connectionFactory  = (ConnectionFactory)service.createConnectionFactory(uri);
-			topicConnection = connectionFactory.createConnection();
-			topicConnection.start();
-
-			Session session = topicConnection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+			topicConnection = pool.getConnection();
+			session = topicConnection.createSession(false, Session.AUTO_ACKNOWLEDGE);
 
 			final Topic           topic    = session.createTopic(topicName);
 			final MessageConsumer consumer = session.createConsumer(topic);
@@ -180,7 +193,8 @@ public final class QueueReader<T> {
 			logger.error("Cannot listen to topic changes because command server is not there", ne);
 			return null;
 		} finally {
-			topicConnection.close();
+			if (session!=null) session.close();
+			pool.release(topicConnection);
 		}
 
 	}
@@ -12,23 +12,32 @@
 package org.eclipse.scanning.event;
 
 import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
+import javax.jms.JMSException;
+
 import org.eclipse.scanning.api.event.EventException;
 import org.eclipse.scanning.api.event.IEventService;
 import org.eclipse.scanning.api.event.IdBean;
-import org.eclipse.scanning.api.event.bean.BeanEvent;
-import org.eclipse.scanning.api.event.bean.IBeanListener;
 import org.eclipse.scanning.api.event.core.IPublisher;
 import org.eclipse.scanning.api.event.core.IRequester;
-import org.eclipse.scanning.api.event.core.ISubscriber;
 import org.eclipse.scanning.api.event.core.ResponseConfiguration;
 import org.eclipse.scanning.api.event.core.ResponseConfiguration.ResponseType;
+import org.eclipse.scanning.api.event.core.ResponseConfiguration.ResponseWaiter;
 
+/**
+ * A requester which waits for responses using the {@link ResponseChannel} of its
+ * response topic. All the requesters for a topic in the VM share one subscription,
+ * the response to each request is routed to it using its unique id.
+ */
 class RequesterImpl<T extends IdBean> extends AbstractRequestResponseConnection implements IRequester<T> {
 
 	private ResponseConfiguration responseConfiguration;
 
+	private IPublisher<T>         send;
+
 
 	RequesterImpl(URI uri, String reqTopic, String resTopic, IEventService eservice) {
 		super(uri, reqTopic, resTopic, eservice);
@@ -48,37 +57,143 @@ class RequesterImpl<T extends IdBean> extends AbstractRequestResponseConnection
 	}
 
 	@Override
-	public T post(final T request, ResponseConfiguration.ResponseWaiter waiter) throws EventException, InterruptedException {
-
-		// Something to listen
-        final ISubscriber<IBeanListener<T>>  receive = eservice.createSubscriber(getUri(), getResponseTopic());
-
-        // Something to send
-        final IPublisher<T>  send    = eservice.createPublisher(getUri(), getRequestTopic());
-
-        try {
-		// Just listen to our id changing.
-	        receive.addListener(request.getUniqueId(), new IBeanListener<T>() {
-				@Override
-				public void beanChangePerformed(BeanEvent<T> evt) {
-					T response = evt.getBean();
-					request.merge(response);  // The bean must implement merge, for instance DeviceRequest.
-					responseConfiguration.countDown();
+	public T post(final T request, ResponseWaiter waiter) throws EventException, InterruptedException {
+
+		if (waiter==null) waiter = new ResponseWaiter.Dont();
+
+		final ResponseType type    = responseConfiguration.getResponseType();
+		final long         timeout = responseConfiguration.getTimeout();
+		final TimeUnit     unit    = responseConfiguration.getTimeUnit();
+
+		final Response response = send(request, type);
+		try {
+			if (type==ResponseType.ONE) {
+				boolean ok = response.await(timeout, unit);
+				while (!ok && waiter.waitAgain()) {
+					ok = response.await(timeout, unit);
 				}
-			});
+				ok = response.await(timeout, unit); // This is because waitAgain() could be false leaving ok as false, we recheck it!
+				if (!ok) throw new EventException("The timeout of "+timeout+" "+unit+" was reached and no response occurred!");
 
-	        // Send the request
-	        send.broadcast(request);
+			} else if (type==ResponseType.ONE_OR_MORE) {
+				Thread.sleep(unit.toMillis(timeout));
+				while (waiter.waitAgain()) {
+					Thread.sleep(unit.toMillis(timeout));
+				}
+				if (!response.isFound()) throw new EventException("The timeout of "+timeout+" "+unit+" was reached and no response occurred!");
+			}
+			return request;
+
+		} finally {
+			response.close();
+		}
+	}
+
+	@Override
+	public CompletableFuture<T> postAsync(final T request) throws EventException {
 
-	        responseConfiguration.latch(waiter); // Wait or die trying
+		final ResponseType type    = responseConfiguration.getResponseType();
+		final long         timeout = responseConfiguration.getTimeout();
+		final TimeUnit     unit    = responseConfiguration.getTimeUnit();
 
-	        return request;
+		final Response response = send(request, type);
+		response.future.whenComplete((req, ne) -> response.close());
 
-        } finally {
+		ResponseChannel.schedule(() -> {
+			if (response.isFound()) {
+				response.future.complete(request); // Does nothing for ONE, it has already completed.
+			} else {
+				response.future.completeExceptionally(new EventException("The timeout of "+timeout+" "+unit+" was reached and no response occurred!"));
+			}
+		}, timeout, unit);
 
-	        receive.disconnect();
-	        send.disconnect();
-        }
+		return response.future;
+	}
+
+	/**
+	 * Registers for the response and then sends the request.
+	 */
+	private Response send(final T request, ResponseType type) throws EventException {
+
+		final ResponseChannel channel  = ResponseChannel.getChannel(getConnectorService(), getUri(), getResponseTopic());
+		final Response        response = new Response(channel, request, type);
+		try {
+			channel.register(request.getUniqueId(), response);
+		} catch (JMSException ne) {
+			throw new EventException("Cannot listen to "+getResponseTopic()+" using uri "+getUri(), ne);
+		}
+
+		try {
+			getSender().broadcast(request);
+		} catch (EventException | RuntimeException ne) {
+			response.close();
+			throw ne;
+		}
+		return response;
+	}
+
+	/**
+	 * The responses to one request.
+	 */
+	private class Response implements ResponseChannel.Receiver {
+
+		private final ResponseChannel      channel;
+		private final String               uniqueId;
+		private final T                    request;
+		private final ResponseType         type;
+		private final CountDownLatch       latch;
+		private final CompletableFuture<T> future;
+		private volatile boolean           found;
+
+		Response(ResponseChannel channel, T request, ResponseType type) {
+			this.channel  = channel;
+			this.uniqueId = request.getUniqueId();
+			this.request  = request;
+			this.type     = type;
+			this.latch    = new CountDownLatch(1);
+			this.future   = new CompletableFuture<>();
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public void receive(String json) throws Exception {
+			T response = (T)getConnectorService().unmarshal(json, request.getClass());
+			synchronized (request) {
+				request.merge(response);  // The bean must implement merge, for instance DeviceRequest.
+			}
+			found = true;
+			latch.countDown();
+			if (type==ResponseType.ONE) future.complete(request);
+		}
+
+		boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+			return latch.await(timeout, unit);
+		}
+
+		boolean isFound() {
+			return found;
+		}
+
+		void close() {
+			channel.deregister(uniqueId, this);
+		}
+	}
+
+	private synchronized IPublisher<T> getSender() {
+		if (send==null) send = eservice.createPublisher(getUri(), getRequestTopic());
+		return send;
+	}
+
+	@Override
+	public void disconnect() throws EventException {
+		try {
+			synchronized (this) {
+				if (send!=null) send.disconnect();
+			}
+		} finally {
+			send = null;
+			super.disconnect();
+		}
 	}
 
 	@Override
@@ -0,0 +1,201 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.event;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.jms.Connection;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageListener;
+import javax.jms.Session;
+import javax.jms.TextMessage;
+
+import org.eclipse.scanning.api.event.IEventConnectorService;
+import org.eclipse.scanning.api.event.IdBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * One subscription to a response topic which all the requesters in the VM
+ * for that topic share.
+ *
+ * Requesters register the unique id of the request they are waiting for. Responses
+ * are sent with the unique id as their correlation id so a response is passed only to
+ * the requester which is waiting for it, responses to other clients are not unmarshalled.
+ * A response with no correlation id, from an older responder, is unmarshalled to find
+ * its unique id.
+ *
+ * The channel uses the shared connection of the {@link ConnectionPool} and subscribes
+ * again if that connection has been made again.
+ */
+final class ResponseChannel implements MessageListener {
+
+	private static final Logger logger = LoggerFactory.getLogger(ResponseChannel.class);
+
+	private static final Map<IEventConnectorService, Map<String, ResponseChannel>> channels = new WeakHashMap<>(3);
+
+	private static ScheduledExecutorService timer;
+
+	/**
+	 * Called with the json of each response to a request.
+	 */
+	interface Receiver {
+		void receive(String json) throws Exception;
+	}
+
+	private final IEventConnectorService              service;
+	private final URI                                 uri;
+	private final String                              topicName;
+	private final ConnectionPool                      pool;
+	private final Map<String, List<Receiver>>         receivers;
+
+	// Guarded by this
+	private Connection      connection;
+	private Session         session;
+	private MessageConsumer consumer;
+
+	private ResponseChannel(IEventConnectorService service, URI uri, String topicName) {
+		this.service   = service;
+		this.uri       = uri;
+		this.topicName = topicName;
+		this.pool      = ConnectionPool.getPool(service, uri);
+		this.receivers = new ConcurrentHashMap<>(89);
+	}
+
+	/**
+	 * Get the channel for a response topic, creating it if required.
+	 *
+	 * @param service
+	 * @param uri
+	 * @param topicName
+	 * @return
+	 */
+	static ResponseChannel getChannel(IEventConnectorService service, URI uri, String topicName) {
+		synchronized (channels) {
+			Map<String, ResponseChannel> forService = channels.get(service);
+			if (forService==null) {
+				forService = new HashMap<>(7);
+				channels.put(service, forService);
+			}
+			final String key = uri+"#"+topicName;
+			ResponseChannel channel = forService.get(key);
+			if (channel==null) {
+				channel = new ResponseChannel(service, uri, topicName);
+				forService.put(key, channel);
+			}
+			return channel;
+		}
+	}
+
+	/**
+	 * Run something after a delay on the thread which the channels share for timeouts.
+	 *
+	 * @param task
+	 * @param time
+	 * @param unit
+	 */
+	static void schedule(Runnable task, long time, TimeUnit unit) {
+		synchronized (channels) {
+			if (timer==null) timer = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread thread = new Thread(r, "Response Timeout");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		timer.schedule(task, time, unit);
+	}
+
+	/**
+	 * Start passing responses with this unique id to the receiver. This must be called
+	 * before the request is sent so that a fast response is not missed.
+	 *
+	 * @param uniqueId
+	 * @param receiver
+	 * @throws JMSException if the subscription cannot be made
+	 */
+	void register(String uniqueId, Receiver receiver) throws JMSException {
+		receivers.computeIfAbsent(uniqueId, id -> new CopyOnWriteArrayList<>()).add(receiver);
+		try {
+			connect();
+		} catch (JMSException ne) {
+			deregister(uniqueId, receiver);
+			throw ne;
+		}
+	}
+
+	void deregister(String uniqueId, Receiver receiver) {
+		receivers.computeIfPresent(uniqueId, (id, list) -> {
+			list.remove(receiver);
+			return list.isEmpty() ? null : list;
+		});
+	}
+
+	@Override
+	public void onMessage(Message message) {
+
+		if (receivers.isEmpty()) return;
+		try {
+			String json = ((TextMessage)message).getText();
+			String id   = message.getJMSCorrelationID();
+			if (id==null) id = ((IdBean)service.unmarshal(json, null)).getUniqueId();
+
+			List<Receiver> waiting = receivers.get(id);
+			if (waiting==null) return; // Someone else's response
+			for (Receiver receiver : waiting) receiver.receive(json);
+
+		} catch (Exception ne) {
+			logger.error("Cannot process response {} on topic {}", message, topicName, ne);
+		}
+	}
+
+	/**
+	 * Subscribes to the response topic if there is no subscription or if the
+	 * connection which it used has been replaced.
+	 *
+	 * @throws JMSException
+	 */
+	private synchronized void connect() throws JMSException {
+		if (consumer!=null && pool.isCurrent(connection)) return;
+		disconnect();
+		try {
+			connection = pool.getConnection();
+			session    = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+			consumer   = session.createConsumer(session.createTopic(topicName));
+			consumer.setMessageListener(this);
+		} catch (JMSException ne) {
+			pool.invalidate(connection);
+			disconnect();
+			throw ne;
+		}
+	}
+
+	private void disconnect() {
+		try {
+			if (session!=null) session.close();
+		} catch (JMSException ne) {
+			logger.debug("Cannot close response session for "+topicName+" on "+uri, ne);
+		} finally {
+			pool.release(connection);
+			connection = null;
+			session    = null;
+			consumer   = null;
+		}
+	}
+}
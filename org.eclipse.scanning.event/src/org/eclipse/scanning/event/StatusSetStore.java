@@ -0,0 +1,525 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.event;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import javax.jms.DeliveryMode;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageProducer;
+import javax.jms.Queue;
+import javax.jms.QueueBrowser;
+import javax.jms.QueueConnection;
+import javax.jms.QueueSession;
+import javax.jms.Session;
+import javax.jms.TextMessage;
+
+import org.eclipse.scanning.api.event.IEventConnectorService;
+import org.eclipse.scanning.api.event.alive.PauseBean;
+import org.eclipse.scanning.api.event.status.StatusBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A status set which is held in the broker but indexed in memory by the unique id
+ * of each bean.
+ *
+ * Previously each update of a bean browsed the queue and unmarshalled every message
+ * until it found the bean to replace, so the cost of publishing grew with the number of
+ * completed beans in the set. The store reads the queue once and remembers the
+ * message id of each bean, an update then removes that one message by id and sends the
+ * new one. Each bean is held in exactly one message, duplicates found when the queue
+ * is read are removed, so the persisted form of the set stays compact. The priority
+ * and expiration of a message sent again are those of the message it replaces.
+ *
+ * The order of the set is the time each bean was first sent, which a message sent again
+ * keeps in the <code>queueOrder</code> long property, so an updated bean keeps its place
+ * without the messages after it being sent again. Consumers of a queue whose order matters,
+ * for instance the submission queue, take the beans in this order with {@link #takeNext(long)}.
+ *
+ * Messages written by the store and by the submitter have the key in the
+ * <code>uniqueId</code> string property so that reading the queue does not need to
+ * unmarshal them.
+ *
+ * Other clients may still change the queue directly, if the message for a bean has gone when it
+ * is updated the index is read again. Reads of the whole set read the queue again if the index is
+ * older than <code>org.eclipse.scanning.event.statusSet.refreshTime</code> ms, default 2000.
+ *
+ * There is one store per uri and queue name in a VM, use {@link #getStore(URI, String, IEventConnectorService)}
+ * and {@link #release(URI, String)} when the queue is no longer used.
+ */
+final class StatusSetStore {
+
+	private static final Logger logger = LoggerFactory.getLogger(StatusSetStore.class);
+
+	static final String KEY_PROPERTY   = "uniqueId";
+	static final String ORDER_PROPERTY = "queueOrder";
+
+	private static final Map<String, StatusSetStore> stores = new HashMap<>(7);
+
+	private final URI                    uri;
+	private final String                 queueName;
+	private final IEventConnectorService service;
+
+	// JMS things, created when the store is first used. The connection is shared.
+	private QueueConnection connection;
+	private QueueSession    session;
+	private Queue           queue;
+	private MessageProducer producer;
+
+	// Guarded by this
+	private final Map<String, Entry> index;
+	private boolean                  loaded;
+	private long                     loadTime;
+
+	private StatusSetStore(URI uri, String queueName, IEventConnectorService service) {
+		this.uri       = uri;
+		this.queueName = queueName;
+		this.service   = service;
+		this.index     = new LinkedHashMap<>(89);
+	}
+
+	/**
+	 * Get the store for a queue, creating it if required.
+	 *
+	 * @param uri
+	 * @param queueName
+	 * @param service
+	 * @return
+	 */
+	static synchronized StatusSetStore getStore(URI uri, String queueName, IEventConnectorService service) {
+		final String id = getId(uri, queueName);
+		StatusSetStore store = stores.get(id);
+		if (store==null) {
+			store = new StatusSetStore(uri, queueName, service);
+			stores.put(id, store);
+		}
+		return store;
+	}
+
+	/**
+	 * Removes the store for a queue and closes its session, a later
+	 * {@link #getStore(URI, String, IEventConnectorService)} reads the queue again.
+	 *
+	 * @param uri
+	 * @param queueName
+	 */
+	static void release(URI uri, String queueName) {
+		final StatusSetStore store;
+		synchronized (StatusSetStore.class) {
+			store = stores.remove(getId(uri, queueName));
+		}
+		if (store!=null) store.close();
+	}
+
+	private synchronized void close() {
+		if (connection!=null) disconnect(false);
+	}
+
+	private static synchronized StatusSetStore findStore(URI uri, String queueName) {
+		return stores.get(getId(uri, queueName));
+	}
+
+	private static String getId(URI uri, String queueName) {
+		return uri+"#"+queueName;
+	}
+
+	/**
+	 * Called when a bean has been sent to the queue by something other than the store,
+	 * for instance a submitter. Does nothing if there is no store for the queue.
+	 *
+	 * @param uri
+	 * @param queueName
+	 * @param key
+	 * @param messageId
+	 * @param json
+	 * @param order the time the message was sent.
+	 */
+	static void sent(URI uri, String queueName, String key, String messageId, String json, long order) {
+		StatusSetStore store = findStore(uri, queueName);
+		if (store!=null) store.put(key, messageId, json, order);
+	}
+
+	/**
+	 * Called when the queue has been changed directly, for instance cleared or reordered,
+	 * the index is read again from the queue the next time it is used.
+	 *
+	 * @param uri
+	 * @param queueName
+	 */
+	static void invalidate(URI uri, String queueName) {
+		StatusSetStore store = findStore(uri, queueName);
+		if (store!=null) store.invalidate();
+	}
+
+	/**
+	 * The key used to index a bean. Pause beans are held one per queue or consumer,
+	 * everything else by unique id.
+	 *
+	 * @param bean
+	 * @return the key or null if the bean has no identity.
+	 */
+	static String getKey(Object bean) {
+		if (bean instanceof PauseBean) {
+			PauseBean pbean = (PauseBean)bean;
+			if (pbean.getQueueName()!=null)  return pbean.getQueueName();
+			if (pbean.getConsumerId()!=null) return pbean.getConsumerId().toString();
+		}
+		Object id = AbstractConnection.getUniqueId(bean);
+		return id!=null ? id.toString() : null;
+	}
+
+	/**
+	 * Replace the bean with this key in the set, the bean keeps its place in the order of the set.
+	 *
+	 * @param key
+	 * @param json the marshalled bean
+	 * @param addRequired if true the bean is added if it is not already in the set.
+	 * @return true if the set was changed.
+	 * @throws Exception
+	 */
+	synchronized boolean update(String key, String json, boolean addRequired) throws Exception {
+		final Taken taken = new Taken();
+		try {
+			return doUpdate(key, json, addRequired, taken);
+		} catch (JMSException ne) {
+			logger.debug("Reconnecting to "+queueName, ne);
+			disconnect(true);
+			if (taken.message!=null) {
+				// The old message has gone but the new one was not sent, put it back so that the bean is not lost.
+				send(key, taken.json, taken.message);
+			}
+			return doUpdate(key, json, addRequired, new Taken());
+		}
+	}
+
+	private boolean doUpdate(String key, String json, boolean addRequired, Taken taken) throws Exception {
+
+		if (!loaded) load();
+
+		Entry   entry    = key!=null ? index.get(key) : null;
+		Message replaced = entry!=null ? take(key, entry) : null;
+		if (entry!=null && replaced==null) {
+			// Someone else has changed the queue, our index is out of date.
+			load();
+			entry    = index.get(key);
+			replaced = entry!=null ? take(key, entry) : null;
+			if (replaced==null) entry = null;
+		}
+		if (entry==null && !addRequired) return false;
+
+		taken.message = replaced;
+		taken.json    = entry!=null ? entry.json : null;
+		send(key, json, replaced);
+		taken.message = null;
+		return true;
+	}
+
+	/**
+	 * Remove the bean with this key from the set.
+	 *
+	 * @param key
+	 * @return true if the bean was removed.
+	 * @throws Exception
+	 */
+	synchronized boolean remove(String key) throws Exception {
+		try {
+			return doRemove(key);
+		} catch (JMSException ne) {
+			logger.debug("Reconnecting to "+queueName, ne);
+			disconnect(true);
+			return doRemove(key);
+		}
+	}
+
+	private boolean doRemove(String key) throws Exception {
+		if (!loaded) load();
+		Entry entry = index.get(key);
+		if (entry==null) return false;
+		return take(key, entry)!=null;
+	}
+
+	/**
+	 * The marshalled beans in the order of the set. If the index
+	 * is older than the refresh time it is read again from the queue first.
+	 *
+	 * @return key to json
+	 * @throws Exception
+	 */
+	synchronized Map<String, String> getEntries() throws Exception {
+		try {
+			return doGetEntries();
+		} catch (JMSException ne) {
+			logger.debug("Reconnecting to "+queueName, ne);
+			disconnect(true);
+			return doGetEntries();
+		}
+	}
+
+	private Map<String, String> doGetEntries() throws Exception {
+		if (!loaded || isStale()) load();
+		final List<Map.Entry<String, Entry>> sorted = new ArrayList<>(index.entrySet());
+		Collections.sort(sorted, ORDER); // Stable so beans sent in the same ms stay in the order they were sent
+		final Map<String, String> entries = new LinkedHashMap<>(sorted.size());
+		for (Map.Entry<String, Entry> e : sorted) entries.put(e.getKey(), e.getValue().json);
+		return entries;
+	}
+
+	/**
+	 * Takes the bean which is first in the order of the set from the queue. If the set
+	 * is empty this waits for a bean to be sent, a bean sent by another VM is found when
+	 * the queue is read again.
+	 *
+	 * @param timeout ms to wait if the set is empty.
+	 * @return the message or null if there is no bean to take.
+	 * @throws Exception
+	 */
+	synchronized TextMessage takeNext(long timeout) throws Exception {
+		try {
+			return doTakeNext(timeout);
+		} catch (JMSException ne) {
+			logger.debug("Reconnecting to "+queueName, ne);
+			disconnect(true);
+			return doTakeNext(timeout);
+		}
+	}
+
+	private TextMessage doTakeNext(long timeout) throws Exception {
+		if (!loaded || index.isEmpty() || isStale()) load();
+		if (index.isEmpty()) wait(timeout); // Woken by put()
+		if (index.isEmpty()) return null;
+
+		Map.Entry<String, Entry> first = null;
+		for (Map.Entry<String, Entry> e : index.entrySet()) {
+			if (first==null || e.getValue().order<first.getValue().order) first = e;
+		}
+		final Message taken = take(first.getKey(), first.getValue());
+		if (taken==null) invalidate(); // Someone else took it, the queue is read again next time.
+		return (TextMessage)taken;
+	}
+
+	private boolean isStale() {
+		return System.currentTimeMillis()-loadTime > getRefreshTime();
+	}
+
+	/**
+	 * Read the beans in the set, beans which cannot be unmarshalled are left out.
+	 *
+	 * @param beanClass
+	 * @param comparator may be null in which case the beans are in queue order.
+	 * @return
+	 * @throws Exception
+	 */
+	<T> List<T> getBeans(Class<T> beanClass, Comparator<? super T> comparator) throws Exception {
+
+		final Collection<String> jsons = getEntries().values();
+
+		final Collection<T> list;
+		if (comparator!=null) {
+			list = new TreeSet<T>(comparator);
+		} else {
+			list = new ArrayList<T>(jsons.size());
+		}
+
+		@SuppressWarnings("unchecked")
+		final Class<T> statusBeanClass = (Class<T>) StatusBean.class;
+		for (String json : jsons) {
+			try {
+				list.add(service.unmarshal(json, beanClass != null ? beanClass : statusBeanClass));
+			} catch (Exception unmarshallable) {
+				logger.trace("Cannot read "+json, unmarshallable);
+			}
+		}
+		return list instanceof List ? (List<T>)list : new ArrayList<T>(list);
+	}
+
+	private synchronized void put(String key, String messageId, String json, long order) {
+		if (!loaded || key==null) return;
+		Entry previous = index.remove(key);
+		index.put(key, new Entry(messageId, json, order));
+		notifyAll(); // Wakes takeNext()
+		if (previous!=null) {
+			try {
+				consume(previous.messageId); // Keep the set compact
+			} catch (JMSException ne) {
+				logger.debug("Cannot remove old message for "+key, ne);
+				invalidate();
+			}
+		}
+	}
+
+	synchronized void invalidate() {
+		loaded = false;
+		index.clear();
+	}
+
+	/**
+	 * Reads the index from the queue. Only messages which were not written
+	 * with a key are unmarshalled.
+	 *
+	 * @throws Exception
+	 */
+	private void load() throws Exception {
+
+		if (connection==null) connect();
+
+		index.clear();
+		final List<String> duplicates = new ArrayList<>(7);
+
+		QueueBrowser qb = session.createBrowser(queue);
+		try {
+			@SuppressWarnings("rawtypes")
+			Enumeration  e  = qb.getEnumeration();
+			while(e.hasMoreElements()) {
+				Message m = (Message)e.nextElement();
+				if (m==null) continue;
+				if (!(m instanceof TextMessage)) continue;
+
+				TextMessage t    = (TextMessage)m;
+				String      json = t.getText();
+				String      key  = t.getStringProperty(KEY_PROPERTY);
+				if (key==null) {
+					try {
+						key = getKey(service.unmarshal(json, null));
+					} catch (Exception ne) {
+						key = null; // We still index it so that it can be cleaned.
+					}
+				}
+				if (key==null) key = t.getJMSMessageID();
+
+				// The last message for a key is the latest
+				Entry previous = index.remove(key);
+				if (previous!=null) duplicates.add(previous.messageId);
+				index.put(key, new Entry(t.getJMSMessageID(), json, getOrder(t)));
+			}
+		} finally {
+			qb.close();
+		}
+
+		for (String messageId : duplicates) consume(messageId);
+
+		loaded   = true;
+		loadTime = System.currentTimeMillis();
+	}
+
+	/**
+	 * @return the message taken from the queue or null if it has gone.
+	 */
+	private Message take(String key, Entry entry) throws JMSException {
+		Message taken = consume(entry.messageId);
+		if (taken!=null) index.remove(key);
+		return taken;
+	}
+
+	private Message consume(String messageId) throws JMSException {
+		if (connection==null) connect();
+		MessageConsumer consumer = session.createConsumer(queue, "JMSMessageID = '"+messageId+"'");
+		try {
+			return consumer.receive(Constants.getReceiveFrequency());
+		} finally {
+			consumer.close();
+		}
+	}
+
+	/**
+	 * Sends the bean to the queue.
+	 * @param key
+	 * @param json
+	 * @param replaced the message the bean replaces, its order, priority and expiration are kept, may be null.
+	 * @throws JMSException
+	 */
+	private void send(String key, String json, Message replaced) throws JMSException {
+		if (connection==null) connect();
+		TextMessage message = session.createTextMessage(json);
+		if (key!=null) message.setStringProperty(KEY_PROPERTY, key);
+
+		int  priority   = Message.DEFAULT_PRIORITY;
+		long timeToLive = Message.DEFAULT_TIME_TO_LIVE;
+		if (replaced!=null) {
+			message.setLongProperty(ORDER_PROPERTY, getOrder(replaced));
+			priority = replaced.getJMSPriority();
+			final long expiration = replaced.getJMSExpiration();
+			if (expiration>0) timeToLive = Math.max(expiration-System.currentTimeMillis(), 1);
+		}
+		producer.send(message, DeliveryMode.PERSISTENT, priority, timeToLive);
+		index.put(key!=null ? key : message.getJMSMessageID(), new Entry(message.getJMSMessageID(), json, getOrder(message)));
+	}
+
+	/**
+	 * @return the time the bean was first sent.
+	 */
+	static long getOrder(Message message) throws JMSException {
+		return message.propertyExists(ORDER_PROPERTY) ? message.getLongProperty(ORDER_PROPERTY) : message.getJMSTimestamp();
+	}
+
+	private void connect() throws JMSException {
+		connection = ConnectionPool.getPool(service, uri).getConnection();
+		session    = connection.createQueueSession(false, Session.AUTO_ACKNOWLEDGE);
+		queue      = session.createQueue(queueName);
+		producer   = session.createProducer(queue);
+		producer.setDeliveryMode(DeliveryMode.PERSISTENT);
+	}
+
+	/**
+	 * @param failed true if the connection is broken, in which case it is made again for everyone sharing it.
+	 */
+	private void disconnect(boolean failed) {
+		try {
+			if (session!=null) session.close();
+		} catch (JMSException ne) {
+			logger.debug("Cannot close session for "+queueName, ne);
+		} finally {
+			ConnectionPool pool = ConnectionPool.getPool(service, uri);
+			if (failed) pool.invalidate(connection);
+			pool.release(connection);
+			connection = null;
+			session    = null;
+			queue      = null;
+			producer   = null;
+			invalidate();
+		}
+	}
+
+	private static long getRefreshTime() {
+		return Long.getLong("org.eclipse.scanning.event.statusSet.refreshTime", 2000);
+	}
+
+	private static final Comparator<Map.Entry<String, Entry>> ORDER = (a, b) -> Long.compare(a.getValue().order, b.getValue().order);
+
+	private static final class Entry {
+		final String messageId;
+		final String json;
+		final long   order;
+		Entry(String messageId, String json, long order) {
+			this.messageId = messageId;
+			this.json      = json;
+			this.order     = order;
+		}
+	}
+
+	/**
+	 * The message taken by an update which has not yet been replaced.
+	 */
+	private static final class Taken {
+		Message message;
+		String  json;
+	}
+}
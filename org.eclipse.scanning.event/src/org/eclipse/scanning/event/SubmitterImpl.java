@@ -15,12 +15,12 @@ import java.net.URI;
 import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
 
-import javax.jms.Connection;
 import javax.jms.DeliveryMode;
+import javax.jms.JMSException;
+import javax.jms.Message;
 import javax.jms.MessageProducer;
 import javax.jms.Queue;
-import javax.jms.QueueConnectionFactory;
-import javax.jms.Session;
+import javax.jms.QueueSession;
 import javax.jms.TextMessage;
 import javax.jms.Topic;
 
@@ -55,78 +55,64 @@ class SubmitterImpl<T extends StatusBean> extends AbstractQueueConnection<T> imp
 	@Override
 	public void submit(T bean, boolean prepareBean) throws EventException {
 
-		Connection      send     = null;
-		Session         session  = null;
-		MessageProducer producer = null;
+		if (bean.getSubmissionTime()<1) bean.setSubmissionTime(System.currentTimeMillis());
+		if (getPriority()<1)  setPriority(1);
+		if (getLifeTime()<1)  setLifeTime(7*24*60*60*1000); // 7 days in ms
 
-		try {
-
-			QueueConnectionFactory connectionFactory = (QueueConnectionFactory)service.createConnectionFactory(uri);
-			send              = connectionFactory.createConnection();
-
-			session = send.createSession(false, Session.AUTO_ACKNOWLEDGE);
-			Queue queue = session.createQueue(getSubmitQueueName());
-
-			producer = session.createProducer(queue);
-			producer.setDeliveryMode(DeliveryMode.PERSISTENT);
-
-			if (bean.getSubmissionTime()<1) bean.setSubmissionTime(System.currentTimeMillis());
-			if (getPriority()<1)  setPriority(1);
-			if (getLifeTime()<1)  setLifeTime(7*24*60*60*1000); // 7 days in ms
+		if (uniqueId==null) {
+			uniqueId = bean.getUniqueId()!=null ? bean.getUniqueId() : UUID.randomUUID().toString();
+		}
+		if (prepareBean) {
+			if (bean.getUserName()==null) bean.setUserName(System.getProperty("user.name"));
+			if (bean.getUniqueId()==null) bean.setUniqueId(uniqueId);
+			if (getTimestamp()>0) bean.setSubmissionTime(getTimestamp());
+		}
 
-			if (uniqueId==null) {
-				uniqueId = bean.getUniqueId()!=null ? bean.getUniqueId() : UUID.randomUUID().toString();
-			}
-			if (prepareBean) {
-				if (bean.getUserName()==null) bean.setUserName(System.getProperty("user.name"));
-				if (bean.getUniqueId()==null) bean.setUniqueId(uniqueId);
-				if (getTimestamp()>0) bean.setSubmissionTime(getTimestamp());
-			}
+		final String json;
+		try {
+			json = service.marshal(bean);
+		} catch (Exception e) {
+			throw new EventException("Unable to marshall bean "+bean, e);
+		}
 
-			String json = null;
-			try {
-				json = service.marshal(bean);
-			} catch (Exception e) {
-				throw new EventException("Unable to marshall bean "+bean, e);
-			}
+		try {
+			// The session comes from the pool so that submitting does not make a connection each time.
+			ConnectionPool.getPool(service, uri).execute((session, producer) -> {
+				send(session, producer, bean, json);
+				return null;
+			});
 
-			TextMessage message = session.createTextMessage(json);
+		} catch (Exception e) {
+			throw new EventException("Problem opening connection to queue! ", e);
+		}
+	}
 
-			message.setJMSMessageID(bean.getUniqueId());
-			message.setJMSExpiration(getLifeTime());
-			message.setJMSTimestamp(getTimestamp());
-			message.setJMSPriority(getPriority());
+	private void send(QueueSession session, MessageProducer producer, T bean, String json) throws JMSException {
 
-			producer.send(message);
+		Queue queue = session.createQueue(getSubmitQueueName());
 
-			try {
-				// Deals with paused consumers by publishing something directly after submission.
-				// If there is a topic we tell everyone that we sent something to it in case the consumer is paused.
-				if (getStatusTopicName()!=null) {
-					TextMessage msg = session.createTextMessage(json);
-					Topic topic = session.createTopic(getStatusTopicName());
-					MessageProducer prod = session.createProducer(topic);
-					prod.send(msg);
-					prod.close();
-				}
-			} catch (Exception ne) {
-				logger.error("Problem publishing to "+getStatusTopicName());
-			}
+		TextMessage message = session.createTextMessage(json);
 
+		message.setJMSMessageID(bean.getUniqueId());
+		message.setJMSExpiration(getLifeTime());
+		message.setJMSTimestamp(getTimestamp());
+		message.setJMSPriority(getPriority());
+		if (bean.getUniqueId()!=null) message.setStringProperty(StatusSetStore.KEY_PROPERTY, bean.getUniqueId());
 
-		} catch (Exception e) {
-			throw new EventException("Problem opening connection to queue! ", e);
+		producer.send(queue, message, DeliveryMode.PERSISTENT, Message.DEFAULT_PRIORITY, Message.DEFAULT_TIME_TO_LIVE);
+		StatusSetStore.sent(uri, getSubmitQueueName(), bean.getUniqueId(), message.getJMSMessageID(), json, message.getJMSTimestamp());
 
-		} finally {
-			try {
-				if (send!=null)     send.close();
-				if (session!=null)  session.close();
-				if (producer!=null) producer.close();
-			} catch (Exception e) {
-				throw new EventException("Cannot close connection as expected!", e);
+		try {
+			// Deals with paused consumers by publishing something directly after submission.
+			// If there is a topic we tell everyone that we sent something to it in case the consumer is paused.
+			if (getStatusTopicName()!=null) {
+				TextMessage msg = session.createTextMessage(json);
+				Topic topic = session.createTopic(getStatusTopicName());
+				producer.send(topic, msg);
 			}
+		} catch (Exception ne) {
+			logger.error("Problem publishing to "+getStatusTopicName());
 		}
-
 	}
 
 	@Override
@@ -14,6 +14,7 @@ package org.eclipse.scanning.event.remote;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
@@ -98,6 +99,26 @@ class _ScannableDeviceService extends AbstractRemoteService implements IScannabl
 		}
 	}
 
+	/**
+	 * Reads all the positions with one request rather than one for each scannable.
+	 */
+	@Override
+	public Map<String, Object> getPositions(Collection<String> names) throws ScanningException {
+
+		final Map<String, Object> values = new LinkedHashMap<>(names.size());
+		for (String name : names) values.put(name, null);
+
+		DeviceRequest req = new DeviceRequest(DeviceType.SCANNABLE);
+		req.setDeviceValues(values);
+		try {
+			req = requester.post(req);
+			req.checkException();
+		} catch (Exception e) {
+			throw new ScanningException("Cannot read positions of "+names, e);
+		}
+		return req.getDeviceValues();
+	}
+
 	@Override
 	public <T> void register(IScannable<T> device) {
 		throw new IllegalArgumentException("New scannables may not be registered on a remote service implementation!");
@@ -15,6 +15,7 @@ import org.eclipse.scanning.api.device.IRunnableDeviceService;
 import org.eclipse.scanning.api.device.IScannableDeviceService;
 import org.eclipse.scanning.api.event.IEventService;
 import org.eclipse.scanning.api.points.IPointGeneratorService;
+import org.eclipse.scanning.api.scan.IChunkingService;
 import org.osgi.framework.ServiceReference;
 import org.osgi.service.component.ComponentContext;
 
@@ -27,6 +28,7 @@ public class Services {
 	private static IRunnableDeviceService runnableDeviceService;
 	private static IScannableDeviceService scannableDeviceService;
 	private static IPointGeneratorService pointGeneratorService;
+	private static IChunkingService chunkingService;
 
 
 	private static <T> T getService(Class<T> clazz) {
@@ -75,6 +77,15 @@ public class Services {
 		Services.scannableDeviceService = scannableDeviceService;
 	}
 
+	public static IChunkingService getChunkingService() {
+		if (chunkingService==null) chunkingService = getService(IChunkingService.class);
+		return chunkingService;
+	}
+
+	public static void setChunkingService(IChunkingService chunkingService) {
+		Services.chunkingService = chunkingService;
+	}
+
 	public void start(ComponentContext context) {
 		this.context = context;
 		current = this;
@@ -28,14 +28,18 @@ import org.eclipse.january.dataset.IDataset;
 import org.eclipse.january.dataset.ILazyWriteableDataset;
 import org.eclipse.january.dataset.SliceND;
 import org.eclipse.scanning.api.annotation.scan.ScanFinally;
+import org.eclipse.scanning.api.annotation.scan.ScanStart;
 import org.eclipse.scanning.api.device.AbstractRunnableDevice;
 import org.eclipse.scanning.api.device.IWritableDetector;
 import org.eclipse.scanning.api.event.scan.DeviceState;
 import org.eclipse.scanning.api.points.IPosition;
+import org.eclipse.scanning.api.scan.IChunkingService;
 import org.eclipse.scanning.api.scan.ScanningException;
 import org.eclipse.scanning.api.scan.rank.IScanRankService;
+import org.eclipse.scanning.api.scan.models.ChunkingModel;
 import org.eclipse.scanning.api.scan.rank.IScanSlice;
 import org.eclipse.scanning.example.Services;
+import org.eclipse.scanning.sequencer.nexus.NexusWriteQueue;
 
 /**
  * A dummy detector which must be set up with references to two Scannables representing X and Y positions. When used in a step scan, this detector generates a
@@ -63,14 +67,23 @@ public class MandelbrotDetector extends AbstractRunnableDevice<MandelbrotModel>
 	private ILazyWriteableDataset valueData;
 	private final Random random = new Random();
 
+	// Writes the slices on the writer thread of the file, if the scan has one
+	private NexusWriteQueue writeQueue;
+
 	public MandelbrotDetector() throws IOException, ScanningException {
 		super(Services.getRunnableDeviceService()); // Necessary if you are going to spring it
 		this.model = new MandelbrotModel();
 		setDeviceState(DeviceState.READY);
 	}
 
+	@ScanStart
+	public void scanStart(NexusWriteQueue writeQueue) {
+		this.writeQueue = writeQueue;
+	}
+
 	@ScanFinally
 	public void clean() {
+		writeQueue = null;
 		image     = null;
 		imageData = null;
 		spectrum  = null;
@@ -135,8 +148,15 @@ public class MandelbrotDetector extends AbstractRunnableDevice<MandelbrotModel>
 		}
 
 		// Setting chunking is a very good idea if speed is required.
-		if (model.isSaveImage()) imageData.setChunking(info.createChunk(model.getRows(), model.getColumns()));
-		if (model.isSaveSpectrum())spectrumData.setChunking(info.createChunk(model.getPoints()));
+		final IChunkingService chunking = Services.getChunkingService();
+		if (chunking!=null) {
+			final ChunkingModel cmodel = getBean().getScanRequest()!=null ? getBean().getScanRequest().getChunkingModel() : null;
+			if (model.isSaveImage()) imageData.setChunking(chunking.createChunk(cmodel, getName()+"/"+NXdetector.NX_DATA, info.getShape(), Double.class, model.getRows(), model.getColumns()));
+			if (model.isSaveSpectrum())spectrumData.setChunking(chunking.createChunk(cmodel, getName()+"/"+FIELD_NAME_SPECTRUM, info.getShape(), Double.class, model.getPoints()));
+		} else {
+			if (model.isSaveImage()) imageData.setChunking(info.createChunk(model.getRows(), model.getColumns()));
+			if (model.isSaveSpectrum())spectrumData.setChunking(info.createChunk(model.getPoints()));
+		}
 
 		// Write detector metadata
 		detector.setField("exposure_time", model.getExposureTime());
@@ -207,19 +227,19 @@ public class MandelbrotDetector extends AbstractRunnableDevice<MandelbrotModel>
 			if (model.isSaveImage()) {
 				IScanSlice rslice = IScanRankService.getScanRankService().createScanSlice(pos, model.getRows(), model.getColumns());
 				SliceND sliceND = new SliceND(imageData.getShape(), imageData.getMaxShape(), rslice.getStart(), rslice.getStop(), rslice.getStep());
-				imageData.setSlice(null, image, sliceND);
+				setSlice(imageData, image, sliceND);
 			}
 
 			if (model.isSaveSpectrum()){
 				IScanSlice rslice = IScanRankService.getScanRankService().createScanSlice(pos, model.getPoints());
 				SliceND sliceND = new SliceND(spectrumData.getShape(), spectrumData.getMaxShape(), rslice.getStart(), rslice.getStop(), rslice.getStep());
-				spectrumData.setSlice(null, spectrum, sliceND);
+				setSlice(spectrumData, spectrum, sliceND);
 			}
 
 			if (model.isSaveValue()){
 				IScanSlice rslice = IScanRankService.getScanRankService().createScanSlice(pos);
 				SliceND sliceND = new SliceND(valueData.getShape(), valueData.getMaxShape(), rslice.getStart(), rslice.getStop(), rslice.getStep());
-				valueData.setSlice(null, DatasetFactory.createFromObject(value), sliceND);
+				setSlice(valueData, DatasetFactory.createFromObject(value), sliceND);
 			}
 
 		} catch (Exception e) {
@@ -233,6 +253,14 @@ public class MandelbrotDetector extends AbstractRunnableDevice<MandelbrotModel>
 		return true;
 	}
 
+	private void setSlice(ILazyWriteableDataset dataset, IDataset data, SliceND sliceND) throws Exception {
+		if (writeQueue!=null) {
+			writeQueue.setSlice(dataset, data, sliceND);
+		} else {
+			dataset.setSlice(null, data, sliceND);
+		}
+	}
+
 	/**
 	 * Fill a Julia set around the origin for the value C = a + bi
 	 */
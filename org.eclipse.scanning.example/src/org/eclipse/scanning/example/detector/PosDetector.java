@@ -3,6 +3,10 @@ package org.eclipse.scanning.example.detector;
 import static org.eclipse.scanning.sequencer.nexus.SolsticeConstants.PROPERTY_NAME_UNIQUE_KEYS_PATH;
 
 import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
 
@@ -30,7 +34,7 @@ import org.eclipse.january.dataset.Random;
 import org.eclipse.january.dataset.SliceND;
 import org.eclipse.scanning.api.annotation.scan.ScanFinally;
 import org.eclipse.scanning.api.device.AbstractRunnableDevice;
-import org.eclipse.scanning.api.device.IWritableDetector;
+import org.eclipse.scanning.api.device.IBatchWritableDetector;
 import org.eclipse.scanning.api.event.scan.DeviceState;
 import org.eclipse.scanning.api.points.IPosition;
 import org.eclipse.scanning.api.scan.ScanningException;
@@ -38,9 +42,10 @@ import org.eclipse.scanning.api.scan.rank.IScanRankService;
 import org.eclipse.scanning.api.scan.rank.IScanSlice;
 import org.eclipse.scanning.example.Services;
 
-public class PosDetector extends AbstractRunnableDevice<PosDetectorModel> implements IWritableDetector<PosDetectorModel>, INexusDevice<NXdetector> {
+public class PosDetector extends AbstractRunnableDevice<PosDetectorModel> implements IBatchWritableDetector<PosDetectorModel>, INexusDevice<NXdetector> {
 
 	private IDataset image;
+	private Map<Integer, IDataset> frames; // The frames which have not been written by step index
 	private ILazyWriteableDataset data;
 	private ILazyWriteableDataset uniqueKeys;
 	private int scanRank = -1;
@@ -50,6 +55,7 @@ public class PosDetector extends AbstractRunnableDevice<PosDetectorModel> implem
 	public PosDetector() throws ScanningException {
 		super(Services.getRunnableDeviceService());
 		this.model = new PosDetectorModel();
+		this.frames = Collections.synchronizedMap(new HashMap<>());
 		setDeviceState(DeviceState.READY);
 	}
 
@@ -57,10 +63,13 @@ public class PosDetector extends AbstractRunnableDevice<PosDetectorModel> implem
 	public void run(IPosition position)
 			throws ScanningException, InterruptedException, TimeoutException, ExecutionException {
 		image = Random.rand(64, 64);
+		frames.put(position.getStepIndex(), image);
 	}
 
 	@Override
 	public boolean write(IPosition position) throws ScanningException, InterruptedException {
+		IDataset image = frames.remove(position.getStepIndex());
+		if (image == null) image = this.image;
 		if (image == null) {
 			return false;
 		}
@@ -92,6 +101,69 @@ public class PosDetector extends AbstractRunnableDevice<PosDetectorModel> implem
 		return true;
 	}
 
+	@Override
+	public boolean write(List<? extends IPosition> positions) throws ScanningException, InterruptedException {
+		if (image == null) {
+			return false;
+		}
+
+		if (data == null) {
+			createNexusFile();
+		}
+
+		try {
+			final IScanRankService service = IScanRankService.getScanRankService();
+			final List<IScanSlice> slices  = service.createScanSlices(positions, 64, 64);
+			final List<IScanSlice> kslices = service.createScanSlices(positions);
+
+			int index = 0;
+			for (int i = 0; i < slices.size(); i++) {
+				IScanSlice rslice = slices.get(i);
+				final int size = getSize(rslice, 2);
+
+				final Dataset block = DatasetFactory.zeros(size, 64, 64);
+				final int[] keys = new int[size];
+				for (int frame = 0; frame < size; frame++) {
+					IPosition position = positions.get(index++);
+					IDataset image = frames.remove(position.getStepIndex());
+					if (image == null) image = this.image;
+					block.setSlice(image, new int[]{frame, 0, 0}, new int[]{frame+1, 64, 64}, null);
+					keys[frame] = position.getStepIndex() + 1;
+				}
+
+				// write the frames of the slice
+				SliceND sliceND = new SliceND(data.getShape(), data.getMaxShape(),
+						rslice.getStart(), rslice.getStop(), rslice.getStep());
+				block.setShape(sliceND.getShape());
+				data.setSlice(null, block, sliceND);
+
+				// write unique keys
+				rslice = kslices.get(i);
+				sliceND = new SliceND(uniqueKeys.getShape(), uniqueKeys.getMaxShape(),
+						rslice.getStart(), rslice.getStop(), rslice.getStep());
+				final Dataset uniqueKeyDataset = DatasetFactory.createFromObject(keys);
+				uniqueKeyDataset.setShape(sliceND.getShape());
+				uniqueKeys.setSlice(null, uniqueKeyDataset, sliceND);
+			}
+
+		} catch (DatasetException e) {
+			setDeviceState(DeviceState.FAULT);
+			throw new ScanningException("Failed to write the data to the NeXus file", e);
+		}
+
+		setDeviceState(DeviceState.ARMED);
+		return true;
+	}
+
+	/**
+	 * The number of frames in the slice, the last dataRank dimensions are the frame.
+	 */
+	private static int getSize(IScanSlice slice, int dataRank) {
+		int size = 1;
+		for (int dim = 0; dim < slice.getStart().length-dataRank; dim++) size *= slice.getStop()[dim]-slice.getStart()[dim];
+		return size;
+	}
+
 	private void createNexusFile() throws ScanningException {
 		TreeFile treeFile = NexusNodeFactory.createTreeFile(filePath);
 		NXroot root = NexusNodeFactory.createNXroot();
@@ -155,6 +227,7 @@ public class PosDetector extends AbstractRunnableDevice<PosDetectorModel> implem
 	@ScanFinally
 	public void clean() {
 		image = null;
+		frames.clear();
 		data = null;
 		filePath = null;
 		if (nexusFile != null) {
@@ -54,6 +54,7 @@ import org.eclipse.dawnsci.nexus.NexusNodeFactory;
 import org.eclipse.dawnsci.nexus.ServiceHolder;
 import org.eclipse.january.DatasetException;
 import org.eclipse.january.dataset.DatasetFactory;
+import org.eclipse.january.dataset.DatasetUtils;
 import org.eclipse.january.dataset.IDataset;
 import org.eclipse.january.dataset.ILazyWriteableDataset;
 import org.eclipse.january.dataset.Random;
@@ -88,6 +89,7 @@ import org.eclipse.scanning.api.scan.rank.IScanSlice;
 import org.eclipse.scanning.example.Services;
 import org.eclipse.scanning.malcolm.core.AbstractMalcolmDevice;
 import org.eclipse.scanning.sequencer.SubscanModerator;
+import org.eclipse.scanning.sequencer.nexus.NexusFlushScheduler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -118,6 +120,9 @@ public class DummyMalcolmDevice extends AbstractMalcolmDevice<DummyMalcolmModel>
 
 		protected NexusFile nexusFile = null;
 
+		// Flushes the file so that SWMR readers see the points, instead of flushing at each point
+		private NexusFlushScheduler.Registration flushRegistration = null;
+
 		protected void addDataset(String datasetName, ILazyWriteableDataset dataset, int... datashape) {
 			datasets.put(datasetName, dataset);
 			if (datashape.length > 0) {
@@ -144,12 +149,18 @@ public class DummyMalcolmDevice extends AbstractMalcolmDevice<DummyMalcolmModel>
 			return chunk;
 		}
 
+		protected void openNexusFile(TreeFile treeFile) throws NexusException {
+			nexusFile = saveNexusFile(treeFile);
+			flushRegistration = NexusFlushScheduler.getInstance().register(new File(treeFile.getFilename()).getName(), nexusFile::flush);
+		}
+
 		protected void writeData(String datasetName, IPosition position, IDataset data) throws DatasetException {
 			ILazyWriteableDataset dataset = datasets.get(datasetName);
 			IScanSlice slice = IScanRankService.getScanRankService().createScanSlice(position, data.getShape());
 			SliceND sliceND = new SliceND(dataset.getShape(), dataset.getMaxShape(),
 					slice.getStart(), slice.getStop(), slice.getStep());
 			dataset.setSlice(null, data, sliceND);
+			if (flushRegistration!=null) flushRegistration.written(DatasetUtils.convertToDataset(data).getNbytes());
 		}
 
 		protected void writeDemandData(String datasetName, IPosition position) throws DatasetException {
@@ -164,6 +175,8 @@ public class DummyMalcolmDevice extends AbstractMalcolmDevice<DummyMalcolmModel>
 
 		@Override
 		public void closeNexusFile() throws NexusException {
+			if (flushRegistration!=null) flushRegistration.close();
+			flushRegistration = null;
 			if (nexusFile!=null) {
 				nexusFile.flush();
 				nexusFile.close();
@@ -229,7 +242,7 @@ public class DummyMalcolmDevice extends AbstractMalcolmDevice<DummyMalcolmModel>
 			}
 
 			// save the nexus tree to disk
-			nexusFile = saveNexusFile(treeFile);
+			openNexusFile(treeFile);
 		}
 
 		private int[] getDataShape(DummyMalcolmDatasetModel datasetModel) {
@@ -261,7 +274,6 @@ public class DummyMalcolmDevice extends AbstractMalcolmDevice<DummyMalcolmModel>
 			final int uniqueKey = position.getStepIndex() + 1;
 			final IDataset newPositionData = DatasetFactory.createFromObject(uniqueKey);
 			writeData(DATASET_NAME_UNIQUE_KEYS, position, newPositionData);
-			nexusFile.flush();
 		}
 
 		@Override
@@ -310,7 +322,7 @@ public class DummyMalcolmDevice extends AbstractMalcolmDevice<DummyMalcolmModel>
 			addDataset(DATASET_NAME_UNIQUE_KEYS, ndAttributesCollection.initializeLazyDataset(
 					uniqueKeysDatasetPathSegments[3], getScanRank(), String.class));
 
-			nexusFile = saveNexusFile(treeFile);
+			openNexusFile(treeFile);
 		}
 
 		@Override
@@ -331,7 +343,6 @@ public class DummyMalcolmDevice extends AbstractMalcolmDevice<DummyMalcolmModel>
 			final int uniqueKey = position.getStepIndex() + 1;
 			final IDataset newPositionData = DatasetFactory.createFromObject(uniqueKey);
 			writeData(DATASET_NAME_UNIQUE_KEYS, position, newPositionData);
-			nexusFile.flush();
 		}
 
 		@Override
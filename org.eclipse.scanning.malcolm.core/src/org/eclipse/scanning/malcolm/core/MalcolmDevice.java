@@ -96,7 +96,10 @@ public class MalcolmDevice<M extends MalcolmModel> extends AbstractMalcolmDevice
 
 	// Data should be in model?
 	private MalcolmEventBean    meb;
+	private Iterable<IPosition> scanPositions;
 	private Iterator<IPosition> scanPositionIterator;
+	private int                 scanPositionIndex; // Used instead of the iterator when the positions are a generator
+	private int                 scanPositionCount;
 
 	// Local data.
 	private long    lastBroadcastTime = System.currentTimeMillis();
@@ -196,8 +199,10 @@ public class MalcolmDevice<M extends MalcolmModel> extends AbstractMalcolmDevice
 	 */
     @PointStart
     public void scanPoint(SubscanModerator moderator) {
-	Iterable<IPosition> scanPositions = moderator.getInnerIterable();
-        scanPositionIterator = scanPositions.iterator();
+        scanPositions        = moderator.getInnerIterable();
+        scanPositionIterator = scanPositions instanceof IPointGenerator ? null : scanPositions.iterator();
+        scanPositionIndex    = 0;
+        scanPositionCount    = -1;
     }
 
 	protected void sendScanEvent(MalcolmEvent<MalcolmMessage> e) throws Exception {
@@ -226,15 +231,27 @@ public class MalcolmDevice<M extends MalcolmModel> extends AbstractMalcolmDevice
 		}
 
 		// Fire a position complete only if it's past the timeout value
-		if (newPoint && scanPositionIterator != null) {
+		if (newPoint && scanPositions != null) {
 			long currentTime = System.currentTimeMillis();
 
 			int positionDiff = point - lastUpdateCount;
 
 			IPosition scanPosition = null;
-			for (int i = 0; i < positionDiff; i++) {
-				if (scanPositionIterator.hasNext()) {
-					scanPosition = scanPositionIterator.next();
+			if (scanPositions instanceof IPointGenerator) {
+				// Jump straight to the position, only getting it if it will be broadcast
+				IPointGenerator<?> gen = (IPointGenerator<?>)scanPositions;
+				if (scanPositionCount<0) scanPositionCount = gen.size();
+				if (positionDiff > 0 && scanPositionIndex < scanPositionCount) {
+					scanPositionIndex = Math.min(scanPositionIndex+positionDiff, scanPositionCount);
+					if (currentTime - lastBroadcastTime >= POSITION_COMPLETE_FREQ) {
+						scanPosition = gen.getPoint(scanPositionIndex-1);
+					}
+				}
+			} else {
+				for (int i = 0; i < positionDiff; i++) {
+					if (scanPositionIterator.hasNext()) {
+						scanPosition = scanPositionIterator.next();
+					}
 				}
 			}
 
@@ -406,6 +423,7 @@ public class MalcolmDevice<M extends MalcolmModel> extends AbstractMalcolmDevice
 	 * Reset any variables used in counting progress
 	 */
 	private void resetProgressCounting() {
+		scanPositions = null;
 		scanPositionIterator = null;
 		lastUpdateCount = 0;
 	}
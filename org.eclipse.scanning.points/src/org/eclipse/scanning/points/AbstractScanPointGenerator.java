@@ -0,0 +1,65 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.points;
+
+import java.util.Iterator;
+
+import org.eclipse.scanning.api.points.AbstractGenerator;
+import org.eclipse.scanning.api.points.IPointGeneratorService.Engine;
+import org.eclipse.scanning.api.points.IPosition;
+
+/**
+ * A generator whose iterator is made by the scanpointgenerator library,
+ * either in jython or by the Java port of it. The engine is set by the
+ * {@link PointGeneratorService} which made the generator.
+ */
+abstract class AbstractScanPointGenerator<T> extends AbstractGenerator<T> {
+
+	private volatile Engine engine = PointGeneratorService.getDefaultEngine();
+
+	protected AbstractScanPointGenerator() {
+		super();
+	}
+
+	protected AbstractScanPointGenerator(String id) {
+		super(id);
+	}
+
+	@Override
+	protected final Iterator<IPosition> iteratorFromValidModel() {
+		return iteratorFromValidModel(getEngine());
+	}
+
+	/**
+	 * Creates an iterator for this model using the objects which the engine makes.
+	 * @param engine
+	 * @return
+	 */
+	protected abstract Iterator<IPosition> iteratorFromValidModel(Engine engine);
+
+	/**
+	 * Validates the model and creates an iterator using the engine given
+	 * rather than the engine of this generator.
+	 *
+	 * @param engine
+	 * @return
+	 */
+	Iterator<IPosition> iterator(Engine engine) {
+		validateModel();
+		return iteratorFromValidModel(engine);
+	}
+
+	public Engine getEngine() {
+		return engine;
+	}
+
+	public void setEngine(Engine engine) {
+		this.engine = engine;
+	}
+}
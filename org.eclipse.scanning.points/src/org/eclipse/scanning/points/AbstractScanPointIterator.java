@@ -30,9 +30,7 @@ import org.eclipse.dawnsci.analysis.dataset.roi.SectorROI;
 import org.eclipse.scanning.api.points.IPosition;
 import org.eclipse.scanning.api.points.ScanPointIterator;
 import org.eclipse.scanning.api.points.models.ScanRegion;
-import org.eclipse.scanning.jython.JythonObjectFactory;
 import org.python.core.PyDictionary;
-import org.python.core.PyList;
 import org.python.core.PyObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -53,19 +51,15 @@ public abstract class AbstractScanPointIterator implements ScanPointIterator, Py
 		this.pyIterator = pyIterator;
 	}
 
-	protected ScanPointIterator createSpgCompoundGenerator(Iterator<?>[] iterators, Object[] regions,
-			String[] regionAxes, PyObject[] mutators) {
-		JythonObjectFactory<PyObject> excluderFactory = ScanPointGeneratorFactory.JExcluderFactory();
-		JythonObjectFactory<ScanPointIterator> cpgFactory = ScanPointGeneratorFactory.JCompoundGeneratorFactory();
-		List<PyObject> pyRegions = Arrays.asList(regions)
+	protected ScanPointIterator createSpgCompoundGenerator(IScanPointGeneratorFactory factory, Iterator<?>[] iterators,
+			Object[] regions, String[] regionAxes, Object[] mutators) {
+		List<Object> rois = Arrays.asList(regions)
 				.stream()
-				.map(r -> makePyRoi(r))
+				.map(r -> factory.roi(r))
 				.filter(r -> r != null)
 				.collect(Collectors.toList());
-		PyObject excluder = excluderFactory.createObject(pyRegions.toArray(), new PyList(Arrays.asList(regionAxes)));
-		PyObject[] excluders = pyRegions.size() > 0 ? new PyObject[] {excluder} : new PyObject[] {};
-		ScanPointIterator cpgIterator = cpgFactory.createObject(iterators, excluders, mutators);
-		return cpgIterator;
+		Object[] excluders = rois.size() > 0 ? new Object[] {factory.excluder(rois, Arrays.asList(regionAxes))} : new Object[] {};
+		return factory.compound(iterators, excluders, mutators, -1);
 	}
 
 	static {
@@ -11,25 +11,24 @@
  *******************************************************************************/
 package org.eclipse.scanning.points;
 
+import org.eclipse.scanning.api.points.IPointGeneratorService.Engine;
 import org.eclipse.scanning.api.points.IPosition;
 import org.eclipse.scanning.api.points.ScanPointIterator;
 import org.eclipse.scanning.api.points.models.ArrayModel;
-import org.eclipse.scanning.jython.JythonObjectFactory;
 
 class ArrayIterator extends AbstractScanPointIterator {
 
 	private ArrayModel model;
 	int index = 0;
 
-	public ArrayIterator(ArrayGenerator gen) {
+	public ArrayIterator(ArrayGenerator gen, Engine engine) {
 		this.model= gen.getModel();
 
-        JythonObjectFactory<ScanPointIterator> arrayGeneratorFactory = ScanPointGeneratorFactory.JArrayGeneratorFactory();
+        IScanPointGeneratorFactory factory = IScanPointGeneratorFactory.getFactory(engine);
 
         double[] points = model.getPositions();
 
-		ScanPointIterator iterator = arrayGeneratorFactory.createObject(
-				model.getName(), "mm", points);
+		ScanPointIterator iterator = factory.array(model.getName(), points);
         pyIterator = iterator;
 	}
 
@@ -19,12 +19,18 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
-import org.eclipse.scanning.api.points.AbstractGenerator;
 import org.eclipse.scanning.api.points.AbstractPosition;
 import org.eclipse.scanning.api.points.GeneratorException;
+import org.eclipse.scanning.api.points.IMutator;
 import org.eclipse.scanning.api.points.IPointGenerator;
+import org.eclipse.scanning.api.points.IPointGeneratorService.Engine;
 import org.eclipse.scanning.api.points.IPosition;
+import org.eclipse.scanning.api.points.PositionBlock;
+import org.eclipse.scanning.api.points.ScanPathInfo;
+import org.eclipse.scanning.api.points.ScanPointIterator;
+import org.eclipse.scanning.api.points.models.BoundingBox;
 import org.eclipse.scanning.api.points.models.CompoundModel;
+import org.eclipse.scanning.api.points.models.IBoundingBoxModel;
 import org.python.core.PyDictionary;
 
 /**
@@ -35,11 +41,27 @@ import org.python.core.PyDictionary;
  * @author Matthew Gerring
  *
  */
-class CompoundGenerator extends AbstractGenerator<CompoundModel> implements PySerializable {
+class CompoundGenerator extends AbstractScanPointGenerator<CompoundModel> implements PySerializable {
 
 	private IPointGenerator<?>[]     generators;
 	private List<Collection<String>> dimensionNames;
 
+	/**
+	 * Made when a point is first asked for by its index and
+	 * used again until the model or engine changes.
+	 */
+	private volatile CompoundSpgIterator pointIterator;
+
+	/**
+	 * The size, shape and names of the scan, worked out once for the model.
+	 * If the generator was made from a compound model by the service, they
+	 * are shared with other generators made from an equal compound model.
+	 */
+	private volatile ScanPathInfo info;
+	private ScanPathCache         cache;
+	private CompoundModel<?>      cacheKey;
+	private CompoundModel<?>      cachedModel;
+
 	public CompoundGenerator(IPointGenerator<?>[] generators) throws GeneratorException {
 		super(createId(generators));
         if (generators == null || generators.length<1) throw new GeneratorException("Cannot make a compound generator from a list of less than one generators!");
@@ -89,23 +111,83 @@ class CompoundGenerator extends AbstractGenerator<CompoundModel> implements PySe
 		// explicit validation here.
 	}
 
+	/**
+	 * Shares the size, shape and names of the scan with other generators made from
+	 * a compound model equal to cmodel. They are only shared while the model of this
+	 * generator is not changed.
+	 *
+	 * @param cache
+	 * @param cmodel the compound model which this generator was made from
+	 */
+	void setScanPathCache(ScanPathCache cache, CompoundModel<?> cmodel) {
+		this.cache       = cache;
+		this.cacheKey    = cmodel;
+		this.cachedModel = model;
+	}
+
 	@Override
-	public int sizeOfValidModel() throws GeneratorException {
-		Iterator<IPosition> it = (Iterator<IPosition>) iteratorFromValidModel();
-		int size = 1;
-		if (it instanceof CompoundSpgIterator) {
-			size = ((CompoundSpgIterator)it).size();
+	public ScanPathInfo getScanPathInfo() throws GeneratorException {
+		ScanPathInfo ret = info;
+		if (ret!=null) return ret;
+
+		boolean shared = cache!=null && model==cachedModel;
+		if (shared) ret = cache.get(cacheKey);
+		if (ret==null) {
+			ret = createScanPathInfo();
+			if (shared) cache.put(cacheKey, ret);
+		}
+		info = ret;
+		return ret;
+	}
+
+	/**
+	 * Works out the size, shape and names of the scan from one iterator.
+	 * @return
+	 * @throws GeneratorException
+	 */
+	private ScanPathInfo createScanPathInfo() throws GeneratorException {
+
+		Iterator<IPosition> it = iteratorFromValidModel();
+		int   size;
+		int[] shape;
+		if (it instanceof ScanPointIterator) {
+			size  = ((ScanPointIterator)it).size();
+			shape = ((ScanPointIterator)it).getShape();
 		} else {
+			size = 1;
 			for (int i = 0;i < generators.length; i++) {
 				size *= generators[i].size();
 			}
+			shape = super.calculateShape();
+		}
+
+		IPosition first = it.hasNext() ? it.next() : null;
+		List<Collection<String>> dnames = first instanceof AbstractPosition ? ((AbstractPosition)first).getDimensionNames() : dimensionNames;
+
+		BoundingBox box = null;
+		for (Object m : model.getModels()) {
+			if (m instanceof IBoundingBoxModel && ((IBoundingBoxModel)m).getBoundingBox()!=null) {
+				box = ((IBoundingBoxModel)m).getBoundingBox();
+				break;
+			}
 		}
-		return size;
+		return new ScanPathInfo(size, shape, dnames, box);
+	}
+
+	@Override
+	public int sizeOfValidModel() throws GeneratorException {
+		return getScanPathInfo().getSize();
+	}
+
+	@Override
+	protected int[] calculateShape() throws GeneratorException {
+		return getScanPathInfo().getShape();
 	}
 
     @Override
 	public PyDictionary toDict() {
-		Iterator<?> it = iteratorFromValidModel();
+		// The dictionary is always that of the python library
+		Iterator<?> it = iteratorFromValidModel(Engine.JYTHON);
 		if (it instanceof PySerializable) return ((PySerializable)it).toDict();
 		return null;
     }
@@ -141,10 +223,11 @@ class CompoundGenerator extends AbstractGenerator<CompoundModel> implements PySe
 	}
 
 	@Override
-	protected Iterator<IPosition> iteratorFromValidModel() {
+	protected Iterator<IPosition> iteratorFromValidModel(Engine engine) {
 		try {
 			if (isScanPointGeneratorFactory()) {
-				return new CompoundSpgIterator(this);
+				if (engine == Engine.JAVA && !isJavaEngineSupported()) engine = Engine.JYTHON;
+				return new CompoundSpgIterator(this, engine);
 			} else {
 				return new CompoundIterator(this);
 			}
@@ -153,6 +236,52 @@ class CompoundGenerator extends AbstractGenerator<CompoundModel> implements PySe
 		}
 	}
 
+	@Override
+	public Iterator<IPosition> iterator(int fromIndex) throws GeneratorException {
+		Iterator<IPosition> it = iterator();
+		if (it instanceof CompoundSpgIterator) {
+			((CompoundSpgIterator)it).seek(fromIndex);
+			return it;
+		}
+		return super.iterator(fromIndex);
+	}
+
+	@Override
+	public IPosition getPoint(int index) throws GeneratorException {
+		CompoundSpgIterator it = getPointIterator();
+		if (it == null) return super.getPoint(index);
+		if (index<0 || index>=it.size()) throw new GeneratorException("The index "+index+" is outside the scan of size "+it.size());
+		IPosition point = it.getPoint(index);
+		return point!=null ? point : super.getPoint(index);
+	}
+
+	@Override
+	public PositionBlock createBlock(int fromIndex, int size) throws GeneratorException {
+		CompoundSpgIterator it = getPointIterator();
+		if (it == null) return super.createBlock(fromIndex, size);
+		if (fromIndex<0 || fromIndex>it.size()) throw new GeneratorException("The index "+fromIndex+" is outside the scan of size "+it.size());
+		PositionBlock block = it.createBlock(fromIndex, size);
+		return block!=null ? block : super.createBlock(fromIndex, size);
+	}
+
+	private CompoundSpgIterator getPointIterator() {
+		CompoundSpgIterator it = pointIterator;
+		if (it == null) {
+			Iterator<IPosition> created = iterator();
+			if (!(created instanceof CompoundSpgIterator)) return null;
+			it = (CompoundSpgIterator)created;
+			pointIterator = it;
+		}
+		return it;
+	}
+
+	@Override
+	public void setModel(CompoundModel model) {
+		super.setModel(model);
+		pointIterator = null;
+		info = null;
+	}
+
 	@Override
 	public List<IPosition> createPoints() throws GeneratorException {
 
@@ -200,6 +329,32 @@ class CompoundGenerator extends AbstractGenerator<CompoundModel> implements PySe
 	}
 
 
+	/**
+	 * The Java engine can only compound generators which it makes
+	 * and can only apply the mutators which it has ported.
+	 * @return
+	 */
+	private boolean isJavaEngineSupported() {
+		for (IPointGenerator<?> gen : generators) {
+			if (!(gen instanceof AbstractScanPointGenerator)) return false;
+		}
+		if (model.getMutators()!=null) {
+			for (Object mutator : model.getMutators()) {
+				if (!JavaScanPointGeneratorFactory.isSupported((IMutator)mutator)) return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public void setEngine(Engine engine) {
+		super.setEngine(engine);
+		pointIterator = null;
+		for (IPointGenerator<?> gen : generators) {
+			if (gen instanceof AbstractScanPointGenerator) ((AbstractScanPointGenerator<?>)gen).setEngine(engine);
+		}
+	}
+
 	@Override
 	public boolean isScanPointGeneratorFactory() {
 		for (IPointGenerator<?> gen : generators) {
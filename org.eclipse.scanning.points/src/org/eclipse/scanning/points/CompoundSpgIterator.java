@@ -25,11 +25,14 @@ import org.eclipse.scanning.api.points.GeneratorException;
 import org.eclipse.scanning.api.points.IDeviceDependentIterable;
 import org.eclipse.scanning.api.points.IMutator;
 import org.eclipse.scanning.api.points.IPointGenerator;
+import org.eclipse.scanning.api.points.IPointGeneratorService.Engine;
 import org.eclipse.scanning.api.points.IPosition;
+import org.eclipse.scanning.api.points.IPositionBlockIterator;
 import org.eclipse.scanning.api.points.MapPosition;
+import org.eclipse.scanning.api.points.PositionBlock;
 import org.eclipse.scanning.api.points.ScanPointIterator;
 import org.eclipse.scanning.api.points.models.ScanRegion;
-import org.eclipse.scanning.jython.JythonObjectFactory;
+import org.eclipse.scanning.points.spg.PointIterator;
 import org.python.core.PyDictionary;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -42,7 +45,7 @@ import org.slf4j.LoggerFactory;
  * @author Matthew Gerring
  *
  */
-public class CompoundSpgIterator extends AbstractScanPointIterator {
+public class CompoundSpgIterator extends AbstractScanPointIterator implements IPositionBlockIterator {
 
 	private static Logger logger = LoggerFactory.getLogger(CompoundSpgIterator.class);
 
@@ -53,9 +56,9 @@ public class CompoundSpgIterator extends AbstractScanPointIterator {
 	private IPosition currentPoint;
 	private int index = -1;
 
-	public CompoundSpgIterator(CompoundGenerator gen) throws GeneratorException {
+	public CompoundSpgIterator(CompoundGenerator gen, Engine engine) throws GeneratorException {
 		this.gen       = gen;
-		this.iterators = initIterators();
+		this.iterators = initIterators(engine);
 		this.pos       = createFirstPosition();
 
 		// Throw an exception if iterator is device dependent and can't be processed by SPG
@@ -65,13 +68,13 @@ public class CompoundSpgIterator extends AbstractScanPointIterator {
 			}
 		}
 
-		JythonObjectFactory<ScanPointIterator> compoundGeneratorFactory = ScanPointGeneratorFactory.JCompoundGeneratorFactory();
+		IScanPointGeneratorFactory factory = IScanPointGeneratorFactory.getFactory(engine);
 
-        Object[] excluders = getExcluders(gen.getModel().getRegions());
-        Object[] mutators = getMutators(gen.getModel().getMutators());
+        Object[] excluders = getExcluders(factory, gen.getModel().getRegions());
+        Object[] mutators = getMutators(factory, gen.getModel().getMutators());
         double duration = gen.getModel().getDuration();
 
-        ScanPointIterator iterator = compoundGeneratorFactory.createObject(
+        ScanPointIterator iterator = factory.compound(
 				iterators, excluders, mutators, duration);
 
         index = -1;
@@ -90,6 +93,7 @@ public class CompoundSpgIterator extends AbstractScanPointIterator {
 	@SuppressWarnings("unchecked")
 	@Override
     public PyDictionary toDict() {
+		if (!(pyIterator instanceof PySerializable)) return null; // Only the jython engine makes dictionaries
 		return ((PySerializable) pyIterator).toDict();
     }
 
@@ -118,6 +122,71 @@ public class CompoundSpgIterator extends AbstractScanPointIterator {
 		return point;
 	}
 
+	/**
+	 * Moves the iterator so that the next call to next() returns the point at index.
+	 * The Java engine calculates the point from its index, the jython one can only
+	 * iterate forwards to it.
+	 *
+	 * @param index
+	 * @throws GeneratorException if the index is outside the scan or behind a jython iterator
+	 */
+	public void seek(int index) throws GeneratorException {
+		if (index<0 || index>size()) throw new GeneratorException("The index "+index+" is outside the scan of size "+size());
+		currentPoint = null;
+		if (pyIterator instanceof PointIterator) {
+			((PointIterator)pyIterator).seek(index);
+			this.index = index-1;
+			return;
+		}
+		if (index<=this.index) throw new GeneratorException("Cannot seek backwards to "+index+" using the jython engine");
+		while(this.index<index-1 && hasNext()) currentPoint = null;
+	}
+
+	/**
+	 * The point at index calculated without moving the iterator.
+	 *
+	 * @param index
+	 * @return the point or null if the engine cannot calculate points from their index
+	 */
+	public IPosition getPoint(int index) {
+		if (!(pyIterator instanceof PointIterator)) return null;
+		IPosition point = ((PointIterator)pyIterator).getPoint(index);
+		point.setStepIndex(index);
+		return point;
+	}
+
+	/**
+	 * A block of the points from fromIndex calculated without moving the iterator.
+	 *
+	 * @param fromIndex
+	 * @param size
+	 * @return the block or null if the engine cannot calculate points from their index
+	 */
+	public PositionBlock createBlock(int fromIndex, int size) {
+		if (!(pyIterator instanceof PointIterator)) return null;
+		return ((PointIterator)pyIterator).createBlock(fromIndex, size);
+	}
+
+	/**
+	 * The next points in a block calculated from their indices,
+	 * the iterator is moved past them.
+	 *
+	 * @param size
+	 * @return the block or null if the engine cannot calculate points from their index
+	 */
+	@Override
+	public PositionBlock nextBlock(int size) {
+		if (!(pyIterator instanceof PointIterator)) return null;
+		int from = currentPoint!=null ? index : index+1; // hasNext() may have read the next point already
+		PositionBlock block = createBlock(from, size);
+		try {
+			seek(from+block.size());
+		} catch (GeneratorException ne) {
+			throw new IllegalStateException("Cannot move the iterator past the block at "+from, ne);
+		}
+		return block;
+	}
+
 	public IPosition getNext() {
 
 		for (int i = iterators.length-1; i > -1; i--) {
@@ -137,12 +206,17 @@ public class CompoundSpgIterator extends AbstractScanPointIterator {
 	}
 
 
-	private Iterator<? extends IPosition>[] initIterators() {
+	private Iterator<? extends IPosition>[] initIterators(Engine engine) {
 		final IPointGenerator<?>[] gs = gen.getGenerators();
 		@SuppressWarnings("unchecked")
 		Iterator<? extends IPosition>[] ret = new Iterator[gs.length];
 		for (int i = 0; i < gs.length; i++) {
-			ret[i] = gs[i].iterator();
+			// The compound of the engine needs the generators of the same engine
+			if (gs[i] instanceof AbstractScanPointGenerator) {
+				ret[i] = ((AbstractScanPointGenerator<?>)gs[i]).iterator(engine);
+			} else {
+				ret[i] = gs[i].iterator();
+			}
 		}
 		return ret;
 	}
@@ -157,11 +231,11 @@ public class CompoundSpgIterator extends AbstractScanPointIterator {
 	 * @param mutators
 	 * @return
 	 */
-	private Object[] getMutators(Collection<IMutator> mutators) {
+	private Object[] getMutators(IScanPointGeneratorFactory factory, Collection<IMutator> mutators) {
 		LinkedList<Object> pyMutators = new LinkedList<Object>();
 		if (mutators != null) {
 			for (IMutator mutator : mutators) {
-				pyMutators.add(mutator.getMutatorAsJythonObject());
+				pyMutators.add(factory.mutator(mutator));
 			}
 		}
 		return pyMutators.toArray();
@@ -173,10 +247,19 @@ public class CompoundSpgIterator extends AbstractScanPointIterator {
 	 * @return
 	 */
 	public static Object[] getExcluders(Collection<?> regions) {
+		return getExcluders(IScanPointGeneratorFactory.getFactory(Engine.JYTHON), regions);
+	}
+
+	/**
+	 * Creates an array of the excluders of an engine
+	 * @param factory
+	 * @param regions
+	 * @return
+	 */
+	static Object[] getExcluders(IScanPointGeneratorFactory factory, Collection<?> regions) {
 		// regions are grouped into excluders by scan axes covered
 		// two regions are in the same excluder iff they have the same axes
 		LinkedHashMap<List<String>, List<Object>> excluders = new LinkedHashMap<List<String>, List<Object>>();
-		JythonObjectFactory<?> excluderFactory = ScanPointGeneratorFactory.JExcluderFactory();
 		if (regions != null) {
 			for (Object region : regions) {
 				if (region instanceof ScanRegion) {
@@ -190,7 +273,7 @@ public class CompoundSpgIterator extends AbstractScanPointIterator {
 						excluders.put(sr.getScannables(), rois);
 					}
 					try {
-						Object pyRoi = makePyRoi(region);
+						Object pyRoi = factory.roi(region);
 						if (pyRoi != null) rois.add(pyRoi);
 					} catch (Exception e) {
 						logger.error("Could not convert ROI to PyRoi", e);
@@ -202,7 +285,7 @@ public class CompoundSpgIterator extends AbstractScanPointIterator {
 		}
 		List<Object> pyExcluders = excluders.entrySet().stream()
 				.filter(e -> e.getValue().size() > 0)
-				.map(e -> excluderFactory.createObject(e.getValue().toArray(), e.getKey()))
+				.map(e -> factory.excluder(e.getValue(), e.getKey()))
 				.collect(Collectors.toList());
 		return pyExcluders.toArray();
 	}
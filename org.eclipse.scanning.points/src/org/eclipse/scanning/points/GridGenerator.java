@@ -12,11 +12,11 @@
 package org.eclipse.scanning.points;
 
 import org.eclipse.scanning.api.ModelValidationException;
-import org.eclipse.scanning.api.points.AbstractGenerator;
+import org.eclipse.scanning.api.points.IPointGeneratorService.Engine;
 import org.eclipse.scanning.api.points.ScanPointIterator;
 import org.eclipse.scanning.api.points.models.GridModel;
 
-class GridGenerator extends AbstractGenerator<GridModel> {
+class GridGenerator extends AbstractScanPointGenerator<GridModel> {
 
 	GridGenerator() {
 		setLabel("Grid");
@@ -34,8 +34,8 @@ class GridGenerator extends AbstractGenerator<GridModel> {
 	}
 
 	@Override
-	public ScanPointIterator iteratorFromValidModel() {
-		return new GridIterator(this);
+	public ScanPointIterator iteratorFromValidModel(Engine engine) {
+		return new GridIterator(this, engine);
 	}
 
 	@Override
@@ -14,15 +14,12 @@ package org.eclipse.scanning.points;
 import java.util.Arrays;
 import java.util.Iterator;
 
+import org.eclipse.scanning.api.points.IPointGeneratorService.Engine;
 import org.eclipse.scanning.api.points.Point;
 import org.eclipse.scanning.api.points.ScanPointIterator;
 import org.eclipse.scanning.api.points.models.GridModel;
 import org.eclipse.scanning.api.points.models.RandomOffsetGridModel;
 import org.eclipse.scanning.api.points.models.RasterModel;
-import org.eclipse.scanning.jython.JythonObjectFactory;
-import org.python.core.PyDictionary;
-import org.python.core.PyList;
-import org.python.core.PyObject;
 
 class GridIterator extends AbstractScanPointIterator {
 
@@ -37,7 +34,7 @@ class GridIterator extends AbstractScanPointIterator {
 
 	private Point currentPoint;
 
-	public GridIterator(GridGenerator gen) {
+	public GridIterator(GridGenerator gen, Engine engine) {
 		GridModel model = gen.getModel();
 
 		this.columns = model.getFastAxisPoints();
@@ -49,21 +46,21 @@ class GridIterator extends AbstractScanPointIterator {
 		this.minX = model.getBoundingBox().getFastAxisStart() + xStep / 2;
 		this.minY = model.getBoundingBox().getSlowAxisStart() + yStep / 2;
 
-		JythonObjectFactory<ScanPointIterator> lineGeneratorFactory = ScanPointGeneratorFactory.JLineGenerator1DFactory();
+		IScanPointGeneratorFactory factory = IScanPointGeneratorFactory.getFactory(engine);
 
-		ScanPointIterator outerLine = lineGeneratorFactory.createObject(
-				yName, "mm", minY, minY + (rows - 1) * yStep, rows, model.isSnake());
+		ScanPointIterator outerLine = factory.line(
+				yName, minY, minY + (rows - 1) * yStep, rows, model.isSnake());
 
-		ScanPointIterator innerLine = lineGeneratorFactory.createObject(
-				xName, "mm", minX, minX + (columns - 1) * xStep, columns, model.isSnake());
+		ScanPointIterator innerLine = factory.line(
+				xName, minX, minX + (columns - 1) * xStep, columns, model.isSnake());
 
         Iterator<?>[] generators = {outerLine, innerLine};
 
-		pyIterator = createSpgCompoundGenerator(generators, gen.getRegions().toArray(),
-				new String[] {xName, yName}, new PyObject[] {});
+		pyIterator = createSpgCompoundGenerator(factory, generators, gen.getRegions().toArray(),
+				new String[] {xName, yName}, new Object[] {});
 	}
 
-	public GridIterator(RandomOffsetGridGenerator gen) {
+	public GridIterator(RandomOffsetGridGenerator gen, Engine engine) {
 		RandomOffsetGridModel model = (RandomOffsetGridModel) gen.getModel();
 
 		this.columns = model.getFastAxisPoints();
@@ -75,34 +72,26 @@ class GridIterator extends AbstractScanPointIterator {
 		this.minX = model.getBoundingBox().getFastAxisStart() + xStep / 2;
 		this.minY = model.getBoundingBox().getSlowAxisStart() + yStep / 2;
 
-        JythonObjectFactory<ScanPointIterator> lineGeneratorFactory = ScanPointGeneratorFactory.JLineGenerator1DFactory();
+		IScanPointGeneratorFactory factory = IScanPointGeneratorFactory.getFactory(engine);
 
-		ScanPointIterator outerLine = lineGeneratorFactory.createObject(
-				yName, "mm", minY, minY + (rows - 1) * yStep, rows);
+		ScanPointIterator outerLine = factory.line(
+				yName, minY, minY + (rows - 1) * yStep, rows, false);
 
-		ScanPointIterator innerLine = lineGeneratorFactory.createObject(
-				xName, "mm", minX, minX + (columns - 1) * xStep, columns, model.isSnake());
-
-        JythonObjectFactory<PyObject> randomOffsetMutatorFactory = ScanPointGeneratorFactory.JRandomOffsetMutatorFactory();
+		ScanPointIterator innerLine = factory.line(
+				xName, minX, minX + (columns - 1) * xStep, columns, model.isSnake());
 
         int seed = model.getSeed();
-        PyList axes = new PyList(Arrays.asList(new String[] {yName, xName}));
         double offset = xStep * model.getOffset() / 100;
-
-        PyDictionary maxOffset = new PyDictionary();
-        maxOffset.put(yName, offset);
-        maxOffset.put(xName, offset);
-
-		PyObject randomOffset = (PyObject) randomOffsetMutatorFactory.createObject(seed, axes, maxOffset);
+        Object randomOffset = factory.randomOffsetMutator(seed, Arrays.asList(yName, xName), offset);
 
         Iterator<?>[] generators = {outerLine, innerLine};
-        PyObject[] mutators = {randomOffset};
+        Object[] mutators = {randomOffset};
 
-		pyIterator = createSpgCompoundGenerator(generators, gen.getRegions().toArray(),
+		pyIterator = createSpgCompoundGenerator(factory, generators, gen.getRegions().toArray(),
 				new String[] {xName, yName}, mutators);
 	}
 
-	public GridIterator(RasterGenerator gen) {
+	public GridIterator(RasterGenerator gen, Engine engine) {
 		RasterModel model = gen.getModel();
 		this.xStep = model.getFastAxisStep();
 		this.yStep = model.getSlowAxisStep();
@@ -113,17 +102,17 @@ class GridIterator extends AbstractScanPointIterator {
 		this.columns = (int) Math.floor(model.getBoundingBox().getFastAxisLength() / xStep + 1);
 		this.rows = (int) Math.floor(model.getBoundingBox().getSlowAxisLength() / yStep + 1);
 
-		JythonObjectFactory<ScanPointIterator> lineGeneratorFactory = ScanPointGeneratorFactory.JLineGenerator1DFactory();
+		IScanPointGeneratorFactory factory = IScanPointGeneratorFactory.getFactory(engine);
 
-		ScanPointIterator outerLine = lineGeneratorFactory.createObject(
-				yName, "mm", minY, minY + (rows - 1) * yStep, rows);
-		ScanPointIterator innerLine = lineGeneratorFactory.createObject(
-				xName, "mm", minX, minX + (columns - 1) * xStep, columns, model.isSnake());
+		ScanPointIterator outerLine = factory.line(
+				yName, minY, minY + (rows - 1) * yStep, rows, false);
+		ScanPointIterator innerLine = factory.line(
+				xName, minX, minX + (columns - 1) * xStep, columns, model.isSnake());
 
         Iterator<?>[] generators = {outerLine, innerLine};
 
-		pyIterator = createSpgCompoundGenerator(generators, gen.getRegions().toArray(),
-				new String[] {xName, yName}, new PyObject[] {});
+		pyIterator = createSpgCompoundGenerator(factory, generators, gen.getRegions().toArray(),
+				new String[] {xName, yName}, new Object[] {});
 	}
 
 	@Override
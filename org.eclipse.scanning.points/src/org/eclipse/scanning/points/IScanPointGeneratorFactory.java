@@ -0,0 +1,88 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.points;
+
+import java.util.Iterator;
+import java.util.List;
+
+import org.eclipse.scanning.api.points.IMutator;
+import org.eclipse.scanning.api.points.IPointGeneratorService.Engine;
+import org.eclipse.scanning.api.points.ScanPointIterator;
+
+/**
+ * Makes the scan point generator objects which the iterators use, either
+ * the jython ones of the scanpointgenerator library or the Java port of
+ * them in org.eclipse.scanning.points.spg.
+ *
+ * The excluders, mutators and regions are opaque to the iterators and must
+ * only be given back to the factory which made them.
+ */
+interface IScanPointGeneratorFactory {
+
+	/**
+	 * A line of one axis iterated as Scalars.
+	 */
+	ScanPointIterator line(String name, double start, double stop, int numPoints, boolean alternate);
+
+	/**
+	 * A line of two axes iterated as Points which are not 2D.
+	 */
+	ScanPointIterator line(String[] names, double[] start, double[] stop, int numPoints);
+
+	/**
+	 * Positions of one axis iterated as Scalars.
+	 */
+	ScanPointIterator array(String name, double[] points);
+
+	ScanPointIterator spiral(String[] names, double[] centre, double radius, double scale, boolean alternate);
+
+	ScanPointIterator lissajous(String[] names, double[] centre, double width, double height, int numLobes, int numPoints);
+
+	/**
+	 * Compound the generators of iterators made by this factory.
+	 *
+	 * @param iterators which are or which wrap iterators made by this factory
+	 * @param excluders made by this factory
+	 * @param mutators made by this factory
+	 * @param duration
+	 * @return
+	 */
+	ScanPointIterator compound(Iterator<?>[] iterators, Object[] excluders, Object[] mutators, double duration);
+
+	Object randomOffsetMutator(int seed, List<String> axes, double maxOffset);
+
+	/**
+	 * Convert a mutator of a model.
+	 */
+	Object mutator(IMutator mutator);
+
+	/**
+	 * Exclude points outside the regions.
+	 * @param rois made by {@link #roi(Object)}
+	 * @param axes
+	 * @return
+	 */
+	Object excluder(List<Object> rois, List<String> axes);
+
+	/**
+	 * Convert a ScanRegion or an IROI
+	 * @param region
+	 * @return the region or null if it is not supported
+	 */
+	Object roi(Object region);
+
+	/**
+	 *
+	 * @param engine
+	 * @return the factory which makes objects for the engine
+	 */
+	static IScanPointGeneratorFactory getFactory(Engine engine) {
+		return engine == Engine.JAVA ? JavaScanPointGeneratorFactory.INSTANCE : JythonScanPointGeneratorFactory.INSTANCE;
+	}
+}
@@ -0,0 +1,203 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.points;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.eclipse.dawnsci.analysis.api.roi.IROI;
+import org.eclipse.dawnsci.analysis.dataset.roi.CircularROI;
+import org.eclipse.dawnsci.analysis.dataset.roi.EllipticalROI;
+import org.eclipse.dawnsci.analysis.dataset.roi.LinearROI;
+import org.eclipse.dawnsci.analysis.dataset.roi.PointROI;
+import org.eclipse.dawnsci.analysis.dataset.roi.PolygonalROI;
+import org.eclipse.dawnsci.analysis.dataset.roi.RectangularROI;
+import org.eclipse.dawnsci.analysis.dataset.roi.SectorROI;
+import org.eclipse.scanning.api.points.IMutator;
+import org.eclipse.scanning.api.points.ScanPointIterator;
+import org.eclipse.scanning.api.points.models.ScanRegion;
+import org.eclipse.scanning.points.spg.ArrayGenerator;
+import org.eclipse.scanning.points.spg.CompoundGenerator;
+import org.eclipse.scanning.points.spg.Generator;
+import org.eclipse.scanning.points.spg.LineGenerator;
+import org.eclipse.scanning.points.spg.LissajousGenerator;
+import org.eclipse.scanning.points.spg.PointIterator;
+import org.eclipse.scanning.points.spg.ROIExcluder;
+import org.eclipse.scanning.points.spg.RandomOffsetMutator;
+import org.eclipse.scanning.points.spg.Region;
+import org.eclipse.scanning.points.spg.SpiralGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Makes the objects of the Java port of the scanpointgenerator library.
+ * The iterators which this factory makes do not use jython.
+ */
+class JavaScanPointGeneratorFactory implements IScanPointGeneratorFactory {
+
+	private static Logger logger = LoggerFactory.getLogger(JavaScanPointGeneratorFactory.class);
+
+	static final IScanPointGeneratorFactory INSTANCE = new JavaScanPointGeneratorFactory();
+
+	private static Map<Class<?>, Function<IROI, Region>> roiDispatchMap = new HashMap<>();
+
+	static {
+		roiDispatchMap.put(CircularROI.class, r -> Region.circle(((CircularROI) r).getCentre(), ((CircularROI) r).getRadius()));
+		roiDispatchMap.put(EllipticalROI.class, r -> Region.ellipse(
+				((EllipticalROI) r).getPoint(), ((EllipticalROI) r).getSemiAxes(), ((EllipticalROI) r).getAngle()));
+		roiDispatchMap.put(LinearROI.class, r -> null); // not supported
+		roiDispatchMap.put(PointROI.class, r -> Region.point(((PointROI) r).getPoint()));
+		roiDispatchMap.put(PolygonalROI.class, r -> {
+			PolygonalROI p = (PolygonalROI) r;
+			double[] xPoints = new double[p.getNumberOfPoints()];
+			double[] yPoints = new double[p.getNumberOfPoints()];
+			for (int i = 0; i < xPoints.length; i++) {
+				PointROI point = p.getPoint(i);
+				xPoints[i] = point.getPointX();
+				yPoints[i] = point.getPointY();
+			}
+			return Region.polygon(xPoints, yPoints);
+		});
+		roiDispatchMap.put(RectangularROI.class, r -> Region.rectangle(
+				((RectangularROI) r).getPoint(), ((RectangularROI) r).getLength(0), ((RectangularROI) r).getLength(1),
+				((RectangularROI) r).getAngle()));
+		roiDispatchMap.put(SectorROI.class, r -> Region.sector(
+				((SectorROI) r).getPoint(), ((SectorROI) r).getRadii(), ((SectorROI) r).getAngles()));
+	}
+
+	private JavaScanPointGeneratorFactory() {
+
+	}
+
+	@Override
+	public ScanPointIterator line(String name, double start, double stop, int numPoints, boolean alternate) {
+		return PointIterator.scalars(single(new LineGenerator(name, start, stop, numPoints, alternate)));
+	}
+
+	@Override
+	public ScanPointIterator line(String[] names, double[] start, double[] stop, int numPoints) {
+		return PointIterator.points(single(new LineGenerator(names, start, stop, numPoints, false)));
+	}
+
+	@Override
+	public ScanPointIterator array(String name, double[] points) {
+		return PointIterator.scalars(single(new ArrayGenerator(name, points, false)));
+	}
+
+	@Override
+	public ScanPointIterator spiral(String[] names, double[] centre, double radius, double scale, boolean alternate) {
+		return PointIterator.points(single(new SpiralGenerator(names, centre, radius, scale, alternate)));
+	}
+
+	@Override
+	public ScanPointIterator lissajous(String[] names, double[] centre, double width, double height, int numLobes, int numPoints) {
+		return PointIterator.points(single(new LissajousGenerator(names, centre, new double[]{width, height}, numLobes, numPoints)));
+	}
+
+	private static CompoundGenerator single(Generator generator) {
+		return new CompoundGenerator(Arrays.asList(generator), Collections.emptyList(), Collections.emptyList());
+	}
+
+	@Override
+	public ScanPointIterator compound(Iterator<?>[] iterators, Object[] excluders, Object[] mutators, double duration) {
+
+		List<Generator>           generators = new ArrayList<>(iterators.length);
+		List<ROIExcluder>         exs        = new ArrayList<>(excluders.length);
+		List<RandomOffsetMutator> muts       = new ArrayList<>(mutators.length);
+		for (Object excluder : excluders) exs.add((ROIExcluder)excluder);
+		for (Object mutator : mutators)   muts.add((RandomOffsetMutator)mutator);
+
+		// Extract the generators, and the excluders and mutators we haven't
+		// already seen, from the compound generators which we were given.
+		List<ROIExcluder>         seenExcluders = new ArrayList<>(exs);
+		List<RandomOffsetMutator> seenMutators  = new ArrayList<>(muts);
+		for (Iterator<?> iterator : iterators) {
+			CompoundGenerator gen = getGenerator(iterator);
+			generators.addAll(gen.getGenerators());
+			for (ROIExcluder e : gen.getExcluders()) {
+				if (!seenExcluders.contains(e)) {
+					exs.add(e);
+					seenExcluders.add(e);
+				}
+			}
+			for (RandomOffsetMutator m : gen.getMutators()) {
+				if (!seenMutators.contains(m)) {
+					muts.add(m);
+					seenMutators.add(m);
+				}
+			}
+		}
+		return PointIterator.positions(new CompoundGenerator(generators, exs, muts));
+	}
+
+	private static CompoundGenerator getGenerator(Iterator<?> iterator) {
+		if (iterator instanceof AbstractScanPointIterator) iterator = ((AbstractScanPointIterator)iterator).getPyIterator();
+		if (iterator instanceof PointIterator) return ((PointIterator)iterator).getGenerator();
+		throw new IllegalArgumentException("The iterator "+iterator+" was not made by the Java scan point generator engine");
+	}
+
+	@Override
+	public Object randomOffsetMutator(int seed, List<String> axes, double maxOffset) {
+		Map<String, Double> offsets = new LinkedHashMap<>();
+		for (String axis : axes) offsets.put(axis, maxOffset);
+		return new RandomOffsetMutator(seed, axes, offsets);
+	}
+
+	@Override
+	public Object mutator(IMutator mutator) {
+		if (mutator instanceof org.eclipse.scanning.points.mutators.RandomOffsetMutator) {
+			org.eclipse.scanning.points.mutators.RandomOffsetMutator rom = (org.eclipse.scanning.points.mutators.RandomOffsetMutator)mutator;
+			return new RandomOffsetMutator(rom.getSeed(), rom.getAxes(), rom.getMaxOffsets());
+		}
+		throw new IllegalArgumentException("The mutator "+mutator.getClass().getSimpleName()+" is not supported by the Java scan point generator engine");
+	}
+
+	@Override
+	public Object excluder(List<Object> rois, List<String> axes) {
+		List<Region> regions = new ArrayList<>(rois.size());
+		for (Object roi : rois) regions.add((Region)roi);
+		return new ROIExcluder(regions, axes);
+	}
+
+	@Override
+	public Object roi(Object region) {
+		IROI roi = null;
+		if (region instanceof ScanRegion<?>) {
+			region = ((ScanRegion<?>) region).getRoi();
+		}
+		if (region instanceof IROI) {
+			roi = (IROI) region;
+		} else {
+			logger.error("Unknown region type: " + region.getClass());
+			return null;
+		}
+		if (roiDispatchMap.containsKey(roi.getClass())) {
+			return roiDispatchMap.get(roi.getClass()).apply(roi);
+		} else {
+			logger.error("Unsupported region type: " + roi.getClass());
+			return null;
+		}
+	}
+
+	/**
+	 * The Java engine supports these mutators.
+	 * @param mutator
+	 * @return
+	 */
+	static boolean isSupported(IMutator mutator) {
+		return mutator instanceof org.eclipse.scanning.points.mutators.RandomOffsetMutator;
+	}
+}
@@ -0,0 +1,94 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.points;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.eclipse.scanning.api.points.IMutator;
+import org.eclipse.scanning.api.points.ScanPointIterator;
+import org.python.core.PyDictionary;
+import org.python.core.PyList;
+
+/**
+ * Makes the jython objects of the scanpointgenerator library
+ * using the classes in jython_spg_interface.
+ */
+class JythonScanPointGeneratorFactory implements IScanPointGeneratorFactory {
+
+	static final IScanPointGeneratorFactory INSTANCE = new JythonScanPointGeneratorFactory();
+
+	private JythonScanPointGeneratorFactory() {
+
+	}
+
+	@Override
+	public ScanPointIterator line(String name, double start, double stop, int numPoints, boolean alternate) {
+		return ScanPointGeneratorFactory.JLineGenerator1DFactory().createObject(name, "mm", start, stop, numPoints, alternate);
+	}
+
+	@Override
+	public ScanPointIterator line(String[] names, double[] start, double[] stop, int numPoints) {
+		PyList pyNames = new PyList(Arrays.asList(names));
+		PyList units   = new PyList(Arrays.asList(new String[] {"mm", "mm"}));
+		return ScanPointGeneratorFactory.JLineGenerator2DFactory().createObject(pyNames, units, start, stop, numPoints);
+	}
+
+	@Override
+	public ScanPointIterator array(String name, double[] points) {
+		return ScanPointGeneratorFactory.JArrayGeneratorFactory().createObject(name, "mm", points);
+	}
+
+	@Override
+	public ScanPointIterator spiral(String[] names, double[] centre, double radius, double scale, boolean alternate) {
+		PyList pyNames  = new PyList(Arrays.asList(names));
+		PyList units    = new PyList(Arrays.asList(new String[] {"mm", "mm"}));
+		PyList pyCentre = new PyList(Arrays.asList(new Double[] {centre[0], centre[1]}));
+		return ScanPointGeneratorFactory.JSpiralGeneratorFactory().createObject(pyNames, units, pyCentre, radius, scale, alternate);
+	}
+
+	@Override
+	public ScanPointIterator lissajous(String[] names, double[] centre, double width, double height, int numLobes, int numPoints) {
+		PyDictionary box = new PyDictionary();
+		box.put("width", width);
+		box.put("height", height);
+		box.put("centre", centre);
+		PyList pyNames = new PyList(Arrays.asList(names));
+		PyList units   = new PyList(Arrays.asList(new String[] {"mm", "mm"}));
+		return ScanPointGeneratorFactory.JLissajousGeneratorFactory().createObject(pyNames, units, box, numLobes, numPoints);
+	}
+
+	@Override
+	public ScanPointIterator compound(Iterator<?>[] iterators, Object[] excluders, Object[] mutators, double duration) {
+		return ScanPointGeneratorFactory.JCompoundGeneratorFactory().createObject(iterators, excluders, mutators, duration);
+	}
+
+	@Override
+	public Object randomOffsetMutator(int seed, List<String> axes, double maxOffset) {
+		PyDictionary offsets = new PyDictionary();
+		for (String axis : axes) offsets.put(axis, maxOffset);
+		return ScanPointGeneratorFactory.JRandomOffsetMutatorFactory().createObject(seed, new PyList(axes), offsets);
+	}
+
+	@Override
+	public Object mutator(IMutator mutator) {
+		return mutator.getMutatorAsJythonObject();
+	}
+
+	@Override
+	public Object excluder(List<Object> rois, List<String> axes) {
+		return ScanPointGeneratorFactory.JExcluderFactory().createObject(rois.toArray(), new PyList(axes));
+	}
+
+	@Override
+	public Object roi(Object region) {
+		return AbstractScanPointIterator.makePyRoi(region);
+	}
+}
@@ -11,8 +11,7 @@
  *******************************************************************************/
 package org.eclipse.scanning.points;
 
-import java.util.Arrays;
-
+import org.eclipse.scanning.api.points.IPointGeneratorService.Engine;
 import org.eclipse.scanning.api.points.IPosition;
 import org.eclipse.scanning.api.points.MapPosition;
 import org.eclipse.scanning.api.points.Scalar;
@@ -22,8 +21,6 @@ import org.eclipse.scanning.api.points.models.CollatedStepModel;
 import org.eclipse.scanning.api.points.models.OneDEqualSpacingModel;
 import org.eclipse.scanning.api.points.models.OneDStepModel;
 import org.eclipse.scanning.api.points.models.StepModel;
-import org.eclipse.scanning.jython.JythonObjectFactory;
-import org.python.core.PyList;
 
 class LineIterator extends AbstractScanPointIterator {
 
@@ -31,61 +28,57 @@ class LineIterator extends AbstractScanPointIterator {
 	private double value;
 	private int index;
 
-	public LineIterator(StepGenerator gen) {
+	public LineIterator(StepGenerator gen, Engine engine) {
 		this.model = gen.getModel();
 		value = model.getStart() - model.getStep();
 
-        JythonObjectFactory<ScanPointIterator> lineGeneratorFactory = ScanPointGeneratorFactory.JLineGenerator1DFactory();
+        IScanPointGeneratorFactory factory = IScanPointGeneratorFactory.getFactory(engine);
 
         String name   = model.getName();
         double start  = model.getStart();
         double stop   = model.getStop();
         int numPoints = model.size();
 
-		ScanPointIterator iterator = lineGeneratorFactory.createObject(name, "mm", start, stop, numPoints);
+		ScanPointIterator iterator = factory.line(name, start, stop, numPoints, false);
 		pyIterator = iterator;
 		this.index = 0;
 	}
 
-	public LineIterator(OneDEqualSpacingGenerator gen) {
+	public LineIterator(OneDEqualSpacingGenerator gen, Engine engine) {
 		OneDEqualSpacingModel model= gen.getModel();
 		BoundingLine line = model.getBoundingLine();
 
-		JythonObjectFactory<ScanPointIterator> lineGeneratorFactory = ScanPointGeneratorFactory.JLineGenerator2DFactory();
+		IScanPointGeneratorFactory factory = IScanPointGeneratorFactory.getFactory(engine);
 
 		int numPoints = model.getPoints();
 		double step = line.getLength() / numPoints;
 		double xStep = step * Math.cos(line.getAngle());
 		double yStep = step * Math.sin(line.getAngle());
 
-		PyList names =  new PyList(Arrays.asList(new String[] {model.getFastAxisName(), model.getSlowAxisName()}));
-		PyList units = new PyList(Arrays.asList(new String[] {"mm", "mm"}));
+		String[] names = {model.getFastAxisName(), model.getSlowAxisName()};
 		double[] start = {line.getxStart() + xStep/2, line.getyStart() + yStep/2};
 		double[] stop = {line.getxStart() + xStep * (numPoints - 0.5), line.getyStart() + yStep * (numPoints - 0.5)};
 
-		ScanPointIterator iterator = lineGeneratorFactory.createObject(
-				names, units, start, stop, numPoints);
+		ScanPointIterator iterator = factory.line(names, start, stop, numPoints);
 		pyIterator = iterator;
 		this.index = 0;
 	}
 
-	public LineIterator(OneDStepGenerator gen) {
+	public LineIterator(OneDStepGenerator gen, Engine engine) {
 		OneDStepModel model= gen.getModel();
 		BoundingLine line = model.getBoundingLine();
 
-        JythonObjectFactory<ScanPointIterator> lineGeneratorFactory = ScanPointGeneratorFactory.JLineGenerator2DFactory();
+        IScanPointGeneratorFactory factory = IScanPointGeneratorFactory.getFactory(engine);
 
 		int numPoints = (int) Math.floor(line.getLength() / model.getStep()) + 1;
         double xStep = model.getStep() * Math.cos(line.getAngle());
         double yStep = model.getStep() * Math.sin(line.getAngle());
 
-		PyList names =  new PyList(Arrays.asList(new String[] {model.getFastAxisName(), model.getSlowAxisName()}));
-		PyList units = new PyList(Arrays.asList(new String[] {"mm", "mm"}));
+		String[] names = {model.getFastAxisName(), model.getSlowAxisName()};
 		double[] start = {line.getxStart(), line.getyStart()};
         double[] stop = {line.getxStart() + xStep * numPoints, line.getyStart() + yStep * numPoints};
 
-		ScanPointIterator iterator = lineGeneratorFactory.createObject(
-				names, units, start, stop, numPoints);
+		ScanPointIterator iterator = factory.line(names, start, stop, numPoints);
 		pyIterator = iterator;
 		this.index = 0;
 	}
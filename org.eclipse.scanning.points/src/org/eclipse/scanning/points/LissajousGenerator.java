@@ -12,11 +12,11 @@
 package org.eclipse.scanning.points;
 
 import org.eclipse.scanning.api.ModelValidationException;
-import org.eclipse.scanning.api.points.AbstractGenerator;
+import org.eclipse.scanning.api.points.IPointGeneratorService.Engine;
 import org.eclipse.scanning.api.points.ScanPointIterator;
 import org.eclipse.scanning.api.points.models.LissajousModel;
 
-public class LissajousGenerator extends AbstractGenerator<LissajousModel> {
+public class LissajousGenerator extends AbstractScanPointGenerator<LissajousModel> {
 
 	public LissajousGenerator() {
 		setLabel("Lissajous Curve");
@@ -25,8 +25,8 @@ public class LissajousGenerator extends AbstractGenerator<LissajousModel> {
 	}
 
 	@Override
-	public ScanPointIterator iteratorFromValidModel() {
-		return new LissajousIterator(this);
+	public ScanPointIterator iteratorFromValidModel(Engine engine) {
+		return new LissajousIterator(this, engine);
 	}
 
 	@Override
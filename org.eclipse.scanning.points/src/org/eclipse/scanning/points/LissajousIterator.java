@@ -11,16 +11,12 @@
  *******************************************************************************/
 package org.eclipse.scanning.points;
 
-import java.util.Arrays;
 import java.util.Iterator;
 
+import org.eclipse.scanning.api.points.IPointGeneratorService.Engine;
 import org.eclipse.scanning.api.points.Point;
 import org.eclipse.scanning.api.points.ScanPointIterator;
 import org.eclipse.scanning.api.points.models.LissajousModel;
-import org.eclipse.scanning.jython.JythonObjectFactory;
-import org.python.core.PyDictionary;
-import org.python.core.PyList;
-import org.python.core.PyObject;
 
 class LissajousIterator extends AbstractScanPointIterator {
 
@@ -28,7 +24,7 @@ class LissajousIterator extends AbstractScanPointIterator {
 
 	private Point currentPoint;
 
-	public LissajousIterator(LissajousGenerator gen) {
+	public LissajousIterator(LissajousGenerator gen, Engine engine) {
 		this.model     = gen.getModel();
 
 		String xName = model.getFastAxisName();
@@ -36,23 +32,19 @@ class LissajousIterator extends AbstractScanPointIterator {
 		double width = model.getBoundingBox().getFastAxisLength();
 		double height = model.getBoundingBox().getSlowAxisLength();
 
-        JythonObjectFactory<ScanPointIterator> lissajousGeneratorFactory = ScanPointGeneratorFactory.JLissajousGeneratorFactory();
+        IScanPointGeneratorFactory factory = IScanPointGeneratorFactory.getFactory(engine);
 
-        PyDictionary box = new PyDictionary();
-        box.put("width", width);
-        box.put("height", height);
-        box.put("centre", new double[] {model.getBoundingBox().getFastAxisStart() + width / 2,
-									model.getBoundingBox().getSlowAxisStart() + height / 2});
+        double[] centre = {model.getBoundingBox().getFastAxisStart() + width / 2,
+						   model.getBoundingBox().getSlowAxisStart() + height / 2};
 
-        PyList names =  new PyList(Arrays.asList(new String[] {xName, yName}));
-        PyList units = new PyList(Arrays.asList(new String[] {"mm", "mm"}));
+        String[] names = {xName, yName};
         int numLobes = (int) (model.getA() / model.getB());
         int numPoints = model.getPoints();
 
-        ScanPointIterator lissajous = lissajousGeneratorFactory.createObject(
-				names, units, box, numLobes, numPoints);
-		pyIterator = createSpgCompoundGenerator(new Iterator[] {lissajous}, gen.getRegions().toArray(),
-				new String[] {xName, yName}, new PyObject[] {});
+        ScanPointIterator lissajous = factory.lissajous(
+				names, centre, width, height, numLobes, numPoints);
+		pyIterator = createSpgCompoundGenerator(factory, new Iterator[] {lissajous}, gen.getRegions().toArray(),
+				new String[] {xName, yName}, new Object[] {});
 	}
 
 	@Override
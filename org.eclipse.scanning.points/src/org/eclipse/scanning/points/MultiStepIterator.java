@@ -15,11 +15,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import org.eclipse.scanning.api.points.IPointGeneratorService.Engine;
 import org.eclipse.scanning.api.points.IPosition;
 import org.eclipse.scanning.api.points.ScanPointIterator;
 import org.eclipse.scanning.api.points.models.MultiStepModel;
 import org.eclipse.scanning.api.points.models.StepModel;
-import org.eclipse.scanning.jython.JythonObjectFactory;
 
 /**
  * An iterator over multiple step ranges. Acts essentially as a sequence of
@@ -35,14 +35,14 @@ public class MultiStepIterator extends AbstractScanPointIterator {
 	private double[]             points;
 	private double[]             times;
 
-	public MultiStepIterator(MultiStepModel model) {
+	public MultiStepIterator(MultiStepModel model, Engine engine) {
 		this.model = model;
 
-		JythonObjectFactory<ScanPointIterator> arrayGeneratorFactory = ScanPointGeneratorFactory.JArrayGeneratorFactory();
+		IScanPointGeneratorFactory factory = IScanPointGeneratorFactory.getFactory(engine);
 
 		createPositions();
 
-		ScanPointIterator iterator = arrayGeneratorFactory.createObject(model.getName(), "mm", points);
+		ScanPointIterator iterator = factory.array(model.getName(), points);
 		pyIterator = iterator;
 	}
 
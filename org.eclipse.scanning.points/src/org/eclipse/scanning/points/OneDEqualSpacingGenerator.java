@@ -12,11 +12,11 @@
 package org.eclipse.scanning.points;
 
 import org.eclipse.scanning.api.ModelValidationException;
-import org.eclipse.scanning.api.points.AbstractGenerator;
+import org.eclipse.scanning.api.points.IPointGeneratorService.Engine;
 import org.eclipse.scanning.api.points.ScanPointIterator;
 import org.eclipse.scanning.api.points.models.OneDEqualSpacingModel;
 
-public class OneDEqualSpacingGenerator extends AbstractGenerator<OneDEqualSpacingModel> {
+public class OneDEqualSpacingGenerator extends AbstractScanPointGenerator<OneDEqualSpacingModel> {
 
 	OneDEqualSpacingGenerator() {
 		setLabel("Line Equal Spacing");
@@ -31,8 +31,8 @@ public class OneDEqualSpacingGenerator extends AbstractGenerator<OneDEqualSpacin
 	}
 
 	@Override
-	public ScanPointIterator iteratorFromValidModel() {
-		return new LineIterator(this);
+	public ScanPointIterator iteratorFromValidModel(Engine engine) {
+		return new LineIterator(this, engine);
 	}
 
 	@Override
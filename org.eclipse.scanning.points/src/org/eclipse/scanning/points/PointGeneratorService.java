@@ -54,9 +54,19 @@ import org.eclipse.scanning.api.points.models.ScanRegion;
 import org.eclipse.scanning.api.points.models.SpiralModel;
 import org.eclipse.scanning.api.points.models.StaticModel;
 import org.eclipse.scanning.api.points.models.StepModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class PointGeneratorService implements IPointGeneratorService {
 
+	private static Logger logger = LoggerFactory.getLogger(PointGeneratorService.class);
+
+	/**
+	 * Set to "java" to make the points of new services using the Java port of the
+	 * scanpointgenerator library rather than the library in jython.
+	 */
+	private static final String ENGINE_PROPERTY = "org.eclipse.scanning.points.engine";
+
 	@SuppressWarnings("rawtypes")
 	private static final Map<Class<? extends IScanPathModel>, Class<? extends IPointGenerator>> generators;
 	private static final Map<String,   GeneratorInfo>                                           info;
@@ -99,6 +109,40 @@ public class PointGeneratorService implements IPointGeneratorService {
 		info       = Collections.unmodifiableMap(tinfo);
 	}
 
+	/**
+	 * The size, shape and names of the scans of recent compound models. This
+	 * is shared by all services so a scan is only sized once while it is
+	 * submitted, estimated, moderated and written.
+	 */
+	private static final ScanPathCache pathCache = new ScanPathCache();
+
+	private volatile Engine engine = getDefaultEngine();
+
+	static Engine getDefaultEngine() {
+		String name = System.getProperty(ENGINE_PROPERTY, Engine.JYTHON.name());
+		try {
+			return Engine.valueOf(name.toUpperCase());
+		} catch (IllegalArgumentException ne) {
+			logger.warn("The engine '{}' is not known, using {}", name, Engine.JYTHON);
+			return Engine.JYTHON;
+		}
+	}
+
+	@Override
+	public Engine getEngine() {
+		return engine;
+	}
+
+	@Override
+	public void setEngine(Engine engine) {
+		this.engine = engine;
+	}
+
+	private <T> IPointGenerator<T> setEngine(IPointGenerator<T> gen) {
+		if (gen instanceof AbstractScanPointGenerator) ((AbstractScanPointGenerator<?>)gen).setEngine(engine);
+		return gen;
+	}
+
 	public Map<Class<? extends IScanPathModel>, Class<? extends IPointGenerator>> getGenerators() {
 		return generators;
 	}
@@ -113,7 +157,7 @@ public class PointGeneratorService implements IPointGeneratorService {
 				gen.setRegions((Collection<Object>) regions);
 			}
 			gen.setModel(model);
-			return gen;
+			return setEngine(gen);
 
 		} catch (GeneratorException g) {
 			throw g;
@@ -226,7 +270,7 @@ public class PointGeneratorService implements IPointGeneratorService {
 
 	@Override
 	public IPointGenerator<?> createCompoundGenerator(IPointGenerator<?>... generators) throws GeneratorException {
-		return new CompoundGenerator(generators);
+		return setEngine(new CompoundGenerator(generators));
 	}
 
 	@Override
@@ -243,7 +287,7 @@ public class PointGeneratorService implements IPointGeneratorService {
 			gen.setModel(mod);
 			if (ginfo.getLabel()!=null) gen.setLabel(ginfo.getLabel());
 			if (ginfo.getDescription()!=null) gen.setDescription(ginfo.getDescription());
-			return gen;
+			return setEngine(gen);
 
 		} catch (IllegalAccessException | InstantiationException ne) {
 			throw new GeneratorException(ne);
@@ -260,7 +304,10 @@ public class PointGeneratorService implements IPointGeneratorService {
 			gens[index] = createGenerator(model, regions);
 			index++;
 		}
-		return createCompoundGenerator(gens);
+		CompoundGenerator gen = new CompoundGenerator(gens);
+		// The generators have set the bounds of the models, so they are now the same for each call.
+		gen.setScanPathCache(pathCache, cmodel);
+		return setEngine(gen);
 	}
 
 	@SuppressWarnings("unchecked")
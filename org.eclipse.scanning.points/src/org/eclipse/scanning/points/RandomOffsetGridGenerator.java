@@ -12,6 +12,7 @@
 package org.eclipse.scanning.points;
 
 import org.eclipse.scanning.api.ModelValidationException;
+import org.eclipse.scanning.api.points.IPointGeneratorService.Engine;
 import org.eclipse.scanning.api.points.ScanPointIterator;
 import org.eclipse.scanning.api.points.models.RandomOffsetGridModel;
 
@@ -32,8 +33,8 @@ public class RandomOffsetGridGenerator extends GridGenerator {
 	}
 
 	@Override
-	public ScanPointIterator iteratorFromValidModel() {
-		return new GridIterator(this);
+	public ScanPointIterator iteratorFromValidModel(Engine engine) {
+		return new GridIterator(this, engine);
 	}
 
 }
\ No newline at end of file
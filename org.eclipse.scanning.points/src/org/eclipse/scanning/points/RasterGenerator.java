@@ -12,11 +12,11 @@
 package org.eclipse.scanning.points;
 
 import org.eclipse.scanning.api.ModelValidationException;
-import org.eclipse.scanning.api.points.AbstractGenerator;
+import org.eclipse.scanning.api.points.IPointGeneratorService.Engine;
 import org.eclipse.scanning.api.points.ScanPointIterator;
 import org.eclipse.scanning.api.points.models.RasterModel;
 
-class RasterGenerator extends AbstractGenerator<RasterModel> {
+class RasterGenerator extends AbstractScanPointGenerator<RasterModel> {
 
 	RasterGenerator() {
 		setLabel("Raster");
@@ -41,8 +41,8 @@ class RasterGenerator extends AbstractGenerator<RasterModel> {
 	}
 
 	@Override
-	public ScanPointIterator iteratorFromValidModel() {
-		return new GridIterator(this);
+	public ScanPointIterator iteratorFromValidModel(Engine engine) {
+		return new GridIterator(this, engine);
 	}
 
 }
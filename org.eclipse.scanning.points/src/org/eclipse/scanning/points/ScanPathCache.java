@@ -0,0 +1,93 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.points;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.scanning.api.points.IMutator;
+import org.eclipse.scanning.api.points.ScanPathInfo;
+import org.eclipse.scanning.api.points.models.CompoundModel;
+import org.eclipse.scanning.api.points.models.ScanRegion;
+
+/**
+ * Keeps the {@link ScanPathInfo} of recent compound models so that a scan
+ * which is sized several times while it is submitted only runs over its
+ * points once. The models are matched by their content, so a new compound
+ * model equal to one already seen finds its information.
+ * <p>
+ * The collections of a compound model are copied when it is added but the
+ * models inside them are not. A model which is changed after its scan has
+ * been sized will not match a new compound model and is eventually dropped.
+ */
+class ScanPathCache {
+
+	/**
+	 * Set to change the number of compound models which are kept, the default is 64.
+	 */
+	private static final String SIZE_PROPERTY = "org.eclipse.scanning.points.pathCacheSize";
+
+	private final Map<CompoundModel<?>, ScanPathInfo> infos;
+
+	ScanPathCache() {
+		this(Integer.getInteger(SIZE_PROPERTY, 64));
+	}
+
+	@SuppressWarnings("serial")
+	ScanPathCache(final int maximumSize) {
+		this.infos = new LinkedHashMap<CompoundModel<?>, ScanPathInfo>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<CompoundModel<?>, ScanPathInfo> eldest) {
+				return size()>maximumSize;
+			}
+		};
+	}
+
+	/**
+	 *
+	 * @param cmodel
+	 * @return the information or null if the model has not been added
+	 */
+	synchronized ScanPathInfo get(CompoundModel<?> cmodel) {
+		return infos.get(cmodel);
+	}
+
+	synchronized void put(CompoundModel<?> cmodel, ScanPathInfo info) {
+		infos.put(copy(cmodel), info);
+	}
+
+	synchronized void clear() {
+		infos.clear();
+	}
+
+	synchronized int size() {
+		return infos.size();
+	}
+
+	/**
+	 * The copy must have the same hashCode as the original, so
+	 * sets of regions are copied to sets and lists to lists.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static CompoundModel<?> copy(CompoundModel<?> cmodel) {
+		CompoundModel ret = cmodel.clone();
+		if (cmodel.getModels()!=null)   ret.setModels(new ArrayList<>(cmodel.getModels()));
+		if (cmodel.getMutators()!=null) ret.setMutators(new ArrayList<IMutator>(cmodel.getMutators()));
+		if (cmodel.getRegions()!=null) {
+			Collection<? extends ScanRegion<?>> regions = cmodel.getRegions();
+			ret.setRegions(regions instanceof Set ? new LinkedHashSet<>(regions) : new ArrayList<>(regions));
+		}
+		return ret;
+	}
+
+}
@@ -11,15 +11,12 @@
  *******************************************************************************/
 package org.eclipse.scanning.points;
 
-import java.util.Arrays;
 import java.util.Iterator;
 
+import org.eclipse.scanning.api.points.IPointGeneratorService.Engine;
 import org.eclipse.scanning.api.points.Point;
 import org.eclipse.scanning.api.points.ScanPointIterator;
 import org.eclipse.scanning.api.points.models.SpiralModel;
-import org.eclipse.scanning.jython.JythonObjectFactory;
-import org.python.core.PyList;
-import org.python.core.PyObject;
 
 class SpiralIterator extends AbstractScanPointIterator {
 
@@ -32,7 +29,7 @@ class SpiralIterator extends AbstractScanPointIterator {
 
 	private Point currentPoint;
 
-	public SpiralIterator(SpiralGenerator gen) {
+	public SpiralIterator(SpiralGenerator gen, Engine engine) {
 
 		SpiralModel model = gen.getModel();
 		this.xName = model.getFastAxisName();
@@ -44,19 +41,18 @@ class SpiralIterator extends AbstractScanPointIterator {
 		yCentre = model.getBoundingBox().getSlowAxisStart() + radiusY;
 		maxRadius = Math.sqrt(radiusX * radiusX + radiusY * radiusY);
 
-        JythonObjectFactory<ScanPointIterator> spiralGeneratorFactory = ScanPointGeneratorFactory.JSpiralGeneratorFactory();
+        IScanPointGeneratorFactory factory = IScanPointGeneratorFactory.getFactory(engine);
 
-        PyList names =  new PyList(Arrays.asList(new String[] {xName, yName}));
-        PyList units = new PyList(Arrays.asList(new String[] {"mm", "mm"}));
-        PyList centre = new PyList(Arrays.asList(new Double[] {xCentre, yCentre}));
+        String[] names = {xName, yName};
+        double[] centre = {xCentre, yCentre};
         double radius = maxRadius;
         double scale = model.getScale();
         boolean alternate = false;
 
-		ScanPointIterator spiral = spiralGeneratorFactory.createObject(
-				names, units, centre, radius, scale, alternate);
-		pyIterator = createSpgCompoundGenerator(new Iterator<?>[] {spiral}, gen.getRegions().toArray(),
-				new String[] {xName, yName}, new PyObject[] {});
+		ScanPointIterator spiral = factory.spiral(
+				names, centre, radius, scale, alternate);
+		pyIterator = createSpgCompoundGenerator(factory, new Iterator<?>[] {spiral}, gen.getRegions().toArray(),
+				new String[] {xName, yName}, new Object[] {});
 	}
 
 	@Override
@@ -33,9 +33,11 @@ import org.eclipse.scanning.api.event.scan.DeviceRequest;
 import org.eclipse.scanning.api.event.scan.DeviceValueMultiPosition;
 import org.eclipse.scanning.api.event.scan.PositionerRequest;
 import org.eclipse.scanning.api.event.scan.SampleData;
+import org.eclipse.scanning.api.event.scan.ScanLatencyBean;
 import org.eclipse.scanning.api.event.scan.ScanBean;
 import org.eclipse.scanning.api.event.scan.ScanEvent;
 import org.eclipse.scanning.api.event.scan.ScanRequest;
+import org.eclipse.scanning.api.event.scan.StageLatency;
 import org.eclipse.scanning.api.event.status.AdministratorMessage;
 import org.eclipse.scanning.api.event.status.StatusBean;
 import org.eclipse.scanning.api.malcolm.MalcolmTable;
@@ -75,7 +77,9 @@ import org.eclipse.scanning.api.points.models.StaticModel;
 import org.eclipse.scanning.api.points.models.StepModel;
 import org.eclipse.scanning.api.scan.AxisConfiguration;
 import org.eclipse.scanning.api.scan.PositionEvent;
+import org.eclipse.scanning.api.scan.checkpoint.ScanCheckpoint;
 import org.eclipse.scanning.api.scan.event.Location;
+import org.eclipse.scanning.api.scan.models.ChunkingModel;
 import org.eclipse.scanning.api.scan.models.ScanMetadata;
 import org.eclipse.scanning.api.scan.ui.ControlEnumNode;
 import org.eclipse.scanning.api.scan.ui.ControlFileNode;
@@ -109,8 +113,11 @@ public class ScanningAPIClassRegistry implements IClassRegistry {
 		registerClass(tmp, ScanBean.class);
 		registerClass(tmp, ScanEvent.class);
 		registerClass(tmp, SampleData.class);
+		registerClass(tmp, ScanLatencyBean.class);
+		registerClass(tmp, StageLatency.class);
 		registerClass(tmp, ScanRequest.class);
 		registerClass(tmp, ScanMetadata.class);
+		registerClass(tmp, ChunkingModel.class);
 		registerClass(tmp, DeviceValueMultiPosition.class);
 
 		// points
@@ -183,6 +190,7 @@ public class ScanningAPIClassRegistry implements IClassRegistry {
 
 		// api.scan
 		registerClass(tmp, PositionEvent.class);
+		registerClass(tmp, ScanCheckpoint.class);
 
 		// scan.event
 		registerClass(tmp, Location.class);
@@ -0,0 +1,49 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.points.spg;
+
+/**
+ * Generates points from a given array of positions. Positions between
+ * the indices are interpolated linearly, the ends are extended by the first
+ * and last steps.
+ */
+public class ArrayGenerator extends Generator {
+
+	private final double[] points;
+
+	public ArrayGenerator(String axis, double[] points, boolean alternate) {
+		super(new String[]{axis}, alternate);
+		this.points = points;
+		this.size   = points.length;
+	}
+
+	@Override
+	protected double[][] prepareArrays(double[] index) {
+
+		// Add linear extension to ends of points, representing t=-1 and t=N+1
+		final int len = points.length;
+		double[] extended = new double[len+2];
+		System.arraycopy(points, 0, extended, 1, len);
+		extended[0]     = len > 1 ? points[0] - (points[1] - points[0]) : points[0];
+		extended[len+1] = len > 1 ? points[len-1] + (points[len-1] - points[len-2]) : points[len-1];
+
+		double[] values = new double[index.length];
+		for (int i = 0; i < index.length; i++) {
+			int    floor   = (int)Math.floor(index[i]);
+			double epsilon = index[i] - floor;
+			floor += 1;
+			values[i] = extended[floor] + epsilon * (extended[floor+1] - extended[floor]);
+		}
+		return new double[][]{values};
+	}
+
+	public double[] getPoints() {
+		return points;
+	}
+}
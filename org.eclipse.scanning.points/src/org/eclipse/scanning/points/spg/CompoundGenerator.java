@@ -0,0 +1,279 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.points.spg;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Nests generators, applies the excluders to the generators which they
+ * cover and applies the mutators to each point. This is the Java port of
+ * scanpointgenerator.CompoundGenerator and makes the same points.
+ *
+ * Any point may be made from its index with {@link #getPoint(int, double[], int[])}
+ * once the generator is prepared. Only the positions and indices of the points
+ * are made, the bounds and duration which malcolm uses are not.
+ */
+public class CompoundGenerator {
+
+	private final List<Generator>           generators;
+	private final List<ROIExcluder>         excluders;
+	private final List<RandomOffsetMutator> mutators;
+	private final String[]                  axes;
+
+	// Made by prepare()
+	private List<Dimension> dimensions;
+	private long[]          dimensionRepeat;
+	private Generator[][]   dimensionGenerators;
+	private int[][]         generatorRepeat;
+	private int[][][]       generatorSlots;
+	private int             size;
+	private int[]           shape;
+
+	public CompoundGenerator(List<Generator> generators, List<ROIExcluder> excluders, List<RandomOffsetMutator> mutators) {
+
+		List<String> names = new ArrayList<>();
+		for (Generator g : generators) Collections.addAll(names, g.getAxes());
+		Set<String> unique = new HashSet<>(names);
+		if (unique.size()!=names.size()) throw new IllegalArgumentException("Axis names cannot be duplicated");
+
+		this.generators = generators;
+		this.excluders  = excluders;
+		this.mutators   = mutators;
+		this.axes       = names.toArray(new String[names.size()]);
+	}
+
+	/**
+	 * Prepare the dimensions and the masks of the excluders. Must be
+	 * called before points are read.
+	 */
+	public void prepare() {
+
+		if (dimensions!=null) return;
+
+		// We're going to change these
+		List<ROIExcluder> excluders  = new ArrayList<>(this.excluders);
+		List<Generator>   generators = new ArrayList<>(this.generators);
+
+		// Special case if we have a rectangular region on line generators,
+		// we restrict the resulting grid rather than merge dimensions.
+		for (ROIExcluder excluder : this.excluders) {
+			if (excluder.getRegions().size()!=1) continue;
+			Region region = excluder.getRegions().get(0);
+			if (!(region instanceof Region.Rectangular) || ((Region.Rectangular)region).getAngle()!=0) continue;
+
+			Region.Rectangular rect = (Region.Rectangular)region;
+			String axis1 = excluder.getAxes().get(0);
+			String axis2 = excluder.getAxes().get(1);
+			Generator gen1 = getGenerator(generators, axis1);
+			Generator gen2 = getGenerator(generators, axis2);
+			if (gen1 == gen2) continue;
+			if (gen1 instanceof LineGenerator && gen2 instanceof LineGenerator) {
+				gen1.preparePositions();
+				gen2.preparePositions();
+				double[] points1 = restrict(gen1.getPositions(axis1), rect.getStart()[0], rect.getWidth() + rect.getStart()[0]);
+				double[] points2 = restrict(gen2.getPositions(axis2), rect.getStart()[1], rect.getHeight() + rect.getStart()[1]);
+				// Recreate generators to replace larger generators + region
+				Generator new1 = new LineGenerator(gen1.getAxes(), new double[]{points1[0]}, new double[]{points1[points1.length-1]}, points1.length, gen1.isAlternate());
+				Generator new2 = new LineGenerator(gen2.getAxes(), new double[]{points2[0]}, new double[]{points2[points2.length-1]}, points2.length, gen2.isAlternate());
+				generators.set(generators.indexOf(gen1), new1);
+				generators.set(generators.indexOf(gen2), new2);
+				excluders.remove(excluder); // It is now empty
+			}
+		}
+
+		List<Dimension> dims = new ArrayList<>(generators.size());
+		for (Generator generator : generators) {
+			generator.preparePositions();
+			dims.add(new Dimension(generator));
+		}
+
+		for (ROIExcluder excluder : excluders) {
+			String axis1 = excluder.getAxes().get(0);
+			String axis2 = excluder.getAxes().get(1);
+			int genDiff = generators.indexOf(getGenerator(generators, axis1)) - generators.indexOf(getGenerator(generators, axis2));
+			if (genDiff < -1 || genDiff > 1) {
+				throw new IllegalArgumentException("Excluders must be defined on axes that are adjacent in generator order");
+			}
+
+			// Merge dimensions if region spans two
+			Dimension dim1 = getDimension(dims, axis1);
+			Dimension dim2 = getDimension(dims, axis2);
+			int dimDiff = dims.indexOf(dim1) - dims.indexOf(dim2);
+			if (dimDiff == 1) {
+				Dimension tmp = dim1; dim1 = dim2; dim2 = tmp;
+				dimDiff = -1;
+			}
+			if (dim1.isAlternate() != dim2.isAlternate() && dim1 != dims.get(0)) {
+				throw new IllegalArgumentException("Generators tied by regions must have the same alternate setting");
+			}
+			Dimension dim = dim1;
+			if (dimDiff == -1) { // dim1 is outer, merge inner into outer
+				dim = Dimension.merge(dim1, dim2);
+				dims.set(dims.indexOf(dim1), dim);
+				dims.remove(dim2);
+			}
+			dim.applyExcluder(excluder);
+		}
+
+		long total = 1;
+		for (Dimension dim : dims) {
+			dim.prepare();
+			if (dim.getSize() == 0) throw new IllegalArgumentException("Regions would exclude entire scan");
+			total *= dim.getSize();
+		}
+		if (total > Integer.MAX_VALUE) throw new IllegalArgumentException("The scan has too many points, "+total);
+
+		int[]       shape  = new int[dims.size()];
+		long[]      repeat = new long[dims.size()];
+		long        rep    = total;
+		Generator[][] dgens = new Generator[dims.size()][];
+		int[][]     grep   = new int[dims.size()][];
+		int[][][]   slots  = new int[dims.size()][][];
+		for (int d = 0; d < dims.size(); d++) {
+			Dimension dim = dims.get(d);
+			shape[d]  = dim.getSize();
+			rep      /= dim.getSize();
+			repeat[d] = rep;
+
+			List<Generator> gens = dim.getGenerators();
+			dgens[d] = gens.toArray(new Generator[gens.size()]);
+			grep[d]  = new int[gens.size()];
+			slots[d] = new int[gens.size()][];
+			int grepeat = dim.getMaxLength();
+			for (int g = 0; g < gens.size(); g++) {
+				grepeat /= gens.get(g).getSize();
+				grep[d][g] = grepeat;
+				String[] gaxes = gens.get(g).getAxes();
+				slots[d][g] = new int[gaxes.length];
+				for (int a = 0; a < gaxes.length; a++) slots[d][g][a] = indexOf(gaxes[a]);
+			}
+		}
+
+		this.size                = (int)total;
+		this.shape               = shape;
+		this.dimensionRepeat     = repeat;
+		this.dimensionGenerators = dgens;
+		this.generatorRepeat     = grep;
+		this.generatorSlots      = slots;
+		this.dimensions          = dims;
+	}
+
+	/**
+	 * Make a point.
+	 *
+	 * @param n the index of the point in the scan
+	 * @param positions filled with the position of each of {@link #getAxes()}
+	 * @param indexes filled with the index of the point in each dimension
+	 */
+	public void getPoint(int n, double[] positions, int[] indexes) {
+
+		if (dimensions==null) throw new IllegalStateException("CompoundGenerator has not been prepared");
+		if (n < 0 || n >= size) throw new IndexOutOfBoundsException("Requested point is out of range");
+
+		// We need to know how far along each dimension we are and, in the
+		// case of alternating indices, how many times we've run through them.
+		int kc = 0; // The parity of the cumulative k for each dimension
+		for (int d = 0; d < dimensionGenerators.length; d++) {
+			Dimension dim = dimensions.get(d);
+			int[] indices = dim.getIndices();
+			int dsize = dim.getSize();
+			int i = (int)((n / dimensionRepeat[d]) % dsize);
+			int k = indices[i];
+			if (dim.isAlternate() && kc == 1) i = dsize - i - 1;
+			kc = ((kc * dsize) + k) & 1;
+			k = indices[i];
+			indexes[d] = i;
+
+			// Need point k along each generator in dimension and in
+			// the alternating case to sometimes go backwards.
+			Generator[] gens = dimensionGenerators[d];
+			for (int g = 0; g < gens.length; g++) {
+				Generator gen = gens[g];
+				int j = k / generatorRepeat[d][g];
+				int r = j / gen.getSize();
+				j %= gen.getSize();
+				if (dim.isAlternate() && g != 0 && r % 2 == 1) {
+					// The top level generator's direction is handled by
+					// the fact that the reverse direction was appended
+					j = gen.getSize() - j - 1;
+				}
+				int[] slots = generatorSlots[d][g];
+				for (int a = 0; a < slots.length; a++) positions[slots[a]] = gen.getPositions(a)[j];
+			}
+		}
+		for (RandomOffsetMutator mutator : mutators) mutator.mutate(axes, positions, n);
+	}
+
+	private int indexOf(String axis) {
+		for (int i = 0; i < axes.length; i++) if (axes[i].equals(axis)) return i;
+		return -1;
+	}
+
+	private static double[] restrict(double[] positions, double lower, double upper) {
+		return Arrays.stream(positions).filter(p -> p <= upper && p >= lower).toArray();
+	}
+
+	private static Generator getGenerator(List<Generator> generators, String axis) {
+		for (Generator g : generators) if (g.hasAxis(axis)) return g;
+		throw new IllegalArgumentException("There is no generator for the axis "+axis);
+	}
+
+	private static Dimension getDimension(List<Dimension> dimensions, String axis) {
+		for (Dimension d : dimensions) if (d.getAxes().contains(axis)) return d;
+		throw new IllegalArgumentException("There is no dimension for the axis "+axis);
+	}
+
+	/**
+	 * The axes of the generators in the order of the positions of a point.
+	 * @return
+	 */
+	public String[] getAxes() {
+		return axes;
+	}
+
+	/**
+	 * The axes of each dimension of the scan, valid after prepare.
+	 * @return
+	 */
+	public List<List<String>> getDimensionNames() {
+		List<List<String>> names = new ArrayList<>(dimensions.size());
+		for (Dimension dim : dimensions) names.add(dim.getAxes());
+		return names;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public int[] getShape() {
+		return shape;
+	}
+
+	public List<Generator> getGenerators() {
+		return generators;
+	}
+
+	public List<ROIExcluder> getExcluders() {
+		return excluders;
+	}
+
+	public List<RandomOffsetMutator> getMutators() {
+		return mutators;
+	}
+
+	@Override
+	public String toString() {
+		return "CompoundGenerator [generators=" + generators + ", excluders=" + excluders + ", mutators=" + mutators + "]";
+	}
+}
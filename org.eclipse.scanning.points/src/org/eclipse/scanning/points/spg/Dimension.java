@@ -0,0 +1,215 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.points.spg;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An unrolled set of generators joined by excluders, which is
+ * a single dimension of the scan.
+ *
+ * The masks are kept as the python keeps them, with how many times each
+ * is repeated and tiled. The tile is 0.5 for alternating dimensions where
+ * a mask covers the forward and the reverse pass.
+ */
+class Dimension {
+
+	private List<Generator> generators;
+	private List<String>    axes;
+	private boolean         alternate;
+	private int             maxLength;
+	private List<Mask>      masks;
+
+	private int[]           indices;
+	private int             size = -1;
+
+	Dimension(Generator generator) {
+		this.generators = new ArrayList<>(4);
+		this.axes       = new ArrayList<>(4);
+		this.masks      = new ArrayList<>(4);
+		generators.add(generator);
+		for (String axis : generator.getAxes()) axes.add(axis);
+		this.alternate = generator.isAlternate();
+		this.maxLength = generator.getSize();
+	}
+
+	/**
+	 * Collapse two dimensions into one.
+	 *
+	 * @param outer
+	 * @param inner
+	 * @return
+	 */
+	static Dimension merge(Dimension outer, Dimension inner) {
+		Dimension dim = new Dimension(outer.generators.get(0));
+		// Masks in the inner generator are tiled by the size of
+		// outer generators and outer generators have their elements
+		// repeated by the size of inner generators
+		for (Mask m : outer.masks) dim.masks.add(new Mask(m.mask, m.repeat*inner.maxLength, m.tile));
+		for (Mask m : inner.masks) dim.masks.add(new Mask(m.mask, m.repeat, m.tile*outer.maxLength));
+		dim.axes = new ArrayList<>(outer.axes);
+		dim.axes.addAll(inner.axes);
+		dim.generators = new ArrayList<>(outer.generators);
+		dim.generators.addAll(inner.generators);
+		dim.alternate = outer.alternate || inner.alternate;
+		dim.maxLength = outer.maxLength * inner.maxLength;
+		return dim;
+	}
+
+	/**
+	 * Apply an excluder with axes matching some axes in the dimension to
+	 * produce an internal mask.
+	 *
+	 * @param excluder
+	 */
+	void applyExcluder(ROIExcluder excluder) {
+
+		if (indices!=null) throw new IllegalStateException("Can not apply excluders after prepare has been called");
+
+		String axisInner = excluder.getAxes().get(0);
+		String axisOuter = excluder.getAxes().get(1);
+		Generator genInner = getGenerator(axisInner);
+		Generator genOuter = getGenerator(axisOuter);
+		double[] pointsX = genInner.getPositions(axisInner);
+		double[] pointsY = genOuter.getPositions(axisOuter);
+		if (generators.indexOf(genInner) > generators.indexOf(genOuter)) {
+			Generator g = genInner; genInner = genOuter; genOuter = g;
+			String    a = axisInner; axisInner = axisOuter; axisOuter = a;
+			double[]  p = pointsX; pointsX = pointsY; pointsY = p;
+		}
+
+		if (genInner == genOuter && alternate) {
+			pointsX = appendReversed(pointsX);
+			pointsY = appendReversed(pointsY);
+		} else if (alternate) {
+			pointsX = repeat(appendReversed(pointsX), genOuter.getSize());
+			pointsY = tile(appendReversed(pointsY), genInner.getSize());
+		} else if (genInner != genOuter) {
+			pointsX = repeat(pointsX, genOuter.getSize());
+			pointsY = tile(pointsY, genInner.getSize());
+		}
+
+		boolean[] mask = axisInner.equals(excluder.getAxes().get(0))
+				       ? excluder.createMask(pointsX, pointsY)
+				       : excluder.createMask(pointsY, pointsX);
+
+		double tile   = alternate ? 0.5 : 1;
+		int    repeat = 1;
+		boolean found = false;
+		for (Generator g : generators) {
+			if (g.hasAxis(axisInner) || g.hasAxis(axisOuter)) {
+				found = true;
+			} else if (found) {
+				repeat *= g.getSize();
+			} else {
+				tile *= g.getSize();
+			}
+		}
+		masks.add(new Mask(mask, repeat, tile));
+	}
+
+	/**
+	 * Create the mask for every point in the dimension and from it the
+	 * indices of the points which are not excluded.
+	 */
+	void prepare() {
+		if (indices!=null) return;
+		boolean[] mask = new boolean[maxLength];
+		Arrays.fill(mask, true);
+		for (Mask m : masks) {
+			if (m.mask.length * m.repeat * m.tile != maxLength) throw new IllegalStateException("Mask lengths are not consistent");
+			boolean[] expanded = m.expand();
+			for (int i = 0; i < mask.length; i++) mask[i] &= expanded[i];
+		}
+		int count = 0;
+		for (boolean b : mask) if (b) count++;
+		int[] ind = new int[count];
+		for (int i = 0, j = 0; i < mask.length; i++) {
+			if (mask[i]) ind[j++] = i;
+		}
+		this.indices = ind;
+		this.size    = count;
+	}
+
+	private Generator getGenerator(String axis) {
+		for (Generator g : generators) if (g.hasAxis(axis)) return g;
+		throw new IllegalArgumentException("There is no generator for the axis "+axis);
+	}
+
+	List<Generator> getGenerators() {
+		return generators;
+	}
+
+	List<String> getAxes() {
+		return axes;
+	}
+
+	boolean isAlternate() {
+		return alternate;
+	}
+
+	int getMaxLength() {
+		return maxLength;
+	}
+
+	int getSize() {
+		return size;
+	}
+
+	int[] getIndices() {
+		return indices;
+	}
+
+	private static double[] appendReversed(double[] points) {
+		double[] ret = new double[points.length*2];
+		System.arraycopy(points, 0, ret, 0, points.length);
+		for (int i = 0; i < points.length; i++) ret[points.length+i] = points[points.length-1-i];
+		return ret;
+	}
+
+	private static double[] repeat(double[] points, int repeat) {
+		double[] ret = new double[points.length*repeat];
+		for (int i = 0; i < ret.length; i++) ret[i] = points[i/repeat];
+		return ret;
+	}
+
+	private static double[] tile(double[] points, int tile) {
+		double[] ret = new double[points.length*tile];
+		for (int i = 0; i < ret.length; i++) ret[i] = points[i%points.length];
+		return ret;
+	}
+
+	private static final class Mask {
+
+		private final boolean[] mask;
+		private final int       repeat;
+		private final double    tile;
+
+		Mask(boolean[] mask, int repeat, double tile) {
+			this.mask   = mask;
+			this.repeat = repeat;
+			this.tile   = tile;
+		}
+
+		/**
+		 * The mask repeated and tiled, when the tile is a half the first half
+		 * of the repeated mask is appended to the whole tiles.
+		 */
+		boolean[] expand() {
+			int length = mask.length * repeat;
+			int whole  = (int)tile;
+			boolean half = tile % 1 != 0;
+			boolean[] ret = new boolean[length * whole + (half ? length/2 : 0)];
+			for (int i = 0; i < ret.length; i++) ret[i] = mask[(i % length) / repeat];
+			return ret;
+		}
+	}
+}
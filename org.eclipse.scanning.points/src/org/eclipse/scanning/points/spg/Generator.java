@@ -0,0 +1,97 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.points.spg;
+
+import java.util.Arrays;
+
+/**
+ * A generator of the positions along one or more axes, the Java port
+ * of scanpointgenerator.core.Generator.
+ *
+ * The positions are worked out from the index of the point in the same
+ * order of operations as the python so that the values are the same.
+ */
+public abstract class Generator {
+
+	protected final String[] axes;
+	protected final boolean  alternate;
+	protected int            size;
+
+	private double[][]       positions;
+
+	protected Generator(String[] axes, boolean alternate) {
+		if (axes.length != Arrays.stream(axes).distinct().count()) {
+			throw new IllegalArgumentException("Axis names cannot be duplicated; given "+Arrays.toString(axes));
+		}
+		this.axes      = axes;
+		this.alternate = alternate;
+	}
+
+	/**
+	 * Create the position arrays, one for each axis, for an array of indices.
+	 * The indices are 0...size-1 for positions.
+	 *
+	 * @param index
+	 * @return
+	 */
+	protected abstract double[][] prepareArrays(double[] index);
+
+	/**
+	 * Must be called before the positions are read.
+	 */
+	public void preparePositions() {
+		if (positions!=null) return;
+		double[] index = new double[size];
+		for (int i = 0; i < size; i++) index[i] = i;
+		positions = prepareArrays(index);
+	}
+
+	/**
+	 * The positions for an axis of this generator.
+	 *
+	 * @param axis index into the axes of this generator
+	 * @return
+	 */
+	public double[] getPositions(int axis) {
+		if (positions==null) throw new IllegalStateException("The positions have not been prepared!");
+		return positions[axis];
+	}
+
+	public double[] getPositions(String axis) {
+		return getPositions(indexOf(axis));
+	}
+
+	int indexOf(String axis) {
+		for (int i = 0; i < axes.length; i++) {
+			if (axes[i].equals(axis)) return i;
+		}
+		return -1;
+	}
+
+	boolean hasAxis(String axis) {
+		return indexOf(axis)>-1;
+	}
+
+	public String[] getAxes() {
+		return axes;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public boolean isAlternate() {
+		return alternate;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName()+" [axes=" + Arrays.toString(axes) + ", size=" + size + ", alternate=" + alternate + "]";
+	}
+}
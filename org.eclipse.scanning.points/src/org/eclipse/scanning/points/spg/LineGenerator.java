@@ -0,0 +1,61 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.points.spg;
+
+import java.util.Arrays;
+
+/**
+ * Generates a line of equally spaced N-dimensional points.
+ */
+public class LineGenerator extends Generator {
+
+	private final double[] start;
+	private final double[] stop;
+
+	public LineGenerator(String axis, double start, double stop, int size, boolean alternate) {
+		this(new String[]{axis}, new double[]{start}, new double[]{stop}, size, alternate);
+	}
+
+	public LineGenerator(String[] axes, double[] start, double[] stop, int size, boolean alternate) {
+		super(axes, alternate);
+		if (axes.length != start.length || axes.length != stop.length) {
+			throw new IllegalArgumentException("Dimensions of axes, start and stop do not match");
+		}
+		this.start = start;
+		this.stop  = stop;
+		this.size  = size;
+	}
+
+	@Override
+	protected double[][] prepareArrays(double[] index) {
+		double[][] arrays = new double[axes.length][];
+		for (int axis = 0; axis < axes.length; axis++) {
+			double step = stop[axis] - start[axis];
+			if (size > 1) step /= (size - 1);
+			double[] values = new double[index.length];
+			for (int i = 0; i < index.length; i++) values[i] = (index[i] * step) + start[axis];
+			arrays[axis] = values;
+		}
+		return arrays;
+	}
+
+	public double[] getStart() {
+		return start;
+	}
+
+	public double[] getStop() {
+		return stop;
+	}
+
+	@Override
+	public String toString() {
+		return "LineGenerator [axes=" + Arrays.toString(axes) + ", start=" + Arrays.toString(start) + ", stop="
+				+ Arrays.toString(stop) + ", size=" + size + ", alternate=" + alternate + "]";
+	}
+}
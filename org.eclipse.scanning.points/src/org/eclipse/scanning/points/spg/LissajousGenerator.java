@@ -0,0 +1,64 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.points.spg;
+
+/**
+ * Generates the points of a Lissajous curve with a number of x lobes
+ * and one more y lobe.
+ */
+public class LissajousGenerator extends Generator {
+
+	private final double[] centre;
+	private final int      xFreq;
+	private final int      yFreq;
+	private final double   xMax;
+	private final double   yMax;
+	private final double   phaseDiff;
+
+	/**
+	 *
+	 * @param axes
+	 * @param centre
+	 * @param span the width and height of the curve
+	 * @param lobes
+	 * @param size the number of points, if less than one 250 per lobe are used.
+	 */
+	public LissajousGenerator(String[] axes, double[] centre, double[] span, int lobes, int size) {
+		super(axes, false);
+		this.centre = centre;
+		this.xFreq  = lobes;
+		this.yFreq  = lobes + 1;
+		this.xMax   = span[0] / 2;
+		this.yMax   = span[1] / 2;
+		// Phase needs to be 0 for even lobes and pi/2 for odd lobes to start
+		// at centre for odd and at right edge for even
+		this.phaseDiff = Math.PI / 2 * (lobes % 2);
+		this.size   = size > 0 ? size : lobes * 250;
+	}
+
+	@Override
+	protected double[][] prepareArrays(double[] index) {
+		double[] x = new double[index.length];
+		double[] y = new double[index.length];
+		for (int i = 0; i < index.length; i++) {
+			double t = index[i];
+			x[i] = centre[0] + xMax * Math.sin(xFreq * 2 * Math.PI * t / size + phaseDiff);
+			y[i] = centre[1] + yMax * Math.sin(yFreq * 2 * Math.PI * t / size);
+		}
+		return new double[][]{x, y};
+	}
+
+	public double[] getCentre() {
+		return centre;
+	}
+
+	public int getLobes() {
+		return xFreq;
+	}
+}
@@ -0,0 +1,224 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.points.spg;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.eclipse.scanning.api.points.AbstractPosition;
+import org.eclipse.scanning.api.points.IPosition;
+import org.eclipse.scanning.api.points.MapPosition;
+import org.eclipse.scanning.api.points.Point;
+import org.eclipse.scanning.api.points.PositionBlock;
+import org.eclipse.scanning.api.points.Scalar;
+import org.eclipse.scanning.api.points.ScanPointIterator;
+
+/**
+ * Iterates the points of a {@link CompoundGenerator} as the positions which the
+ * jython_spg_interface wrappers make, so that the Java engine may replace the
+ * jython one without changing the points seen by the scan.
+ *
+ * <ul>
+ * <li>{@link #scalars(CompoundGenerator)} as JLineGenerator1D and JArrayGenerator</li>
+ * <li>{@link #points(CompoundGenerator)} as JLineGenerator2D, JSpiralGenerator and JLissajousGenerator</li>
+ * <li>{@link #positions(CompoundGenerator)} as JCompoundGenerator</li>
+ * </ul>
+ */
+public class PointIterator implements ScanPointIterator {
+
+	private enum Kind { SCALAR, POINT, COMPOUND }
+
+	private final CompoundGenerator        generator;
+	private final Kind                     kind;
+	private final String[]                 axes;
+	private final int[]                    axisDimension;
+	private final List<Collection<String>> dimensionNames;
+
+	private final double[] positions;
+	private final int[]    indexes;
+	private int            index;
+
+	private PointIterator(CompoundGenerator generator, Kind kind) {
+		generator.prepare();
+		this.generator = generator;
+		this.kind      = kind;
+		this.axes      = generator.getAxes();
+		this.positions = new double[axes.length];
+		this.indexes   = new int[generator.getShape().length];
+
+		List<List<String>> names = generator.getDimensionNames();
+		this.dimensionNames = new ArrayList<>(names.size());
+		this.axisDimension  = new int[axes.length];
+		for (int d = 0; d < names.size(); d++) {
+			dimensionNames.add(names.get(d));
+			for (String axis : names.get(d)) {
+				for (int i = 0; i < axes.length; i++) if (axes[i].equals(axis)) axisDimension[i] = d;
+			}
+		}
+	}
+
+	/**
+	 * Iterate a generator of one axis as {@link Scalar}s.
+	 * @param generator
+	 * @return
+	 */
+	public static PointIterator scalars(CompoundGenerator generator) {
+		return new PointIterator(generator, Kind.SCALAR);
+	}
+
+	/**
+	 * Iterate a generator of two axes as {@link Point}s which are not 2D.
+	 * @param generator
+	 * @return
+	 */
+	public static PointIterator points(CompoundGenerator generator) {
+		return new PointIterator(generator, Kind.POINT);
+	}
+
+	/**
+	 * Iterate a generator of any axes as {@link Scalar}, {@link Point} or {@link MapPosition}
+	 * depending on how many axes there are, with the dimension names set.
+	 * @param generator
+	 * @return
+	 */
+	public static PointIterator positions(CompoundGenerator generator) {
+		return new PointIterator(generator, Kind.COMPOUND);
+	}
+
+	@Override
+	public boolean hasNext() {
+		return index < generator.getSize();
+	}
+
+	@Override
+	public IPosition next() {
+		if (!hasNext()) throw new NoSuchElementException();
+		generator.getPoint(index++, positions, indexes);
+		return createPosition(positions, indexes);
+	}
+
+	/**
+	 * Moves the iterator so that the next call to next() returns the point at index.
+	 * @param index
+	 */
+	public void seek(int index) {
+		if (index<0 || index>generator.getSize()) throw new IndexOutOfBoundsException("The index "+index+" is outside the scan of size "+generator.getSize());
+		this.index = index;
+	}
+
+	/**
+	 * The point at index, calculated without moving the iterator.
+	 * @param index
+	 * @return
+	 */
+	public IPosition getPoint(int index) {
+		if (index<0 || index>=generator.getSize()) throw new IndexOutOfBoundsException("The index "+index+" is outside the scan of size "+generator.getSize());
+		double[] positions = new double[axes.length];
+		int[]    indexes   = new int[this.indexes.length];
+		generator.getPoint(index, positions, indexes);
+		return createPosition(positions, indexes);
+	}
+
+	/**
+	 * Fills a block with up to size points from fromIndex without making a position
+	 * for each point. The names and dimension names of the block are those of the
+	 * positions which next() returns.
+	 *
+	 * @param fromIndex
+	 * @param size
+	 * @return
+	 */
+	public PositionBlock createBlock(int fromIndex, int size) {
+		if (fromIndex<0 || fromIndex>generator.getSize()) throw new IndexOutOfBoundsException("The index "+fromIndex+" is outside the scan of size "+generator.getSize());
+		int end = (int)Math.min((long)fromIndex+Math.max(size, 0), generator.getSize());
+		if (end<=fromIndex) return PositionBlock.of(Collections.<IPosition>emptyIterator(), 0);
+
+		AbstractPosition first = (AbstractPosition)getPoint(fromIndex);
+		List<String> names = first.getNames();
+		List<Collection<String>> dnames = first.getDimensionNames();
+		if (dnames.size()!=indexes.length) throw new IllegalStateException("The positions have "+dnames.size()+" dimensions but the generator has "+indexes.length);
+
+		int[] columns = new int[names.size()];
+		for (int c = 0; c < columns.length; c++) {
+			columns[c] = -1;
+			for (int i = 0; i < axes.length; i++) if (axes[i].equals(names.get(c))) columns[c] = i;
+		}
+
+		PositionBlock.Builder builder = new PositionBlock.Builder(names, dnames, end-fromIndex);
+		double[] positions = new double[axes.length];
+		int[]    indexes   = new int[this.indexes.length];
+		double[] values    = new double[columns.length];
+		for (int n = fromIndex; n < end; n++) {
+			generator.getPoint(n, positions, indexes);
+			for (int c = 0; c < columns.length; c++) values[c] = positions[columns[c]];
+			builder.add(values, indexes, n, 0);
+		}
+		return builder.build();
+	}
+
+	private IPosition createPosition(double[] positions, int[] indexes) {
+
+		switch (kind) {
+		case SCALAR:
+			return new Scalar<Double>(axes[0], indexes[0], positions[0]);
+		case POINT:
+			return new Point(axes[0], indexes[0], positions[0], axes[1], indexes[0], positions[1], false);
+		default:
+			break;
+		}
+
+		AbstractPosition pos;
+		if (axes.length == 1) {
+			return new Scalar<Double>(axes[0], indexes[0], positions[0]);
+		} else if (axes.length == 2) {
+			pos = new Point(axes[1], indexes[axisDimension[1]], positions[1], axes[0], indexes[axisDimension[0]], positions[0]);
+		} else {
+			MapPosition mp = new MapPosition();
+			for (int i = 0; i < axes.length; i++) {
+				mp.put(axes[i], positions[i]);
+				mp.putIndex(axes[i], indexes[axisDimension[i]]);
+			}
+			pos = mp;
+		}
+		pos.setDimensionNames(dimensionNames);
+		return pos;
+	}
+
+	public CompoundGenerator getGenerator() {
+		return generator;
+	}
+
+	@Override
+	public int size() {
+		return generator.getSize();
+	}
+
+	@Override
+	public int[] getShape() {
+		return generator.getShape();
+	}
+
+	@Override
+	public int getRank() {
+		return generator.getShape().length;
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException("remove");
+	}
+
+	@Override
+	public String toString() {
+		return "PointIterator [generator=" + generator + ", kind=" + kind + ", index=" + index + "]";
+	}
+}
@@ -0,0 +1,79 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.points.spg;
+
+import java.util.List;
+
+/**
+ * Excludes the points of two axes which are outside all of its regions.
+ */
+public class ROIExcluder {
+
+	private final List<Region> regions;
+	private final List<String> axes;
+
+	/**
+	 *
+	 * @param regions
+	 * @param axes the x and y axis names which the regions are in.
+	 */
+	public ROIExcluder(List<Region> regions, List<String> axes) {
+		if (axes.size()!=2) throw new IllegalArgumentException("An excluder must have two axes, not "+axes);
+		this.regions = regions;
+		this.axes    = axes;
+	}
+
+	/**
+	 * Create the mask for pairs of x and y values, the mask is the union of
+	 * all the regions.
+	 *
+	 * @param x
+	 * @param y
+	 * @return true for the points which are kept.
+	 */
+	public boolean[] createMask(double[] x, double[] y) {
+		if (x.length != y.length) throw new IllegalArgumentException("Points lengths must be equal");
+		boolean[] mask = new boolean[x.length];
+		for (int i = 0; i < mask.length; i++) {
+			for (Region region : regions) {
+				if (region.contains(x[i], y[i])) {
+					mask[i] = true;
+					break;
+				}
+			}
+		}
+		return mask;
+	}
+
+	public List<Region> getRegions() {
+		return regions;
+	}
+
+	public List<String> getAxes() {
+		return axes;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * regions.hashCode() + axes.hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (obj == null || getClass() != obj.getClass()) return false;
+		ROIExcluder other = (ROIExcluder) obj;
+		return regions.equals(other.regions) && axes.equals(other.axes);
+	}
+
+	@Override
+	public String toString() {
+		return "ROIExcluder [regions=" + regions + ", axes=" + axes + "]";
+	}
+}
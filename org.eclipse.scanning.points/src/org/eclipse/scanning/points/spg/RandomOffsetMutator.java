@@ -0,0 +1,101 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.points.spg;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies a pseudo random offset to the positions of some axes. The offset
+ * depends only on the seed, the axis and the index of the point so that any
+ * point may be made on its own.
+ */
+public class RandomOffsetMutator {
+
+	private final int                 seed;
+	private final List<String>        axes;
+	private final Map<String, Double> maxOffset;
+
+	public RandomOffsetMutator(int seed, List<String> axes, Map<String, Double> maxOffset) {
+		this.seed      = seed;
+		this.axes      = axes;
+		this.maxOffset = maxOffset;
+	}
+
+	/**
+	 * The offset for an axis at a point, Robert Jenkins' 32 bit hash of the
+	 * index, axis and seed scaled to [-maxOffset, maxOffset].
+	 *
+	 * @param axis
+	 * @param idx
+	 * @return
+	 */
+	double calcOffset(String axis, long idx) {
+		double m = maxOffset.get(axis);
+		long x = (idx << 4) + (axis.isEmpty() ? 0 : axis.charAt(0));
+		x ^= ((long)seed << 12);
+		x = (x + 0x7ED55D16L) + (x << 12);
+		x &= 0xFFFFFFFFL; // Act as 32 bit unsigned before doing any right-shifts
+		x = (x ^ 0xC761C23CL) ^ (x >> 19);
+		x = (x + 0x165667B1L) + (x << 5);
+		x = (x + 0xD3A2646CL) ^ (x << 9);
+		x = (x + 0xFD7046C5L) + (x << 3);
+		x &= 0xFFFFFFFFL;
+		x = (x ^ 0xB55A4F09L) ^ (x >> 16);
+		x &= 0xFFFFFFFFL;
+		double r = (double)x / (double)0xFFFFFFFFL; // r in interval [0, 1]
+		r = r * 2 - 1; // r in [-1, 1]
+		return m * r;
+	}
+
+	/**
+	 * Offset the positions of a point.
+	 *
+	 * @param names the axis of each position
+	 * @param positions
+	 * @param idx the index of the point in the scan
+	 */
+	void mutate(String[] names, double[] positions, int idx) {
+		for (String axis : axes) {
+			for (int i = 0; i < names.length; i++) {
+				if (names[i].equals(axis)) positions[i] += calcOffset(axis, idx);
+			}
+		}
+	}
+
+	public int getSeed() {
+		return seed;
+	}
+
+	public List<String> getAxes() {
+		return axes;
+	}
+
+	public Map<String, Double> getMaxOffset() {
+		return maxOffset;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * (31 * seed + axes.hashCode()) + maxOffset.hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (obj == null || getClass() != obj.getClass()) return false;
+		RandomOffsetMutator other = (RandomOffsetMutator) obj;
+		return seed == other.seed && axes.equals(other.axes) && maxOffset.equals(other.maxOffset);
+	}
+
+	@Override
+	public String toString() {
+		return "RandomOffsetMutator [seed=" + seed + ", axes=" + axes + ", maxOffset=" + maxOffset + "]";
+	}
+}
@@ -0,0 +1,315 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.points.spg;
+
+import java.util.Arrays;
+
+/**
+ * The regions of interest which an {@link ROIExcluder} uses, the Java port
+ * of scanpointgenerator.rois.
+ *
+ * Each region works out if a point is in the region using the arithmetic
+ * of the mask_points() method of the python region, which is what the compound
+ * generator uses, so that points on the edges are in or out in the same way.
+ */
+public abstract class Region {
+
+	/**
+	 *
+	 * @param x
+	 * @param y
+	 * @return true if the point is in the region and is not excluded.
+	 */
+	public abstract boolean contains(double x, double y);
+
+	/**
+	 * The values which define the region, used for equality.
+	 * @return
+	 */
+	protected abstract double[] getParameters();
+
+	public static Region circle(double[] centre, double radius) {
+		return new Circular(centre.clone(), radius);
+	}
+
+	public static Region ellipse(double[] centre, double[] semiaxes, double angle) {
+		return new Elliptical(centre.clone(), semiaxes.clone(), angle);
+	}
+
+	public static Region point(double[] point) {
+		return new Single(point.clone());
+	}
+
+	public static Region polygon(double[] xPoints, double[] yPoints) {
+		return new Polygonal(xPoints.clone(), yPoints.clone());
+	}
+
+	public static Region rectangle(double[] start, double width, double height, double angle) {
+		return new Rectangular(start.clone(), width, height, angle);
+	}
+
+	public static Region sector(double[] centre, double[] radii, double[] angles) {
+		return new Sector(centre.clone(), radii.clone(), angles);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * getClass().hashCode() + Arrays.hashCode(getParameters());
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (obj == null || getClass() != obj.getClass()) return false;
+		return Arrays.equals(getParameters(), ((Region)obj).getParameters());
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName()+" "+Arrays.toString(getParameters());
+	}
+
+	/**
+	 * Python float modulo, the result has the sign of the divisor.
+	 */
+	static double mod(double a, double b) {
+		double mod = a % b;
+		if (mod != 0) {
+			if ((b < 0) != (mod < 0)) mod += b;
+		} else {
+			mod = Math.copySign(0d, b);
+		}
+		return mod;
+	}
+
+	static final class Circular extends Region {
+
+		private final double[] centre;
+		private final double   radius;
+
+		private Circular(double[] centre, double radius) {
+			if (radius == 0) throw new IllegalArgumentException("Circle must have some size");
+			this.centre = centre;
+			this.radius = radius;
+		}
+
+		@Override
+		public boolean contains(double x, double y) {
+			x -= centre[0];
+			y -= centre[1];
+			return x*x + y*y <= radius * radius;
+		}
+
+		@Override
+		protected double[] getParameters() {
+			return new double[]{centre[0], centre[1], radius};
+		}
+	}
+
+	static final class Elliptical extends Region {
+
+		private final double[] centre;
+		private final double[] semiaxes;
+		private final double   angle;
+
+		private Elliptical(double[] centre, double[] semiaxes, double angle) {
+			if (semiaxes[0] <= 0 || semiaxes[1] <= 0) throw new IllegalArgumentException("Ellipse semi-axes must be greater than zero");
+			this.centre   = centre;
+			this.semiaxes = semiaxes;
+			this.angle    = angle;
+		}
+
+		@Override
+		public boolean contains(double x, double y) {
+			x -= centre[0];
+			y -= centre[1];
+			if (angle != 0) {
+				double phi = -angle;
+				double tx = x * Math.cos(phi) - y * Math.sin(phi);
+				double ty = x * Math.sin(phi) + y * Math.cos(phi);
+				x = tx;
+				y = ty;
+			}
+			double rx2 = semiaxes[0] * semiaxes[0];
+			double ry2 = semiaxes[1] * semiaxes[1];
+			return x*x/rx2 + y*y/ry2 <= 1;
+		}
+
+		@Override
+		protected double[] getParameters() {
+			return new double[]{centre[0], centre[1], semiaxes[0], semiaxes[1], angle};
+		}
+	}
+
+	static final class Single extends Region {
+
+		private final double[] point;
+
+		private Single(double[] point) {
+			this.point = point;
+		}
+
+		@Override
+		public boolean contains(double x, double y) {
+			x -= point[0];
+			y -= point[1];
+			return x*x + y*y <= 0;
+		}
+
+		@Override
+		protected double[] getParameters() {
+			return new double[]{point[0], point[1]};
+		}
+	}
+
+	static final class Polygonal extends Region {
+
+		private final double[] xPoints;
+		private final double[] yPoints;
+
+		private Polygonal(double[] xPoints, double[] yPoints) {
+			if (xPoints.length != yPoints.length) throw new IllegalArgumentException("Point arrays must be the same size");
+			if (xPoints.length < 3) throw new IllegalArgumentException("Polygon requires at least 3 vertices");
+			this.xPoints = xPoints;
+			this.yPoints = yPoints;
+		}
+
+		@Override
+		public boolean contains(double x, double y) {
+			boolean inside = false;
+			double v1x = xPoints[xPoints.length-1];
+			double v1y = yPoints[yPoints.length-1];
+			for (int i = 0; i < xPoints.length; i++) {
+				double v2x = xPoints[i];
+				double v2y = yPoints[i];
+				if (v2y != v1y) { // Skip horizontal edges
+					boolean crosses = (y < v2y && y >= v1y) || (y < v1y && y >= v2y);
+					double  t = (y - v1y) / (v2y - v1y);
+					if (crosses && x < v1x + t * (v2x - v1x)) inside = !inside;
+				}
+				v1x = v2x;
+				v1y = v2y;
+			}
+			return inside;
+		}
+
+		@Override
+		protected double[] getParameters() {
+			double[] ret = new double[xPoints.length*2];
+			System.arraycopy(xPoints, 0, ret, 0, xPoints.length);
+			System.arraycopy(yPoints, 0, ret, xPoints.length, yPoints.length);
+			return ret;
+		}
+	}
+
+	static final class Rectangular extends Region {
+
+		private final double[] start;
+		private final double   width;
+		private final double   height;
+		private final double   angle;
+
+		private Rectangular(double[] start, double width, double height, double angle) {
+			if (width == 0 || height == 0) throw new IllegalArgumentException("Rectangle must have some size");
+			this.start  = start;
+			this.width  = width;
+			this.height = height;
+			this.angle  = angle;
+		}
+
+		@Override
+		public boolean contains(double x, double y) {
+			x -= start[0];
+			y -= start[1];
+			if (angle != 0) {
+				double phi = -angle;
+				double rx = x * Math.cos(phi) - y * Math.sin(phi);
+				double ry = x * Math.sin(phi) + y * Math.cos(phi);
+				x = rx;
+				y = ry;
+			}
+			return x >= 0 && x <= width && y >= 0 && y <= height;
+		}
+
+		double[] getStart() {
+			return start;
+		}
+
+		double getWidth() {
+			return width;
+		}
+
+		double getHeight() {
+			return height;
+		}
+
+		double getAngle() {
+			return angle;
+		}
+
+		@Override
+		protected double[] getParameters() {
+			return new double[]{start[0], start[1], width, height, angle};
+		}
+	}
+
+	/**
+	 * NOTE The radial test compares the square of the distance from the centre
+	 * with the radii themselves, as the python does, so that the same points are made.
+	 */
+	static final class Sector extends Region {
+
+		private final double[] centre;
+		private final double[] radii;
+		private final double[] angles;
+
+		private Sector(double[] centre, double[] radii, double[] angles) {
+			if (radii[0] < 0 || radii[1] < radii[0] || radii[1] <= 0) throw new IllegalArgumentException("Sector size is invalid");
+			this.centre = centre;
+			this.radii  = radii;
+			this.angles = constrainAngles(angles);
+		}
+
+		/**
+		 * Constrain angles such that angles[0] < angles[1],
+		 * angles[0] in [0, 2pi), and angles[1] <= angles[0] + 2pi
+		 */
+		private static double[] constrainAngles(double[] angles) {
+			double a1 = angles[0];
+			double a2 = angles[1];
+			if (a2 < a1) {
+				a2 += 2 * Math.PI;
+				if (a2 < a1) return new double[]{0, 2*Math.PI}; // Input describes the full circle
+			}
+			double diff = a2 - a1;
+			if (diff >= 2*Math.PI) return new double[]{0, 2*Math.PI};
+			a1 = mod(a1 + 2*Math.PI, 2*Math.PI);
+			return new double[]{a1, a1+diff};
+		}
+
+		@Override
+		public boolean contains(double x, double y) {
+			x -= centre[0];
+			y -= centre[1];
+			double   r2  = x*x + y*y;
+			double[] phi = constrainAngles(angles);
+			double phiX  = Math.atan2(y, x);
+			phiX = mod(2*Math.PI + phiX, 2*Math.PI);
+			double phiS  = phi[1] - phi[0];
+			phiX -= phi[0] + 2*Math.PI;
+			phiX = mod(phiX, 2*Math.PI);
+			return r2 <= radii[1] && r2 >= radii[0] && phiX <= phiS;
+		}
+
+		@Override
+		protected double[] getParameters() {
+			return new double[]{centre[0], centre[1], radii[0], radii[1], angles[0], angles[1]};
+		}
+	}
+}
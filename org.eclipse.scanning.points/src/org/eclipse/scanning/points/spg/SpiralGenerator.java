@@ -0,0 +1,56 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.points.spg;
+
+/**
+ * Generates the points of an Archimedean spiral, r = b * phi,
+ * with phi approximated by k * sqrt(t).
+ */
+public class SpiralGenerator extends Generator {
+
+	private final double[] centre;
+	private final double   radius;
+	private final double   scale;
+	private final double   alpha;
+	private final double   beta;
+
+	public SpiralGenerator(String[] axes, double[] centre, double radius, double scale, boolean alternate) {
+		super(axes, alternate);
+		this.centre = centre;
+		this.radius = radius;
+		this.scale  = scale;
+		this.alpha  = Math.sqrt(4 * Math.PI); // Theta scale factor = k
+		this.beta   = scale / (2 * Math.PI);  // Radius scale factor = b
+		this.size   = (int)Math.pow(radius / (alpha * beta), 2) + 1;
+	}
+
+	@Override
+	protected double[][] prepareArrays(double[] index) {
+		double[] x = new double[index.length];
+		double[] y = new double[index.length];
+		for (int i = 0; i < index.length; i++) {
+			double phi = alpha * Math.sqrt(index[i] + 0.5);
+			x[i] = centre[0] + beta * phi * Math.sin(phi);
+			y[i] = centre[1] + beta * phi * Math.cos(phi);
+		}
+		return new double[][]{x, y};
+	}
+
+	public double[] getCentre() {
+		return centre;
+	}
+
+	public double getRadius() {
+		return radius;
+	}
+
+	public double getScale() {
+		return scale;
+	}
+}
@@ -52,6 +52,7 @@ import org.eclipse.scanning.api.event.status.Status;
 import org.eclipse.scanning.api.malcolm.IMalcolmDevice;
 import org.eclipse.scanning.api.points.GeneratorException;
 import org.eclipse.scanning.api.points.IDeviceDependentIterable;
+import org.eclipse.scanning.api.points.IPointGenerator;
 import org.eclipse.scanning.api.points.IPosition;
 import org.eclipse.scanning.api.scan.IScanService;
 import org.eclipse.scanning.api.scan.PositionEvent;
@@ -61,6 +62,7 @@ import org.eclipse.scanning.api.scan.ScanningException;
 import org.eclipse.scanning.api.scan.event.IPositionListener;
 import org.eclipse.scanning.api.scan.event.IPositioner;
 import org.eclipse.scanning.api.scan.models.ScanModel;
+import org.eclipse.scanning.sequencer.StageTimer.Stage;
 import org.eclipse.scanning.sequencer.nexus.INexusScanFileManager;
 import org.eclipse.scanning.sequencer.nexus.NexusScanFileManagerFactory;
 import org.slf4j.Logger;
@@ -74,6 +76,20 @@ import org.slf4j.LoggerFactory;
  * account and the position reached using an IPositioner then the
  * scanners run.
  *
+ * If the system property org.eclipse.scanning.sequencer.pipeline.depth is
+ * set greater than zero the scan is pipelined, the move to the next point
+ * starts as soon as the detectors have run at the current point. In this
+ * mode the @PointStart of the next point is called before the @PointEnd of
+ * the current one. @see ScanPipeline
+ *
+ * If the system property org.eclipse.scanning.sequencer.write.batch.size is
+ * greater than one and all the writable detectors implement IBatchWritableDetector
+ * the points are written in blocks of that size. @see DeviceWriter
+ *
+ * If the system property org.eclipse.scanning.sequencer.checkpoint.dir is set
+ * a checkpoint is saved there as the scan runs and a scan model with a start
+ * step resumes the scan from that step. @see ScanCheckpointer
+ *
  * @author Matthew Gerring
  */
 final class AcquisitionDevice extends AbstractRunnableDevice<ScanModel> implements IPositionListener {
@@ -122,6 +138,32 @@ final class AcquisitionDevice extends AbstractRunnableDevice<ScanModel> implemen
 	 */
 	private Iterator<IPosition> positionIterator;
 
+	/**
+	 * Used when the scan is pipelined to move to the next position
+	 * while the current one is read out, null otherwise.
+	 */
+	private ScanPipeline pipeline;
+
+	/**
+	 * Times the stages of the scan loop.
+	 */
+	private StageTimer timer = new StageTimer();
+
+	/**
+	 * Sends the latencies while the scan runs, null unless latencies are recorded.
+	 */
+	private LatencyPublisher latencyPublisher;
+
+	/**
+	 * Saves the checkpoint of the scan as it runs, null unless scans are checkpointed.
+	 */
+	private ScanCheckpointer checkpointer;
+
+	/**
+	 * The last position whose data has been written.
+	 */
+	private IPosition lastWritten;
+
 	/**
 	 * Package private constructor, devices are created by the service.
 	 */
@@ -147,6 +189,12 @@ final class AcquisitionDevice extends AbstractRunnableDevice<ScanModel> implemen
 
 		long before = System.currentTimeMillis();
 
+		// Progress is optionally sent at a limited rate from another thread.
+		double rate = ProgressPublisher.getConfiguredRate();
+		if (rate>0 && getPublisher()!=null && !(getPublisher() instanceof ProgressPublisher)) {
+			setPublisher(new ProgressPublisher(getPublisher(), rate));
+		}
+
 		setDeviceState(DeviceState.CONFIGURING);
 		setModel(model);
 		setBean(model.getBean() != null ? model.getBean() : new ScanBean());
@@ -177,12 +225,14 @@ final class AcquisitionDevice extends AbstractRunnableDevice<ScanModel> implemen
 		nexusScanFileManager = NexusScanFileManagerFactory.createNexusScanFileManager(this);
 		nexusScanFileManager.configure(model);
 		nexusScanFileManager.createNexusFile(Boolean.getBoolean("org.eclipse.scanning.sequencer.nexus.async"));
+		if (nexusScanFileManager.getWriteQueue()!=null) annotationManager.addContext(nexusScanFileManager.getWriteQueue());
+		annotationManager.addDevices(nexusScanFileManager); // Writes the points buffered on pause and abort
 
 		// create the runners and writers
 		if (model.getDetectors()!=null) {
 			runners = new DeviceRunner(model.getDetectors());
 			if (nexusScanFileManager.isNexusWritingEnabled()) {
-				writers = new DeviceWriter(model.getDetectors());
+				writers = new DeviceWriter(model.getDetectors(), Integer.getInteger("org.eclipse.scanning.sequencer.write.batch.size", 1));
 			} else {
 				writers = LevelRunner.createEmptyRunner();
 			}
@@ -294,7 +344,25 @@ final class AcquisitionDevice extends AbstractRunnableDevice<ScanModel> implemen
 		boolean errorFound = false;
 		IPosition pos = null;
 		try {
-			this.positionIterator = location.createPositionIterator();
+			if (model.getStartStep()>0) {
+				this.positionIterator = location.createResumeIterator(model.getStartStep());
+				logger.info("Resuming scan '{}' from step {}", getName(), location.getStepNumber());
+			} else {
+				this.positionIterator = location.createPositionIterator();
+			}
+			this.lastWritten = null;
+			this.checkpointer = ScanCheckpointer.create(model, getBean(), location, nexusScanFileManager);
+			this.timer = new StageTimer();
+			if (timer.isRecordingLatency()) {
+				if (runners instanceof DeviceRunner) ((DeviceRunner)runners).setTimer(timer);
+				if (writers instanceof DeviceRunner) ((DeviceRunner)writers).setTimer(timer);
+				if (getPublisher()!=null) latencyPublisher = LatencyPublisher.create(timer, getPublisher().getUri(), getName(), getBean().getUniqueId());
+			}
+			int depth = ScanPipeline.getConfiguredDepth();
+			if (depth>0) {
+				pipeline = new ScanPipeline(positioner, timer, depth);
+				pipeline.reset(positionIterator);
+			}
 
 			RunnableDeviceServiceImpl.setCurrentScanningDevice(this); // Alows Jython to get and pause/seek.
 
@@ -312,41 +380,80 @@ final class AcquisitionDevice extends AbstractRunnableDevice<ScanModel> implemen
 		// The scan loop
 		pos = null; // We want the last point when we are done so don't use foreach
 		boolean firedFirst = false;
-	        while (positionIterator.hasNext()) {
+		if (pipeline==null) {
+		        while (positionIterator.hasNext()) {
 
-			pos = positionIterator.next();
-			pos.setStepIndex(location.getStepNumber());
+				pos = positionIterator.next();
+				pos.setStepIndex(location.getStepNumber());
 
-			if (!firedFirst) {
-				fireFirst(pos);
-			firedFirst = true;
-			}
+				if (!firedFirst) {
+					fireFirst(pos);
+				firedFirst = true;
+				}
+
+				// Check if we are paused, blocks until we are not
+				boolean continueRunning = checkPaused();
+				if (!continueRunning) return;  // finally block performed
 
-			// Check if we are paused, blocks until we are not
-			boolean continueRunning = checkPaused();
-			if (!continueRunning) return;  // finally block performed
+				// Run to the position
+				annotationManager.invoke(PointStart.class, pos);
+				moveTo(pos);                          // moveTo in GDA8
 
-			// Run to the position
-			annotationManager.invoke(PointStart.class, pos);
-			positioner.setPosition(pos);          // moveTo in GDA8
-			firePositionMoveComplete(pos);        // notify listers that the move is complete
+				acquire(pos);                         // Expose and start writing
 
-			exposureManager.setExposureTime(pos); // most of the time this does nothing.
+				// Send an event about where we are in the scan
+				pointEnd(pos);
+		        }
+		} else {
+			IPosition moving = null; // The position we have already started moving to, if any.
+		        while (moving!=null || pipeline.hasNext()) {
+
+				if (moving!=null) {
+					pos = moving;
+					moving = null;
+					pipeline.awaitMove();
+
+					// Check if we are paused, blocks until we are not
+					boolean continueRunning = checkPaused();
+					if (!continueRunning) return;  // finally block performed
+
+					// A seek while we were paused has moved the motors, go back to the position.
+					if (pipeline.isReset()) moveTo(pos);
+				} else {
+					pos = pipeline.next();
+					pos.setStepIndex(location.getStepNumber());
+
+					if (!firedFirst) {
+						fireFirst(pos);
+					firedFirst = true;
+					}
 
-			IPosition written = writers.await();  // Wait for the previous write out to return, if any
-			if (written!=null) annotationManager.invoke(WriteComplete.class, written);
+					boolean continueRunning = checkPaused();
+					if (!continueRunning) return;  // finally block performed
 
-			runners.run(pos);                     // GDA8: collectData() / GDA9: run() for Malcolm
-			writers.run(pos, false);              // Do not block on the readout, move to the next position immediately.
+					annotationManager.invoke(PointStart.class, pos);
+					moveTo(pos);
+				}
 
-			// Send an event about where we are in the scan
-			annotationManager.invoke(PointEnd.class, pos);
-			positionComplete(pos);
+				acquire(pos);
+
+				// The detectors have finished exposing so we can move on while this
+				// point is read out and published. If a pause has been requested we
+				// do not start the move and the next point goes through checkPaused()
+				if (!awaitPaused && pipeline.hasNext()) {
+					moving = pipeline.next();
+					moving.setStepIndex(location.getNextStepNumber());
+					annotationManager.invoke(PointStart.class, moving);
+					pipeline.moveAsync(moving);
+					pipeline.prefetch();  // Generator work done while the motors move.
+				}
 
-			logger.info("Scanning completed step "+location.getStepNumber()+". Position was "+pos);
-	        }
+				pointEnd(pos);
+		        }
+		}
 
 	        // On the last iteration we must wait for the final readout.
+		if (writers instanceof DeviceWriter) ((DeviceWriter)writers).flush(); // Write any batched positions which are left
 		IPosition written = writers.await();          // Wait for the previous write out to return, if any
 		annotationManager.invoke(WriteComplete.class, written);
 
@@ -363,8 +470,52 @@ final class AcquisitionDevice extends AbstractRunnableDevice<ScanModel> implemen
 
 		} finally {
 			close(errorFound, pos);
-			RunnableDeviceServiceImpl.setCurrentScanningDevice(null);
+			RunnableDeviceServiceImpl.removeCurrentScanningDevice(this);
+		}
+	}
+
+	/**
+	 * Moves to the position, blocking until the move is complete.
+	 */
+	private void moveTo(IPosition pos) throws Exception {
+		long start = timer.start();
+		positioner.setPosition(pos);
+		timer.stop(Stage.MOVE, start);
+		if (pipeline!=null) timer.stop(Stage.MOVE_WAIT, start);
+		firePositionMoveComplete(pos);        // notify listers that the move is complete
+	}
+
+	/**
+	 * Runs the detectors at the position and starts writing, the position
+	 * must have been reached.
+	 */
+	private void acquire(IPosition pos) throws Exception {
+
+		exposureManager.setExposureTime(pos); // most of the time this does nothing.
+
+		long start = timer.start();
+		IPosition written = writers.await();  // Wait for the previous write out to return, if any
+		timer.stop(Stage.WRITE_WAIT, start);
+		if (written!=null) {
+			annotationManager.invoke(WriteComplete.class, written);
+			lastWritten = written;
 		}
+
+		start = timer.start();
+		runners.run(pos);                     // GDA8: collectData() / GDA9: run() for Malcolm
+		timer.stop(Stage.EXPOSE, start);
+		writers.run(pos, false);              // Do not block on the readout, move to the next position immediately.
+	}
+
+	private void pointEnd(IPosition pos) throws Exception {
+		long start = timer.start();
+		annotationManager.invoke(PointEnd.class, pos);
+		positionComplete(pos);
+		timer.stop(Stage.POINT_END, start);
+		if (latencyPublisher!=null) latencyPublisher.pointEnd();
+		if (checkpointer!=null) checkpointer.pointEnd(lastWritten);
+
+		logger.info("Scanning completed step "+location.getStepNumber()+". Position was "+pos);
 	}
 
 	private void positionComplete(IPosition pos) throws EventException, ScanningException {
@@ -428,11 +579,27 @@ final class AcquisitionDevice extends AbstractRunnableDevice<ScanModel> implemen
 				} catch (Exception ex) {
 					logger.warn("Error during removing Malcolm listeners", ex);
 				}
+				if (pipeline!=null) {
+					pipeline.close();
+					pipeline = null;
+				}
+				if (positioner instanceof ScannablePositioner) getBean().setSkippedMoves(((ScannablePositioner)positioner).getSkippedMoveCount());
 				positioner.close();
 				runners.close();
 				writers.close();
+				logger.info("Scan stage times for '{}': {}", getName(), timer);
+				if (!errorFound) calibrateTiming();
+				if (latencyPublisher!=null) {
+					latencyPublisher.close();
+					latencyPublisher = null;
+				}
 
+				if (timer.isRecordingLatency()) nexusScanFileManager.setLatencies(timer.getLatencies());
 				nexusScanFileManager.scanFinished(); // writes scanFinished and closes nexus file
+				if (checkpointer!=null) {
+					checkpointer.close(errorFound);
+					checkpointer = null;
+				}
 
 				// We should not fire the run performed until the nexus file is closed.
 			// Tests wait for this step and reread the file.
@@ -453,6 +620,10 @@ final class AcquisitionDevice extends AbstractRunnableDevice<ScanModel> implemen
 		}
 	}
 
+	private void calibrateTiming() {
+		RunnableDeviceServiceImpl.getTimingCalibrator().add(getModel(), timer); // Calibrated when the timing is next read
+	}
+
 	private void createScanLatch() {
 		if (latch==null || latch.getCount()<1) {
 			latch = new CountDownLatch(1);
@@ -608,6 +779,7 @@ final class AcquisitionDevice extends AbstractRunnableDevice<ScanModel> implemen
 	private void abortInternal()  throws ScanningException, InterruptedException{
 
 		setDeviceState(DeviceState.ABORTING);
+		if (pipeline!=null) pipeline.abort();
 		positioner.abort();
 		writers.abort();
 		runners.abort();
@@ -624,7 +796,7 @@ final class AcquisitionDevice extends AbstractRunnableDevice<ScanModel> implemen
 		} catch (Exception other) {
 			throw new ScanningException(other);
 		}
-		RunnableDeviceServiceImpl.setCurrentScanningDevice(null);
+		RunnableDeviceServiceImpl.removeCurrentScanningDevice(this);
 	}
 
 	@Override
@@ -653,7 +825,7 @@ final class AcquisitionDevice extends AbstractRunnableDevice<ScanModel> implemen
 	@Override
 	public void seek(final int stepNumber) throws ScanningException, InterruptedException {
 		// This is the values of all motors at this global (including malcolm) scan
-		// position. Therefore we do not need a subscan moderator but can run the iterator
+		// position. Therefore we do not need a subscan moderator but can jump the iterator
 		// to the point
 		work(()-> seekInternal(stepNumber), DeviceState.PAUSED, "seek", true, false);
 	}
@@ -661,8 +833,10 @@ final class AcquisitionDevice extends AbstractRunnableDevice<ScanModel> implemen
 
 		if (stepNumber<0) throw new ScanningException("Seek position is invalid "+stepNumber);
 		if (stepNumber>location.getTotalSize())  throw new ScanningException("Seek position is invalid "+stepNumber);
-		this.positionIterator = location.createPositionIterator();
+		if (pipeline!=null) pipeline.awaitMove(); // The pause may have come in while the next move was in flight.
+		this.positionIterator = location.createPositionIterator(stepNumber);
 		IPosition pos = location.seek(stepNumber, positionIterator);
+		if (pipeline!=null) pipeline.reset(positionIterator);
 		positioner.setPosition(pos);
 		if (getModel().getDetectors()!=null) for (IRunnableDevice<?> device : getModel().getDetectors()) {
 			if (device instanceof IPausableDevice) ((IPausableDevice<?>)device).seek(stepNumber);
@@ -794,6 +968,13 @@ final class AcquisitionDevice extends AbstractRunnableDevice<ScanModel> implemen
 			scanRank = ((IDeviceDependentIterable)gen).getScanRank();
 
 		}
+		if (scanRank < 0 && gen instanceof IPointGenerator<?> && !(gen instanceof IDeviceDependentIterable)) {
+			try {
+				scanRank = ((IPointGenerator<?>)gen).getScanPathInfo().getScanRank();
+			} catch (GeneratorException ne) {
+				logger.debug("Cannot get the scan rank from the generator, iterating instead", ne);
+			}
+		}
 		if (scanRank < 0) {
 			scanRank = gen.iterator().next().getScanRank();
 		}
@@ -0,0 +1,113 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.sequencer;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.scanning.api.device.IDeviceLock;
+import org.eclipse.scanning.api.device.IDeviceLockManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reserves devices by name for the scans of this server. The devices of a
+ * lock are taken together under the monitor of the manager so a scan never
+ * holds some of its devices while waiting for the others.
+ */
+final class DeviceLockManager implements IDeviceLockManager {
+
+	private static final Logger logger = LoggerFactory.getLogger(DeviceLockManager.class);
+
+	private final Map<String, String> owners = new HashMap<>(); // Device name to owner, guarded by this
+
+	@Override
+	public synchronized IDeviceLock lock(String owner, Collection<String> names, long time, TimeUnit unit) throws InterruptedException {
+
+		final Set<String> devices = new LinkedHashSet<>(names.size());
+		for (String name : names) if (name!=null) devices.add(name);
+
+		final long end = System.nanoTime()+unit.toNanos(time);
+		while (isHeld(devices)) {
+			final long left = end-System.nanoTime();
+			if (left<=0) return null;
+			TimeUnit.NANOSECONDS.timedWait(this, left);
+		}
+		for (String name : devices) owners.put(name, owner);
+		logger.debug("{} reserved {}", owner, devices);
+		return new DeviceLock(owner, Collections.unmodifiableSet(devices));
+	}
+
+	private boolean isHeld(Set<String> devices) {
+		for (String name : devices) if (owners.containsKey(name)) return true;
+		return false;
+	}
+
+	@Override
+	public synchronized Map<String, String> getConflicts(Collection<String> names) {
+		final Map<String, String> ret = new LinkedHashMap<>();
+		for (String name : names) {
+			if (name!=null && owners.containsKey(name)) ret.put(name, owners.get(name));
+		}
+		return ret;
+	}
+
+	@Override
+	public synchronized Map<String, String> getOwners() {
+		return new HashMap<>(owners);
+	}
+
+	private synchronized void release(DeviceLock lock) {
+		for (String name : lock.names) owners.remove(name, lock.owner);
+		logger.debug("{} released {}", lock.owner, lock.names);
+		notifyAll();
+	}
+
+	private final class DeviceLock implements IDeviceLock {
+
+		private final String      owner;
+		private final Set<String> names;
+		private boolean           closed; // guarded by the manager
+
+		DeviceLock(String owner, Set<String> names) {
+			this.owner = owner;
+			this.names = names;
+		}
+
+		@Override
+		public String getOwner() {
+			return owner;
+		}
+
+		@Override
+		public Collection<String> getNames() {
+			return names;
+		}
+
+		@Override
+		public void close() {
+			synchronized (DeviceLockManager.this) {
+				if (closed) return;
+				closed = true;
+				release(this);
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "DeviceLock [owner=" + owner + ", names=" + names + "]";
+		}
+	}
+}
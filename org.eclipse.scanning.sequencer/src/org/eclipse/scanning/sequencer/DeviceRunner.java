@@ -36,6 +36,7 @@ import org.eclipse.scanning.api.scan.ScanningException;
 class DeviceRunner extends LevelRunner<IRunnableDevice<?>> {
 
 	private Collection<IRunnableDevice<?>>  devices;
+	private volatile StageTimer             timer; // Only set when latencies are recorded
 
 	DeviceRunner(Collection<IRunnableDevice<?>> devices) {
 		this.devices = devices;
@@ -83,6 +84,33 @@ class DeviceRunner extends LevelRunner<IRunnableDevice<?>> {
 		return timeout;
 	}
 
+	/**
+	 * Set a timer to record the time each device takes,
+	 * or null to stop recording.
+	 * @param timer
+	 */
+	void setTimer(StageTimer timer) {
+		this.timer = timer;
+	}
+
+	/**
+	 * Records the time since start for the device, if there is a timer.
+	 * @param stage
+	 * @param device
+	 * @param start from System.nanoTime()
+	 */
+	protected void record(StageTimer.Stage stage, IRunnableDevice<?> device, long start) {
+		final StageTimer timer = this.timer;
+		if (timer!=null) timer.record(stage, device.getName(), System.nanoTime()-start);
+	}
+
+	/**
+	 * @return true if device times are being recorded.
+	 */
+	protected boolean isTimed() {
+		return timer!=null;
+	}
+
 	@Override
 	protected Callable<IPosition> create(IRunnableDevice<?> detector, IPosition position) throws ScanningException {
 		return new RunTask(detector, position);
@@ -93,16 +121,21 @@ class DeviceRunner extends LevelRunner<IRunnableDevice<?>> {
 		return devices;
 	}
 
-	private final class RunTask implements Callable<IPosition> {
+	private final class RunTask implements PositionTask {
 
-		private IRunnableDevice<?>   detector;
-		private IPosition            position;
+		private final IRunnableDevice<?> detector;
+		private IPosition                position;
 
 		public RunTask(IRunnableDevice<?> detector, IPosition position) {
 			this.detector = detector;
 			this.position = position;
 		}
 
+		@Override
+		public void setPosition(IPosition position) {
+			this.position = position;
+		}
+
 		@SuppressWarnings("rawtypes")
 		@Override
 		public IPosition call() throws Exception {
@@ -111,7 +144,10 @@ class DeviceRunner extends LevelRunner<IRunnableDevice<?>> {
 			}
 			try {
 				if (detector instanceof AbstractRunnableDevice) ((AbstractRunnableDevice)detector).setBusy(true);
+				final boolean timed = isTimed();
+				final long    start = timed ? System.nanoTime() : 0;
 			    detector.run(position);
+			    if (timed) record(StageTimer.Stage.EXPOSE, detector, start);
 			} catch (Throwable ne) {
 				abort(detector, position, ne);
 			} finally {
@@ -11,9 +11,12 @@
  *******************************************************************************/
 package org.eclipse.scanning.sequencer;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.Callable;
 
+import org.eclipse.scanning.api.device.IBatchWritableDetector;
 import org.eclipse.scanning.api.device.IRunnableDevice;
 import org.eclipse.scanning.api.device.IRunnableEventDevice;
 import org.eclipse.scanning.api.device.IWritableDetector;
@@ -30,11 +33,21 @@ import org.eclipse.scanning.api.scan.ScanningException;
  * The latch method waits for the pool to exit if the run method is
  * called in non-blocking mode.
  *
+ * If the batch size is greater than one and every writable detector is an
+ * {@link IBatchWritableDetector} the positions are kept until there are
+ * enough of them and then written in one call. flush() must be called
+ * at the end of the scan to write the positions which are left.
+ *
  * @author Matthew Gerring
  *
  */
 final class DeviceWriter extends DeviceRunner {
 
+	private final int               batchSize;
+	private List<IPosition>         batch;    // Positions run but not written, null if not batching.
+	private List<IPosition>         writing;  // The batch being submitted by run(...)
+	private volatile boolean        flushed;  // A batch has been written since the last await.
+
 	/**
 	 * Checks each detector to find the maximum time
 	 * that the await call should block for before
@@ -43,12 +56,95 @@ final class DeviceWriter extends DeviceRunner {
 	 * @param detectors
 	 */
 	DeviceWriter(Collection<IRunnableDevice<?>> detectors) {
+		this(detectors, 1);
+	}
+
+	/**
+	 * @param detectors
+	 * @param batchSize the number of positions to write in one call, if all the detectors can.
+	 */
+	DeviceWriter(Collection<IRunnableDevice<?>> detectors, int batchSize) {
 		super(detectors);
+		this.batchSize = batchSize;
+		if (batchSize>1 && isBatchWritable(detectors)) this.batch = new ArrayList<>(batchSize);
+	}
+
+	private static boolean isBatchWritable(Collection<IRunnableDevice<?>> detectors) {
+		if (detectors==null) return false;
+		boolean any = false;
+		for (IRunnableDevice<?> device : detectors) {
+			if (!(device instanceof IWritableDetector<?>)) continue;
+			if (!(device instanceof IBatchWritableDetector<?>)) return false;
+			any = true;
+		}
+		return any;
+	}
+
+	/**
+	 * @return true if positions are written in batches.
+	 */
+	boolean isBatching() {
+		return batch!=null;
+	}
+
+	/**
+	 * A batch takes longer to write than one point.
+	 */
+	@Override
+	public long getTimeout(List<IRunnableDevice<?>> objects) {
+		long timeout = super.getTimeout(objects);
+		if (batch==null || timeout>=Long.MAX_VALUE/batchSize) return timeout;
+		return timeout*batchSize;
+	}
+
+	@Override
+	protected boolean run(IPosition position, boolean block) throws ScanningException, InterruptedException {
+		if (batch==null) return super.run(position, block);
+		batch.add(position);
+		if (batch.size()<batchSize) return true;
+		return flush(block);
+	}
+
+	/**
+	 * Writes the positions which have been run but not yet written, if any.
+	 * Does not block until the write has finished, call await() to do that.
+	 * @throws ScanningException
+	 * @throws InterruptedException
+	 */
+	void flush() throws ScanningException, InterruptedException {
+		flush(false);
+	}
+
+	private boolean flush(boolean block) throws ScanningException, InterruptedException {
+		if (batch==null || batch.isEmpty()) return true;
+		writing = batch;
+		batch   = new ArrayList<>(batchSize);
+		try {
+			flushed = true;
+			return super.run(writing.get(writing.size()-1), block);
+		} finally {
+			writing = null;
+		}
+	}
+
+	/**
+	 * When batching the position is only returned once after each batch
+	 * is written, so that WriteComplete is not notified for points which
+	 * are still waiting to be written.
+	 */
+	@Override
+	protected IPosition await(long time) throws InterruptedException, ScanningException {
+		IPosition written = super.await(time);
+		if (batch==null) return written;
+		if (!flushed) return null;
+		flushed = false;
+		return written;
 	}
 
 	@Override
 	protected Callable<IPosition> create(IRunnableDevice<?> device, IPosition position) throws ScanningException {
 		if (!(device instanceof IWritableDetector<?>)) return null;
+		if (writing!=null) return new BatchWriteTask((IBatchWritableDetector<?>)device, writing);
 		return new WriteTask((IWritableDetector<?>)device, position);
 	}
 
@@ -68,7 +164,10 @@ final class DeviceWriter extends DeviceRunner {
 				((IRunnableEventDevice)detector).fireWriteWillPerform(position);
 			}
 			try {
+				final boolean timed = isTimed();
+				final long    start = timed ? System.nanoTime() : 0;
 				boolean wrote = detector.write(position);
+				if (timed) record(StageTimer.Stage.WRITE, detector, start);
 				if (wrote) {
 					if (detector instanceof IRunnableEventDevice) {
 						((IRunnableEventDevice)detector).fireWritePerformed(position);
@@ -84,6 +183,37 @@ final class DeviceWriter extends DeviceRunner {
 
 	}
 
+	private final class BatchWriteTask implements Callable<IPosition> {
+
+		private IBatchWritableDetector<?> detector;
+		private List<IPosition>           positions;
+
+		public BatchWriteTask(IBatchWritableDetector<?> detector, List<IPosition> positions) {
+			this.detector  = detector;
+			this.positions = positions;
+		}
+
+		@Override
+		public IPosition call() throws Exception {
+			for (IPosition position : positions) detector.fireWriteWillPerform(position);
+			try {
+				final boolean timed = isTimed();
+				final long    start = timed ? System.nanoTime() : 0;
+				boolean wrote = detector.write(positions);
+				if (timed) record(StageTimer.Stage.WRITE, detector, start); // One record for the batch
+				if (wrote) {
+					for (IPosition position : positions) detector.fireWritePerformed(position);
+				}
+				return null; // faster if not adding new information
+
+			} catch (Exception ne) {
+				abort(detector, positions.get(positions.size()-1), ne);
+                throw ne;
+			}
+		}
+
+	}
+
 	@Override
 	protected LevelRole getLevelRole() {
 		return LevelRole.WRITE;
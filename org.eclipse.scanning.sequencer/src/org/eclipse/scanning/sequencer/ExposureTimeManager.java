@@ -108,16 +108,21 @@ class ExposureTimeManager extends LevelRunner<IRunnableDevice<?>> {
 		return new ExposureTimeTask((IRunnableDevice<IDetectorModel>)device, position);
 	}
 
-	private final class ExposureTimeTask implements Callable<IPosition> {
+	private final class ExposureTimeTask implements PositionTask {
 
-		private IRunnableDevice<IDetectorModel> device;
-		private IPosition          position;
+		private final IRunnableDevice<IDetectorModel> device;
+		private IPosition                             position;
 
 		public ExposureTimeTask(IRunnableDevice<IDetectorModel> device, IPosition position) {
 			this.device   = device;
 			this.position = position;
 		}
 
+		@Override
+		public void setPosition(IPosition position) {
+			this.position = position;
+		}
+
 		@Override
 		public IPosition call() throws Exception {
 			IDetectorModel model = device.getModel();
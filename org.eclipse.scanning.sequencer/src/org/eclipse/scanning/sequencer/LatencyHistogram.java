@@ -0,0 +1,103 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.sequencer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of latencies which may be recorded from any thread without
+ * locking or creating objects. Buckets are linear within each power of two
+ * so percentiles are within about three percent of the true value.
+ */
+final class LatencyHistogram {
+
+	private static final int SUB_BITS  = 5;
+	private static final int SUB_COUNT = 1 << SUB_BITS; // Buckets in each power of two
+	private static final int BUCKETS   = (64-SUB_BITS)*SUB_COUNT;
+
+	private final AtomicLongArray buckets;
+	private final AtomicLong      count;
+	private final AtomicLong      total;
+	private final AtomicLong      max;
+
+	LatencyHistogram() {
+		this.buckets = new AtomicLongArray(BUCKETS);
+		this.count   = new AtomicLong();
+		this.total   = new AtomicLong();
+		this.max     = new AtomicLong();
+	}
+
+	/**
+	 * Record one latency
+	 * @param nanos
+	 */
+	void record(long nanos) {
+		if (nanos<0) nanos = 0;
+		buckets.incrementAndGet(getIndex(nanos));
+		count.incrementAndGet();
+		total.addAndGet(nanos);
+		long current;
+		while((current = max.get())<nanos) {
+			if (max.compareAndSet(current, nanos)) break;
+		}
+	}
+
+	private static int getIndex(long value) {
+		if (value < 2*SUB_COUNT) return (int)value;
+		final int shift = 63-Long.numberOfLeadingZeros(value)-SUB_BITS;
+		return shift*SUB_COUNT + (int)(value>>>shift);
+	}
+
+	/**
+	 * @return the largest value which falls in the bucket.
+	 */
+	private static long getValue(int index) {
+		if (index < 2*SUB_COUNT) return index;
+		final int shift = index/SUB_COUNT - 1;
+		final long sub  = index%SUB_COUNT + SUB_COUNT;
+		return ((sub+1)<<shift)-1;
+	}
+
+	long getCount() {
+		return count.get();
+	}
+
+	long getMax(TimeUnit unit) {
+		return unit.convert(max.get(), TimeUnit.NANOSECONDS);
+	}
+
+	long getMean(TimeUnit unit) {
+		long n = count.get();
+		return n>0 ? unit.convert(total.get()/n, TimeUnit.NANOSECONDS) : 0;
+	}
+
+	/**
+	 * @param percentile between 0 and 100
+	 * @param unit
+	 * @return the value below which this percentage of the recorded values fall
+	 */
+	long getPercentile(double percentile, TimeUnit unit) {
+		final long n = count.get();
+		if (n<1) return 0;
+		final long target = Math.max(1, (long)Math.ceil(percentile/100d*n));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += buckets.get(i);
+			if (seen>=target) return unit.convert(Math.min(getValue(i), max.get()), TimeUnit.NANOSECONDS);
+		}
+		return getMax(unit);
+	}
+
+	@Override
+	public String toString() {
+		return "p50="+getPercentile(50, TimeUnit.MICROSECONDS)+"us p99="+getPercentile(99, TimeUnit.MICROSECONDS)+"us max="+getMax(TimeUnit.MICROSECONDS)+"us";
+	}
+}
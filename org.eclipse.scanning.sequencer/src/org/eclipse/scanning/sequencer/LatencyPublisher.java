@@ -0,0 +1,102 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.sequencer;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.scanning.api.event.EventConstants;
+import org.eclipse.scanning.api.event.EventException;
+import org.eclipse.scanning.api.event.IEventService;
+import org.eclipse.scanning.api.event.core.IPublisher;
+import org.eclipse.scanning.api.event.scan.ScanLatencyBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends the latencies recorded by a {@link StageTimer} on the latency topic.
+ *
+ * The latencies are sent from the scan thread at the end of a point once the
+ * period has passed, so no thread is needed. The period in ms is set using
+ * the system property <code>org.eclipse.scanning.sequencer.latency.period</code>
+ * and is 5000 by default.
+ */
+final class LatencyPublisher {
+
+	private static final Logger logger = LoggerFactory.getLogger(LatencyPublisher.class);
+
+	private final IPublisher<ScanLatencyBean> publisher;
+	private final StageTimer                  timer;
+	private final String                      name;
+	private final String                      uniqueId;
+	private final long                        period; // ns
+	private long                              next;
+
+	private LatencyPublisher(IPublisher<ScanLatencyBean> publisher, StageTimer timer, String name, String uniqueId) {
+		this.publisher = publisher;
+		this.timer     = timer;
+		this.name      = name;
+		this.uniqueId  = uniqueId;
+		this.period    = TimeUnit.MILLISECONDS.toNanos(Long.getLong("org.eclipse.scanning.sequencer.latency.period", 5000));
+		this.next      = System.nanoTime()+period;
+	}
+
+	/**
+	 * Create a publisher if the timer records latencies and there is somewhere to send them.
+	 * @param timer
+	 * @param uri
+	 * @param name of the scan
+	 * @param uniqueId of the scan bean
+	 * @return the publisher or null
+	 */
+	static LatencyPublisher create(StageTimer timer, URI uri, String name, String uniqueId) {
+		final IEventService eservice = ServiceHolder.getEventService();
+		if (!timer.isRecordingLatency() || uri==null || eservice==null) return null;
+		final IPublisher<ScanLatencyBean> publisher = eservice.createPublisher(uri, EventConstants.LATENCY_TOPIC);
+		return new LatencyPublisher(publisher, timer, name, uniqueId);
+	}
+
+	/**
+	 * Called at the end of each point, only sends when the period has passed.
+	 */
+	void pointEnd() {
+		final long now = System.nanoTime();
+		if (now-next<0) return;
+		next = now+period;
+		publish(false);
+	}
+
+	/**
+	 * Sends the final latencies and disconnects.
+	 */
+	void close() {
+		try {
+			publish(true);
+		} finally {
+			try {
+				publisher.disconnect();
+			} catch (EventException ne) {
+				logger.warn("Cannot disconnect latency publisher", ne);
+			}
+		}
+	}
+
+	private void publish(boolean finished) {
+		final ScanLatencyBean bean = new ScanLatencyBean();
+		bean.setName(name);
+		bean.setUniqueId(uniqueId);
+		bean.setFinished(finished);
+		bean.setStages(timer.getLatencies());
+		try {
+			publisher.broadcast(bean);
+		} catch (EventException ne) {
+			logger.warn("Cannot publish latencies for "+name, ne);
+		}
+	}
+}
@@ -0,0 +1,140 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.sequencer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.eclipse.scanning.api.ILevel;
+import org.eclipse.scanning.api.annotation.scan.AnnotationManager;
+import org.eclipse.scanning.api.annotation.scan.LevelEnd;
+import org.eclipse.scanning.api.annotation.scan.LevelStart;
+import org.eclipse.scanning.api.scan.LevelInformation;
+import org.eclipse.scanning.api.scan.LevelRole;
+
+/**
+ * The devices of a level runner sorted by level, made once and then
+ * used for every point of the scan. The plan cannot be changed, if
+ * the devices or their levels change a new plan is made.
+ * <p>
+ * Checking that the plan is still correct for the devices and
+ * reading the levels from it do not create any objects, so the
+ * plan may be used for each point without making garbage.
+ */
+final class LevelPlan<L extends ILevel> {
+
+	private final Collection<L>        source;
+	private final ILevel[]             devices;
+	private final int[]                deviceLevels;
+
+	private final int[]                levels;
+	private final List<List<L>>        objects;
+	private final AnnotationManager[]  managers;
+	private final LevelInformation[]   information;
+
+	@SuppressWarnings("unchecked")
+	LevelPlan(Collection<L> source, LevelRole role) {
+
+		this.source = source;
+		int size = source!=null ? source.size() : 0;
+		this.devices      = new ILevel[size];
+		this.deviceLevels = new int[size];
+
+		final Map<Integer, List<L>> byLevel = new TreeMap<>();
+		if (source!=null) {
+			int i = 0;
+			for (L object : source) {
+				final int level = object.getLevel();
+				devices[i]      = object;
+				deviceLevels[i] = level;
+				byLevel.computeIfAbsent(level, k -> new ArrayList<L>(7)).add(object);
+				++i;
+			}
+		}
+
+		this.levels      = new int[byLevel.size()];
+		this.objects     = new ArrayList<>(byLevel.size());
+		this.managers    = new AnnotationManager[byLevel.size()];
+		this.information = new LevelInformation[byLevel.size()];
+
+		int index = 0;
+		for (Map.Entry<Integer, List<L>> entry : byLevel.entrySet()) {
+			final List<L> lobjects = Collections.unmodifiableList(entry.getValue());
+			levels[index]  = entry.getKey();
+			objects.add(lobjects);
+			managers[index] = new AnnotationManager(SequencerActivator.getInstance(), LevelStart.class, LevelEnd.class); // Less annotations is more efficient
+			managers[index].addDevices(lobjects);
+			information[index] = new LevelInformation(role, levels[index], lobjects);
+			++index;
+		}
+	}
+
+	/**
+	 * Checks if this plan was made for these devices and that none of
+	 * them has changed level since.
+	 *
+	 * @param current
+	 * @return true if the plan may still be used.
+	 */
+	boolean isFor(Collection<L> current) {
+		if (current!=source) return false;
+		if (current==null)   return true;
+		if (current.size()!=devices.length) return false;
+		for (int i = 0; i < devices.length; i++) {
+			if (devices[i].getLevel()!=deviceLevels[i]) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * @return the number of levels with devices.
+	 */
+	int size() {
+		return levels.length;
+	}
+
+	/**
+	 * The level at the index, lowest first.
+	 * @param index
+	 * @return
+	 */
+	int getLevel(int index) {
+		return levels[index];
+	}
+
+	/**
+	 * The devices at the level of the index, the list may not be changed.
+	 * @param index
+	 * @return
+	 */
+	List<L> getObjects(int index) {
+		return objects.get(index);
+	}
+
+	AnnotationManager getManager(int index) {
+		return managers[index];
+	}
+
+	LevelInformation getInformation(int index) {
+		return information[index];
+	}
+
+	/**
+	 * @return the devices keyed by level, lowest first.
+	 */
+	Map<Integer, List<L>> toMap() {
+		final Map<Integer, List<L>> ret = new TreeMap<>();
+		for (int i = 0; i < levels.length; i++) ret.put(levels[i], objects.get(i));
+		return ret;
+	}
+}
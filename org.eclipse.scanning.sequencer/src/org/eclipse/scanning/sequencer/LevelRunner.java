@@ -11,29 +11,21 @@
  *******************************************************************************/
 package org.eclipse.scanning.sequencer;
 
-import java.lang.ref.SoftReference;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import org.eclipse.scanning.api.ILevel;
 import org.eclipse.scanning.api.INameable;
-import org.eclipse.scanning.api.annotation.scan.AnnotationManager;
 import org.eclipse.scanning.api.annotation.scan.LevelEnd;
 import org.eclipse.scanning.api.annotation.scan.LevelStart;
 import org.eclipse.scanning.api.points.IPosition;
 import org.eclipse.scanning.api.points.MapPosition;
-import org.eclipse.scanning.api.scan.LevelInformation;
 import org.eclipse.scanning.api.scan.LevelRole;
 import org.eclipse.scanning.api.scan.ScanningException;
 import org.eclipse.scanning.api.scan.event.IPositionListener;
@@ -47,6 +39,10 @@ import org.slf4j.LoggerFactory;
  * by reading their levels. On service runs all the devices
  * at each level and waits for them to finish.
  *
+ * The tasks are run by the {@link SequencerExecutor} which is shared by
+ * all runners. Each runner has its own {@link TaskGroup} so that aborting
+ * one runner does not stop the tasks of another.
+ *
  * The implementing class provides the Callable which runs the
  * actual task. For instance setting a position.
  *
@@ -58,7 +54,7 @@ abstract class LevelRunner<L extends ILevel> {
 	private static Logger logger = LoggerFactory.getLogger(LevelRunner.class);
 
     protected IPosition                 position;
-    private volatile ForkJoinPool       eservice; // Different threads may nullify the service, better to make volatile.
+    private volatile TaskGroup          eservice; // Different threads may nullify the service, better to make volatile.
 	private ScanningException           abortException;
 	private PositionDelegate            pDelegate;
 	private boolean                     levelCachingAllowed=true;
@@ -86,6 +82,16 @@ abstract class LevelRunner<L extends ILevel> {
 	 */
 	protected abstract Callable<IPosition> create(L levelObject, IPosition position)  throws ScanningException;
 
+	/**
+	 * A task which may be run again at the next position. When the task made for
+	 * an object has finished without being cancelled, it is given the next position
+	 * instead of create being called again. So create must make the same kind of task
+	 * for a given object if it makes a PositionTask.
+	 */
+	interface PositionTask extends Callable<IPosition> {
+		void setPosition(IPosition position);
+	}
+
 	/**
 	 * Call to set the value at the location specified
 	 * Same as calling run(position, true)
@@ -122,45 +128,46 @@ abstract class LevelRunner<L extends ILevel> {
 		boolean ok = pDelegate.firePositionWillPerform(loc);
         if (!ok) return false;
 
-		Map<Integer, List<L>> positionMap = getLevelOrderedDevices();
-		Map<Integer, AnnotationManager> managerMap = getLevelOrderedManagerMap(positionMap);
+		final LevelPlan<L> plan = getLevelPlan();
+		final LevelBuffer[] buffers = getBuffers(plan);
 
 		try {
-			// TODO Should we actually create the service size to the size
-			// of the largest level population? This would mean that you try to
-			// start everything at the same time.
-			if (eservice==null) this.eservice = createService();
+			TaskGroup group = eservice;
+			if (group==null) this.eservice = group = createService();
 
 			Integer finalLevel = 0;
-			for (Iterator<Integer> it = positionMap.keySet().iterator(); it.hasNext();) {
+			for (int index = 0; index < plan.size(); index++) {
 
 				if (abortException!=null) throw abortException;
 
-				int level = it.next();
-				List<L> lobjects = positionMap.get(level);
-				Collection<Callable<IPosition>> tasks = new ArrayList<>(lobjects.size());
-				for (L lobject : lobjects) {
-					Callable<IPosition> c = create(lobject, loc);
+				int level = plan.getLevel(index);
+				List<L> lobjects = plan.getObjects(index);
+				LevelBuffer buffer = buffers[index];
+				buffer.clear();
+				for (int i = 0; i < lobjects.size(); i++) {
+					Callable<IPosition> c = buffer.reuse(i, loc);
+					if (c==null) c = create(lobjects.get(i), loc);
 					if (c==null) continue; // legal to say that there is nothing to do for a given object.
-					tasks.add(c);
+					buffer.add(i, c);
 				}
 
-				managerMap.get(level).invoke(LevelStart.class, loc, new LevelInformation(getLevelRole(), level, lobjects));
-				if (!it.hasNext() && !block) {
+				plan.getManager(index).invoke(LevelStart.class, loc, plan.getInformation(index));
+				if (index==plan.size()-1 && !block) {
 					// The last one and we are non-blocking
-					for (Callable<IPosition> callable : tasks) eservice.submit(callable);
+					for (int i = 0; i < buffer.tasks.size(); i++) buffer.submitted(i, group.submit(buffer.tasks.get(i)));
 				} else {
 					// Normally we block until done.
 					// Blocks until level has run
-				    List<Future<IPosition>> pos = eservice.invokeAll(tasks, getTimeout(lobjects), TimeUnit.SECONDS);
+				    group.invokeAll(buffer.tasks, buffer.results, getTimeout(lobjects), TimeUnit.SECONDS);
+				    buffer.invoked();
 
 				    // If timed out, some isDone will be false.
-				    for (Future<IPosition> future : pos) {
-						if (!future.isDone()) throw new ScanningException("The timeout of "+timeout+"s has been reached waiting for level "+level+" objects "+toString(lobjects));
+				    for (int i = 0; i < buffer.results.size(); i++) {
+						if (!buffer.results.get(i).isDone()) throw new ScanningException("The timeout of "+timeout+"s has been reached waiting for level "+level+" objects "+toString(lobjects));
 					}
-				    pDelegate.fireLevelPerformed(level, lobjects, getPosition(loc, pos));
+				    if (!pDelegate.isEmpty()) pDelegate.fireLevelPerformed(level, lobjects, getPosition(loc, buffer.results));
 				}
-				managerMap.get(level).invoke(LevelEnd.class, loc, new LevelInformation(getLevelRole(), level, lobjects));
+				plan.getManager(index).invoke(LevelEnd.class, loc, plan.getInformation(index));
 			}
 
 			pDelegate.firePositionPerformed(finalLevel, loc);
@@ -225,12 +232,9 @@ abstract class LevelRunner<L extends ILevel> {
 		if (abortException!=null) {
 			throw abortException;
 		}
-		if (eservice==null)          return position;
-		if (eservice.isTerminated()) {
-			eservice = null;
-			return position;
-		}
-		boolean ok = eservice.awaitQuiescence(time, TimeUnit.SECONDS);
+		TaskGroup group = eservice;
+		if (group==null) return position;
+		boolean ok = group.await(time, TimeUnit.SECONDS);
 		if (!ok) { // Might have nullified service during wait.
 			throw new ScanningException("The timeout of "+timeout+"s has been reached, scan aborting. Please implement ITimeoutable to define how long your device needs to write.");
 		}
@@ -238,9 +242,10 @@ abstract class LevelRunner<L extends ILevel> {
 	}
 
 	public void abort() {
-		if (eservice==null) return; // We are already finished
-		eservice.shutdownNow();
+		TaskGroup group = eservice;
+		if (group==null) return; // We are already finished
 		eservice = null;
+		group.cancel();
 	}
 
 	/**
@@ -265,22 +270,25 @@ abstract class LevelRunner<L extends ILevel> {
         abortException = ne instanceof ScanningException
 			       ? (ScanningException)ne
 			       : new ScanningException(ne.getMessage(), ne);
-		eservice.shutdownNow();
+		TaskGroup group = eservice;
 		eservice = null;
+		if (group!=null) group.cancel();
 	}
 
 	/**
-	 * Attempts to close the thread pool and log exceptions
+	 * Waits for the tasks of this runner to finish and log exceptions.
+	 * The shared pool is not closed.
 	 */
 	public void close() {
-		if (eservice==null) return; // We are already finished
+		TaskGroup group = eservice;
+		if (group==null) return; // We are already finished
 		try {
-			eservice.shutdown();
-			eservice.awaitTermination(getTimeout(null), TimeUnit.SECONDS);
+			group.await(getTimeout(null), TimeUnit.SECONDS);
 		} catch (InterruptedException e) {
-			logger.debug("Unexpected forced termination of pool", e);
+			logger.debug("Unexpected forced termination of tasks", e);
 		} finally {
-		    eservice = null;
+			eservice = null;
+			group.close();
 		}
 	}
 
@@ -291,54 +299,122 @@ abstract class LevelRunner<L extends ILevel> {
 		abortException = null;
 	}
 
-	private SoftReference<Map> sortedObjects;
+	private volatile LevelPlan<L> plan;
+
 	/**
 	 * Get the scannables, ordered by level, lowest first
-	 * @param position
 	 * @return
 	 * @throws ScanningException
 	 */
 	protected Map<Integer, List<L>> getLevelOrderedDevices() throws ScanningException {
-		if (sortedObjects!=null && sortedObjects.get()!=null) return sortedObjects.get();
+		return getLevelPlan().toMap();
+	}
 
+	/**
+	 * The plan of devices by level. It is made the first time and
+	 * made again only if the collection of devices or the level of
+	 * one of them changes. Getting a plan which is still correct
+	 * does not create any objects.
+	 *
+	 * @return
+	 * @throws ScanningException
+	 */
+	LevelPlan<L> getLevelPlan() throws ScanningException {
 		final Collection<L> devices = getDevices();
+		LevelPlan<L> current = plan;
+		if (current!=null && isLevelCachingAllowed() && current.isFor(devices)) return current;
 
-		if (devices == null) return Collections.emptyMap();
+		current = new LevelPlan<>(devices, getLevelRole());
+		if (isLevelCachingAllowed()) plan = current;
+		return current;
+	}
 
-		final Map<Integer, List<L>> devicesByLevel = new TreeMap<>();
-		for (L object : devices) {
-			final int level = object.getLevel();
+	private LevelPlan<L>  bufferedPlan;
+	private LevelBuffer[] buffers;
 
-			if (!devicesByLevel.containsKey(level)) devicesByLevel.put(level, new ArrayList<L>(7));
-			devicesByLevel.get(level).add(object);
+	/**
+	 * The buffers of the levels of a plan, made again only when the plan is.
+	 */
+	private LevelBuffer[] getBuffers(LevelPlan<L> plan) {
+		if (plan==bufferedPlan) return buffers;
+		LevelBuffer[] ret = new LevelBuffer[plan.size()];
+		for (int index = 0; index < ret.length; index++) ret[index] = new LevelBuffer(plan.getObjects(index).size());
+		bufferedPlan = plan;
+		buffers      = ret;
+		return ret;
+	}
+
+	/**
+	 * The tasks of one level and their futures, kept from point to point so that
+	 * running a level does not make new lists, and so that a {@link PositionTask}
+	 * is made once for each object rather than once for each point.
+	 */
+	private static final class LevelBuffer {
+
+		private final Callable<IPosition>[] made;   // By object of the level
+		private final Future<IPosition>[]   last;   // The futures of the tasks made, by object
+		private final int[]                 objects; // The object of each task being run
+		final List<Callable<IPosition>>     tasks;
+		final List<Future<IPosition>>       results;
+
+		@SuppressWarnings("unchecked")
+		LevelBuffer(int size) {
+			this.made    = new Callable[size];
+			this.last    = new Future[size];
+			this.objects = new int[size];
+			this.tasks   = new ArrayList<>(size);
+			this.results = new ArrayList<>(size);
 		}
-		if (isLevelCachingAllowed()) sortedObjects = new SoftReference<Map>(devicesByLevel);
 
-		return devicesByLevel;
-	}
+		void clear() {
+			tasks.clear();
+			results.clear();
+		}
 
-	private SoftReference<Map> sortedManagers;
+		/**
+		 * @return the task of the object given the position, or null if a task must be made.
+		 */
+		Callable<IPosition> reuse(int object, IPosition position) {
+			final Callable<IPosition> task = made[object];
+			if (!(task instanceof PositionTask)) return null;
+			final Future<IPosition> future = last[object];
+			// A cancelled task may still be running, one which is done is not.
+			if (future==null || !future.isDone() || future.isCancelled()) return null;
+			((PositionTask)task).setPosition(position);
+			return task;
+		}
 
-	private Map<Integer, AnnotationManager> getLevelOrderedManagerMap(Map<Integer, List<L>> positionMap) {
+		void add(int object, Callable<IPosition> task) {
+			objects[tasks.size()] = object;
+			made[object] = task;
+			last[object] = null;
+			tasks.add(task);
+		}
 
-		if (sortedManagers!=null && sortedManagers.get()!=null) return sortedManagers.get();
+		void submitted(int task, Future<IPosition> future) {
+			last[objects[task]] = future;
+		}
 
-		final Map<Integer, AnnotationManager> ret = new HashMap<>();
-		for (Integer position : positionMap.keySet()) {
-			ret.put(position, new AnnotationManager(SequencerActivator.getInstance(), LevelStart.class, LevelEnd.class));	// Less annotations is more efficient
-			ret.get(position).addDevices(positionMap.get(position));
+		void invoked() {
+			for (int i = 0; i < results.size(); i++) last[objects[i]] = results.get(i);
 		}
-		if (isLevelCachingAllowed()) sortedManagers = new SoftReference<Map>(ret);
-		return ret;
 	}
 
+	/**
+	 * Call to make the plan again on the next point, for instance if
+	 * the collection of devices has been changed without being replaced.
+	 */
+	protected void invalidateLevelPlan() {
+		plan = null;
+	}
 
-	protected ForkJoinPool createService() {
-		// TODO Need spring config for this.
-		Integer processors = Integer.getInteger("org.eclipse.scanning.level.runner.pool.count");
-		if (processors==null || processors<1) processors = Runtime.getRuntime().availableProcessors();
-		return new ForkJoinPool(processors);
-        // Slightly faster than thread pool executor @see ScanAlgorithmBenchMarkTest
+	/**
+	 * A group of tasks in the shared pool, which is sized using the
+	 * property org.eclipse.scanning.level.runner.pool.count
+	 * @return
+	 */
+	protected TaskGroup createService() {
+		return SequencerExecutor.getInstance().createGroup();
 	}
 
 	public void addPositionListener(IPositionListener listener) {
@@ -34,6 +34,7 @@ public final class LocationManager {
 	private int innerSize  = 0;
 	private int totalSize  = 0;
 	private int stepNumber = -1;
+	private int startStep  = 0; // The step number of the first position of the iterator
 
 	// External data
 	private final ScanBean bean;
@@ -78,6 +79,16 @@ public final class LocationManager {
 		this.stepNumber = stepNumber;
 	}
 
+	/**
+	 * The step number that the next position will have once the
+	 * current point has ended. Used when the next position is
+	 * started before the current one has ended.
+	 * @return
+	 */
+	public int getNextStepNumber() {
+		return stepNumber+Math.max(innerSize, 1);
+	}
+
 	/**
 	 * Called during the scan to increment counts.
 	 */
@@ -90,11 +101,66 @@ public final class LocationManager {
 	/**
 	 * Method used to generate an iterator for the scan.
 	 * It sets counts which are incremented during the scan.
+	 * The positions are read in blocks if {@link PositionBlockIterator} is switched on.
 	 *
 	 * @return
 	 * @throws ScanningException
 	 */
 	public Iterator<IPosition> createPositionIterator() throws ScanningException {
+		return PositionBlockIterator.wrap(createOuterIterable().iterator());
+	}
+
+	/**
+	 * Method used to generate an iterator for the scan which starts
+	 * at the outer position of the given location, ready to {@link #seek(int, Iterator)}
+	 * to it. If the outer scan is a generator the position is calculated
+	 * from its index rather than iterating over all the positions before it.
+	 *
+	 * @param location
+	 * @return
+	 * @throws ScanningException
+	 */
+	public Iterator<IPosition> createPositionIterator(int location) throws ScanningException {
+
+		Iterable<IPosition> outer = createOuterIterable();
+		int step = Math.max(innerSize, 1);
+		if (!(outer instanceof IPointGenerator<?>) || location<0 || location%step!=0) return PositionBlockIterator.wrap(outer.iterator());
+
+		try {
+			Iterator<IPosition> iterator = ((IPointGenerator<?>)outer).iterator(location/step);
+			startStep = location;
+			return PositionBlockIterator.wrap(iterator);
+		} catch (GeneratorException ne) {
+			throw new ScanningException("Cannot create the position iterator at "+location, ne);
+		}
+	}
+
+	/**
+	 * Method used to generate an iterator for a scan which starts part way through,
+	 * for instance when a scan is resumed from a checkpoint. The first position of
+	 * the iterator is the one at the given location and the counts start from it.
+	 * If the location is inside the inner scan of an outer position, the iterator
+	 * starts at the next outer position.
+	 *
+	 * @param location
+	 * @return
+	 * @throws ScanningException
+	 */
+	public Iterator<IPosition> createResumeIterator(int location) throws ScanningException {
+
+		Iterator<IPosition> iterator = createPositionIterator(location);
+		int step = Math.max(innerSize, 1);
+		stepNumber = startStep;
+		while (stepNumber<location && iterator.hasNext()) {
+			iterator.next();
+			stepNumber+=step;
+		}
+		startStep  = stepNumber;
+		outerCount = stepNumber/step;
+		return iterator;
+	}
+
+	private Iterable<IPosition> createOuterIterable() throws ScanningException {
 
 		CompoundModel<?> cmodel = bean.getScanRequest()!=null ? bean.getScanRequest().getCompoundModel() : null;
 		SubscanModerator moderator = new SubscanModerator(model.getPositionIterable(), cmodel, model.getDetectors(), ServiceHolder.getGeneratorService());
@@ -102,6 +168,7 @@ public final class LocationManager {
 
 		try {
 			stepNumber = 0;
+			startStep  = 0;
 			outerSize  = getEstimatedSize(moderator.getOuterIterable());
 			innerSize  = getEstimatedSize(moderator.getInnerIterable());
 			totalSize  = getEstimatedSize(model.getPositionIterable());
@@ -109,7 +176,7 @@ public final class LocationManager {
 			throw new ScanningException("Cannot create the position iterator!", se);
 		}
 
-		return moderator.getOuterIterable().iterator();
+		return moderator.getOuterIterable();
 	}
 
 
@@ -129,14 +196,16 @@ public final class LocationManager {
 	}
 
 	/**
-	 * Seek within the iterator for the given location.
+	 * Seek within the iterator for the given location. The iterator
+	 * should be one made by this manager, it may start after the first
+	 * position if it was made by {@link #createPositionIterator(int)}.
 	 * @param location
 	 * @param iterator
 	 * @return null if position not found.
 	 */
 	public IPosition seek(int location, Iterator<IPosition> iterator) {
 
-		stepNumber=0;
+		stepNumber=startStep;
 		/*
 		 * IMPORTANT We do not keep the positions in memory because there can be millions.
 		 * Running over them is fast however.
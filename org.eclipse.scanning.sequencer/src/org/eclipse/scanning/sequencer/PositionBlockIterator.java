@@ -0,0 +1,86 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.sequencer;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.eclipse.scanning.api.points.IPosition;
+import org.eclipse.scanning.api.points.IPositionBlockIterator;
+import org.eclipse.scanning.api.points.PositionBlock;
+
+/**
+ * Iterates over the positions of a scan a block at a time. Each position is a
+ * view over one row of a {@link PositionBlock}, so the positioner and the writers
+ * are given positions which share their names and read their values and indices
+ * from the columns of the block.
+ * <p>
+ * Each row gets a view of its own rather than one view being moved along the block
+ * with {@link org.eclipse.scanning.api.points.BlockPosition#setRow(int)}, because the
+ * positions outlive the next call to {@link #next()}: the scan moves to the next point
+ * while the last one is written, the writers may batch several positions before they
+ * write them, and the last position written is kept for the checkpoint. A view is two
+ * fields, the point it reads is not copied.
+ * <p>
+ * Blocks are used when the system property <code>org.eclipse.scanning.sequencer.block.size</code>
+ * is greater than zero and the generator can fill blocks directly, which the Java engine does.
+ * Otherwise the positions of the generator are used as they are. Blocks are not
+ * used by default because a remote scannable marshals the position it is moved to
+ * and a block view cannot be marshalled.
+ */
+final class PositionBlockIterator implements Iterator<IPosition> {
+
+	static final String SIZE_PROPERTY = "org.eclipse.scanning.sequencer.block.size";
+
+	private final IPositionBlockIterator delegate;
+	private final int                    blockSize;
+
+	private PositionBlock block;
+	private int           row;
+	private boolean       blocks = true;
+
+	private PositionBlockIterator(IPositionBlockIterator delegate, int blockSize) {
+		this.delegate  = delegate;
+		this.blockSize = blockSize;
+	}
+
+	/**
+	 * Iterates over the positions of the iterator in blocks if blocks are switched on
+	 * and the iterator can make them.
+	 *
+	 * @param iterator
+	 * @return an iterator over the same positions
+	 */
+	static Iterator<IPosition> wrap(Iterator<IPosition> iterator) {
+		int size = Integer.getInteger(SIZE_PROPERTY, 0);
+		if (size<1 || !(iterator instanceof IPositionBlockIterator)) return iterator;
+		return new PositionBlockIterator((IPositionBlockIterator)iterator, size);
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (block!=null && row<block.size()) return true;
+		if (!blocks) return delegate.hasNext();
+
+		block = delegate.nextBlock(blockSize);
+		row   = 0;
+		if (block==null) {
+			blocks = false; // The generator cannot make blocks, use its positions.
+			return delegate.hasNext();
+		}
+		return block.size()>0;
+	}
+
+	@Override
+	public IPosition next() {
+		if (!hasNext()) throw new NoSuchElementException();
+		if (block!=null) return block.getPosition(row++);
+		return delegate.next();
+	}
+}
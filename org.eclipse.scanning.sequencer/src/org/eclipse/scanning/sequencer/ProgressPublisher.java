@@ -0,0 +1,234 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.sequencer;
+
+import java.io.PrintStream;
+import java.net.URI;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.scanning.api.event.EventException;
+import org.eclipse.scanning.api.event.IEventConnectorService;
+import org.eclipse.scanning.api.event.core.IConsumer;
+import org.eclipse.scanning.api.event.core.IPublisher;
+import org.eclipse.scanning.api.event.scan.DeviceState;
+import org.eclipse.scanning.api.event.scan.ScanBean;
+import org.eclipse.scanning.api.event.status.Status;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A publisher which sends the progress of a scan at a limited rate.
+ *
+ * Progress updates, beans where neither the status nor the device state has changed,
+ * are copied and coalesced so that only the latest is sent. They are sent from a
+ * dispatch thread at most once per period, so the scan thread does not marshal the bean
+ * or update the status set for every point.
+ *
+ * State transitions are sent immediately on the calling thread and always in
+ * order with respect to the progress updates. Any progress update which is still
+ * waiting is dropped because the transition carries the newer progress.
+ *
+ * The lock on the state is never held while sending, so a slow broker holds up the
+ * dispatch thread but not a scan thread sending progress.
+ *
+ * The rate in Hz is set using the system property <code>org.eclipse.scanning.sequencer.progress.rate</code>,
+ * if it is not set every point is published by the scan thread as before.
+ */
+final class ProgressPublisher implements IPublisher<ScanBean> {
+
+	private static final Logger logger = LoggerFactory.getLogger(ProgressPublisher.class);
+
+	static final String RATE_PROPERTY = "org.eclipse.scanning.sequencer.progress.rate";
+
+	private static ScheduledExecutorService dispatcher;
+
+	private final IPublisher<ScanBean> delegate;
+	private final long                 period; // ns
+
+	// Guarded by this
+	private ScanBean    pending;
+	private long        pendingSequence;
+	private long        sequence;
+	private boolean     scheduled;
+	private Status      lastStatus;
+	private DeviceState lastState;
+
+	// Sends are made one at a time so that an older bean is never sent after a newer one
+	private final Object  sendLock = new Object();
+	private long          lastSent; // guarded by sendLock
+	private volatile long lastPublished;
+
+	/**
+	 *
+	 * @param delegate the publisher which sends the events
+	 * @param rate the maximum number of progress updates to send per second.
+	 */
+	ProgressPublisher(IPublisher<ScanBean> delegate, double rate) {
+		if (rate<=0) throw new IllegalArgumentException("The progress rate must be greater than zero!");
+		this.delegate = delegate;
+		this.period   = Math.round(TimeUnit.SECONDS.toNanos(1)/rate);
+		this.lastPublished = System.nanoTime()-period;
+	}
+
+	/**
+	 * @return the configured rate in Hz or zero if progress should not be rate limited.
+	 */
+	static double getConfiguredRate() {
+		String rate = System.getProperty(RATE_PROPERTY);
+		if (rate==null) return 0;
+		try {
+			return Double.parseDouble(rate);
+		} catch (NumberFormatException ne) {
+			logger.warn("Cannot read {} of '{}', progress will not be rate limited.", RATE_PROPERTY, rate);
+			return 0;
+		}
+	}
+
+	private static synchronized ScheduledExecutorService getDispatcher() {
+		if (dispatcher==null) {
+			dispatcher = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread thread = new Thread(r, "Scan progress publisher");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return dispatcher;
+	}
+
+	@Override
+	public void broadcast(ScanBean bean) throws EventException {
+
+		final ScanBean copy = new ScanBean();
+		copy.merge(bean); // The scan thread carries on changing the bean
+
+		final long seq;
+		synchronized (this) {
+			seq = ++sequence;
+			boolean transition = copy.getStatus()!=lastStatus || copy.getDeviceState()!=lastState;
+			lastStatus = copy.getStatus();
+			lastState  = copy.getDeviceState();
+
+			if (!transition) {
+				pending = copy;
+				pendingSequence = seq;
+				if (scheduled) return; // It will be sent with the latest progress
+				scheduled = true;
+				long delay = Math.max(0, lastPublished+period-System.nanoTime());
+				getDispatcher().schedule(this::flush, delay, TimeUnit.NANOSECONDS);
+				return;
+			}
+			pending = null;
+		}
+		publish(copy, seq);
+	}
+
+	private void flush() {
+		final ScanBean bean;
+		final long     seq;
+		synchronized (this) {
+			scheduled = false;
+			bean = pending;
+			seq  = pendingSequence;
+			pending = null;
+		}
+		if (bean==null) return;
+		try {
+			publish(bean, seq);
+		} catch (EventException ne) {
+			logger.warn("Unable to publish progress of '{}'", bean.getName(), ne);
+		}
+	}
+
+	private void publish(ScanBean bean, long seq) throws EventException {
+		synchronized (sendLock) {
+			if (seq<lastSent) return; // A newer bean has been sent
+			lastSent = seq;
+			lastPublished = System.nanoTime();
+			delegate.broadcast(bean);
+		}
+	}
+
+	/**
+	 * @return the publisher which sends the events.
+	 */
+	IPublisher<ScanBean> getDelegate() {
+		return delegate;
+	}
+
+	@Override
+	public String getTopicName() {
+		return delegate.getTopicName();
+	}
+
+	@Override
+	public void setTopicName(String topic) throws EventException {
+		delegate.setTopicName(topic);
+	}
+
+	@Override
+	public void disconnect() throws EventException {
+		synchronized (this) {
+			pending = null;
+		}
+		delegate.disconnect();
+	}
+
+	@Override
+	public boolean isDisconnected() {
+		return delegate.isDisconnected();
+	}
+
+	@Override
+	public URI getUri() {
+		return delegate.getUri();
+	}
+
+	@Override
+	public IEventConnectorService getConnectorService() {
+		return delegate.getConnectorService();
+	}
+
+	@Override
+	public void setAlive(boolean alive) throws EventException {
+		delegate.setAlive(alive);
+	}
+
+	@Override
+	public boolean isAlive() {
+		return delegate.isAlive();
+	}
+
+	@Override
+	public String getStatusSetName() {
+		return delegate.getStatusSetName();
+	}
+
+	@Override
+	public void setStatusSetName(String queueName) {
+		delegate.setStatusSetName(queueName);
+	}
+
+	@Override
+	public void setStatusSetAddRequired(boolean isRequired) {
+		delegate.setStatusSetAddRequired(isRequired);
+	}
+
+	@Override
+	public void setLoggingStream(PrintStream stream) {
+		delegate.setLoggingStream(stream);
+	}
+
+	@Override
+	public void setConsumer(IConsumer<?> consumer) {
+		delegate.setConsumer(consumer);
+	}
+
+}
@@ -11,15 +11,19 @@
  *******************************************************************************/
 package org.eclipse.scanning.sequencer;
 
+import java.io.File;
 import java.lang.reflect.Method;
 import java.net.URISyntaxException;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 import org.eclipse.core.runtime.CoreException;
@@ -32,6 +36,7 @@ import org.eclipse.scanning.api.annotation.scan.AnnotationManager;
 import org.eclipse.scanning.api.annotation.scan.PostConfigure;
 import org.eclipse.scanning.api.annotation.scan.PreConfigure;
 import org.eclipse.scanning.api.device.AbstractRunnableDevice;
+import org.eclipse.scanning.api.device.IDeviceLockManager;
 import org.eclipse.scanning.api.device.IRunnableDevice;
 import org.eclipse.scanning.api.device.IRunnableDeviceService;
 import org.eclipse.scanning.api.device.IScannableDeviceService;
@@ -42,8 +47,10 @@ import org.eclipse.scanning.api.event.scan.ScanBean;
 import org.eclipse.scanning.api.malcolm.IMalcolmService;
 import org.eclipse.scanning.api.scan.IScanService;
 import org.eclipse.scanning.api.scan.ScanningException;
+import org.eclipse.scanning.api.scan.checkpoint.IScanCheckpointStore;
 import org.eclipse.scanning.api.scan.event.IPositioner;
 import org.eclipse.scanning.api.scan.models.ScanModel;
+import org.eclipse.scanning.api.scan.timing.ScanTimingModel;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.ServiceReference;
 import org.slf4j.Logger;
@@ -88,8 +95,17 @@ public final class RunnableDeviceServiceImpl implements IRunnableDeviceService,
 
 
 	// This field is used to provide the getActiveScanner() method on the service.
-	// It should not be accessed from elsewhere.
-	private static IRunnableDevice<?> currentScanningDevice;
+	// It should not be accessed from elsewhere. The scans are in the order they started.
+	private static final Deque<IRunnableDevice<?>> currentScanningDevices = new ConcurrentLinkedDeque<>();
+
+	// The devices reserved by the scans of this server, shared by all instances of the service.
+	private static final DeviceLockManager lockManager = new DeviceLockManager();
+
+	// The timing of the scans run so far, used to estimate the time of the next.
+	private static final TimingCalibrator  timingCalibrator = new TimingCalibrator();
+
+	// The checkpoints of the scans, null unless a directory is set for them.
+	private static ScanCheckpointStore     checkpointStore;
 
 
 	// Use a factory pattern to register the types.
@@ -428,15 +444,68 @@ public final class RunnableDeviceServiceImpl implements IRunnableDeviceService,
 	@SuppressWarnings("unchecked")
 	@Override
 	public <T> IRunnableDevice<T> getActiveScanner() {
-		return (IRunnableDevice<T>)RunnableDeviceServiceImpl.currentScanningDevice; // Package private method. Do not use globally!
+		return (IRunnableDevice<T>)RunnableDeviceServiceImpl.currentScanningDevices.peekLast(); // Package private method. Do not use globally!
+	}
+
+	@Override
+	public IDeviceLockManager getDeviceLockManager() {
+		return lockManager;
+	}
+
+	@Override
+	public ScanTimingModel getScanTimingModel() {
+		return timingCalibrator.getTimingModel();
+	}
+
+	/**
+	 * Package private, the scans calibrate the timing when they finish.
+	 * @return
+	 */
+	static TimingCalibrator getTimingCalibrator() {
+		return timingCalibrator;
+	}
+
+	@Override
+	public IScanCheckpointStore getCheckpointStore() {
+		return getScanCheckpointStore();
+	}
+
+	@Override
+	public Executor getDeviceExecutor() {
+		return SequencerExecutor.getInstance();
+	}
+
+	/**
+	 * Package private, the scans save their checkpoints as they run.
+	 * @return the store in the directory set by <code>org.eclipse.scanning.sequencer.checkpoint.dir</code>
+	 *         or null if the property is not set.
+	 */
+	static synchronized ScanCheckpointStore getScanCheckpointStore() {
+		final String dir = System.getProperty("org.eclipse.scanning.sequencer.checkpoint.dir");
+		if (dir==null || dir.isEmpty()) return null;
+		if (checkpointStore==null || !checkpointStore.getDirectory().equals(new File(dir))) {
+			checkpointStore = new ScanCheckpointStore(new File(dir));
+		}
+		return checkpointStore;
 	}
 
 	/**
 	 * Package private, think before stopping this.
+	 * The device is the active scanner until it is removed or another scan starts.
 	 * @param currentScanningDevice
 	 */
 	static void setCurrentScanningDevice(IRunnableDevice<?> currentScanningDevice) {
-		RunnableDeviceServiceImpl.currentScanningDevice = currentScanningDevice;
+		currentScanningDevices.remove(currentScanningDevice);
+		currentScanningDevices.addLast(currentScanningDevice);
+	}
+
+	/**
+	 * Package private, called when the scan ends so that the scan started
+	 * before it, if still running, is the active scanner again.
+	 * @param currentScanningDevice
+	 */
+	static void removeCurrentScanningDevice(IRunnableDevice<?> currentScanningDevice) {
+		currentScanningDevices.remove(currentScanningDevice);
 	}
 
 }
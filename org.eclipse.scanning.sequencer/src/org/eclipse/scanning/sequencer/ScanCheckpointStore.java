@@ -0,0 +1,133 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.sequencer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.dawnsci.analysis.api.persistence.IMarshallerService;
+import org.eclipse.scanning.api.scan.ScanningException;
+import org.eclipse.scanning.api.scan.checkpoint.IScanCheckpointStore;
+import org.eclipse.scanning.api.scan.checkpoint.ScanCheckpoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Saves each checkpoint as a json file named by the unique id of the scan.
+ * The json is written to a temporary file which is forced to the disk and
+ * then renamed over the last checkpoint, so a checkpoint read after the
+ * server died is always a whole one.
+ */
+final class ScanCheckpointStore implements IScanCheckpointStore {
+
+	private static final Logger logger = LoggerFactory.getLogger(ScanCheckpointStore.class);
+
+	private static final String EXTENSION = ".checkpoint";
+
+	private final File directory;
+
+	ScanCheckpointStore(File directory) {
+		this.directory = directory;
+	}
+
+	File getDirectory() {
+		return directory;
+	}
+
+	@Override
+	public void save(ScanCheckpoint checkpoint) throws ScanningException {
+
+		if (checkpoint.getUniqueId()==null) throw new ScanningException("The checkpoint must have the unique id of the scan!");
+		try {
+			final byte[] json = getMarshallerService().marshal(checkpoint).getBytes(StandardCharsets.UTF_8);
+
+			Files.createDirectories(directory.toPath());
+			final Path file = getPath(checkpoint.getUniqueId());
+			final Path tmp  = file.resolveSibling(file.getFileName()+".tmp");
+			try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				final ByteBuffer buffer = ByteBuffer.wrap(json);
+				while (buffer.hasRemaining()) channel.write(buffer);
+				channel.force(true);
+			}
+			Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+		} catch (ScanningException ne) {
+			throw ne;
+		} catch (Exception ne) {
+			throw new ScanningException("Cannot save the checkpoint of "+checkpoint.getUniqueId(), ne);
+		}
+	}
+
+	@Override
+	public ScanCheckpoint load(String uniqueId) throws ScanningException {
+		final Path file = getPath(uniqueId);
+		if (!Files.exists(file)) return null;
+		return read(file);
+	}
+
+	@Override
+	public List<ScanCheckpoint> getCheckpoints() throws ScanningException {
+
+		final List<ScanCheckpoint> checkpoints = new ArrayList<>(7);
+		if (!directory.isDirectory()) return checkpoints;
+
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory.toPath(), "*"+EXTENSION)) {
+			for (Path file : files) {
+				try {
+					checkpoints.add(read(file));
+				} catch (ScanningException ne) {
+					logger.warn("Cannot read the checkpoint {}", file, ne);
+				}
+			}
+		} catch (IOException ne) {
+			throw new ScanningException("Cannot list the checkpoints in "+directory, ne);
+		}
+		return checkpoints;
+	}
+
+	@Override
+	public void delete(String uniqueId) throws ScanningException {
+		try {
+			Files.deleteIfExists(getPath(uniqueId));
+		} catch (IOException ne) {
+			throw new ScanningException("Cannot delete the checkpoint of "+uniqueId, ne);
+		}
+	}
+
+	private ScanCheckpoint read(Path file) throws ScanningException {
+		try {
+			final String json = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+			return getMarshallerService().unmarshal(json, ScanCheckpoint.class);
+		} catch (ScanningException ne) {
+			throw ne;
+		} catch (Exception ne) {
+			throw new ScanningException("Cannot read the checkpoint "+file, ne);
+		}
+	}
+
+	private Path getPath(String uniqueId) {
+		return new File(directory, uniqueId.replaceAll("[^A-Za-z0-9._-]", "_")+EXTENSION).toPath();
+	}
+
+	private static IMarshallerService getMarshallerService() throws ScanningException {
+		final IMarshallerService service = ServiceHolder.getMarshallerService();
+		if (service==null) throw new ScanningException("There is no marshaller service to write checkpoints with!");
+		return service;
+	}
+}
@@ -0,0 +1,141 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.sequencer;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.scanning.api.device.IRunnableDevice;
+import org.eclipse.scanning.api.event.scan.ScanBean;
+import org.eclipse.scanning.api.points.IPosition;
+import org.eclipse.scanning.api.scan.ScanningException;
+import org.eclipse.scanning.api.scan.checkpoint.IScanCheckpointStore;
+import org.eclipse.scanning.api.scan.checkpoint.ScanCheckpoint;
+import org.eclipse.scanning.api.scan.models.ScanModel;
+import org.eclipse.scanning.sequencer.nexus.INexusScanFileManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Saves the checkpoint of a scan as it runs. Each period the NeXus file is
+ * flushed and then the checkpoint is saved with the last step whose data has
+ * been written, so that a scan stopped by the server dying may be resumed
+ * from the step after it.
+ * <p>
+ * Properties:
+ * <ul>
+ * <li><code>org.eclipse.scanning.sequencer.checkpoint.dir</code> the directory the checkpoints are saved in, scans are not checkpointed if it is not set.</li>
+ * <li><code>org.eclipse.scanning.sequencer.checkpoint.period</code> ms between checkpoints, 10000 by default, zero to save one at every step.</li>
+ * </ul>
+ */
+final class ScanCheckpointer {
+
+	private static final Logger logger = LoggerFactory.getLogger(ScanCheckpointer.class);
+
+	private final IScanCheckpointStore     store;
+	private final ScanCheckpoint           checkpoint;
+	private final LocationManager          location;
+	private final INexusScanFileManager    fileManager;
+	private final List<IRunnableDevice<?>> detectors;
+	private final long                     period;
+	private long                           lastSave;
+	private boolean                        failed; // The error is logged once
+
+	/**
+	 * @return the checkpointer or null if scans are not checkpointed.
+	 */
+	static ScanCheckpointer create(ScanModel model, ScanBean bean, LocationManager location, INexusScanFileManager fileManager) {
+		final IScanCheckpointStore store = RunnableDeviceServiceImpl.getScanCheckpointStore();
+		if (store==null || bean.getUniqueId()==null) return null;
+		return new ScanCheckpointer(store, model, bean, location, fileManager, Long.getLong("org.eclipse.scanning.sequencer.checkpoint.period", 10000));
+	}
+
+	ScanCheckpointer(IScanCheckpointStore store, ScanModel model, ScanBean bean, LocationManager location, INexusScanFileManager fileManager, long period) {
+		this.store       = store;
+		this.location    = location;
+		this.fileManager = fileManager;
+		this.detectors   = model.getDetectors();
+		this.period      = period;
+
+		this.checkpoint  = new ScanCheckpoint(bean);
+		checkpoint.setSize(location.getTotalSize());
+		checkpoint.setNextStep(model.getStartStep());
+		checkpoint.setFilePath(model.getFilePath());
+		if (model.getStartStep()>0) addPreviousFiles(bean.getUniqueId());
+		checkpoint.addFilePath(model.getFilePath());
+
+		this.lastSave = System.currentTimeMillis();
+	}
+
+	/**
+	 * A resumed scan keeps the files written before it.
+	 */
+	private void addPreviousFiles(String uniqueId) {
+		try {
+			final ScanCheckpoint previous = store.load(uniqueId);
+			if (previous==null) return;
+			checkpoint.setLastStep(previous.getLastStep());
+			if (previous.getFilePaths()!=null) previous.getFilePaths().forEach(checkpoint::addFilePath);
+		} catch (ScanningException ne) {
+			logger.warn("Cannot read the previous checkpoint of {}", uniqueId, ne);
+		}
+	}
+
+	/**
+	 * Called at the end of each step, saves the checkpoint if the period is up.
+	 * @param written the last position whose data has been written, may be null.
+	 */
+	void pointEnd(IPosition written) {
+		if (written==null) return;
+		final long time = System.currentTimeMillis();
+		if (time-lastSave < period) return;
+		save(written, time);
+	}
+
+	private void save(IPosition written, long time) {
+		try {
+			fileManager.flushNexusFile(); // The steps in the checkpoint must be in the file.
+
+			checkpoint.setLastStep(written.getStepIndex());
+			checkpoint.setNextStep(written.getStepIndex()+Math.max(location.getInnerSize(), 1));
+			checkpoint.setPosition(getValues(written));
+			for (IRunnableDevice<?> device : detectors) checkpoint.putDeviceState(device.getName(), device.getDeviceState());
+			checkpoint.setTime(time);
+			store.save(checkpoint);
+
+		} catch (Exception ne) {
+			if (!failed) logger.error("Cannot save the checkpoint of {}", checkpoint.getUniqueId(), ne); // Logged once, it will fail each period
+			failed = true;
+		} finally {
+			lastSave = time;
+		}
+	}
+
+	private static Map<String, Object> getValues(IPosition pos) {
+		final Map<String, Object> values = new LinkedHashMap<>(pos.size());
+		for (String name : pos.getNames()) values.put(name, pos.get(name));
+		return values;
+	}
+
+	/**
+	 * Called when the scan ends, however it ends. The checkpoint is deleted so that
+	 * only the scans stopped by the server dying are left to resume. A scan which
+	 * failed is not resumed, whatever failed would most likely fail again.
+	 * @param errorFound
+	 */
+	void close(boolean errorFound) {
+		if (errorFound) logger.debug("The scan {} failed, its checkpoint is deleted", checkpoint.getUniqueId());
+		try {
+			store.delete(checkpoint.getUniqueId());
+		} catch (ScanningException ne) {
+			logger.warn("Cannot delete the checkpoint of {}", checkpoint.getUniqueId(), ne);
+		}
+	}
+}
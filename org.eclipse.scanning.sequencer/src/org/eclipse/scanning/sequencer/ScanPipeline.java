@@ -0,0 +1,160 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.sequencer;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.scanning.api.points.IPosition;
+import org.eclipse.scanning.api.scan.ScanningException;
+import org.eclipse.scanning.api.scan.event.IPositioner;
+import org.eclipse.scanning.sequencer.StageTimer.Stage;
+
+/**
+ * Used by the scan loop when pipelining is switched on to start the move to
+ * the next position while the current one is still being read out and
+ * published.
+ *
+ * Positions are prefetched from the scan iterator into a lookahead buffer which
+ * is bounded by the pipeline depth, so that generator work is done while the
+ * motors are moving. Only one move is ever in flight, the detectors must not
+ * run while the motors are moving.
+ *
+ * Pipelining is switched on by setting the system property
+ * <code>org.eclipse.scanning.sequencer.pipeline.depth</code> to a value greater than zero.
+ */
+final class ScanPipeline {
+
+	static final String DEPTH_PROPERTY = "org.eclipse.scanning.sequencer.pipeline.depth";
+
+	private final IPositioner       positioner;
+	private final StageTimer        timer;
+	private final int               depth;
+	private final Deque<IPosition>  lookahead;
+	private final ExecutorService   mover;
+
+	private Iterator<IPosition>     iterator;
+	private volatile Future<?>      move;
+	private volatile int            generation;
+	private int                     moveGeneration;
+
+	ScanPipeline(IPositioner positioner, StageTimer timer, int depth) {
+		this.positioner = positioner;
+		this.timer      = timer;
+		this.depth      = Math.max(depth, 1);
+		this.lookahead  = new ArrayDeque<>(this.depth);
+		this.mover      = Executors.newSingleThreadExecutor(r -> {
+			Thread thread = new Thread(r, "Scan pipeline mover");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * @return the pipeline depth set for the scan, zero if pipelining is switched off.
+	 */
+	static int getConfiguredDepth() {
+		return Integer.getInteger(DEPTH_PROPERTY, 0);
+	}
+
+	/**
+	 * Sets the iterator to read positions from, throwing away any positions
+	 * which were prefetched. Called at the start of the scan and on a seek.
+	 *
+	 * @param iterator
+	 */
+	synchronized void reset(Iterator<IPosition> iterator) {
+		this.iterator = iterator;
+		lookahead.clear();
+		generation++;
+	}
+
+	synchronized boolean hasNext() {
+		return !lookahead.isEmpty() || iterator.hasNext();
+	}
+
+	synchronized IPosition next() {
+		if (!lookahead.isEmpty()) return lookahead.removeFirst();
+		return iterator.next();
+	}
+
+	/**
+	 * Reads positions ahead from the scan iterator until the lookahead is full.
+	 */
+	synchronized void prefetch() {
+		while (lookahead.size()<depth && iterator.hasNext()) {
+			lookahead.addLast(iterator.next());
+		}
+	}
+
+	/**
+	 * Starts a move to the position on the pipeline thread and returns immediately.
+	 * @param position
+	 */
+	void moveAsync(IPosition position) {
+		moveGeneration = generation;
+		move = mover.submit(() -> {
+			long start = timer.start();
+			positioner.setPosition(position);
+			timer.stop(Stage.MOVE, start);
+			return null;
+		});
+	}
+
+	/**
+	 * Blocks until the move started by {@link #moveAsync(IPosition)} has finished.
+	 * If the move was cancelled by an abort this returns normally, the scan state
+	 * is then checked by the scan loop.
+	 *
+	 * @throws ScanningException if the move failed
+	 * @throws InterruptedException
+	 */
+	void awaitMove() throws ScanningException, InterruptedException {
+		final Future<?> current = move;
+		if (current==null) return;
+		long start = timer.start();
+		try {
+			current.get();
+		} catch (CancellationException aborted) {
+			return;
+		} catch (ExecutionException ne) {
+			if (ne.getCause() instanceof ScanningException)    throw (ScanningException)ne.getCause();
+			if (ne.getCause() instanceof InterruptedException) throw (InterruptedException)ne.getCause();
+			throw new ScanningException("Unable to move to the next position!", ne.getCause());
+		} finally {
+			timer.stop(Stage.MOVE_WAIT, start);
+			move = null;
+		}
+	}
+
+	/**
+	 * @return true if the iterator has been reset, for instance by a seek, since the last move was started.
+	 */
+	boolean isReset() {
+		return moveGeneration!=generation;
+	}
+
+	/**
+	 * Cancels any move in flight, the positioner should also be aborted to stop the hardware.
+	 */
+	void abort() {
+		final Future<?> current = move;
+		if (current!=null) current.cancel(true);
+	}
+
+	void close() {
+		mover.shutdownNow();
+	}
+}
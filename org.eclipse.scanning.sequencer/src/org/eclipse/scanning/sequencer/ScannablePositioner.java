@@ -15,14 +15,22 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.eclipse.dawnsci.nexus.INexusDevice;
 import org.eclipse.scanning.api.IScannable;
 import org.eclipse.scanning.api.device.IScannableDeviceService;
 import org.eclipse.scanning.api.points.IPosition;
 import org.eclipse.scanning.api.points.MapPosition;
 import org.eclipse.scanning.api.scan.LevelRole;
+import org.eclipse.scanning.api.scan.PositionEvent;
 import org.eclipse.scanning.api.scan.ScanningException;
+import org.eclipse.scanning.api.scan.event.IPositionListenable;
+import org.eclipse.scanning.api.scan.event.IPositionListener;
 import org.eclipse.scanning.api.scan.event.IPositioner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,6 +38,23 @@ import org.slf4j.LoggerFactory;
 /**
  * Positions several scannables by level, returning after all the blocking IScannable.setPosition(...)
  * methods have returned.
+ * <p>
+ * The last known position of each scannable with a tolerance is cached. A move to a value
+ * within tolerance of it is skipped without reading the hardware, for instance the slow axis
+ * of a grid scan which is sent to the same value at each inner point. A scannable without a
+ * tolerance is skipped only when this positioner last moved it to exactly the value, and
+ * only if it is {@link IPositionListenable} and does not write NeXus at each point. The cached value is
+ * forgotten when the scannable reports a position which this positioner did not move it to,
+ * when a move fails and when the positioner is aborted or closed.
+ * <p>
+ * Only scannables which are {@link IPositionListenable} report positions which the
+ * positioner can watch. The cached value of a scannable which is not is never forgotten
+ * while the positioner is open, so if something else moves it the next move to the
+ * old value is skipped. Such scannables should not have a tolerance if they may be
+ * moved by anything else during a scan.
+ * <p>
+ * The number of moves skipped is published on the {@link org.eclipse.scanning.api.event.scan.ScanBean}
+ * when the scan finishes.
  *
  * @author Matthew Gerring
  *
@@ -41,9 +66,38 @@ final class ScannablePositioner extends LevelRunner<IScannable<?>> implements IP
 	private List<IScannable<?>>         monitors;
 	private List<IScannable<?>>         scannables;
 
+	// The scannables of the names of the last position. Positions from
+	// a PositionBlock share the same list of names so these are reused.
+	private List<String>                namedScannableNames;
+	private List<IScannable<?>>         namedScannables;
+
+	// The devices last returned by getDevices(). The same list is returned
+	// until the scannables or monitors change so that the level plan is reused.
+	private List<IScannable<?>>         devices;
+	private List<IScannable<?>>         devicesScannables;
+	private List<IScannable<?>>         devicesMonitors;
+
+	// The last position read from, achieved by or sent to each scannable.
+	private final Map<String, Number>   lastKnown = new ConcurrentHashMap<>();
+	private final Set<String>           moving    = ConcurrentHashMap.newKeySet();
+	private final Map<String, IPositionListenable> watched = new ConcurrentHashMap<>();
+	private final IPositionListener     watcher   = new IPositionListener() {
+		@Override
+		public void positionChanged(PositionEvent evt) {
+			forget(evt);
+		}
+		@Override
+		public void positionPerformed(PositionEvent evt) {
+			forget(evt);
+		}
+	};
+
+	// Statistics since the positioner was last closed
+	private final AtomicLong            moveCount    = new AtomicLong();
+	private final AtomicLong            skippedCount = new AtomicLong();
+
 	ScannablePositioner(IScannableDeviceService service) {
 
-		setLevelCachingAllowed(false);
 		this.connectorService = service;
 
 		// This is setting the default but the actual value of the timeout
@@ -86,17 +140,55 @@ final class ScannablePositioner extends LevelRunner<IScannable<?>> implements IP
 	}
 
 	@Override
-	public IPosition getPosition() throws ScanningException {
-		if (position==null) return null;
-		MapPosition ret = new MapPosition();
-		for (String name : position.getNames()) {
-			try {
-				IScannable<?> scannable = connectorService.getScannable(name);
-			    ret.put(name, scannable.getPosition());
-			} catch (Exception ne) {
-				throw new ScanningException("Cannot read value of "+name, ne);
+	public void abort() {
+		lastKnown.clear(); // The axes may have stopped anywhere
+		super.abort();
+	}
+
+	@Override
+	public void close() {
+		super.close();
+		for (IPositionListenable listenable : watched.values()) listenable.removePositionListener(watcher);
+		watched.clear();
+		lastKnown.clear();
+		final long moves = moveCount.getAndSet(0);
+		final long skipped = skippedCount.getAndSet(0);
+		if (moves>0) logger.info("Skipped {} of {} moves already at their value", skipped, moves);
+	}
+
+	/**
+	 * @return the number of moves skipped since the positioner was last closed
+	 * because the scannable was already at or within tolerance of the value.
+	 */
+	long getSkippedMoveCount() {
+		return skippedCount.get();
+	}
+
+	/**
+	 * A scannable has reported its position. If the positioner is not moving it
+	 * something else is and the position it had is no longer known.
+	 */
+	private void forget(PositionEvent evt) {
+		String name = evt.getDevice()!=null ? evt.getDevice().getName() : null;
+		if (name!=null) {
+			if (!moving.contains(name)) lastKnown.remove(name);
+		} else if (evt.getPosition()!=null) {
+			for (String pname : evt.getPosition().getNames()) {
+				if (!moving.contains(pname)) lastKnown.remove(pname);
 			}
 		}
+	}
+
+	private void watch(IScannable<?> scannable) {
+		if (!(scannable instanceof IPositionListenable) || watched.containsKey(scannable.getName())) return;
+		IPositionListenable listenable = (IPositionListenable)scannable;
+		if (watched.putIfAbsent(scannable.getName(), listenable)==null) listenable.addPositionListener(watcher);
+	}
+
+	@Override
+	public IPosition getPosition() throws ScanningException {
+		if (position==null) return null;
+		MapPosition ret = new MapPosition(connectorService.getPositions(position.getNames()));
 		ret.setStepIndex(position.getStepIndex());
 		return ret;
 	}
@@ -104,21 +196,32 @@ final class ScannablePositioner extends LevelRunner<IScannable<?>> implements IP
 
 	@Override
 	protected Collection<IScannable<?>> getDevices() throws ScanningException {
-		final List<IScannable<?>> devices = new ArrayList<>();
 
-		if (scannables == null) {
-			for (String name : position.getNames()) {
-				devices.add(connectorService.getScannable(name));
+		List<IScannable<?>> movers = scannables;
+		if (movers == null) {
+			List<String> names = position.getNames();
+			if (names != namedScannableNames && !names.equals(namedScannableNames)) {
+				List<IScannable<?>> named = new ArrayList<>(names.size());
+				for (String name : names) {
+					named.add(connectorService.getScannable(name));
+				}
+				namedScannables     = named;
 			}
-		} else {
-			devices.addAll(scannables);
+			namedScannableNames = names;
+			movers = namedScannables;
 		}
 
+		if (devices != null && movers == devicesScannables && monitors == devicesMonitors) return devices;
+
+		final List<IScannable<?>> ret = new ArrayList<>(movers.size() + (monitors != null ? monitors.size() : 0));
+		ret.addAll(movers);
 		if (monitors != null) {
-			devices.addAll(monitors);
+			ret.addAll(monitors);
 		}
-
-		return devices;
+		devicesScannables = movers;
+		devicesMonitors   = monitors;
+		devices           = ret;
+		return ret;
 	}
 
 	@Override
@@ -126,14 +229,21 @@ final class ScannablePositioner extends LevelRunner<IScannable<?>> implements IP
 		return new MoveTask(scannable, position);
 	}
 
-	private final class MoveTask implements Callable<IPosition> {
+	private final class MoveTask implements PositionTask {
 
-		private IScannable<?> scannable;
-		private IPosition     position;
+		private final IScannable<?> scannable;
+		private final MapPosition   result; // Only read by this runner before the task is run again
+		private IPosition           position;
 
 		public MoveTask(IScannable<?> iScannable, IPosition position) {
 			this.scannable = iScannable;
 			this.position  = position;
+			this.result    = new MapPosition();
+		}
+
+		@Override
+		public void setPosition(IPosition position) {
+			this.position = position;
 		}
 
 		@Override
@@ -151,35 +261,78 @@ final class ScannablePositioner extends LevelRunner<IScannable<?>> implements IP
 			}
 			// achieved might not be equal to demand
 			if (achieved == null) achieved = scannable.getPosition();
-			return new MapPosition(scannable.getName(), position.getIndex(scannable.getName()), achieved);
+			result.put(scannable.getName(), position.getIndex(scannable.getName()), achieved);
+			return result;
 		}
 
 		@SuppressWarnings({ "rawtypes", "unchecked" })
 		private Object setPosition(IScannable scannable, Object value, IPosition position) throws Exception {
 
 			Object tolerance = scannable.getTolerance();
-			if (tolerance==null || !(value instanceof Number) || !(tolerance instanceof Number)) {
+			if (tolerance==null) {
+				if (!isCached(scannable) || !(value instanceof Number)) return scannable.setPosition(value, position);
+			} else if (!(value instanceof Number) || !(tolerance instanceof Number)) {
 				return scannable.setPosition(value, position);
 			}
-			Object currentValue = scannable.getPosition();
-			if (!(currentValue instanceof Number)) return scannable.setPosition(value, position);
+			final String name = scannable.getName();
+			moveCount.incrementAndGet();
+			watch(scannable);
+
+			// Without a tolerance only a value this positioner moved to is used
+			Number current = lastKnown.get(name);
+			if (tolerance==null) {
+				if (current!=null && current.doubleValue()==((Number)value).doubleValue()) {
+					skippedCount.incrementAndGet();
+					return current;
+				}
+				return move(scannable, value, position);
+			}
+
+			// Use the position we last knew, otherwise read it once
+			if (current==null) {
+				Object read = scannable.getPosition();
+				if (!(read instanceof Number)) return move(scannable, value, position);
+				current = (Number)read;
+				lastKnown.put(name, current);
+			}
 
 			// Check tolerance against number
 			double tol = ((Number)tolerance).doubleValue();
-			double cur = ((Number)currentValue).doubleValue();
+			double cur = current.doubleValue();
 			double val = ((Number)value).doubleValue();
 
 			// If are already within tolerance return the value we are at
-			if (cur<(val+tol) &&
-			    cur>(val-tol)) {
+			if (cur==val ||
+			   (cur<(val+tol) && cur>(val-tol))) {
 
-				return currentValue;
+				skippedCount.incrementAndGet();
+				return current;
 			}
+			return move(scannable, value, position);
+		}
 
-			// We need to move and did an extra getPosition()
-			// Note sure if this is really faster, depends how
-			// hardware of a given system actually works.
-			return scannable.setPosition(value, position);
+		/**
+		 * A scannable without a tolerance is only skipped when it tells the positioner
+		 * that something else moved it, and when it does not write at each point.
+		 */
+		private boolean isCached(IScannable<?> scannable) {
+			return scannable instanceof IPositionListenable && !(scannable instanceof INexusDevice);
+		}
+
+		@SuppressWarnings({ "rawtypes", "unchecked" })
+		private Object move(IScannable scannable, Object value, IPosition position) throws Exception {
+			final String name = scannable.getName();
+			lastKnown.remove(name);
+			moving.add(name);
+			try {
+				Object achieved = scannable.setPosition(value, position);
+				// Most scannables return null once they are at the value they were sent to
+				Object known = achieved==null ? value : achieved;
+				if (known instanceof Number) lastKnown.put(name, (Number)known);
+				return achieved;
+			} finally {
+				moving.remove(name);
+			}
 		}
 
 	}
@@ -0,0 +1,229 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.sequencer;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The thread pool shared by all the level runners of the sequencer. Each
+ * runner submits its tasks through its own {@link TaskGroup} so that the
+ * tasks of one scan can be waited for and cancelled without affecting
+ * other scans. It is also the executor of the runnable device service,
+ * which device requests use to set several scannables at once.
+ * <p>
+ * A task is given to an idle thread or, if there is none, a thread is made for it,
+ * so a long write or a Malcolm run of one scan cannot hold up the moves of another.
+ * The most threads the pool may have is set using the system property
+ * <code>org.eclipse.scanning.level.runner.pool.count</code>, the default is 256.
+ * If the pool has that many threads busy the task waits in a queue, whose size is
+ * set by <code>org.eclipse.scanning.level.runner.queue.size</code>, default 1024.
+ * If the queue is full too the task is run by the thread which submitted it, a
+ * {@link TaskGroup} then applies the timeout of the task itself.
+ * Threads which are idle for a minute are stopped so a server which is not
+ * scanning keeps none.
+ * <p>
+ * The size of the pool and the depth of its queue are published as the
+ * MXBean <code>org.eclipse.scanning.sequencer:type=SequencerExecutor</code>.
+ */
+final class SequencerExecutor implements SequencerExecutorMXBean, Executor {
+
+	private static final Logger logger = LoggerFactory.getLogger(SequencerExecutor.class);
+
+	static final String POOL_COUNT_PROPERTY = "org.eclipse.scanning.level.runner.pool.count";
+	static final String QUEUE_SIZE_PROPERTY = "org.eclipse.scanning.level.runner.queue.size";
+
+	private static final String MBEAN_NAME  = "org.eclipse.scanning.sequencer:type=SequencerExecutor";
+
+	private static final SequencerExecutor instance = new SequencerExecutor();
+
+	private final ThreadPoolExecutor          pool;
+	private final TaskQueue                   queue;
+	private final ScheduledThreadPoolExecutor timer;
+	private final AtomicInteger               groupCount;
+	private final AtomicLong                  callerRunCount;
+
+	private SequencerExecutor() {
+
+		Integer count = Integer.getInteger(POOL_COUNT_PROPERTY);
+		if (count==null || count<1) count = 256;
+		Integer size = Integer.getInteger(QUEUE_SIZE_PROPERTY);
+		if (size==null || size<0) size = 1024;
+
+		this.callerRunCount = new AtomicLong();
+		this.queue = new TaskQueue(size);
+		RejectedExecutionHandler enqueue = (task, executor) -> {
+			if (!queue.enqueue(task)) throw new RejectedExecutionException("The sequencer has "+executor.getPoolSize()+" threads busy and "+queue.size()+" tasks waiting");
+		};
+		this.pool = new ThreadPoolExecutor(0, count, 60, TimeUnit.SECONDS, queue, new SequencerThreadFactory(), enqueue);
+		this.groupCount = new AtomicInteger();
+
+		this.timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+			Thread thread = new Thread(runnable, "Sequencer timeout");
+			thread.setDaemon(true);
+			return thread;
+		});
+		timer.setRemoveOnCancelPolicy(true);
+
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName  name   = new ObjectName(MBEAN_NAME);
+			if (!server.isRegistered(name)) server.registerMBean(this, name);
+		} catch (Exception ne) {
+			logger.warn("Cannot publish the sequencer executor statistics as {}", MBEAN_NAME, ne);
+		}
+	}
+
+	static SequencerExecutor getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Create a group to submit the tasks of one runner.
+	 * @return
+	 */
+	TaskGroup createGroup() {
+		groupCount.incrementAndGet();
+		return new TaskGroup(this);
+	}
+
+	/**
+	 * Runs the task with the pool or, if the pool and its queue are full, with this thread.
+	 */
+	@Override
+	public void execute(Runnable task) {
+		if (!offer(task)) task.run();
+	}
+
+	/**
+	 * Gives the task to the pool.
+	 * @param task
+	 * @return false if the pool and its queue are full, the caller must then run the task.
+	 */
+	boolean offer(Runnable task) {
+		try {
+			pool.execute(task);
+			return true;
+		} catch (RejectedExecutionException busy) {
+			callerRunCount.incrementAndGet();
+			return false;
+		}
+	}
+
+	/**
+	 * Runs the action after a delay, used to time out tasks which are run by the thread which submitted them.
+	 * @param action
+	 * @param nanos
+	 * @return
+	 */
+	ScheduledFuture<?> schedule(Runnable action, long nanos) {
+		return timer.schedule(action, nanos, TimeUnit.NANOSECONDS);
+	}
+
+	void groupClosed() {
+		groupCount.decrementAndGet();
+	}
+
+	@Override
+	public int getPoolSize() {
+		return pool.getPoolSize();
+	}
+
+	@Override
+	public int getMaximumPoolSize() {
+		return pool.getMaximumPoolSize();
+	}
+
+	@Override
+	public int getLargestPoolSize() {
+		return pool.getLargestPoolSize();
+	}
+
+	@Override
+	public int getActiveCount() {
+		return pool.getActiveCount();
+	}
+
+	@Override
+	public int getQueueDepth() {
+		return pool.getQueue().size();
+	}
+
+	@Override
+	public long getCompletedTaskCount() {
+		return pool.getCompletedTaskCount();
+	}
+
+	@Override
+	public long getCallerRunCount() {
+		return callerRunCount.get();
+	}
+
+	@Override
+	public int getGroupCount() {
+		return groupCount.get();
+	}
+
+	/**
+	 * Gives a task to a thread which is waiting for one, otherwise the pool makes a thread
+	 * for it. Tasks are only queued, up to the capacity, when the pool may not make more threads.
+	 */
+	private static final class TaskQueue extends LinkedTransferQueue<Runnable> {
+
+		private static final long serialVersionUID = 4109638518432716538L;
+
+		private final int capacity;
+
+		TaskQueue(int capacity) {
+			this.capacity = capacity;
+		}
+
+		@Override
+		public boolean offer(Runnable task) {
+			return tryTransfer(task);
+		}
+
+		boolean enqueue(Runnable task) {
+			return size()<capacity && super.offer(task);
+		}
+	}
+
+	private static final class SequencerThread extends Thread {
+		SequencerThread(Runnable runnable, String name) {
+			super(runnable, name);
+			setDaemon(true);
+		}
+	}
+
+	private static final class SequencerThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			return new SequencerThread(runnable, "Scan sequencer "+count.incrementAndGet());
+		}
+	}
+}
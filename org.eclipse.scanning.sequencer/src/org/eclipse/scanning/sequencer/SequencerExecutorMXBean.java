@@ -0,0 +1,63 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.sequencer;
+
+/**
+ * The statistics of the thread pool which runs the levels of
+ * scans, published over JMX for monitoring.
+ */
+public interface SequencerExecutorMXBean {
+
+	/**
+	 * The number of threads in the pool now.
+	 * @return
+	 */
+	int getPoolSize();
+
+	/**
+	 * The most threads which the pool is allowed.
+	 * @return
+	 */
+	int getMaximumPoolSize();
+
+	/**
+	 * The most threads which the pool has had at one time.
+	 * @return
+	 */
+	int getLargestPoolSize();
+
+	/**
+	 * The number of threads running tasks now.
+	 * @return
+	 */
+	int getActiveCount();
+
+	/**
+	 * The number of tasks waiting for a thread. Tasks are only
+	 * queued when the pool has as many threads as it is allowed.
+	 * @return
+	 */
+	int getQueueDepth();
+
+	long getCompletedTaskCount();
+
+	/**
+	 * The number of tasks which were run by the thread which submitted
+	 * them because the pool had as many threads as it is allowed and its
+	 * queue was full.
+	 * @return
+	 */
+	long getCallerRunCount();
+
+	/**
+	 * The number of level runners with tasks groups which have not been closed.
+	 * @return
+	 */
+	int getGroupCount();
+}
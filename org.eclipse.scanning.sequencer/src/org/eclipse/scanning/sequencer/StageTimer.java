@@ -0,0 +1,201 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.sequencer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.eclipse.scanning.api.event.scan.StageLatency;
+
+/**
+ * Accumulates the time spent in each stage of the scan loop.
+ *
+ * Stages may be timed from more than one thread, for instance the
+ * move is timed on the pipeline thread when the scan is pipelined,
+ * so the totals are held atomically.
+ * <p>
+ * If the property org.eclipse.scanning.sequencer.latency is true the
+ * latency of each stage, and of each detector for the expose and write
+ * stages, is also recorded in a histogram so that the percentiles may
+ * be reported. When the property is not set nothing more is done.
+ */
+final class StageTimer {
+
+	enum Stage {
+		/**
+		 * Time taken by the positioner to reach a position.
+		 */
+		MOVE,
+
+		/**
+		 * Time the scan thread was blocked waiting for a move which
+		 * was started early by the pipeline. MOVE-MOVE_WAIT is the
+		 * dead time recovered by pipelining.
+		 */
+		MOVE_WAIT,
+
+		/**
+		 * Time waiting for the previous point to be written.
+		 */
+		WRITE_WAIT,
+
+		/**
+		 * Time running the detectors.
+		 */
+		EXPOSE,
+
+		/**
+		 * Time for the end of point annotations and publishing.
+		 */
+		POINT_END,
+
+		/**
+		 * Time taken by a detector to write, only recorded per detector.
+		 */
+		WRITE;
+	}
+
+	private final AtomicLongArray nanos;
+	private final AtomicLongArray counts;
+
+	// Only created when latencies are recorded
+	private final LatencyHistogram[]                         histograms;
+	private final ConcurrentMap<String, LatencyHistogram>[]    deviceHistograms;
+
+	StageTimer() {
+		this(Boolean.getBoolean("org.eclipse.scanning.sequencer.latency"));
+	}
+
+	@SuppressWarnings("unchecked")
+	StageTimer(boolean recordLatency) {
+		nanos  = new AtomicLongArray(Stage.values().length);
+		counts = new AtomicLongArray(Stage.values().length);
+		if (recordLatency) {
+			histograms       = new LatencyHistogram[Stage.values().length];
+			deviceHistograms = new ConcurrentMap[Stage.values().length];
+			for (int i = 0; i < histograms.length; i++) {
+				histograms[i]       = new LatencyHistogram();
+				deviceHistograms[i] = new ConcurrentHashMap<>(7);
+			}
+		} else {
+			histograms       = null;
+			deviceHistograms = null;
+		}
+	}
+
+	/**
+	 * @return true if the latency of each stage is recorded in a histogram.
+	 */
+	boolean isRecordingLatency() {
+		return histograms!=null;
+	}
+
+	/**
+	 * @return the time to pass to {@link #stop(Stage, long)}
+	 */
+	long start() {
+		return System.nanoTime();
+	}
+
+	void stop(Stage stage, long start) {
+		final long time = System.nanoTime()-start;
+		nanos.addAndGet(stage.ordinal(), time);
+		counts.incrementAndGet(stage.ordinal());
+		if (histograms!=null) histograms[stage.ordinal()].record(time);
+	}
+
+	/**
+	 * Records the latency of one device for a stage. Does nothing
+	 * if latencies are not being recorded.
+	 *
+	 * @param stage
+	 * @param device name of the device
+	 * @param time in nanoseconds
+	 */
+	void record(Stage stage, String device, long time) {
+		if (deviceHistograms==null) return;
+		final ConcurrentMap<String, LatencyHistogram> histos = deviceHistograms[stage.ordinal()];
+		LatencyHistogram histo = histos.get(device);
+		if (histo==null) {
+			histos.putIfAbsent(device, new LatencyHistogram());
+			histo = histos.get(device);
+		}
+		histo.record(time);
+	}
+
+	/**
+	 * The latencies recorded so far, named after the stage or the
+	 * stage and the device, for instance 'move' or 'expose.mandelbrot'
+	 *
+	 * @return the latencies or an empty list if they are not recorded.
+	 */
+	List<StageLatency> getLatencies() {
+		final List<StageLatency> ret = new ArrayList<>();
+		if (histograms==null) return ret;
+		for (Stage stage : Stage.values()) {
+			final String name = stage.name().toLowerCase();
+			add(ret, name, histograms[stage.ordinal()]);
+			final Map<String, LatencyHistogram> sorted = new TreeMap<>(deviceHistograms[stage.ordinal()]);
+			for (Map.Entry<String, LatencyHistogram> entry : sorted.entrySet()) {
+				add(ret, name+"."+entry.getKey(), entry.getValue());
+			}
+		}
+		return ret;
+	}
+
+	private static void add(List<StageLatency> latencies, String name, LatencyHistogram histo) {
+		if (histo.getCount()<1) return;
+		latencies.add(new StageLatency(name, histo.getCount(),
+				                             histo.getMean(TimeUnit.MICROSECONDS),
+				                             histo.getPercentile(50, TimeUnit.MICROSECONDS),
+				                             histo.getPercentile(99, TimeUnit.MICROSECONDS),
+				                             histo.getMax(TimeUnit.MICROSECONDS)));
+	}
+
+	long getTotal(Stage stage, TimeUnit unit) {
+		return unit.convert(nanos.get(stage.ordinal()), TimeUnit.NANOSECONDS);
+	}
+
+	long getCount(Stage stage) {
+		return counts.get(stage.ordinal());
+	}
+
+	/**
+	 *
+	 * @return a one line summary of the total and mean time for each stage which has been timed.
+	 */
+	@Override
+	public String toString() {
+		final StringBuilder buf = new StringBuilder();
+		for (Stage stage : Stage.values()) {
+			long count = getCount(stage);
+			if (count<1) continue;
+			long total = getTotal(stage, TimeUnit.MICROSECONDS);
+			buf.append(stage.name().toLowerCase());
+			buf.append("=");
+			buf.append(total/1000);
+			buf.append("ms (");
+			buf.append(total/count);
+			buf.append("us/pnt) ");
+		}
+		if (getCount(Stage.MOVE_WAIT)>0) {
+			long recovered = getTotal(Stage.MOVE, TimeUnit.MILLISECONDS)-getTotal(Stage.MOVE_WAIT, TimeUnit.MILLISECONDS);
+			buf.append("recovered=");
+			buf.append(recovered);
+			buf.append("ms");
+		}
+		return buf.toString().trim();
+	}
+}
@@ -0,0 +1,232 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.sequencer;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The tasks which one level runner has submitted to the shared
+ * {@link SequencerExecutor}. The group can wait for its own tasks and
+ * cancel them without waiting for or cancelling those of other runners.
+ * <p>
+ * The time which a task is allowed starts when the task starts to run, so
+ * that a task which had to wait for a thread does not time out early.
+ */
+final class TaskGroup {
+
+	private final SequencerExecutor executor;
+	private final Queue<GroupTask<?>> futures;
+	private final AtomicBoolean     closed;
+
+	TaskGroup(SequencerExecutor executor) {
+		this.executor = executor;
+		this.futures  = new ConcurrentLinkedQueue<>();
+		this.closed   = new AtomicBoolean();
+	}
+
+	/**
+	 * Submit a task without waiting for it.
+	 * @param task
+	 * @return
+	 */
+	<T> Future<T> submit(Callable<T> task) {
+		GroupTask<T> future = add(task);
+		if (!executor.offer(future)) future.run();
+		return future;
+	}
+
+	private <T> GroupTask<T> add(Callable<T> task) {
+		if (closed.get()) throw new IllegalStateException("The task group has been closed");
+		futures.removeIf(Future::isDone); // Only those running are kept
+		GroupTask<T> future = new GroupTask<>(task);
+		futures.add(future);
+		return future;
+	}
+
+	/**
+	 * Runs the tasks and waits for them to finish or for the timeout, which
+	 * starts for each task when it starts to run.
+	 * Tasks which have not finished at the timeout are cancelled, as
+	 * {@link java.util.concurrent.ExecutorService#invokeAll(Collection, long, TimeUnit)} does.
+	 * <p>
+	 * A task which no thread of the pool has started when it is waited for, because
+	 * the pool is busy or the caller is itself a task of the pool, is run by the caller.
+	 * Its timeout is kept by interrupting the caller, so waiting for the pool cannot
+	 * wait forever and a task run by the caller cannot run for longer than one run by the pool.
+	 * <p>
+	 * The futures are added to the end of the list given, in the order of the tasks,
+	 * so that a runner which runs the same level at every point can reuse the list.
+	 *
+	 * @param tasks
+	 * @param results the list to which the futures of the tasks are added
+	 * @param timeout
+	 * @param unit
+	 * @throws InterruptedException
+	 */
+	@SuppressWarnings("unchecked")
+	<T> void invokeAll(Collection<? extends Callable<T>> tasks, List<Future<T>> results, long timeout, TimeUnit unit) throws InterruptedException {
+
+		final int first = results.size();
+		for (Callable<T> task : tasks) {
+			GroupTask<T> future = add(task);
+			executor.offer(future); // If the pool is full it is run below
+			results.add(future);
+		}
+
+		final long nanos = unit.toNanos(timeout);
+		try {
+			for (int i = first; i < results.size(); i++) {
+				GroupTask<T> task = (GroupTask<T>)results.get(i);
+				if (!task.isStarted()) runWithTimeout(task, nanos);
+				if (!task.awaitStart()) continue;
+				long remaining = nanos-(System.nanoTime()-task.getStartTime());
+				if (remaining<=0 && !task.isDone()) break;
+				try {
+					task.get(Math.max(remaining, 0), TimeUnit.NANOSECONDS);
+				} catch (ExecutionException | CancellationException ignored) {
+					continue; // The caller gets these from the future
+				} catch (TimeoutException te) {
+					break;
+				}
+			}
+		} finally {
+			for (int i = first; i < results.size(); i++) {
+				Future<T> future = results.get(i);
+				if (!future.isDone()) future.cancel(true);
+			}
+		}
+	}
+
+	/**
+	 * Runs the task in this thread, interrupting it if it runs for longer than the timeout.
+	 * Does nothing if a thread of the pool has started the task.
+	 */
+	private void runWithTimeout(GroupTask<?> task, long nanos) {
+		final AtomicBoolean timedOut = new AtomicBoolean();
+		final ScheduledFuture<?> timer = executor.schedule(() -> {
+			if (task.cancel(true)) timedOut.set(true);
+		}, nanos);
+		try {
+			task.run();
+		} finally {
+			timer.cancel(false);
+			if (timedOut.get()) Thread.interrupted(); // The interrupt was for the task, not for the caller.
+		}
+	}
+
+	/**
+	 * Waits for the tasks which have been submitted to finish.
+	 * @param time
+	 * @param unit
+	 * @return false if the tasks did not finish in time.
+	 * @throws InterruptedException
+	 */
+	boolean await(long time, TimeUnit unit) throws InterruptedException {
+
+		final long nanos = unit.toNanos(time);
+		GroupTask<?> future;
+		while((future = futures.peek())!=null) {
+			if (future.awaitStart()) {
+				long remaining = nanos-(System.nanoTime()-future.getStartTime());
+				if (remaining<=0 && !future.isDone()) return false;
+				try {
+					future.get(Math.max(remaining, 0), TimeUnit.NANOSECONDS);
+				} catch (ExecutionException | CancellationException ignored) {
+					// The tasks deal with their own errors
+				} catch (TimeoutException te) {
+					return false;
+				}
+			}
+			futures.remove(future);
+		}
+		return true;
+	}
+
+	/**
+	 * Interrupts the tasks which are running and stops those which have not started.
+	 * The group may not be used after it is cancelled.
+	 */
+	void cancel() {
+		if (closed.compareAndSet(false, true)) executor.groupClosed();
+		Future<?> future;
+		while((future = futures.poll())!=null) future.cancel(true);
+	}
+
+	/**
+	 * The group may not be used after it is closed. Tasks
+	 * which are running are not stopped.
+	 */
+	void close() {
+		if (closed.compareAndSet(false, true)) executor.groupClosed();
+		futures.clear();
+	}
+
+	int getTaskCount() {
+		futures.removeIf(Future::isDone);
+		return futures.size();
+	}
+
+	/**
+	 * A task of the group which records when it started to run.
+	 */
+	private static final class GroupTask<T> extends FutureTask<T> {
+
+		private final CountDownLatch started = new CountDownLatch(1);
+		private final AtomicBoolean  claimed = new AtomicBoolean();
+		private volatile long        startTime;
+
+		GroupTask(Callable<T> task) {
+			super(task);
+		}
+
+		/**
+		 * Runs the task if no other thread has, a task may be both queued in the pool and run by its caller.
+		 */
+		@Override
+		public void run() {
+			if (!claimed.compareAndSet(false, true)) return;
+			startTime = System.nanoTime();
+			started.countDown();
+			super.run();
+		}
+
+		boolean isStarted() {
+			return claimed.get();
+		}
+
+		/**
+		 * Waits for the task to start to run.
+		 * @return false if the task finished without running, because it was cancelled.
+		 * @throws InterruptedException
+		 */
+		boolean awaitStart() throws InterruptedException {
+			while(!started.await(100, TimeUnit.MILLISECONDS)) {
+				if (isDone()) return false;
+			}
+			return true;
+		}
+
+		long getStartTime() {
+			return startTime;
+		}
+	}
+}
@@ -0,0 +1,188 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.sequencer;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.scanning.api.IScannable;
+import org.eclipse.scanning.api.device.IRunnableDevice;
+import org.eclipse.scanning.api.device.models.IDetectorModel;
+import org.eclipse.scanning.api.event.scan.StageLatency;
+import org.eclipse.scanning.api.points.IDeviceDependentIterable;
+import org.eclipse.scanning.api.scan.models.ScanModel;
+import org.eclipse.scanning.api.scan.timing.DetectorTimingModel;
+import org.eclipse.scanning.api.scan.timing.ITimingModelProvider;
+import org.eclipse.scanning.api.scan.timing.MotionTimingModel;
+import org.eclipse.scanning.api.scan.timing.ScanTimeSimulator;
+import org.eclipse.scanning.api.scan.timing.ScanTimingModel;
+import org.eclipse.scanning.sequencer.StageTimer.Stage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps a timing model calibrated from the stage times of the scans which have run,
+ * so that the time of the next scan may be estimated from what the last ones took.
+ * <ul>
+ * <li>The point overhead is the time to end each point and wait for it to be written.</li>
+ * <li>The move overhead is the time to move beyond what the motion models of the scannables give.</li>
+ * <li>The readout time of a detector is the time it took to expose beyond its exposure time. This
+ *     needs the latency of each detector, recorded when org.eclipse.scanning.sequencer.latency is
+ *     true, unless the scan has one detector.</li>
+ * </ul>
+ * Each scan moves the values half way towards what it measured so one unusual scan does not
+ * spoil the estimate.
+ * <p>
+ * The scans are only recorded when they finish. They are calibrated when the timing model
+ * is next read, because working out the motion time walks the positions of the scan.
+ */
+final class TimingCalibrator {
+
+	private static final Logger logger = LoggerFactory.getLogger(TimingCalibrator.class);
+
+	private static final double WEIGHT = 0.5; // Of the last scan
+	private static final int    PENDING = 16; // Older scans would change the timing by less than 0.5^16
+
+	private static final class FinishedScan {
+		private final ScanModel  model;
+		private final StageTimer timer;
+		FinishedScan(ScanModel model, StageTimer timer) {
+			this.model = model;
+			this.timer = timer;
+		}
+	}
+
+	private final Deque<FinishedScan> pending = new ArrayDeque<>(PENDING); // guarded by itself
+
+	private final ScanTimingModel timing = new ScanTimingModel(); // guarded by this
+	private int                   scans;
+
+	/**
+	 * @return a copy of the calibrated timing model
+	 */
+	synchronized ScanTimingModel getTimingModel() {
+		calibratePending();
+		return new ScanTimingModel(timing);
+	}
+
+	/**
+	 * Records a scan which has finished normally, it is calibrated when the
+	 * timing model is next read. This is quick so that the scan thread is not held up.
+	 * @param model of the scan
+	 * @param timer of the scan, which must not be used again
+	 */
+	void add(ScanModel model, StageTimer timer) {
+		synchronized (pending) {
+			if (pending.size()>=PENDING) pending.removeFirst();
+			pending.addLast(new FinishedScan(model, timer));
+		}
+	}
+
+	private void calibratePending() {
+		while (true) {
+			final FinishedScan scan;
+			synchronized (pending) {
+				scan = pending.pollFirst();
+			}
+			if (scan==null) return;
+			try {
+				calibrate(scan.model, scan.timer);
+			} catch (Exception ne) {
+				logger.warn("Cannot calibrate the scan timing", ne);
+			}
+		}
+	}
+
+	/**
+	 * Calibrate from a scan which has finished normally.
+	 * @param model of the scan
+	 * @param timer of the scan
+	 */
+	synchronized void calibrate(ScanModel model, StageTimer timer) {
+
+		final long points = timer.getCount(Stage.POINT_END);
+		if (points<1) return;
+
+		final double pointOverhead = seconds(timer.getTotal(Stage.POINT_END, TimeUnit.MICROSECONDS)
+				                           + timer.getTotal(Stage.WRITE_WAIT, TimeUnit.MICROSECONDS))/points;
+		timing.setPointOverhead(blend(timing.getPointOverhead(), pointOverhead));
+
+		final long moves = timer.getCount(Stage.MOVE);
+		if (moves>0) {
+			final double moveTime = seconds(timer.getTotal(Stage.MOVE, TimeUnit.MICROSECONDS))/moves;
+			final double moveOverhead = Math.max(0, moveTime-getMotionTime(model)/moves);
+			timing.setMoveOverhead(blend(timing.getMoveOverhead(), moveOverhead));
+		}
+
+		calibrateDetectors(model, timer);
+		scans++;
+		logger.debug("Timing calibrated from {} scans {}", scans, timing);
+	}
+
+	private void calibrateDetectors(ScanModel model, StageTimer timer) {
+
+		final List<IRunnableDevice<?>> detectors = model.getDetectors();
+		if (detectors==null || detectors.isEmpty()) return;
+
+		final Map<String, Double> exposed = new HashMap<>(); // Mean time to expose in s
+		if (timer.isRecordingLatency()) {
+			for (StageLatency latency : timer.getLatencies()) {
+				if (latency.getName().startsWith("expose.")) exposed.put(latency.getName().substring(7), seconds(latency.getMean()));
+			}
+		} else if (detectors.size()==1 && timer.getCount(Stage.EXPOSE)>0) {
+			exposed.put(detectors.get(0).getName(), seconds(timer.getTotal(Stage.EXPOSE, TimeUnit.MICROSECONDS))/timer.getCount(Stage.EXPOSE));
+		}
+
+		for (IRunnableDevice<?> detector : detectors) {
+			final Double time = exposed.get(detector.getName());
+			if (time==null || !(detector.getModel() instanceof IDetectorModel)) continue;
+			final double readout = Math.max(0, time-((IDetectorModel)detector.getModel()).getExposureTime());
+
+			DetectorTimingModel current = timing.getDetector(detector.getName());
+			if (current==null) current = provided(detector, DetectorTimingModel.class);
+			final DetectorTimingModel calibrated = current!=null
+					? new DetectorTimingModel(current.getArmTime(), blend(current.getReadoutTime(), readout))
+					: new DetectorTimingModel(0, readout);
+			timing.addDetector(detector.getName(), calibrated);
+		}
+	}
+
+	/**
+	 * @return the time in s the motion models of the scannables give for the
+	 * moves of the scan, zero if no scannable has a model.
+	 */
+	private static double getMotionTime(ScanModel model) {
+		if (model.getScannables()==null || model.getPositionIterable() instanceof IDeviceDependentIterable) return 0;
+		final ScanTimingModel motions = new ScanTimingModel();
+		for (IScannable<?> scannable : model.getScannables()) {
+			final MotionTimingModel motion = provided(scannable, MotionTimingModel.class);
+			if (motion!=null) motions.addMotion(scannable.getName(), motion);
+		}
+		if (motions.getMotions().isEmpty()) return 0;
+		return new ScanTimeSimulator(model.getPositionIterable(), null, motions).getMotionTime()/1000d;
+	}
+
+	private static <T> T provided(Object device, Class<T> type) {
+		if (!(device instanceof ITimingModelProvider)) return null;
+		final Object timing = ((ITimingModelProvider<?>)device).getTimingModel();
+		return type.isInstance(timing) ? type.cast(timing) : null;
+	}
+
+	private double blend(double current, double measured) {
+		return scans<1 ? measured : current+WEIGHT*(measured-current);
+	}
+
+	private static double seconds(long micros) {
+		return micros/1000000d;
+	}
+}
@@ -0,0 +1,78 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.sequencer.nexus;
+
+import java.util.Arrays;
+
+import org.eclipse.scanning.api.scan.IChunkingService;
+import org.eclipse.scanning.api.scan.models.ChunkingModel;
+import org.eclipse.scanning.api.scan.models.ChunkingModel.ReadPattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Chunks a dataset so that one chunk is no larger than the target size of the
+ * model, 1MB by default or the property <code>org.eclipse.scanning.sequencer.nexus.chunk.size</code>
+ * in bytes when there is no model.
+ * <p>
+ * The axes are filled from the fastest back, each taking as much as fits in
+ * what is left of the target. For {@link ReadPattern#FRAME} the data axes are
+ * filled before the scan axes, so a chunk holds whole frames where they fit and
+ * otherwise whole rows of one frame. For {@link ReadPattern#SCAN} the scan axes
+ * are filled first, so a chunk holds one element of the frame at many points.
+ * An axis of unknown length takes all that is left.
+ */
+public class ChunkingService implements IChunkingService {
+
+	private static final Logger logger = LoggerFactory.getLogger(ChunkingService.class);
+
+	@Override
+	public int[] createChunk(ChunkingModel model, String datasetName, int[] scanShape, int[] dataShape, int elementSize) {
+
+		if (dataShape==null) dataShape = new int[0];
+		final int rank = scanShape.length+dataShape.length;
+
+		final int[] chunk = model!=null ? model.getChunk(datasetName) : null;
+		if (chunk!=null) {
+			if (chunk.length==rank) return chunk.clone();
+			logger.warn("The chunk {} of {} is not of rank {} and is ignored", Arrays.toString(chunk), datasetName, rank);
+		}
+
+		final long target = model!=null ? model.getTargetSize() : Long.getLong("org.eclipse.scanning.sequencer.nexus.chunk.size", 1024*1024);
+		final ReadPattern pattern = model!=null && model.getReadPattern()!=null ? model.getReadPattern() : ReadPattern.FRAME;
+
+		final int[] shape = new int[rank];
+		System.arraycopy(scanShape, 0, shape, 0, scanShape.length);
+		System.arraycopy(dataShape, 0, shape, scanShape.length, dataShape.length);
+
+		final int[] ret = new int[rank];
+		long remaining = Math.max(1, target/Math.max(1, elementSize));
+		if (pattern==ReadPattern.SCAN) {
+			remaining = fill(shape, ret, 0, scanShape.length, remaining);
+			fill(shape, ret, scanShape.length, rank, remaining);
+		} else {
+			remaining = fill(shape, ret, scanShape.length, rank, remaining);
+			fill(shape, ret, 0, scanShape.length, remaining);
+		}
+		return ret;
+	}
+
+	/**
+	 * Fills the chunk for the axes from (inclusive) to to (exclusive), fastest first.
+	 * @return the number of elements left in the target
+	 */
+	private static long fill(int[] shape, int[] chunk, int from, int to, long remaining) {
+		for (int i = to-1; i >= from; i--) {
+			final long length = shape[i]>0 ? Math.min(shape[i], remaining) : remaining;
+			chunk[i]  = (int)Math.max(1, Math.min(length, Integer.MAX_VALUE));
+			remaining = Math.max(1, remaining/chunk[i]);
+		}
+		return remaining;
+	}
+}
@@ -11,10 +11,12 @@
  *******************************************************************************/
 package org.eclipse.scanning.sequencer.nexus;
 
+import java.util.List;
 import java.util.Set;
 
 import org.eclipse.dawnsci.nexus.NexusScanInfo;
 import org.eclipse.scanning.api.IConfigurable;
+import org.eclipse.scanning.api.event.scan.StageLatency;
 import org.eclipse.scanning.api.scan.ScanningException;
 import org.eclipse.scanning.api.scan.models.ScanModel;
 
@@ -43,6 +45,24 @@ public interface INexusScanFileManager extends IConfigurable<ScanModel> {
 	 */
 	public void scanFinished() throws ScanningException;
 
+	/**
+	 * Set the latencies of the stages of the scan, these are
+	 * written when {@link #scanFinished()} is called.
+	 * @param latencies
+	 */
+	default void setLatencies(List<StageLatency> latencies) {
+		// Nothing is written by default
+	}
+
+	/**
+	 * The queue which devices may use to write their slices
+	 * on the writer thread of the file, if there is one.
+	 * @return the queue or null if slices are written directly.
+	 */
+	default NexusWriteQueue getWriteQueue() {
+		return null;
+	}
+
 	/**
 	 * Get the nexus scan info for the scan.
 	 * @return
@@ -0,0 +1,306 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.sequencer.nexus;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Flushes the NeXus files open for writing so that SWMR readers see the data,
+ * on a thread of its own rather than the threads running the scan.
+ * <p>
+ * A file is registered when it is opened and closed when the scan is done with it.
+ * Every file open is flushed each period. A file is flushed sooner when the bytes
+ * written to it since it was last flushed reach the byte budget. Files are flushed
+ * one at a time so that the flushes of a scan file and of the files written by the
+ * devices of a Malcolm scan do not contend for the HDF5 library.
+ * <p>
+ * Properties:
+ * <ul>
+ * <li><code>org.eclipse.scanning.sequencer.nexus.flush.period</code> ms between flushes of each file, 1000 by default, zero or less to flush only on the byte budget.</li>
+ * <li><code>org.eclipse.scanning.sequencer.nexus.flush.bytes</code> bytes written which cause a flush, 64MB by default, zero or less for no budget.</li>
+ * </ul>
+ * The time taken to flush is published as the MXBean
+ * <code>org.eclipse.scanning.sequencer:type=NexusFlushScheduler</code>.
+ */
+public final class NexusFlushScheduler implements NexusFlushSchedulerMXBean {
+
+	private static final Logger logger = LoggerFactory.getLogger(NexusFlushScheduler.class);
+
+	/**
+	 * Flushes one file, for instance <code>nexusFile::flush</code>
+	 */
+	@FunctionalInterface
+	public interface Flusher {
+		void flush() throws Exception;
+	}
+
+	private static NexusFlushScheduler instance;
+
+	/**
+	 * @return the scheduler used by all the files of this VM
+	 */
+	public static synchronized NexusFlushScheduler getInstance() {
+		if (instance==null) {
+			instance = new NexusFlushScheduler(Long.getLong("org.eclipse.scanning.sequencer.nexus.flush.period", 1000),
+					                           Long.getLong("org.eclipse.scanning.sequencer.nexus.flush.bytes", 64*1024*1024));
+			instance.register();
+		}
+		return instance;
+	}
+
+	private final long                          period;
+	private final long                          budget;
+	private final ScheduledThreadPoolExecutor   executor;
+	private final Set<Registration>             files = ConcurrentHashMap.newKeySet();
+
+	// Statistics
+	private final AtomicLong flushes    = new AtomicLong();
+	private final AtomicLong flushNanos = new AtomicLong();
+	private volatile long    maxFlushNanos;
+
+	/**
+	 * Creates a scheduler, the files of a scan should use {@link #getInstance()}.
+	 * @param period ms between flushes of each file, zero or less for none
+	 * @param budget bytes written which cause a flush, zero or less for none
+	 */
+	public NexusFlushScheduler(long period, long budget) {
+		this.period   = period;
+		this.budget   = budget;
+		this.executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+			Thread thread = new Thread(runnable, "NeXus flush");
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.setRemoveOnCancelPolicy(true);
+	}
+
+	private void register() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName  oname  = new ObjectName("org.eclipse.scanning.sequencer:type=NexusFlushScheduler");
+			if (!server.isRegistered(oname)) server.registerMBean(this, oname);
+		} catch (Exception ne) {
+			logger.warn("Cannot publish the flush statistics", ne);
+		}
+	}
+
+	/**
+	 * Starts flushing a file.
+	 * @param name of the file
+	 * @param flusher which flushes the file
+	 * @return the registration of the file, which must be closed before the file is.
+	 */
+	public Registration register(String name, Flusher flusher) {
+		final Registration reg = new Registration(name, flusher);
+		files.add(reg);
+		if (period>0) reg.schedule(period);
+		return reg;
+	}
+
+	/**
+	 * Stops flushing the files which are still registered and stops the flush
+	 * thread, waiting up to five seconds for a flush being done to finish.
+	 * The scheduler may not be used afterwards, {@link #getInstance()} makes
+	 * a new one if the shared scheduler is shut down.
+	 */
+	public void shutdown() {
+		synchronized (NexusFlushScheduler.class) {
+			if (instance==this) instance = null;
+		}
+		for (Registration reg : files) reg.close();
+		executor.shutdownNow();
+		try {
+			if (!executor.awaitTermination(5, TimeUnit.SECONDS)) logger.warn("The flush thread did not stop");
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * A file which is being flushed. The file is flushed by one thread at a time
+	 * and never after the registration is closed.
+	 */
+	public final class Registration implements AutoCloseable {
+
+		private final String         name;
+		private final Flusher        flusher;
+		private final AtomicLong     pending = new AtomicLong();   // Bytes written since the last flush
+		private final AtomicBoolean  requested = new AtomicBoolean(); // A flush for the budget is waiting
+		private volatile boolean     closed;
+		private volatile Exception   error;
+		private ScheduledFuture<?>   periodic;
+		private final List<ScheduledFuture<?>> tasks = new CopyOnWriteArrayList<>();
+
+		// Statistics of this file
+		private long                 count;
+		private long                 nanos;
+		private long                 maxNanos;
+
+		private Registration(String name, Flusher flusher) {
+			this.name    = name;
+			this.flusher = flusher;
+		}
+
+		private void schedule(long period) {
+			periodic = executor.scheduleWithFixedDelay(this::flush, period, period, TimeUnit.MILLISECONDS);
+		}
+
+		/**
+		 * Call after data is written to the file. Returns straight away, if the
+		 * budget is reached the flush is done on the flush thread.
+		 * @param bytes the size of the data written
+		 */
+		public void written(long bytes) {
+			if (closed || budget<1) return;
+			if (pending.addAndGet(bytes)>=budget && requested.compareAndSet(false, true)) {
+				executor.execute(this::flush);
+			}
+		}
+
+		/**
+		 * Runs a task for the file on the flush thread every period until the registration
+		 * is closed, for instance to write data which is buffered so that it is written in
+		 * time also when the scan is not writing. Never runs after the registration is closed.
+		 * @param task to run
+		 * @param period ms between runs
+		 */
+		public void schedule(Flusher task, long period) {
+			if (closed || period<1) return;
+			tasks.add(executor.scheduleWithFixedDelay(() -> run(task), period, period, TimeUnit.MILLISECONDS));
+		}
+
+		private synchronized void run(Flusher task) {
+			if (closed) return;
+			try {
+				task.flush();
+			} catch (Exception ne) {
+				if (error==null) logger.error("Cannot write to {}", name, ne); // Logged once, it will fail each period
+				error = ne;
+			}
+		}
+
+		/**
+		 * Flushes the file on the calling thread, for instance when the scan pauses.
+		 */
+		public synchronized void flush() {
+			requested.set(false);
+			if (closed) return;
+			pending.set(0);
+			final long start = System.nanoTime();
+			try {
+				flusher.flush();
+			} catch (Exception ne) {
+				if (error==null) logger.error("Cannot flush {}", name, ne); // Logged once, it will fail each period
+				error = ne;
+				return;
+			}
+			final long time = System.nanoTime()-start;
+			count++;
+			nanos+=time;
+			if (time>maxNanos) maxNanos = time;
+			flushes.incrementAndGet();
+			flushNanos.addAndGet(time);
+			if (time>maxFlushNanos) maxFlushNanos = time;
+		}
+
+		/**
+		 * Stops flushing the file. Waits for a flush being done to finish so
+		 * that the file may be closed afterwards.
+		 */
+		@Override
+		public void close() {
+			if (periodic!=null) periodic.cancel(false);
+			for (ScheduledFuture<?> task : tasks) task.cancel(false);
+			files.remove(this);
+			synchronized (this) {
+				if (closed) return;
+				closed = true;
+			}
+			logger.debug("Flushed {} {} times, mean flush {}us, maximum flush {}us", name, count, getMeanFlushTime(), getMaximumFlushTime());
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return the number of times the file has been flushed.
+		 */
+		public synchronized long getFlushCount() {
+			return count;
+		}
+
+		/**
+		 * @return the mean time of one flush of this file in microseconds.
+		 */
+		public synchronized long getMeanFlushTime() {
+			return count>0 ? TimeUnit.NANOSECONDS.toMicros(nanos/count) : 0;
+		}
+
+		/**
+		 * @return the longest time of one flush of this file in microseconds.
+		 */
+		public synchronized long getMaximumFlushTime() {
+			return TimeUnit.NANOSECONDS.toMicros(maxNanos);
+		}
+
+		/**
+		 * @return the last error flushing the file or null
+		 */
+		public Exception getError() {
+			return error;
+		}
+	}
+
+	@Override
+	public String[] getOpenFiles() {
+		return files.stream().map(Registration::getName).toArray(String[]::new);
+	}
+
+	@Override
+	public long getPeriod() {
+		return period;
+	}
+
+	@Override
+	public long getByteBudget() {
+		return budget;
+	}
+
+	@Override
+	public long getFlushCount() {
+		return flushes.get();
+	}
+
+	@Override
+	public long getMeanFlushTime() {
+		final long n = flushes.get();
+		return n>0 ? TimeUnit.NANOSECONDS.toMicros(flushNanos.get()/n) : 0;
+	}
+
+	@Override
+	public long getMaximumFlushTime() {
+		return TimeUnit.NANOSECONDS.toMicros(maxFlushNanos);
+	}
+}
@@ -0,0 +1,52 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.sequencer.nexus;
+
+/**
+ * The statistics of the scheduler which flushes the
+ * NeXus files being written, published over JMX for monitoring.
+ */
+public interface NexusFlushSchedulerMXBean {
+
+	/**
+	 * The names of the files being flushed now.
+	 * @return
+	 */
+	String[] getOpenFiles();
+
+	/**
+	 * The time in ms between flushes of each file.
+	 * @return
+	 */
+	long getPeriod();
+
+	/**
+	 * The bytes written to a file which cause it to be flushed before the period is up.
+	 * @return
+	 */
+	long getByteBudget();
+
+	/**
+	 * The number of flushes of all files.
+	 * @return
+	 */
+	long getFlushCount();
+
+	/**
+	 * The mean time of one flush in microseconds.
+	 * @return
+	 */
+	long getMeanFlushTime();
+
+	/**
+	 * The longest time of one flush in microseconds.
+	 * @return
+	 */
+	long getMaximumFlushTime();
+}
@@ -11,6 +11,7 @@
  *******************************************************************************/
 package org.eclipse.scanning.sequencer.nexus;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -48,10 +49,15 @@ import org.eclipse.dawnsci.nexus.builder.impl.MapBasedMetadataProvider;
 import org.eclipse.scanning.api.INameable;
 import org.eclipse.scanning.api.IScannable;
 import org.eclipse.scanning.api.MonitorRole;
+import org.eclipse.scanning.api.annotation.scan.ScanAbort;
+import org.eclipse.scanning.api.annotation.scan.ScanPause;
 import org.eclipse.scanning.api.device.AbstractRunnableDevice;
 import org.eclipse.scanning.api.device.IScannableDeviceService;
+import org.eclipse.scanning.api.event.scan.StageLatency;
 import org.eclipse.scanning.api.points.AbstractPosition;
+import org.eclipse.scanning.api.points.GeneratorException;
 import org.eclipse.scanning.api.points.IDeviceDependentIterable;
+import org.eclipse.scanning.api.points.IPointGenerator;
 import org.eclipse.scanning.api.points.IPosition;
 import org.eclipse.scanning.api.points.ScanPointIterator;
 import org.eclipse.scanning.api.scan.PositionEvent;
@@ -80,6 +86,8 @@ public class NexusScanFileManager implements INexusScanFileManager, IPositionLis
 	private NexusFileBuilder fileBuilder;
 	private NexusScanFile nexusScanFile;
 	private SolsticeScanMonitor solsticeScanMonitor;
+	private NexusWriteQueue writeQueue;
+	private NexusFlushScheduler.Registration flushRegistration;
 
 	// we need to cache various things as they are used more than once
 	/**
@@ -168,6 +176,12 @@ public class NexusScanFileManager implements INexusScanFileManager, IPositionLis
 			// create the file from the builder and open it
 			nexusScanFile = fileBuilder.createFile(async);
 			nexusScanFile.openToWrite();
+			final String fileName = new File(model.getFilePath()).getName();
+			writeQueue = NexusWriteQueue.create(fileName);
+			solsticeScanMonitor.setWriteQueue(writeQueue);
+			flushRegistration = NexusFlushScheduler.getInstance().register(fileName, this::flushScanFile);
+			flushRegistration.schedule(solsticeScanMonitor::flushPoints, solsticeScanMonitor.getFlushDelay()); // Does nothing without a delay
+			if (writeQueue!=null) writeQueue.setFlushRegistration(flushRegistration);
 			return model.getFilePath();
 		} catch (NexusException e) {
 			throw new ScanningException("Cannot create nexus file", e);
@@ -175,11 +189,18 @@ public class NexusScanFileManager implements INexusScanFileManager, IPositionLis
 	}
 
 	/**
-	 * Flushes the wrapped nexus file.
+	 * Writes the buffered unique keys and the slices waiting in the write
+	 * queue, then flushes the wrapped nexus file.
 	 * @throws ScanningException if the nexus file could not be flushed for any reason
 	 */
 	@Override
 	public void flushNexusFile() throws ScanningException {
+		try {
+			solsticeScanMonitor.flushPoints();
+		} catch (Exception e) {
+			throw new ScanningException("Could not write unique keys", e);
+		}
+		if (writeQueue!=null) writeQueue.flush();
 		try {
 			int code = nexusScanFile.flush();
 			if (code < 0) {
@@ -190,22 +211,70 @@ public class NexusScanFileManager implements INexusScanFileManager, IPositionLis
 		}
 	}
 
+	/**
+	 * Called by the flush scheduler on its own thread so that SWMR readers
+	 * see the points written. Slices waiting in the write queue are flushed
+	 * the next time, the scan is not held up waiting for them.
+	 */
+	private void flushScanFile() throws Exception {
+		solsticeScanMonitor.flushPoints();
+		int code = nexusScanFile.flush();
+		if (code < 0) {
+			logger.warn("Problem flushing during scan! Flush code is "+code);
+		}
+	}
+
+	/**
+	 * Writes the unique keys of the points buffered by the scan monitor and flushes
+	 * the file, so that a paused or aborted scan shows every point completed.
+	 * When the scan ends they are written by {@link #scanFinished()} before the file is closed.
+	 * @throws ScanningException
+	 */
+	@ScanPause
+	@ScanAbort
+	public void flushScanPoints() throws ScanningException {
+		try {
+			solsticeScanMonitor.flushPoints();
+		} catch (Exception e) {
+			throw new ScanningException("Could not write unique keys", e);
+		}
+		if (flushRegistration!=null) flushRegistration.flush();
+	}
+
+	@Override
+	public void setLatencies(List<StageLatency> latencies) {
+		solsticeScanMonitor.setLatencies(latencies);
+	}
+
 	/**
 	 * Writes scan finished and closes the wrapped nexus file.
 	 * @throws ScanningException
 	 */
 	@Override
 	public void scanFinished() throws ScanningException {
-		solsticeScanMonitor.scanFinished();
 		try {
-			nexusScanFile.close();
-		} catch (NexusException e) {
-			throw new ScanningException("Could not close nexus file", e);
+			if (flushRegistration!=null) flushRegistration.close(); // Waits for a flush being done
+			if (writeQueue!=null) writeQueue.close(); // Write the slices waiting before the file is closed
 		} finally {
-			scanDevice.removePositionListener(this);
+			flushRegistration = null;
+			writeQueue = null;
+			solsticeScanMonitor.setWriteQueue(null);
+			solsticeScanMonitor.scanFinished();
+			try {
+				nexusScanFile.close();
+			} catch (NexusException e) {
+				throw new ScanningException("Could not close nexus file", e);
+			} finally {
+				scanDevice.removePositionListener(this);
+			}
 		}
 	}
 
+	@Override
+	public NexusWriteQueue getWriteQueue() {
+		return writeQueue;
+	}
+
 	@Override
 	public boolean isNexusWritingEnabled() {
 		return true;
@@ -398,6 +467,13 @@ public class NexusScanFileManager implements INexusScanFileManager, IPositionLis
 		if (gen instanceof IDeviceDependentIterable) {
 			scanRank = ((IDeviceDependentIterable)gen).getScanRank();
 		}
+		if (scanRank < 0 && gen instanceof IPointGenerator<?> && !(gen instanceof IDeviceDependentIterable)) {
+			try {
+				scanRank = ((IPointGenerator<?>)gen).getScanPathInfo().getRank();
+			} catch (GeneratorException ne) {
+				logger.debug("Cannot get the scan rank from the generator, iterating instead", ne);
+			}
+		}
 		if (scanRank < 0) {
 			Iterator<IPosition> iter = gen.iterator();
 			if (iter instanceof ScanPointIterator) {
@@ -617,6 +693,17 @@ public class NexusScanFileManager implements INexusScanFileManager, IPositionLis
 		}
 	}
 
+	private List<Collection<String>> getDimensionNames(Iterable<IPosition> gen) {
+		if (gen instanceof IPointGenerator<?> && !(gen instanceof IDeviceDependentIterable)) {
+			try {
+				return ((IPointGenerator<?>)gen).getScanPathInfo().getDimensionNames();
+			} catch (GeneratorException ne) {
+				logger.debug("Cannot get the dimension names from the generator, iterating instead", ne);
+			}
+		}
+		return ((AbstractPosition)gen.iterator().next()).getDimensionNames();
+	}
+
 	/**
 	 * Creates a map from scannable names to the index of the scan
 	 * (and therefore the index of the signal dataset of each NXdata) that this
@@ -628,9 +715,8 @@ public class NexusScanFileManager implements INexusScanFileManager, IPositionLis
 	private Map<String, Integer> createDefaultAxisMap(List<NexusObjectProvider<?>> scannables) {
 		final Map<String, Integer> defaultAxisIndexForScannableMap = new HashMap<>();
 
-		AbstractPosition firstPosition = (AbstractPosition) model.getPositionIterable().iterator().next();
 		// A collection of dimension (scannable) names for each index of the scan
-		List<Collection<String>> dimensionNames = firstPosition.getDimensionNames();
+		List<Collection<String>> dimensionNames = getDimensionNames(model.getPositionIterable());
 
 		// Convert the list into a map from scannable name to index in scan, only including
 		// scannable names which are the dimension name for exactly one index of the scan
@@ -0,0 +1,454 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.sequencer.nexus;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.eclipse.january.dataset.Dataset;
+import org.eclipse.january.dataset.DatasetUtils;
+import org.eclipse.january.dataset.IDataset;
+import org.eclipse.january.dataset.ILazyWriteableDataset;
+import org.eclipse.january.dataset.SliceND;
+import org.eclipse.scanning.api.scan.ScanningException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes the slices of a scan to its NeXus file on a thread of its own, so that
+ * the threads running the scan do not wait for the file system or for the lock
+ * of the HDF5 library.
+ * <p>
+ * Devices call {@link #setSlice(ILazyWriteableDataset, IDataset, SliceND)} instead of
+ * setting the slice on the dataset. The slice is put in a bounded ring buffer
+ * and the call returns straight away unless the buffer is full, in which case the
+ * device waits for room. The writer takes all the slices waiting each time it wakes.
+ * Single points of the same dataset which sit next to each other along one axis
+ * are joined and written as one hyperslab. The datasets are written in the order
+ * their slices were first queued, except for key datasets such as the unique keys,
+ * which are written after the others so that a reader which sees the key of
+ * a point can read the data of that point.
+ * <p>
+ * Devices receive the queue of the scan as context for their annotated methods,
+ * for instance <code>&#64;ScanStart public void start(NexusWriteQueue queue)</code>.
+ * <p>
+ * Properties:
+ * <ul>
+ * <li><code>org.eclipse.scanning.sequencer.nexus.queue</code> true to write slices through a queue, false by default.</li>
+ * <li><code>org.eclipse.scanning.sequencer.nexus.queue.size</code> the most slices which may wait, 1024 by default.</li>
+ * </ul>
+ * The depth of the queue and the write latency are published as the MXBean
+ * <code>org.eclipse.scanning.sequencer:type=NexusWriteQueue,name=&lt;file name&gt;</code>
+ * while the scan runs.
+ */
+public final class NexusWriteQueue implements NexusWriteQueueMXBean {
+
+	private static final Logger logger = LoggerFactory.getLogger(NexusWriteQueue.class);
+
+	private static final SliceWrite STOP = new SliceWrite(null, null, null, false);
+
+	private final String                        name;
+	private final int                           capacity;
+	private final ArrayBlockingQueue<SliceWrite> queue;
+	private final Thread                        writer;
+	private final Object                        lock = new Object();
+
+	private volatile Exception error;
+	private volatile boolean   closed;
+	private ObjectName         objectName;
+	private volatile NexusFlushScheduler.Registration flushRegistration;
+
+	// Statistics
+	private final AtomicLong   submitted  = new AtomicLong();
+	private final AtomicLong   stalls     = new AtomicLong();
+	private final AtomicLong   stallNanos = new AtomicLong();
+	private volatile int       maxDepth;
+	private volatile long      written;    // Only changed by the writer while holding lock
+	private volatile long      hyperslabs;
+	private volatile long      writeNanos;
+	private volatile long      maxWriteNanos;
+
+	/**
+	 * Creates and starts the queue for a file if the property
+	 * <code>org.eclipse.scanning.sequencer.nexus.queue</code> is set.
+	 *
+	 * @param name of the file written to
+	 * @return the queue or null if slices should be written directly.
+	 */
+	public static NexusWriteQueue create(String name) {
+		if (!Boolean.getBoolean("org.eclipse.scanning.sequencer.nexus.queue")) return null;
+		return new NexusWriteQueue(name, Integer.getInteger("org.eclipse.scanning.sequencer.nexus.queue.size", 1024));
+	}
+
+	/**
+	 * Creates and starts a queue.
+	 * @param name of the file written to
+	 * @param capacity the most slices which may wait before a device is blocked.
+	 */
+	public NexusWriteQueue(String name, int capacity) {
+		this.name     = name;
+		this.capacity = Math.max(1, capacity);
+		this.queue    = new ArrayBlockingQueue<>(this.capacity);
+		this.writer   = new Thread(this::run, "NeXus writer "+name);
+		writer.setDaemon(true);
+		writer.start();
+
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName  oname  = new ObjectName("org.eclipse.scanning.sequencer:type=NexusWriteQueue,name="+ObjectName.quote(name));
+			if (!server.isRegistered(oname)) {
+				server.registerMBean(this, oname);
+				objectName = oname;
+			}
+		} catch (Exception ne) {
+			logger.warn("Cannot publish the write queue statistics for {}", name, ne);
+		}
+	}
+
+	/**
+	 * Queues a slice to be written to the dataset. The data must not be
+	 * changed by the caller afterwards as it may not have been written yet.
+	 *
+	 * @param dataset to write to
+	 * @param data to write
+	 * @param slice of the dataset to write the data to
+	 * @throws ScanningException if an earlier slice could not be written or the queue is closed.
+	 */
+	public void setSlice(ILazyWriteableDataset dataset, IDataset data, SliceND slice) throws ScanningException {
+		add(new SliceWrite(dataset, data, slice, false));
+	}
+
+	/**
+	 * Queues a slice of a key dataset, such as the unique keys, which marks the points
+	 * whose data have been written. It is written after the slices of other datasets
+	 * which are queued with it, also those queued after it.
+	 *
+	 * @param dataset to write to
+	 * @param data to write
+	 * @param slice of the dataset to write the data to
+	 * @throws ScanningException if an earlier slice could not be written or the queue is closed.
+	 */
+	public void setKeySlice(ILazyWriteableDataset dataset, IDataset data, SliceND slice) throws ScanningException {
+		add(new SliceWrite(dataset, data, slice, true));
+	}
+
+	private void add(SliceWrite write) throws ScanningException {
+
+		checkError();
+		if (closed) throw new ScanningException("The write queue for "+name+" is closed");
+
+		submitted.incrementAndGet();
+		if (!queue.offer(write)) {
+			stalls.incrementAndGet();
+			final long start = System.nanoTime();
+			try {
+				queue.put(write);
+			} catch (InterruptedException ne) {
+				submitted.decrementAndGet();
+				Thread.currentThread().interrupt();
+				throw new ScanningException("Interrupted waiting to write to "+name, ne);
+			} finally {
+				stallNanos.addAndGet(System.nanoTime()-start);
+			}
+		}
+		final int depth = queue.size();
+		if (depth>maxDepth) maxDepth = depth;
+	}
+
+	/**
+	 * Blocks until all the slices queued so far have been written.
+	 * @throws ScanningException if any slice could not be written.
+	 */
+	public void flush() throws ScanningException {
+		final long target = submitted.get();
+		try {
+			synchronized (lock) {
+				while (written<target && writer.isAlive()) lock.wait(100);
+			}
+		} catch (InterruptedException ne) {
+			Thread.currentThread().interrupt();
+			throw new ScanningException("Interrupted waiting for "+name+" to be written", ne);
+		}
+		checkError();
+	}
+
+	/**
+	 * Writes the slices which are waiting and stops the writer.
+	 * @throws ScanningException if any slice could not be written.
+	 */
+	public void close() throws ScanningException {
+		if (closed) return;
+		closed = true;
+		try {
+			flush();
+		} finally {
+			queue.offer(STOP);
+			try {
+				writer.join(TimeUnit.SECONDS.toMillis(10));
+			} catch (InterruptedException ne) {
+				Thread.currentThread().interrupt();
+			}
+			unregister();
+			logger.debug("Wrote {} slices to {} in {} hyperslabs, maximum depth {}, stalled {} times for {}ms, mean write {}us, maximum write {}us",
+					written, name, hyperslabs, maxDepth, getStallCount(), getStallTime(), getMeanWriteLatency(), getMaximumWriteLatency());
+		}
+	}
+
+	private void unregister() {
+		if (objectName==null) return;
+		try {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+		} catch (Exception ne) {
+			logger.debug("Cannot unregister {}", objectName, ne);
+		}
+		objectName = null;
+	}
+
+	private void checkError() throws ScanningException {
+		if (error!=null) throw new ScanningException("Cannot write slice to "+name, error);
+	}
+
+	private void run() {
+		final List<SliceWrite> batch = new ArrayList<>(capacity);
+		try {
+			while(true) {
+				batch.add(queue.take());
+				queue.drainTo(batch);
+
+				final boolean stop = batch.remove(STOP);
+				if (error==null) {
+					write(batch); // After an error the slices are dropped so that devices are not blocked.
+				}
+				synchronized (lock) {
+					written+=batch.size();
+					lock.notifyAll();
+				}
+				batch.clear();
+				if (stop) return;
+			}
+		} catch (InterruptedException ne) {
+			logger.warn("The writer for {} was interrupted", name);
+		}
+	}
+
+	/**
+	 * Writes a batch of slices, joining those next to each other
+	 * in the same dataset. The order of the slices of one dataset is kept.
+	 * The datasets are written in the order they were first queued in
+	 * the batch, with the key datasets last.
+	 */
+	private void write(List<SliceWrite> batch) {
+
+		final Map<ILazyWriteableDataset, List<SliceWrite>> byDataset = new IdentityHashMap<>();
+		final List<List<SliceWrite>> datasets = new ArrayList<>();
+		final List<List<SliceWrite>> keys     = new ArrayList<>(1);
+		for (SliceWrite write : batch) {
+			List<SliceWrite> writes = byDataset.get(write.dataset);
+			if (writes==null) {
+				writes = new ArrayList<>();
+				byDataset.put(write.dataset, writes);
+				if (write.key) {
+					keys.add(writes);
+				} else {
+					datasets.add(writes);
+				}
+			}
+			writes.add(write);
+		}
+		datasets.addAll(keys);
+
+		for (List<SliceWrite> writes : datasets) {
+			try {
+				int from = 0;
+				while (from<writes.size()) {
+					final int to = findRun(writes, from);
+					if (to-from==1) {
+						final SliceWrite write = writes.get(from);
+						write(write.dataset, write.data, write.slice);
+					} else {
+						writeJoined(writes.subList(from, to));
+					}
+					from = to;
+				}
+			} catch (Exception ne) {
+				if (error==null) error = ne;
+				logger.error("Cannot write slice to {}", name, ne);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * @return the index after the last slice which may be joined to the slice at from.
+	 */
+	private static int findRun(List<SliceWrite> writes, int from) {
+		int axis = -1;
+		int to = from+1;
+		for (; to<writes.size(); to++) {
+			final int next = getAdjacentAxis(writes.get(to-1), writes.get(to));
+			if (next<0 || (axis>-1 && next!=axis)) break;
+			axis = next;
+		}
+		return to;
+	}
+
+	/**
+	 * Two slices, usually single points, are adjacent if they differ
+	 * along one axis only and the second starts where the first stops.
+	 *
+	 * @return the axis along which they are adjacent or -1
+	 */
+	private static int getAdjacentAxis(SliceWrite prev, SliceWrite next) {
+
+		if (!prev.isJoinable() || !next.isJoinable()) return -1;
+		final int[] pstart = prev.slice.getStart();
+		final int[] pstop  = prev.slice.getStop();
+		final int[] nstart = next.slice.getStart();
+		final int[] nstop  = next.slice.getStop();
+		if (pstart.length!=nstart.length) return -1;
+
+		int axis = -1;
+		for (int i = 0; i < pstart.length; i++) {
+			if (pstart[i]==nstart[i] && pstop[i]==nstop[i]) continue;
+			if (axis>-1 || nstart[i]!=pstop[i]) return -1;
+			axis = i;
+		}
+		return axis;
+	}
+
+	private void writeJoined(List<SliceWrite> run) throws Exception {
+
+		final SliceWrite first = run.get(0);
+		final SliceWrite last  = run.get(run.size()-1);
+
+		// The axis along which they are joined is the one where the first and last start differently
+		final int[] start = first.slice.getStart();
+		final int[] stop  = last.slice.getStop();
+		int axis = 0;
+		while (start[axis]==last.slice.getStart()[axis]) axis++;
+
+		final IDataset[] data = new IDataset[run.size()];
+		for (int i = 0; i < data.length; i++) {
+			final SliceWrite write = run.get(i);
+			data[i] = DatasetUtils.convertToDataset(write.data).reshape(write.slice.getShape());
+		}
+		final Dataset joined = DatasetUtils.concatenate(data, axis);
+		write(first.dataset, joined, new SliceND(last.slice.getSourceShape(), last.slice.getMaxShape(), start, stop, null));
+	}
+
+	private void write(ILazyWriteableDataset dataset, IDataset data, SliceND slice) throws Exception {
+		final long start = System.nanoTime();
+		dataset.setSlice(null, data, slice);
+		final long time = System.nanoTime()-start;
+		writeNanos+=time;
+		if (time>maxWriteNanos) maxWriteNanos = time;
+		hyperslabs++;
+		if (flushRegistration!=null) flushRegistration.written(DatasetUtils.convertToDataset(data).getNbytes());
+	}
+
+	/**
+	 * Tells the scheduler which flushes the file how many bytes
+	 * are written so that it may flush when its budget is reached.
+	 * @param flushRegistration
+	 */
+	public void setFlushRegistration(NexusFlushScheduler.Registration flushRegistration) {
+		this.flushRegistration = flushRegistration;
+	}
+
+	@Override
+	public int getDepth() {
+		return queue.size();
+	}
+
+	@Override
+	public int getMaximumDepth() {
+		return maxDepth;
+	}
+
+	@Override
+	public int getCapacity() {
+		return capacity;
+	}
+
+	@Override
+	public long getSubmittedCount() {
+		return submitted.get();
+	}
+
+	@Override
+	public long getWrittenCount() {
+		return written;
+	}
+
+	@Override
+	public long getHyperslabCount() {
+		return hyperslabs;
+	}
+
+	@Override
+	public long getStallCount() {
+		return stalls.get();
+	}
+
+	@Override
+	public long getStallTime() {
+		return TimeUnit.NANOSECONDS.toMillis(stallNanos.get());
+	}
+
+	@Override
+	public long getMeanWriteLatency() {
+		final long count = hyperslabs;
+		return count>0 ? TimeUnit.NANOSECONDS.toMicros(writeNanos/count) : 0;
+	}
+
+	@Override
+	public long getMaximumWriteLatency() {
+		return TimeUnit.NANOSECONDS.toMicros(maxWriteNanos);
+	}
+
+	@Override
+	public String toString() {
+		return "NexusWriteQueue [name=" + name + ", depth=" + getDepth() + ", written=" + written + "]";
+	}
+
+	private static final class SliceWrite {
+
+		private final ILazyWriteableDataset dataset;
+		private final IDataset              data;
+		private final SliceND               slice;
+		private final boolean               key;
+
+		SliceWrite(ILazyWriteableDataset dataset, IDataset data, SliceND slice, boolean key) {
+			this.dataset = dataset;
+			this.data    = data;
+			this.slice   = slice;
+			this.key     = key;
+		}
+
+		/**
+		 * @return true if the slice may be joined to others, it
+		 * does not step and the data fills it exactly.
+		 */
+		boolean isJoinable() {
+			for (int s : slice.getStep()) if (s!=1) return false;
+			int size = 1;
+			for (int n : slice.getShape()) size*=n;
+			return data.getSize()==size;
+		}
+	}
+}
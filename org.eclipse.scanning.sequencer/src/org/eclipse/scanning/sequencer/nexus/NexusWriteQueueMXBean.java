@@ -0,0 +1,77 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.sequencer.nexus;
+
+/**
+ * The statistics of the queue which writes slices to the
+ * NeXus file of a scan, published over JMX for monitoring.
+ */
+public interface NexusWriteQueueMXBean {
+
+	/**
+	 * The number of slices waiting to be written now.
+	 * @return
+	 */
+	int getDepth();
+
+	/**
+	 * The most slices which have been waiting at one time.
+	 * @return
+	 */
+	int getMaximumDepth();
+
+	/**
+	 * The most slices which may wait before the devices writing them are blocked.
+	 * @return
+	 */
+	int getCapacity();
+
+	/**
+	 * The number of slices which devices have queued.
+	 * @return
+	 */
+	long getSubmittedCount();
+
+	/**
+	 * The number of slices which have been written.
+	 * @return
+	 */
+	long getWrittenCount();
+
+	/**
+	 * The number of writes made to the file, less than the written
+	 * count when adjacent slices have been written together.
+	 * @return
+	 */
+	long getHyperslabCount();
+
+	/**
+	 * The number of times that a device was blocked because the queue was full.
+	 * @return
+	 */
+	long getStallCount();
+
+	/**
+	 * The total time in ms that devices have been blocked because the queue was full.
+	 * @return
+	 */
+	long getStallTime();
+
+	/**
+	 * The mean time of one write to the file in microseconds.
+	 * @return
+	 */
+	long getMeanWriteLatency();
+
+	/**
+	 * The longest time of one write to the file in microseconds.
+	 * @return
+	 */
+	long getMaximumWriteLatency();
+}
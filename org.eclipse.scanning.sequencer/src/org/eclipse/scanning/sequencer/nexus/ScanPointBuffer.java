@@ -0,0 +1,146 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.sequencer.nexus;
+
+import java.util.Arrays;
+
+/**
+ * Holds the unique key and time of the points of a scan in primitive
+ * arrays so that they may be written in blocks rather than a point at a time.
+ * <p>
+ * When drained the points are split into blocks along the fastest axis of the
+ * scan. A block is a run of points which differ only in their fastest index and
+ * step by one along it, forwards or backwards as in a snake scan. Each block is
+ * given in ascending index order.
+ * <p>
+ * Not thread safe, the caller synchronizes.
+ */
+final class ScanPointBuffer {
+
+	@FunctionalInterface
+	interface BlockWriter {
+		/**
+		 * Write one block.
+		 * @param start index of the first point
+		 * @param stop  index after the last point
+		 * @param keys  unique keys of the block in ascending index order, only the first size are used
+		 * @param times times of the block in ascending index order, only the first size are used
+		 * @param size  number of points in the block
+		 * @throws Exception
+		 */
+		void write(int[] start, int[] stop, int[] keys, long[] times, int size) throws Exception;
+	}
+
+	private final int    rank;
+	private final int[]  indices; // rank indices for each point
+	private final int[]  keys;
+	private final long[] times;
+	private int          size;
+
+	// Reused for each block
+	private final int[]  blockKeys;
+	private final long[] blockTimes;
+
+	/**
+	 * @param rank of the scan, one or more
+	 * @param capacity the number of points held before the buffer is full
+	 */
+	ScanPointBuffer(int rank, int capacity) {
+		this.rank       = rank;
+		this.indices    = new int[rank*capacity];
+		this.keys       = new int[capacity];
+		this.times      = new long[capacity];
+		this.blockKeys  = new int[capacity];
+		this.blockTimes = new long[capacity];
+	}
+
+	/**
+	 * Add a point.
+	 * @param index of the point in the scan
+	 * @param key   unique key of the point
+	 * @param time  of the point
+	 * @return true if the buffer is now full and must be drained before more are added.
+	 */
+	boolean add(int[] index, int key, long time) {
+		System.arraycopy(index, 0, indices, size*rank, rank);
+		keys[size]  = key;
+		times[size] = time;
+		size++;
+		return size==keys.length;
+	}
+
+	int size() {
+		return size;
+	}
+
+	int getCapacity() {
+		return keys.length;
+	}
+
+	/**
+	 * Writes the points in blocks and empties the buffer. If the writer fails
+	 * the buffer is still emptied, the points are not offered again.
+	 *
+	 * @param writer
+	 * @throws Exception from the writer
+	 */
+	void drain(BlockWriter writer) throws Exception {
+		try {
+			int from = 0;
+			while (from<size) {
+				final int to = findBlockEnd(from);
+				writeBlock(writer, from, to);
+				from = to;
+			}
+		} finally {
+			size = 0;
+		}
+	}
+
+	/**
+	 * @return the index after the last point of the block starting at from.
+	 */
+	private int findBlockEnd(int from) {
+		final int fast = rank-1;
+		int direction = 0;
+		int to = from+1;
+		for (; to<size; to++) {
+			final int prev = (to-1)*rank;
+			final int next = to*rank;
+			for (int i = 0; i < fast; i++) {
+				if (indices[prev+i]!=indices[next+i]) return to;
+			}
+			final int step = indices[next+fast]-indices[prev+fast];
+			if (step!=1 && step!=-1) return to;
+			if (direction==0) direction = step;
+			if (step!=direction) return to;
+		}
+		return to;
+	}
+
+	private void writeBlock(BlockWriter writer, int from, int to) throws Exception {
+
+		final int fast = rank-1;
+		final int n    = to-from;
+		final boolean reversed = n>1 && indices[(from+1)*rank+fast]<indices[from*rank+fast];
+		for (int i = 0; i < n; i++) {
+			final int src = reversed ? to-1-i : from+i;
+			blockKeys[i]  = keys[src];
+			blockTimes[i] = times[src];
+		}
+
+		final int first = reversed ? to-1 : from;
+		final int[] start = Arrays.copyOfRange(indices, first*rank, first*rank+rank);
+		final int[] stop  = new int[rank];
+		for (int i = 0; i < rank; i++) stop[i] = start[i]+1;
+		stop[fast] = start[fast]+n;
+
+		writer.write(start, stop, blockKeys, blockTimes, n);
+	}
+}
@@ -26,6 +26,14 @@ public final class SolsticeConstants {
 	public static final String FIELD_NAME_SCAN_DEAD_TIME = "scan_dead_time";
 	public static final String FIELD_NAME_SCAN_DEAD_TIME_PERCENT = "scan_dead_time_percent";
 	public static final String FIELD_NAME_SCAN_SHAPE    = "scan_shape";
+	public static final String FIELD_NAME_TIMESTAMPS    = "timestamps";
+	public static final String GROUP_NAME_LATENCY       = "latency";
+	public static final String FIELD_NAME_LATENCY_STAGE = "stage";
+	public static final String FIELD_NAME_LATENCY_COUNT = "count";
+	public static final String FIELD_NAME_LATENCY_MEAN  = "mean";
+	public static final String FIELD_NAME_LATENCY_P50   = "p50";
+	public static final String FIELD_NAME_LATENCY_P99   = "p99";
+	public static final String FIELD_NAME_LATENCY_MAX   = "max";
 
 	/**
 	 * Property name for the path within an external (linked) nexus file to the unique keys dataset.
@@ -11,6 +11,12 @@
  *******************************************************************************/
 package org.eclipse.scanning.sequencer.nexus;
 
+import static org.eclipse.scanning.sequencer.nexus.SolsticeConstants.FIELD_NAME_LATENCY_COUNT;
+import static org.eclipse.scanning.sequencer.nexus.SolsticeConstants.FIELD_NAME_LATENCY_MAX;
+import static org.eclipse.scanning.sequencer.nexus.SolsticeConstants.FIELD_NAME_LATENCY_MEAN;
+import static org.eclipse.scanning.sequencer.nexus.SolsticeConstants.FIELD_NAME_LATENCY_P50;
+import static org.eclipse.scanning.sequencer.nexus.SolsticeConstants.FIELD_NAME_LATENCY_P99;
+import static org.eclipse.scanning.sequencer.nexus.SolsticeConstants.FIELD_NAME_LATENCY_STAGE;
 import static org.eclipse.scanning.sequencer.nexus.SolsticeConstants.FIELD_NAME_SCAN_CMD;
 import static org.eclipse.scanning.sequencer.nexus.SolsticeConstants.FIELD_NAME_SCAN_DEAD_TIME;
 import static org.eclipse.scanning.sequencer.nexus.SolsticeConstants.FIELD_NAME_SCAN_DEAD_TIME_PERCENT;
@@ -20,8 +26,10 @@ import static org.eclipse.scanning.sequencer.nexus.SolsticeConstants.FIELD_NAME_
 import static org.eclipse.scanning.sequencer.nexus.SolsticeConstants.FIELD_NAME_SCAN_MODELS;
 import static org.eclipse.scanning.sequencer.nexus.SolsticeConstants.FIELD_NAME_SCAN_RANK;
 import static org.eclipse.scanning.sequencer.nexus.SolsticeConstants.FIELD_NAME_SCAN_SHAPE;
+import static org.eclipse.scanning.sequencer.nexus.SolsticeConstants.FIELD_NAME_TIMESTAMPS;
 import static org.eclipse.scanning.sequencer.nexus.SolsticeConstants.FIELD_NAME_UNIQUE_KEYS;
 import static org.eclipse.scanning.sequencer.nexus.SolsticeConstants.GROUP_NAME_KEYS;
+import static org.eclipse.scanning.sequencer.nexus.SolsticeConstants.GROUP_NAME_LATENCY;
 import static org.eclipse.scanning.sequencer.nexus.SolsticeConstants.GROUP_NAME_SOLSTICE_SCAN;
 import static org.eclipse.scanning.sequencer.nexus.SolsticeConstants.PROPERTY_NAME_UNIQUE_KEYS_PATH;
 import static org.eclipse.scanning.sequencer.nexus.SolsticeConstants.SCANNABLE_NAME_SOLSTICE_SCAN_MONITOR;
@@ -56,6 +64,7 @@ import org.eclipse.january.dataset.IntegerDataset;
 import org.eclipse.january.dataset.LazyWriteableDataset;
 import org.eclipse.january.dataset.SliceND;
 import org.eclipse.scanning.api.AbstractScannable;
+import org.eclipse.scanning.api.event.scan.StageLatency;
 import org.eclipse.scanning.api.points.IPosition;
 import org.eclipse.scanning.api.scan.ScanInformation;
 import org.eclipse.scanning.api.scan.ScanningException;
@@ -93,10 +102,12 @@ public class SolsticeScanMonitor extends AbstractScannable<Object> implements IN
 
 	// Writing Datasets
 	private ILazyWriteableDataset uniqueKeysDataset = null;
+	private ILazyWriteableDataset timestampsDataset = null;
 	private ILazyWriteableDataset scanFinishedDataset = null;
 	private ILazyWriteableDataset scanDurationDataset = null;
 	private ILazyWriteableDataset scanDeadTimeDataset = null;
 	private ILazyWriteableDataset scanDeadTimePercentDataset = null;
+	private ILazyWriteableDataset[] latencyDatasets = null; // stage, count, mean, p50, p99, max
 
 	// State
 	private boolean malcolmScan = false;
@@ -104,6 +115,13 @@ public class SolsticeScanMonitor extends AbstractScannable<Object> implements IN
 	private Instant scanStartTime = null;
 	private int[] scanShape = null;
 	private boolean writeAfterMovePerformed = false;
+	private List<StageLatency> latencies = null;
+	private NexusWriteQueue writeQueue = null;
+
+	// The unique keys and times of points not yet written
+	private ScanPointBuffer pointBuffer = null;
+	private long lastFlush;
+	private final long flushDelay = Long.getLong("org.eclipse.scanning.sequencer.nexus.keys.delay", 0);
 
 	public SolsticeScanMonitor(ScanModel model) {
 		this.model = model;
@@ -208,26 +226,120 @@ public class SolsticeScanMonitor extends AbstractScannable<Object> implements IN
 		final NXcollection keysCollection = NexusNodeFactory.createNXcollection();
 		scanPointsCollection.addGroupNode(GROUP_NAME_KEYS, keysCollection);
 
-		// create the unique keys dataset (not for malcolm scans)
+		// create the unique keys and timestamps datasets (not for malcolm scans)
 		if (!malcolmScan) {
 			uniqueKeysDataset = keysCollection.initializeLazyDataset(FIELD_NAME_UNIQUE_KEYS, info.getRank(), Integer.class);
+			timestampsDataset = scanPointsCollection.initializeLazyDataset(FIELD_NAME_TIMESTAMPS, info.getRank(), Long.class);
+			scanPointsCollection.setAttribute(FIELD_NAME_TIMESTAMPS, "units", "ms");
+			scanPointsCollection.setAttribute(FIELD_NAME_TIMESTAMPS, "start", scanStartTime.toString());
 		}
 
-		// set chunking for lazy datasets
-		if (info.getRank() > 0) {
-			final int[] chunk = info.createChunk(false, 8);
-			if (!malcolmScan) {
-				uniqueKeysDataset.setFillValue(0);
-				uniqueKeysDataset.setChunking(chunk);
+		// set chunking for lazy datasets, the points are buffered and written a chunk at a time
+		if (info.getRank() > 0 && !malcolmScan) {
+			int[] chunk = model.getChunkingModel()!=null ? model.getChunkingModel().getChunk(GROUP_NAME_SOLSTICE_SCAN+"/"+FIELD_NAME_UNIQUE_KEYS) : null;
+			if (chunk==null || chunk.length!=info.getRank()) {
+				chunk = createChunk(info.getShape(), Integer.getInteger("org.eclipse.scanning.sequencer.nexus.keys.chunk", 1024));
 			}
+			uniqueKeysDataset.setFillValue(0);
+			uniqueKeysDataset.setChunking(chunk);
+			timestampsDataset.setFillValue(0L);
+			timestampsDataset.setChunking(chunk);
+			pointBuffer = new ScanPointBuffer(info.getRank(), Arrays.stream(chunk).reduce(1, (a, b) -> a*b));
+			lastFlush   = System.currentTimeMillis();
 		}
 
 		// add external links to the unique key datasets for each external HD5 file
 		addLinksToExternalFiles(keysCollection);
 
+		// create a sub-collection for the latencies of the stages of the scan, if they are recorded
+		if (Boolean.getBoolean("org.eclipse.scanning.sequencer.latency")) {
+			final NXcollection latencyCollection = NexusNodeFactory.createNXcollection();
+			scanPointsCollection.addGroupNode(GROUP_NAME_LATENCY, latencyCollection);
+			latencyDatasets = new ILazyWriteableDataset[] {
+				createLatencyDataset(latencyCollection, FIELD_NAME_LATENCY_STAGE, String.class),
+				createLatencyDataset(latencyCollection, FIELD_NAME_LATENCY_COUNT, Long.class),
+				createLatencyDataset(latencyCollection, FIELD_NAME_LATENCY_MEAN,  Long.class),
+				createLatencyDataset(latencyCollection, FIELD_NAME_LATENCY_P50,   Long.class),
+				createLatencyDataset(latencyCollection, FIELD_NAME_LATENCY_P99,   Long.class),
+				createLatencyDataset(latencyCollection, FIELD_NAME_LATENCY_MAX,   Long.class)
+			};
+			for (String name : new String[]{FIELD_NAME_LATENCY_MEAN, FIELD_NAME_LATENCY_P50, FIELD_NAME_LATENCY_P99, FIELD_NAME_LATENCY_MAX}) {
+				latencyCollection.setAttribute(name, "units", "us");
+			}
+		}
+
 		return scanPointsCollection;
 	}
 
+	/**
+	 * Chunks the points of the scan so that each chunk holds up to size points,
+	 * filling the fastest axes first. The points are written a chunk at a time so
+	 * a scan of a million points makes a thousand writes, not a million.
+	 *
+	 * @param shape of the scan, an axis of unknown length may be -1
+	 * @param size  the most points in one chunk
+	 * @return chunk
+	 */
+	static int[] createChunk(int[] shape, int size) {
+		final int[] chunk = new int[shape.length];
+		int remaining = Math.max(1, size);
+		for (int i = shape.length-1; i > -1; i--) {
+			chunk[i]   = shape[i]>0 ? Math.min(shape[i], remaining) : remaining;
+			remaining  = Math.max(1, remaining/chunk[i]);
+		}
+		return chunk;
+	}
+
+	private static ILazyWriteableDataset createLatencyDataset(NXcollection collection, String name, Class<?> clazz) {
+		final ILazyWriteableDataset dataset = new LazyWriteableDataset(name, clazz,
+				new int[] { 1 }, new int[] { -1 }, new int[] { 1 }, null);
+		collection.createDataNode(name, dataset);
+		return dataset;
+	}
+
+	/**
+	 * Set the queue which writes the unique keys of each point, or null
+	 * to write them directly.
+	 * @param writeQueue
+	 */
+	public void setWriteQueue(NexusWriteQueue writeQueue) {
+		this.writeQueue = writeQueue;
+	}
+
+	/**
+	 * Set the latencies of the stages of the scan, these are written by {@link #scanFinished()}
+	 * if the property org.eclipse.scanning.sequencer.latency was set when the file was created.
+	 * @param latencies
+	 */
+	public void setLatencies(List<StageLatency> latencies) {
+		this.latencies = latencies;
+	}
+
+	private void writeLatencies() throws ScanningException {
+		if (latencyDatasets==null || latencies==null || latencies.isEmpty()) return;
+
+		final int size = latencies.size();
+		final String[] names = new String[size];
+		final long[][] values = new long[5][size];
+		for (int i = 0; i < size; i++) {
+			final StageLatency latency = latencies.get(i);
+			names[i]     = latency.getName();
+			values[0][i] = latency.getCount();
+			values[1][i] = latency.getMean();
+			values[2][i] = latency.getP50();
+			values[3][i] = latency.getP99();
+			values[4][i] = latency.getMax();
+		}
+		try {
+			latencyDatasets[0].setSlice(null, DatasetFactory.createFromObject(names), new int[] { 0 }, new int[] { size }, new int[] { 1 });
+			for (int i = 0; i < values.length; i++) {
+				latencyDatasets[i+1].setSlice(null, DatasetFactory.createFromObject(values[i]), new int[] { 0 }, new int[] { size }, new int[] { 1 });
+			}
+		} catch (Exception e) {
+			throw new ScanningException("Could not write latencies to NeXus file", e);
+		}
+	}
+
 	private static String durationInMillisToString(Duration duration) {
 		long days = duration.toDays(); // chop off any days as formatter can't handle them
 		duration = duration.minusDays(days);
@@ -244,12 +356,19 @@ public class SolsticeScanMonitor extends AbstractScannable<Object> implements IN
 	 * Called when the scan completes to:
 	 * <ul>
 	 * <li>write the scan finished (by writing '1' to the scan finished dataset;</li>
-	 * <li>write the scan duration.</li>
+	 * <li>write the scan duration;</li>
+	 * <li>write the latencies of the stages of the scan, if they were recorded.</li>
 	 * </ul>
 	 * @throws ScanningException
 	 */
 	public void scanFinished() throws ScanningException {
 		// Note: we don't use scanFinally as that is called after the nexus file is closed.
+		try {
+			flushPoints();
+		} catch (Exception e) {
+			throw new ScanningException("Could not write unique keys to NeXus file", e);
+		}
+
 		final Dataset scanFinishedDataset = DatasetFactory.createFromObject(IntegerDataset.class, 1, null);
 		try {
 			this.scanFinishedDataset.setSlice(null, scanFinishedDataset,
@@ -297,6 +416,8 @@ public class SolsticeScanMonitor extends AbstractScannable<Object> implements IN
 		final String estimatedTimeStr = durationInMillisToString(Duration.ofMillis(scanInfo.getEstimatedScanTime()));
 		logger.info("MScan Details: scan file = {}, shape = {}, estimated time = {}, actual time = {}, dead time = {} ({}%)",
 				filePath, shapeStr, estimatedTimeStr, scanDurationStr, scanDeadTimeStr, deadTimePercentStr);
+
+		writeLatencies();
 	}
 
 	@Override
@@ -350,26 +471,74 @@ public class SolsticeScanMonitor extends AbstractScannable<Object> implements IN
 
 	/**
 	 * Write the given position to the NexusFile.
-	 * The unique key of the position is added to the <code>uniqueKeys</code> dataset,
-	 * and the position as a string, as returned by {@link IPosition#toString()},
-	 * is added to the <code>points</code>
+	 * The unique key of the position is added to the <code>uniqueKeys</code> dataset
+	 * and the time since the scan started to the <code>timestamps</code> dataset.
+	 * <p>
+	 * By default the point is written straight away so that SWMR readers see each point
+	 * as it completes. If the property <code>org.eclipse.scanning.sequencer.nexus.keys.delay</code>
+	 * is set to a time in ms the points are buffered and written a chunk at a time, or sooner
+	 * if the last write was longer ago than the delay. The scan file manager also writes
+	 * them from a timer every delay, so that a reader sees the last points in time while
+	 * the scan waits between points.
 	 * @param position
-	 * @throws Exception
+	 * @return the unique key written or null
 	 */
 	private Object writePosition(IPosition position) {
-		if (!malcolmScan) {
-			IScanSlice rslice = IScanRankService.getScanRankService().createScanSlice(position);
-			SliceND sliceND = new SliceND(uniqueKeysDataset.getShape(), uniqueKeysDataset.getMaxShape(), rslice.getStart(), rslice.getStop(), rslice.getStep());
-			final int uniqueKey = position.getStepIndex() + 1;
-			final Dataset newActualPosition = DatasetFactory.createFromObject(uniqueKey);
-			try {
-				uniqueKeysDataset.setSlice(null, newActualPosition, sliceND);
-			} catch (DatasetException e) {
-				logger.error("Could not write unique key");
+		if (malcolmScan) return null;
+
+		final IScanSlice rslice = IScanRankService.getScanRankService().createScanSlice(position);
+		final int uniqueKey = position.getStepIndex() + 1;
+		final long time = System.currentTimeMillis();
+		try {
+			if (pointBuffer==null) { // Scans of rank zero have a single point
+				setSlice(uniqueKeysDataset, DatasetFactory.createFromObject(uniqueKey), rslice.getStart(), rslice.getStop());
+				setSlice(timestampsDataset, DatasetFactory.createFromObject(time-scanStartTime.toEpochMilli()), rslice.getStart(), rslice.getStop());
+			} else {
+				synchronized (this) {
+					final boolean full = pointBuffer.add(rslice.getStart(), uniqueKey, time-scanStartTime.toEpochMilli());
+					if (full || time-lastFlush >= flushDelay) flushPoints();
+				}
 			}
-			return newActualPosition;
+		} catch (Exception e) {
+			logger.error("Could not write unique key", e);
+		}
+		return uniqueKey;
+	}
+
+	/**
+	 * @return the most time in ms which the points completed may wait in the buffer
+	 * before they are written, zero if they are written a chunk at a time.
+	 */
+	public long getFlushDelay() {
+		return pointBuffer!=null ? flushDelay : 0;
+	}
+
+	/**
+	 * Writes the unique keys and timestamps of the points which are buffered.
+	 * Called for each chunk of points, every delay if there is one, when the
+	 * scan pauses or aborts and when the scan finishes.
+	 * @throws Exception
+	 */
+	public synchronized void flushPoints() throws Exception {
+		lastFlush = System.currentTimeMillis();
+		if (pointBuffer==null || pointBuffer.size()==0) return;
+		pointBuffer.drain((start, stop, keys, times, size) -> {
+			final int[] shape = new int[start.length];
+			for (int i = 0; i < shape.length; i++) shape[i] = stop[i]-start[i];
+			setSlice(uniqueKeysDataset, DatasetFactory.createFromObject(Arrays.copyOf(keys, size), shape), start, stop);
+			setSlice(timestampsDataset, DatasetFactory.createFromObject(Arrays.copyOf(times, size), shape), start, stop);
+		});
+	}
+
+	private void setSlice(ILazyWriteableDataset dataset, Dataset data, int[] start, int[] stop) throws DatasetException, ScanningException {
+		final SliceND sliceND = new SliceND(dataset.getShape(), dataset.getMaxShape(), start, stop, null);
+		if (writeQueue!=null && dataset==uniqueKeysDataset) {
+			writeQueue.setKeySlice(dataset, data, sliceND); // After the data of its points
+		} else if (writeQueue!=null) {
+			writeQueue.setSlice(dataset, data, sliceND);
+		} else {
+			dataset.setSlice(null, data, sliceND);
 		}
-		return null;
 	}
 
 	public boolean writeAfterMovePerformed() {
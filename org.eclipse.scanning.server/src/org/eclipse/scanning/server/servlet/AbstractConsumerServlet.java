@@ -64,6 +64,7 @@ public abstract class AbstractConsumerServlet<B extends StatusBean> implements I
 	private boolean         durable  = true;
 	private boolean         purgeQueue = true;
 	private boolean         pauseOnStart = false;
+	private int             maximumRunningProcesses = Integer.getInteger("org.eclipse.scanning.server.servlet.maximumRunningProcesses", 1);
 
 	// Recommended to configure these as
 	protected String        submitQueue = IEventService.SUBMISSION_QUEUE;
@@ -97,6 +98,7 @@ public abstract class AbstractConsumerServlet<B extends StatusBean> implements I
 	consumer.setDurable(isDurable());
 	consumer.setRunner(new DoObjectCreator<B>());
 	consumer.setPauseOnStart(pauseOnStart);
+	if (maximumRunningProcesses>1) consumer.setMaximumRunningProcesses(maximumRunningProcesses);
 
 	// Purge old jobs, we wouldn't want those running.
 	// This suggests that DAQ should have one
@@ -219,4 +221,17 @@ public abstract class AbstractConsumerServlet<B extends StatusBean> implements I
 		this.pauseOnStart = pauseOnStart;
 	}
 
+	public int getMaximumRunningProcesses() {
+		return maximumRunningProcesses;
+	}
+
+	/**
+	 * The number of beans from the queue which may run at the same time,
+	 * for instance scans on different endstations. One by default.
+	 * @param maximumRunningProcesses
+	 */
+	public void setMaximumRunningProcesses(int maximumRunningProcesses) {
+		this.maximumRunningProcesses = maximumRunningProcesses;
+	}
+
 }
@@ -0,0 +1,211 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.server.servlet;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.scanning.api.annotation.scan.AnnotationManager;
+import org.eclipse.scanning.api.annotation.scan.PostConfigure;
+import org.eclipse.scanning.api.annotation.scan.PreConfigure;
+import org.eclipse.scanning.api.device.AbstractRunnableDevice;
+import org.eclipse.scanning.api.device.IRunnableDevice;
+import org.eclipse.scanning.api.event.core.IPublisher;
+import org.eclipse.scanning.api.event.scan.ScanBean;
+import org.eclipse.scanning.api.points.IPointGenerator;
+import org.eclipse.scanning.api.scan.ScanningException;
+import org.eclipse.scanning.api.scan.models.ScanModel;
+import org.eclipse.scanning.server.application.Activator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Configures the detectors of a scan concurrently. Detectors are configured
+ * level by level, lowest level first. The detectors of one level are armed at
+ * the same time by the executor of the device service, and the next level starts
+ * once they are all done. If any detector fails or takes too long, the other
+ * detectors of its level are still waited for. One exception is then thrown
+ * naming every detector which failed.
+ * <p>
+ * If the device service has no executor the detectors are configured one
+ * after the other by the caller.
+ * <p>
+ * Properties:
+ * <ul>
+ * <li><code>org.eclipse.scanning.server.configure.timeout</code> seconds allowed to configure one detector, 600 by default.</li>
+ * </ul>
+ */
+class DetectorConfigurer {
+
+	private static final Logger logger = LoggerFactory.getLogger(DetectorConfigurer.class);
+
+	private final ScanModel            model;
+	private final IPointGenerator<?>   generator;
+	private final ScanBean             bean;
+	private final IPublisher<ScanBean> publisher;
+	private final Executor             executor;
+	private final long                 timeout;
+	private final Map<String, Long>    times;
+
+	DetectorConfigurer(ScanModel model, IPointGenerator<?> generator, ScanBean bean, IPublisher<ScanBean> publisher, Executor executor) {
+		this.model     = model;
+		this.generator = generator;
+		this.bean      = bean;
+		this.publisher = publisher;
+		this.executor  = executor!=null ? executor : Runnable::run;
+		this.timeout   = TimeUnit.SECONDS.toMillis(Long.getLong("org.eclipse.scanning.server.configure.timeout", 600));
+		this.times     = new LinkedHashMap<>();
+	}
+
+	/**
+	 * Configures each detector of the scan which has a model in dmodels.
+	 *
+	 * @param dmodels detector name to model
+	 * @return detector name to time taken to configure in ms, in the order configured.
+	 * @throws ScanningException if one or more detectors could not be configured.
+	 * @throws InterruptedException
+	 */
+	Map<String, Long> configure(Map<String, Object> dmodels) throws ScanningException, InterruptedException {
+
+		if (dmodels==null || model.getDetectors()==null) return times;
+
+		final Map<Integer, List<ConfigureTask>> levels = new TreeMap<>();
+		for (IRunnableDevice<?> device : model.getDetectors()) {
+			if (!dmodels.containsKey(device.getName())) continue; // Nothing to configure
+			levels.computeIfAbsent(device.getLevel(), l -> new ArrayList<>()).add(new ConfigureTask(device, dmodels.get(device.getName())));
+		}
+
+		for (Integer level : levels.keySet()) {
+			final List<ConfigureTask> tasks = levels.get(level);
+			logger.debug("Configuring detectors at level {}", level);
+
+			final List<Future<Long>> futures = new ArrayList<>(tasks.size());
+			for (ConfigureTask task : tasks) {
+				FutureTask<Long> future = new FutureTask<>(task);
+				futures.add(future);
+				executor.execute(future);
+			}
+
+			final Map<String, Throwable> errors = new LinkedHashMap<>();
+			try {
+				for (int i = 0; i < tasks.size(); i++) {
+					final ConfigureTask task = tasks.get(i);
+					try {
+						times.put(task.getName(), await(task, futures.get(i)));
+					} catch (ExecutionException ne) {
+						errors.put(task.getName(), ne.getCause());
+					} catch (TimeoutException | CancellationException ne) {
+						errors.put(task.getName(), new TimeoutException("Timed out after "+TimeUnit.MILLISECONDS.toSeconds(timeout)+"s"));
+					}
+				}
+			} catch (InterruptedException ne) {
+				for (Future<Long> future : futures) future.cancel(true);
+				throw ne;
+			}
+			if (!errors.isEmpty()) throw createException(errors);
+		}
+		logger.debug("Configured detectors in {}", times);
+		return times;
+	}
+
+	/**
+	 * @return detector name to time taken to configure in ms of the detectors
+	 * which have been configured, also if others failed.
+	 */
+	Map<String, Long> getTimes() {
+		return times;
+	}
+
+	/**
+	 * Waits for the task, the timeout starts when the task does rather than
+	 * when it was submitted so time spent queued for a thread is not counted.
+	 */
+	private long await(ConfigureTask task, Future<Long> future) throws InterruptedException, ExecutionException, TimeoutException {
+		while(true) {
+			final long started = task.getStarted();
+			final long wait    = started<0 ? timeout : timeout - (System.currentTimeMillis()-started);
+			try {
+				return future.get(Math.max(wait, 0), TimeUnit.MILLISECONDS);
+			} catch (TimeoutException ne) {
+				final long now = task.getStarted();
+				if (now<0 || System.currentTimeMillis()-now<timeout) continue; // Queued or started while we waited
+				future.cancel(true);
+				throw ne;
+			}
+		}
+	}
+
+	private static ScanningException createException(Map<String, Throwable> errors) {
+		final StringBuilder buf = new StringBuilder("Cannot configure detector");
+		if (errors.size()>1) buf.append("s");
+		for (String name : errors.keySet()) {
+			final Throwable error = errors.get(name);
+			buf.append("\n  ").append(name).append(": ").append(error.getMessage()!=null ? error.getMessage() : error.getClass().getSimpleName());
+		}
+		final Collection<Throwable> causes = errors.values();
+		final ScanningException ex = new ScanningException(buf.toString(), causes.iterator().next());
+		causes.stream().skip(1).forEach(ex::addSuppressed);
+		return ex;
+	}
+
+	private class ConfigureTask implements Callable<Long> {
+
+		private final IRunnableDevice<Object> device;
+		private final Object                  dmodel;
+		private volatile long                 started = -1;
+
+		@SuppressWarnings("unchecked")
+		ConfigureTask(IRunnableDevice<?> device, Object dmodel) {
+			this.device = (IRunnableDevice<Object>)device;
+			this.dmodel = dmodel;
+		}
+
+		@Override
+		public Long call() throws Exception {
+
+			started = System.currentTimeMillis();
+			logger.debug("Configuring {}", device.getName());
+
+			AnnotationManager manager = new AnnotationManager(Activator.createResolver());
+			manager.addDevices(device);
+			manager.addContext(model.getScanInformation());
+
+			manager.invoke(PreConfigure.class, dmodel, generator, model, bean, publisher);
+			if (device instanceof AbstractRunnableDevice) {
+				((AbstractRunnableDevice<?>)device).setBean(bean);
+			}
+			device.configure(dmodel);
+			manager.invoke(PostConfigure.class, dmodel, generator, model, bean, publisher);
+
+			final long time = System.currentTimeMillis()-started;
+			logger.debug("Configured {} in {}ms", device.getName(), time);
+			return time;
+		}
+
+		String getName() {
+			return device.getName();
+		}
+
+		long getStarted() {
+			return started;
+		}
+	}
+}
@@ -14,6 +14,7 @@ package org.eclipse.scanning.server.servlet;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
@@ -25,11 +26,9 @@ import java.util.stream.Collectors;
 import org.eclipse.scanning.api.IScannable;
 import org.eclipse.scanning.api.MonitorRole;
 import org.eclipse.scanning.api.ValidationException;
-import org.eclipse.scanning.api.annotation.scan.AnnotationManager;
-import org.eclipse.scanning.api.annotation.scan.PostConfigure;
-import org.eclipse.scanning.api.annotation.scan.PreConfigure;
-import org.eclipse.scanning.api.device.AbstractRunnableDevice;
 import org.eclipse.scanning.api.device.IDeviceController;
+import org.eclipse.scanning.api.device.IDeviceLock;
+import org.eclipse.scanning.api.device.IDeviceLockManager;
 import org.eclipse.scanning.api.device.IPausableDevice;
 import org.eclipse.scanning.api.device.IRunnableDevice;
 import org.eclipse.scanning.api.device.IRunnableDeviceService;
@@ -55,12 +54,15 @@ import org.eclipse.scanning.api.scan.ScanInformation;
 import org.eclipse.scanning.api.scan.ScanningException;
 import org.eclipse.scanning.api.scan.event.IPositioner;
 import org.eclipse.scanning.api.scan.models.ScanModel;
+import org.eclipse.scanning.api.scan.timing.DetectorTimingModel;
+import org.eclipse.scanning.api.scan.timing.ITimingModelProvider;
+import org.eclipse.scanning.api.scan.timing.MotionTimingModel;
+import org.eclipse.scanning.api.scan.timing.ScanTimingModel;
 import org.eclipse.scanning.api.script.IScriptService;
 import org.eclipse.scanning.api.script.ScriptExecutionException;
 import org.eclipse.scanning.api.script.ScriptRequest;
 import org.eclipse.scanning.api.script.ScriptResponse;
 import org.eclipse.scanning.api.script.UnsupportedLanguageException;
-import org.eclipse.scanning.server.application.Activator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -83,6 +85,11 @@ public class ScanProcess implements IConsumerProcess<ScanBean> {
 	private IDeviceController          controller;
 	private boolean                    blocking;
 
+	// The devices reserved for the scan, null if they could not be reserved.
+	private volatile IDeviceLock       deviceLock;
+	private volatile boolean           terminated;
+	private boolean                    releasedByDevice; // The devices are released when an asynchronous scan finishes
+
 	public ScanProcess(ScanBean scanBean, IPublisher<ScanBean> response, boolean blocking) throws EventException {
 
 		this.bean = scanBean;
@@ -126,6 +133,7 @@ public class ScanProcess implements IConsumerProcess<ScanBean> {
 	public void terminate() throws EventException {
 
 		if (bean.getStatus()==Status.COMPLETE) return; // Nothing to terminate.
+		terminated = true; // In case we are waiting for devices
 		try {
 			if (controller!=null) controller.abort(getClass().getName());
 		} catch (ScanningException  | InterruptedException e) {
@@ -139,9 +147,18 @@ public class ScanProcess implements IConsumerProcess<ScanBean> {
 			logger.debug("Starting to run : {}", bean);
 			setFilePath(bean);
 			IPointGenerator<?> gen = getGenerator(bean.getScanRequest());
-			initializeMalcolmDevice(bean, gen);
-
 			checkMonitors(gen);
+
+			// Wait until no other scan uses our devices, the Malcolm device is changed by validation
+			if (!reserveDevices(bean, gen)) {
+				bean.setPreviousStatus(Status.QUEUED);
+				bean.setStatus(Status.TERMINATED);
+				bean.setMessage("Run aborted while waiting for devices");
+				broadcast(bean);
+				return;
+			}
+
+			initializeMalcolmDevice(bean, gen);
 			validateRequest(bean);
 
 			// Move to a position if they set one
@@ -174,6 +191,62 @@ public class ScanProcess implements IConsumerProcess<ScanBean> {
 
 			if (ne instanceof EventException) throw (EventException)ne;
 			throw new EventException(ne);
+		} finally {
+			if (!releasedByDevice) releaseDevices();
+		}
+	}
+
+	/**
+	 * Reserves the scannables, monitors and detectors of the scan, waiting while other scans
+	 * use any of them. The reason for waiting is shown in the message of the bean.
+	 *
+	 * @return false if the scan was terminated before the devices were free.
+	 */
+	private boolean reserveDevices(ScanBean bean, IPointGenerator<?> gen) throws EventException, InterruptedException {
+
+		final IDeviceLockManager manager = Services.getRunnableDeviceService().getDeviceLockManager();
+		if (manager==null) return true; // Devices are not reserved, for instance the service is remote
+
+		final Collection<String> names = getDeviceNames(bean.getScanRequest(), gen);
+		final String owner = bean.getName()!=null ? bean.getName() : bean.getUniqueId();
+
+		String reason = null;
+		while (!terminated) {
+			deviceLock = manager.lock(owner, names, 1, TimeUnit.SECONDS);
+			if (deviceLock!=null) {
+				if (reason!=null) {
+					bean.setMessage(null);
+					broadcast(bean);
+				}
+				return true;
+			}
+			final Map<String, String> conflicts = manager.getConflicts(names);
+			final String waiting = "Waiting for "+conflicts.keySet()+" used by "+new LinkedHashSet<>(conflicts.values());
+			if (!waiting.equals(reason)) {
+				reason = waiting;
+				logger.info("Run {} {}", owner, reason);
+				bean.setMessage(reason);
+				broadcast(bean);
+			}
+		}
+		return false;
+	}
+
+	private Collection<String> getDeviceNames(ScanRequest<?> req, IPointGenerator<?> gen) {
+		final Collection<String> names = new LinkedHashSet<>(getScannableNames(gen));
+		if (req.getMonitorNamesPerPoint()!=null) names.addAll(req.getMonitorNamesPerPoint());
+		if (req.getMonitorNamesPerScan()!=null)  names.addAll(req.getMonitorNamesPerScan());
+		if (req.getDetectors()!=null)            names.addAll(req.getDetectors().keySet()); // Includes Malcolm devices
+		if (req.getStart()!=null)                names.addAll(req.getStart().getNames());
+		if (req.getEnd()!=null)                  names.addAll(req.getEnd().getNames());
+		return names;
+	}
+
+	private void releaseDevices() {
+		final IDeviceLock lock = deviceLock;
+		if (lock!=null) {
+			lock.close();
+			deviceLock = null;
 		}
 	}
 
@@ -186,6 +259,20 @@ public class ScanProcess implements IConsumerProcess<ScanBean> {
 		logger.debug("Latching on device {} for {}", controller.getDevice().getName(), latchTime);
 		controller.getDevice().latch(latchTime, TimeUnit.MILLISECONDS); // Wait for it to do a bit in case of errors.
 
+		// The devices are in use until the scan has finished
+		final Thread releaser = new Thread(() -> {
+			try {
+				controller.getDevice().latch();
+			} catch (Exception ne) {
+				logger.warn("Cannot wait for {} to finish, releasing its devices", controller.getDevice().getName(), ne);
+			} finally {
+				releaseDevices();
+			}
+		}, "Release devices of "+bean.getName());
+		releaser.setDaemon(true);
+		releaser.start();
+		releasedByDevice = true;
+
 		logger.warn("Cannot run end script when scan is async. (Scan has not been cancelled, after script has been ignored.)");
 		logger.warn("Cannot perform end position when scan is async. (Scan has not been cancelled, end has been ignored.)");
 	}
@@ -355,25 +442,28 @@ public class ScanProcess implements IConsumerProcess<ScanBean> {
 		cons.accept(res);
 	}
 
-	private IDeviceController createRunnableDevice(ScanBean bean, IPointGenerator<?> gen) throws ScanningException, EventException {
+	private IDeviceController createRunnableDevice(ScanBean bean, IPointGenerator<?> generator) throws ScanningException, EventException {
 
 		ScanRequest<?> req = bean.getScanRequest();
 		if (req==null) throw new ScanningException("There must be a scan request to run a scan!");
 
 		try {
 			final ScanModel scanModel = new ScanModel();
-			IPointGenerator<?> generator = getGenerator(req);
 			scanModel.setPositionIterable(generator);
 
-			ScanEstimator estimator = new ScanEstimator(Services.getGeneratorService(), bean.getScanRequest());
-			bean.setSize(estimator.getSize());
 			scanModel.setFilePath(bean.getFilePath());
-
 			scanModel.setDetectors(getDetectors(req.getDetectors()));
 			scanModel.setScannables(getScannables(getScannableNames(generator)));
+
+			// Estimate from the same generator so that the scan is only sized once.
+			ScanEstimator estimator = new ScanEstimator(generator, req.getDetectors(), 0, getTimingModel(scanModel));
+			bean.setSize(estimator.getSize());
+
 			scanModel.setMonitorsPerPoint(getScannables(req.getMonitorNamesPerPoint()));
 			scanModel.setMonitorsPerScan(getScannables(req.getMonitorNamesPerScan()));
 			scanModel.setScanMetadata(req.getScanMetadata());
+			scanModel.setChunkingModel(req.getChunkingModel());
+			scanModel.setStartStep(req.getStartStep());
 			scanModel.setBean(bean);
 
 			ScanInformation scanInfo = new ScanInformation(estimator);
@@ -401,27 +491,37 @@ public class ScanProcess implements IConsumerProcess<ScanBean> {
 		}
 	}
 
-	private void configureDetectors(Map<String, Object> dmodels, ScanModel model, IPointGenerator<?> generator) throws Exception {
-
-		logger.debug("Configuring detectors {}", dmodels!=null?dmodels.keySet():null);
-		for (IRunnableDevice<?> device : model.getDetectors()) {
+	/**
+	 * The timing models provided by the devices of the scan, with the
+	 * calibration from the scans run before taking precedence.
+	 * @return the timing model or null if the device service calibrates none.
+	 */
+	private ScanTimingModel getTimingModel(ScanModel scanModel) {
 
-			AnnotationManager manager = new AnnotationManager(Activator.createResolver());
-			manager.addDevices(device);
-			manager.addContext(model.getScanInformation());
+		final ScanTimingModel calibrated = Services.getRunnableDeviceService().getScanTimingModel();
+		if (calibrated==null) return null;
 
-			@SuppressWarnings("unchecked")
-			IRunnableDevice<Object> odevice = (IRunnableDevice<Object>)device;
+		final ScanTimingModel timing = new ScanTimingModel();
+		if (scanModel.getScannables()!=null) for (IScannable<?> scannable : scanModel.getScannables()) {
+			Object model = scannable instanceof ITimingModelProvider ? ((ITimingModelProvider<?>)scannable).getTimingModel() : null;
+			if (model instanceof MotionTimingModel) timing.addMotion(scannable.getName(), (MotionTimingModel)model);
+		}
+		if (scanModel.getDetectors()!=null) for (IRunnableDevice<?> detector : scanModel.getDetectors()) {
+			Object model = detector instanceof ITimingModelProvider ? ((ITimingModelProvider<?>)detector).getTimingModel() : null;
+			if (model instanceof DetectorTimingModel) timing.addDetector(detector.getName(), (DetectorTimingModel)model);
+		}
+		timing.merge(calibrated);
+		return timing;
+	}
 
-			if (!dmodels.containsKey(odevice.getName())) continue; // Nothing to configure
-			Object dmodel = dmodels.get(odevice.getName());
+	private void configureDetectors(Map<String, Object> dmodels, ScanModel model, IPointGenerator<?> generator) throws Exception {
 
-			manager.invoke(PreConfigure.class, dmodel, generator, model, bean, publisher);
-			if (odevice instanceof AbstractRunnableDevice) {
-				((AbstractRunnableDevice<?>)odevice).setBean(bean);
-			}
-			odevice.configure(dmodel);
-			manager.invoke(PostConfigure.class, dmodel, generator, model, bean, publisher);
+		logger.debug("Configuring detectors {}", dmodels!=null?dmodels.keySet():null);
+		DetectorConfigurer configurer = new DetectorConfigurer(model, generator, bean, publisher, Services.getRunnableDeviceService().getDeviceExecutor());
+		try {
+			configurer.configure(dmodels);
+		} finally {
+			bean.setConfigureTimes(configurer.getTimes()); // Also those which were configured when another failed
 		}
 		logger.debug("Configured detectors {}", dmodels!=null?dmodels.keySet():null);
 	}
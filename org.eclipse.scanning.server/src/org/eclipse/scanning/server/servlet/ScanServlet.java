@@ -11,10 +11,17 @@
  *******************************************************************************/
 package org.eclipse.scanning.server.servlet;
 
+import java.net.URI;
+import java.net.URISyntaxException;
+
 import org.eclipse.scanning.api.event.EventException;
 import org.eclipse.scanning.api.event.core.IPublisher;
+import org.eclipse.scanning.api.event.core.ISubmitter;
 import org.eclipse.scanning.api.event.scan.ScanBean;
 import org.eclipse.scanning.api.event.scan.ScanRequest;
+import org.eclipse.scanning.api.event.status.Status;
+import org.eclipse.scanning.api.scan.checkpoint.IScanCheckpointStore;
+import org.eclipse.scanning.api.scan.checkpoint.ScanCheckpoint;
 import org.eclipse.scanning.api.scan.process.IPreprocessor;
 import org.eclipse.scanning.api.scan.process.ProcessingException;
 import org.slf4j.Logger;
@@ -39,6 +46,15 @@ import org.slf4j.LoggerFactory;
 
     </pre>
 
+    Scans which use different scannables and detectors may run at the same time by setting the
+    maximumRunningProcesses property. Each scan reserves its devices before it starts and waits,
+    with the reason in the message of its bean, while another scan holds any of them.
+
+    When the scans are checkpointed, see org.eclipse.scanning.sequencer.checkpoint.dir, the scans
+    which were stopped by the server stopping are marked UNFINISHED when the servlet connects. They
+    may be continued from the point last checkpointed with resume(uniqueId), or straight away by
+    setting the resumeOnStart property. Scans which failed are not checkpointed so are not resumed.
+
     FIXME Add security via activemq layer. Anyone can run this now.
 
  *
@@ -49,10 +65,108 @@ public class ScanServlet extends AbstractConsumerServlet<ScanBean> {
 
 	private static final Logger logger = LoggerFactory.getLogger(ScanServlet.class);
 
+	private boolean resumeOnStart = Boolean.getBoolean("org.eclipse.scanning.server.servlet.resumeOnStart");
+
 	public ScanServlet() {
 		setPauseOnStart(true);
 	}
 
+	@Override
+	public void connect() throws EventException, URISyntaxException {
+		super.connect();
+		recoverCheckpoints();
+	}
+
+	/**
+	 * Marks the scans which have a checkpoint, the scans which did not finish
+	 * before the server stopped, as UNFINISHED and resumes them if required.
+	 * A scan which ended, including one which failed, has no checkpoint.
+	 */
+	private void recoverCheckpoints() {
+
+		final IScanCheckpointStore store = Services.getRunnableDeviceService().getCheckpointStore();
+		if (store==null) return;
+
+		try {
+			for (ScanCheckpoint checkpoint : store.getCheckpoints()) {
+				final ScanBean bean = checkpoint.getBean();
+				if (bean==null) {
+					logger.warn("The checkpoint of scan '{}' has no bean and is deleted", checkpoint.getUniqueId());
+					store.delete(checkpoint.getUniqueId());
+					continue;
+				}
+				if (bean.getStatus()!=null && bean.getStatus().isFinal()) {
+					logger.warn("The checkpoint of scan '{}' which ended {} is deleted", bean.getName(), bean.getStatus());
+					store.delete(checkpoint.getUniqueId());
+					continue;
+				}
+				bean.setPreviousStatus(bean.getStatus());
+				bean.setStatus(Status.UNFINISHED);
+				bean.setMessage("Stopped after point "+(checkpoint.getLastStep()+1)+" of "+checkpoint.getSize()+" when the server stopped, it may be resumed");
+				broadcast(bean);
+				logger.info("Scan '{}' may be resumed from step {}", bean.getName(), checkpoint.getNextStep());
+
+				if (resumeOnStart) resume(checkpoint.getUniqueId());
+			}
+		} catch (Exception ne) {
+			logger.error("Cannot recover the scans which were checkpointed", ne);
+		}
+	}
+
+	private void broadcast(ScanBean bean) throws EventException, URISyntaxException {
+		final IPublisher<ScanBean> publisher = eventService.createPublisher(new URI(getBroker()), getStatusTopic());
+		try {
+			publisher.setStatusSetName(getStatusSet());
+			publisher.broadcast(bean);
+		} finally {
+			publisher.disconnect();
+		}
+	}
+
+	/**
+	 * Submits the scan again to run from the point after the last one checkpointed.
+	 * The points after that are written to a new file, see {@link ScanCheckpoint#getResumePath(String, int)}
+	 *
+	 * @param uniqueId of the scan bean
+	 * @return the bean submitted
+	 * @throws EventException if the scan has no checkpoint or cannot be submitted
+	 */
+	public ScanBean resume(String uniqueId) throws EventException {
+
+		final IScanCheckpointStore store = Services.getRunnableDeviceService().getCheckpointStore();
+		if (store==null) throw new EventException("Scans are not checkpointed, set org.eclipse.scanning.sequencer.checkpoint.dir");
+
+		final ScanCheckpoint checkpoint;
+		try {
+			checkpoint = store.load(uniqueId);
+		} catch (Exception ne) {
+			throw new EventException("Cannot read the checkpoint of scan "+uniqueId, ne);
+		}
+		if (checkpoint==null) throw new EventException("There is no checkpoint of scan "+uniqueId);
+
+		final ScanBean bean = checkpoint.createResumeBean();
+		try {
+			final ISubmitter<ScanBean> submitter = eventService.createSubmitter(new URI(getBroker()), getSubmitQueue());
+			try {
+				submitter.submit(bean);
+			} finally {
+				submitter.disconnect();
+			}
+		} catch (URISyntaxException ne) {
+			throw new EventException(ne);
+		}
+		logger.info("Resubmitted scan '{}' to resume from step {}", bean.getName(), checkpoint.getNextStep());
+		return bean;
+	}
+
+	public boolean isResumeOnStart() {
+		return resumeOnStart;
+	}
+
+	public void setResumeOnStart(boolean resumeOnStart) {
+		this.resumeOnStart = resumeOnStart;
+	}
+
 	@Override
 	public String getName() {
 		return "Scan Consumer";
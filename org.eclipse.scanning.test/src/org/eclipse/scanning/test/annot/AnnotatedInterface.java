@@ -0,0 +1,29 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.test.annot;
+
+import org.eclipse.scanning.api.annotation.scan.PointStart;
+import org.eclipse.scanning.api.annotation.scan.ScanStart;
+import org.eclipse.scanning.api.points.IPosition;
+
+/**
+ *
+ * Annotations which the implementing class does not repeat.
+ *
+ */
+public interface AnnotatedInterface {
+
+	@ScanStart
+	void started();
+
+	@PointStart
+	default void pointStarted(IPosition position) {
+		// Overridden
+	}
+}
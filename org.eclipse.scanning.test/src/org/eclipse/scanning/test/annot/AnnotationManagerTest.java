@@ -160,6 +160,39 @@ public class AnnotationManagerTest {
 		manager.invoke(LevelEnd.class);
 	}
 
+	@Test
+	public void countInheritedFromInterface() throws Exception {
+
+		InterfaceAnnotatedDevice device = new InterfaceAnnotatedDevice();
+		AnnotationManager m = new AnnotationManager();
+		m.addDevices(device);
+
+		m.invoke(ScanStart.class);
+		for (int i = 0; i < 5; i++) m.invoke(PointStart.class, new Point(i, i*10, i, i*20));
+
+		assertEquals(1, device.getCount()); // From the superclass
+		assertEquals(5, device.getPositions().size());
+		assertEquals(new Point(4, 40, 4, 80), device.getPositions().get(4));
+
+		m.invoke(ScanStart.class);
+		assertEquals(2, device.getCount());
+		assertEquals(0, device.getPositions().size());
+	}
+
+	@Test
+	public void sameClassManyManagers() throws Exception {
+
+		// Managers made for each level share the compiled methods of a class
+		for (int i = 0; i < 100; i++) {
+			CountingDevice device = new CountingDevice();
+			AnnotationManager m = new AnnotationManager(LevelStart.class, LevelEnd.class);
+			m.addDevices(device);
+			m.invoke(LevelStart.class);
+			m.invoke(LevelEnd.class);
+			assertEquals(1, device.getCount("prepare"));
+		}
+	}
+
 	@Test
 	public void simpleInject() throws Exception {
 
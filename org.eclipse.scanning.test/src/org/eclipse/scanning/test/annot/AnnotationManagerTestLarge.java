@@ -0,0 +1,106 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.test.annot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.scanning.api.annotation.scan.AnnotationManager;
+import org.eclipse.scanning.api.annotation.scan.PointEnd;
+import org.eclipse.scanning.api.annotation.scan.PointStart;
+import org.eclipse.scanning.api.points.IPosition;
+import org.eclipse.scanning.api.points.Point;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares calling &#64;PointStart and &#64;PointEnd through the manager
+ * with calling the same methods by reflection, as the manager used to.
+ *
+ * Not part of the suite because it takes too long.
+ */
+public class AnnotationManagerTestLarge {
+
+	private static final Logger logger = LoggerFactory.getLogger(AnnotationManagerTestLarge.class);
+
+	private static final int DEVICES = 20;
+	private static final int POINTS  = 200000;
+	private static final int ROUNDS  = 5;
+
+	@Test
+	public void testDispatchAgainstReflection() throws Exception {
+
+		List<InterfaceAnnotatedDevice> devices = new ArrayList<>(DEVICES);
+		for (int i = 0; i < DEVICES; i++) devices.add(new InterfaceAnnotatedDevice());
+
+		AnnotationManager manager = new AnnotationManager(PointStart.class, PointEnd.class);
+		manager.addDevices(devices);
+
+		Method method = InterfaceAnnotatedDevice.class.getMethod("pointStarted", IPosition.class);
+		IPosition point = new Point(0, 0, 0, 0);
+
+		// Warm up
+		for (int i = 0; i < POINTS; i++) {
+			manager.invoke(PointStart.class, point);
+			reflect(method, devices, point);
+			clear(devices);
+		}
+
+		// The best of several rounds, so that a collection or a busy
+		// machine during one round does not decide the comparison.
+		long reflectTime = Long.MAX_VALUE;
+		long managerTime = Long.MAX_VALUE;
+		for (int round = 0; round < ROUNDS; round++) {
+			long start = System.nanoTime();
+			for (int i = 0; i < POINTS; i++) {
+				reflect(method, devices, point);
+				if (i%1000==0) clear(devices);
+			}
+			reflectTime = Math.min(reflectTime, System.nanoTime()-start);
+			clear(devices);
+
+			start = System.nanoTime();
+			for (int i = 0; i < POINTS; i++) {
+				manager.invoke(PointStart.class, point);
+				if (i%1000==0) clear(devices);
+			}
+			managerTime = Math.min(managerTime, System.nanoTime()-start);
+			assertEquals(999, devices.get(0).getPositions().size()); // Cleared at the last thousand
+			clear(devices);
+		}
+
+		logger.info("Reflection took {}ns per point for {} devices", reflectTime/POINTS, DEVICES);
+		logger.info("The manager took {}ns per point for {} devices", managerTime/POINTS, DEVICES);
+
+		// The manager calls the same methods through method handles, so it may not be slower.
+		assertTrue("The manager took "+managerTime+"ns, reflection "+reflectTime+"ns", managerTime<=reflectTime);
+	}
+
+	private void reflect(Method method, List<InterfaceAnnotatedDevice> devices, IPosition point) throws Exception {
+		final Object[] args = new Object[]{point};
+		for (InterfaceAnnotatedDevice device : devices) {
+			boolean accessible = method.isAccessible();
+			try {
+				method.setAccessible(true);
+				method.invoke(device, args);
+			} finally {
+				method.setAccessible(accessible);
+			}
+		}
+	}
+
+	private void clear(List<InterfaceAnnotatedDevice> devices) {
+		for (InterfaceAnnotatedDevice device : devices) device.getPositions().clear();
+	}
+}
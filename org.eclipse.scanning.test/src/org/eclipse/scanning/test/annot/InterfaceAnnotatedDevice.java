@@ -0,0 +1,39 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.test.annot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.scanning.api.points.IPosition;
+
+/**
+ *
+ * The annotations are on the interface and the methods
+ * which implement them are not annotated.
+ *
+ */
+public class InterfaceAnnotatedDevice extends SimpleDevice implements AnnotatedInterface {
+
+	private List<IPosition> positions = new ArrayList<>();
+
+	@Override
+	public void started() {
+		positions.clear();
+	}
+
+	@Override
+	public void pointStarted(IPosition position) {
+		positions.add(position);
+	}
+
+	public List<IPosition> getPositions() {
+		return positions;
+	}
+}
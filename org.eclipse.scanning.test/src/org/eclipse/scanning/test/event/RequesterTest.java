@@ -0,0 +1,178 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.test.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.scanning.api.event.EventException;
+import org.eclipse.scanning.api.event.IEventService;
+import org.eclipse.scanning.api.event.core.IPublisher;
+import org.eclipse.scanning.api.event.core.IRequestHandler;
+import org.eclipse.scanning.api.event.core.IRequester;
+import org.eclipse.scanning.api.event.core.IResponder;
+import org.eclipse.scanning.api.event.core.ResponseConfiguration;
+import org.eclipse.scanning.api.event.core.ResponseConfiguration.ResponseType;
+import org.eclipse.scanning.api.event.scan.DeviceRequest;
+import org.eclipse.scanning.connector.activemq.ActivemqConnectorService;
+import org.eclipse.scanning.event.EventServiceImpl;
+import org.eclipse.scanning.test.BrokerTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that requesters sharing a response topic each get their
+ * own responses, with blocking and asynchronous posts.
+ */
+public class RequesterTest extends BrokerTest {
+
+	private static final String REQUEST_TOPIC  = "org.eclipse.scanning.test.requester.request.topic";
+	private static final String RESPONSE_TOPIC = "org.eclipse.scanning.test.requester.response.topic";
+
+	private IEventService              eservice;
+	private IResponder<DeviceRequest>  responder;
+	private IRequester<DeviceRequest>  requester1;
+	private IRequester<DeviceRequest>  requester2;
+
+	@Before
+	public void createServices() throws Exception {
+
+		// We wire things together without OSGi here
+		// DO NOT COPY THIS IN NON-TEST CODE!
+		setUpNonOSGIActivemqMarshaller();
+
+		eservice  = new EventServiceImpl(new ActivemqConnectorService()); // Do not copy this get the service from OSGi!
+
+		responder = eservice.createResponder(uri, REQUEST_TOPIC, RESPONSE_TOPIC);
+		responder.setResponseCreator((bean, publisher) -> new EchoHandler(bean, publisher));
+
+		requester1 = eservice.createRequestor(uri, REQUEST_TOPIC, RESPONSE_TOPIC);
+		requester1.setTimeout(10, TimeUnit.SECONDS);
+		requester2 = eservice.createRequestor(uri, REQUEST_TOPIC, RESPONSE_TOPIC);
+		requester2.setTimeout(10, TimeUnit.SECONDS);
+	}
+
+	@After
+	public void dispose() throws Exception {
+		requester1.disconnect();
+		requester2.disconnect();
+		responder.disconnect();
+	}
+
+	@Test
+	public void testPost() throws Exception {
+		DeviceRequest res = requester1.post(new DeviceRequest("fred"));
+		assertEquals("fred response", res.getDeviceValue());
+	}
+
+	@Test
+	public void testPostAsync() throws Exception {
+
+		final int size = 100;
+		List<CompletableFuture<DeviceRequest>> futures = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			IRequester<DeviceRequest> requester = i%2==0 ? requester1 : requester2;
+			futures.add(requester.postAsync(new DeviceRequest("device"+i)));
+		}
+
+		for (int i = 0; i < size; i++) {
+			DeviceRequest res = futures.get(i).get(10, TimeUnit.SECONDS);
+			assertEquals("device"+i, res.getDeviceName());
+			assertEquals("device"+i+" response", res.getDeviceValue());
+		}
+	}
+
+	@Test
+	public void testPostFromManyThreads() throws Exception {
+
+		final int size = 10;
+		final List<Throwable> errors = new ArrayList<>();
+		List<Thread> threads = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			final String name = "thread"+i;
+			final IRequester<DeviceRequest> requester = i%2==0 ? requester1 : requester2;
+			Thread thread = new Thread(() -> {
+				try {
+					for (int j = 0; j < 10; j++) {
+						DeviceRequest res = requester.post(new DeviceRequest(name+"."+j));
+						assertEquals(name+"."+j+" response", res.getDeviceValue());
+					}
+				} catch (Throwable ne) {
+					synchronized (errors) {
+						errors.add(ne);
+					}
+				}
+			}, name);
+			threads.add(thread);
+			thread.start();
+		}
+		for (Thread thread : threads) thread.join();
+		assertTrue("Requests failed "+errors, errors.isEmpty());
+	}
+
+	@Test
+	public void testOneOrMore() throws Exception {
+		requester1.setResponseConfiguration(new ResponseConfiguration(ResponseType.ONE_OR_MORE, 500, TimeUnit.MILLISECONDS));
+		CompletableFuture<DeviceRequest> future = requester1.postAsync(new DeviceRequest("bill"));
+		assertEquals("bill response", future.get(10, TimeUnit.SECONDS).getDeviceValue());
+	}
+
+	@Test
+	public void testTimeout() throws Exception {
+
+		IRequester<DeviceRequest> requester = eservice.createRequestor(uri, REQUEST_TOPIC+".nobody", RESPONSE_TOPIC+".nobody");
+		try {
+			requester.setTimeout(200, TimeUnit.MILLISECONDS);
+			CompletableFuture<DeviceRequest> future = requester.postAsync(new DeviceRequest("nobody"));
+			try {
+				future.get(10, TimeUnit.SECONDS);
+				fail("The request should have timed out!");
+			} catch (ExecutionException expected) {
+				assertTrue(expected.getCause() instanceof EventException);
+			}
+		} finally {
+			requester.disconnect();
+		}
+	}
+
+	private static class EchoHandler implements IRequestHandler<DeviceRequest> {
+
+		private final DeviceRequest            bean;
+		private final IPublisher<DeviceRequest> publisher;
+
+		EchoHandler(DeviceRequest bean, IPublisher<DeviceRequest> publisher) {
+			this.bean      = bean;
+			this.publisher = publisher;
+		}
+
+		@Override
+		public DeviceRequest getBean() {
+			return bean;
+		}
+
+		@Override
+		public IPublisher<DeviceRequest> getPublisher() {
+			return publisher;
+		}
+
+		@Override
+		public DeviceRequest process(DeviceRequest request) throws EventException {
+			request.setDeviceValue(request.getDeviceName()+" response");
+			return request;
+		}
+	}
+}
@@ -0,0 +1,304 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.test.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.scanning.api.event.IEventService;
+import org.eclipse.scanning.api.event.alive.ConsumerStatus;
+import org.eclipse.scanning.api.event.alive.PauseBean;
+import org.eclipse.scanning.api.event.bean.BeanEvent;
+import org.eclipse.scanning.api.event.bean.IBeanListener;
+import org.eclipse.scanning.api.event.core.IConsumer;
+import org.eclipse.scanning.api.event.core.IPublisher;
+import org.eclipse.scanning.api.event.core.IQueueReader;
+import org.eclipse.scanning.api.event.core.ISubmitter;
+import org.eclipse.scanning.api.event.core.ISubscriber;
+import org.eclipse.scanning.api.event.dry.FastRunCreator;
+import org.eclipse.scanning.api.event.status.Status;
+import org.eclipse.scanning.api.event.status.StatusBean;
+import org.eclipse.scanning.connector.activemq.ActivemqConnectorService;
+import org.eclipse.scanning.event.EventServiceImpl;
+import org.eclipse.scanning.test.BrokerTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that updates to the status set replace the bean in place,
+ * leaving one message per bean in the queue, and that a bean in the
+ * submission queue keeps its place when its status changes, both
+ * in the queue read from the broker and in the order it is run.
+ */
+public class StatusSetTest extends BrokerTest {
+
+	private IEventService              eservice;
+	private ISubmitter<StatusBean>     submitter;
+	private IPublisher<StatusBean>     publisher;
+	private IConsumer<StatusBean>      consumer;
+
+	@Before
+	public void createServices() throws Exception {
+
+		// We wire things together without OSGi here
+		// DO NOT COPY THIS IN NON-TEST CODE!
+		setUpNonOSGIActivemqMarshaller();
+
+		eservice  = new EventServiceImpl(new ActivemqConnectorService()); // Do not copy this get the service from OSGi!
+
+		submitter = eservice.createSubmitter(uri, IEventService.STATUS_SET);
+		publisher = eservice.createPublisher(uri, IEventService.STATUS_TOPIC);
+		publisher.setStatusSetName(IEventService.STATUS_SET);
+
+		consumer  = eservice.createConsumer(uri, IEventService.SUBMISSION_QUEUE, IEventService.STATUS_SET, IEventService.STATUS_TOPIC);
+		consumer.setName("Status Set Consumer");
+		consumer.clearQueue(IEventService.SUBMISSION_QUEUE);
+		consumer.clearQueue(IEventService.STATUS_SET);
+	}
+
+	@After
+	public void dispose() throws Exception {
+		consumer.clearQueue(IEventService.STATUS_SET);
+		submitter.disconnect();
+		publisher.disconnect();
+		consumer.disconnect();
+	}
+
+	@Test
+	public void testUpdatesAreCompacted() throws Exception {
+
+		final int size = 50;
+		for (int i = 0; i < size; i++) submitter.submit(createBean(i));
+
+		// Publish progress several times for every bean
+		for (int percent = 0; percent <= 100; percent+=25) {
+			for (int i = 0; i < size; i++) {
+				StatusBean bean = createBean(i);
+				bean.setStatus(Status.RUNNING);
+				bean.setPercentComplete(percent);
+				publisher.broadcast(bean);
+			}
+		}
+
+		List<StatusBean> set = getQueue();
+		assertEquals(size, set.size());
+
+		Map<String, StatusBean> beans = new HashMap<>(size);
+		for (StatusBean bean : consumer.getStatusSet()) beans.put(bean.getUniqueId(), bean);
+		assertEquals(size, beans.size());
+		for (int i = 0; i < size; i++) {
+			StatusBean bean = beans.get("bean"+i);
+			assertEquals(Status.RUNNING, bean.getStatus());
+			assertEquals(100d, bean.getPercentComplete(), 0.0001);
+		}
+	}
+
+	@Test
+	public void testAddRequired() throws Exception {
+
+		StatusBean bean = createBean(0);
+		bean.setStatus(Status.RUNNING);
+
+		publisher.broadcast(bean);
+		assertEquals(0, getQueue().size());
+
+		publisher.setStatusSetAddRequired(true);
+		publisher.broadcast(bean);
+		publisher.broadcast(bean);
+		assertEquals(1, getQueue().size());
+		assertEquals(1, consumer.getStatusSet().size());
+	}
+
+	@Test
+	public void testSetClearedByAnotherClient() throws Exception {
+
+		submitter.submit(createBean(0));
+		StatusBean bean = createBean(0);
+		bean.setStatus(Status.RUNNING);
+		publisher.broadcast(bean);
+		assertEquals(1, getQueue().size());
+
+		// Clear using another consumer, the publisher must not put the bean back.
+		IConsumer<StatusBean> other = eservice.createConsumer(uri, IEventService.SUBMISSION_QUEUE, IEventService.STATUS_SET, IEventService.STATUS_TOPIC);
+		try {
+			other.clearQueue(IEventService.STATUS_SET);
+		} finally {
+			other.disconnect();
+		}
+
+		bean.setStatus(Status.COMPLETE);
+		publisher.broadcast(bean);
+		assertEquals(0, getQueue().size());
+		assertEquals(0, consumer.getStatusSet().size());
+	}
+
+	@Test
+	public void testCleanQueue() throws Exception {
+
+		StatusBean failed = createBean(0);
+		failed.setStatus(Status.FAILED);
+		submitter.submit(failed);
+
+		StatusBean complete = createBean(1);
+		complete.setStatus(Status.COMPLETE);
+		submitter.submit(complete);
+
+		StatusBean submitted = createBean(2);
+		submitted.setStatus(Status.SUBMITTED);
+		submitter.submit(submitted);
+
+		consumer.cleanQueue(IEventService.STATUS_SET);
+
+		List<StatusBean> set = getQueue();
+		assertEquals(2, set.size());
+		for (StatusBean bean : set) {
+			assertTrue(bean.getUniqueId().equals("bean1") || bean.getUniqueId().equals("bean2"));
+			if (bean.getUniqueId().equals("bean2")) assertEquals(Status.FAILED, bean.getStatus());
+		}
+	}
+
+	@Test
+	public void testStatusChangeKeepsQueueOrder() throws Exception {
+
+		ISubmitter<StatusBean> queue = eservice.createSubmitter(uri, IEventService.SUBMISSION_QUEUE);
+		IPublisher<StatusBean> requester = eservice.createPublisher(uri, IEventService.STATUS_TOPIC);
+		try {
+			// The consumer listens for requests but does not run anything
+			consumer.setRunner(new FastRunCreator<StatusBean>(100L, true));
+			consumer.start();
+			pause(consumer);
+
+			final int size = 5;
+			for (int i = 0; i < size; i++) queue.submit(createBean(i));
+
+			// A bean in the middle of the queue is asked to pause
+			StatusBean bean = createBean(2);
+			bean.setStatus(Status.REQUEST_PAUSE);
+			requester.broadcast(bean);
+
+			List<StatusBean> beans = null;
+			for (int i = 0; i < 50; i++) {
+				beans = getQueue(IEventService.SUBMISSION_QUEUE);
+				if (beans.size()==size && beans.get(2).getStatus()==Status.REQUEST_PAUSE) break;
+				Thread.sleep(100);
+			}
+			assertEquals(size, beans.size());
+			for (int i = 0; i < size; i++) assertEquals("bean"+i, beans.get(i).getUniqueId());
+			assertEquals(Status.REQUEST_PAUSE, beans.get(2).getStatus());
+			assertEquals(Status.SUBMITTED, beans.get(3).getStatus());
+
+		} finally {
+			consumer.clearQueue(IEventService.SUBMISSION_QUEUE);
+			queue.disconnect();
+			requester.disconnect();
+		}
+	}
+
+	@Test
+	public void testUpdatedBeanIsTakenInItsPlace() throws Exception {
+
+		ISubmitter<StatusBean>  queue     = eservice.createSubmitter(uri, IEventService.SUBMISSION_QUEUE);
+		IPublisher<StatusBean>  requester = eservice.createPublisher(uri, IEventService.STATUS_TOPIC);
+		ISubscriber<IBeanListener<StatusBean>> subscriber = eservice.createSubscriber(uri, IEventService.STATUS_TOPIC);
+		try {
+			final List<String> taken = Collections.synchronizedList(new ArrayList<>());
+			subscriber.addListener(new IBeanListener<StatusBean>() {
+				@Override
+				public void beanChangePerformed(BeanEvent<StatusBean> evt) {
+					final StatusBean bean = evt.getBean();
+					if (bean.getStatus()==Status.RUNNING || bean.getStatus()==Status.TERMINATED) {
+						if (!taken.contains(bean.getUniqueId())) taken.add(bean.getUniqueId());
+					}
+				}
+			});
+
+			consumer.setRunner(new FastRunCreator<StatusBean>(10L, true));
+			consumer.start();
+			pause(consumer);
+
+			final int size = 3;
+			for (int i = 0; i < size; i++) queue.submit(createBean(i));
+
+			// The first bean is changed, its message is sent again after the others
+			StatusBean bean = createBean(0);
+			bean.setStatus(Status.REQUEST_TERMINATE);
+			requester.broadcast(bean);
+			for (int i = 0; i < 50 && getQueue(IEventService.SUBMISSION_QUEUE).get(0).getStatus()!=Status.REQUEST_TERMINATE; i++) Thread.sleep(100);
+
+			resume(consumer);
+			for (int i = 0; i < 100 && taken.size()<size; i++) Thread.sleep(100);
+			assertEquals(Arrays.asList("bean0", "bean1", "bean2"), taken);
+
+		} finally {
+			consumer.clearQueue(IEventService.SUBMISSION_QUEUE);
+			subscriber.disconnect();
+			queue.disconnect();
+			requester.disconnect();
+		}
+	}
+
+	private void pause(IConsumer<StatusBean> consumer) throws Exception {
+		setPaused(consumer, true);
+		for (int i = 0; i < 50 && consumer.getConsumerStatus()!=ConsumerStatus.PAUSED; i++) Thread.sleep(100);
+		assertEquals(ConsumerStatus.PAUSED, consumer.getConsumerStatus());
+	}
+
+	private void resume(IConsumer<StatusBean> consumer) throws Exception {
+		setPaused(consumer, false);
+		for (int i = 0; i < 50 && consumer.getConsumerStatus()!=ConsumerStatus.RUNNING; i++) Thread.sleep(100);
+		assertEquals(ConsumerStatus.RUNNING, consumer.getConsumerStatus());
+	}
+
+	private void setPaused(IConsumer<StatusBean> consumer, boolean paused) throws Exception {
+		IPublisher<PauseBean> pauser = eservice.createPublisher(uri, IEventService.CMD_TOPIC);
+		try {
+			PauseBean pbean = new PauseBean();
+			pbean.setConsumerId(consumer.getConsumerId());
+			pbean.setPause(paused);
+			pauser.broadcast(pbean);
+		} finally {
+			pauser.disconnect();
+		}
+	}
+
+	private List<StatusBean> getQueue() throws Exception {
+		return getQueue(IEventService.STATUS_SET);
+	}
+
+	/**
+	 * Reads the queue from the broker without using the index.
+	 * @return
+	 * @throws Exception
+	 */
+	private List<StatusBean> getQueue(String queueName) throws Exception {
+		IQueueReader<StatusBean> reader = eservice.createQueueReader(uri, queueName);
+		try {
+			reader.setBeanClass(StatusBean.class);
+			return reader.getQueue();
+		} finally {
+			reader.disconnect();
+		}
+	}
+
+	private StatusBean createBean(int i) {
+		StatusBean bean = new StatusBean();
+		bean.setName("Bean "+i);
+		bean.setUniqueId("bean"+i);
+		bean.setStatus(Status.SUBMITTED);
+		return bean;
+	}
+}
@@ -24,7 +24,9 @@ import org.junit.runners.Suite.SuiteClasses;
 	AnyBeanEventTest.class,
 	HeartbeatTest.class,
 	DeviceRequestTest.class,
-	AcquireRequestTest.class
+	AcquireRequestTest.class,
+	StatusSetTest.class,
+	RequesterTest.class
 	// MConsumerTest.class  Takes too long! TODO Make shorter
 })
 public class Suite {
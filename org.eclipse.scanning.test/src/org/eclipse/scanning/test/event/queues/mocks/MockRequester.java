@@ -16,6 +16,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 import org.eclipse.scanning.api.event.EventException;
@@ -197,6 +198,15 @@ public class MockRequester<T extends IdBean> implements IRequester<T> {
 		return null;
 	}
 
+	@Override
+	public CompletableFuture<T> postAsync(T request) throws EventException {
+		try {
+			return CompletableFuture.completedFuture(post(request));
+		} catch (InterruptedException e) {
+			throw new EventException(e);
+		}
+	}
+
 	public T getReply() {
 		assert (replies.size() > 0);
 		return replies.get(replies.size()-1);
@@ -0,0 +1,120 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.test.points;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.Iterator;
+import java.util.List;
+
+import org.eclipse.dawnsci.analysis.dataset.roi.CircularROI;
+import org.eclipse.scanning.api.points.GeneratorException;
+import org.eclipse.scanning.api.points.IPointGenerator;
+import org.eclipse.scanning.api.points.IPointGeneratorService;
+import org.eclipse.scanning.api.points.IPointGeneratorService.Engine;
+import org.eclipse.scanning.api.points.IPosition;
+import org.eclipse.scanning.api.points.models.BoundingBox;
+import org.eclipse.scanning.api.points.models.GridModel;
+import org.eclipse.scanning.api.points.models.StepModel;
+import org.eclipse.scanning.points.PointGeneratorService;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that points got by their index are the same as those iterated over.
+ */
+public class PointIndexTest {
+
+	private IPointGeneratorService service;
+
+	@Before
+	public void before() throws Exception {
+		service = new PointGeneratorService();
+	}
+
+	@Test
+	public void testStepJava() throws Exception {
+		service.setEngine(Engine.JAVA);
+		checkIndices(service.createGenerator(new StepModel("Temperature", 290, 295, 0.5)));
+	}
+
+	@Test
+	public void testCompoundJava() throws Exception {
+		service.setEngine(Engine.JAVA);
+		checkIndices(createCompound());
+	}
+
+	@Test
+	public void testCompoundJython() throws Exception {
+		service.setEngine(Engine.JYTHON);
+		checkIndices(createCompound());
+	}
+
+	@Test(expected=GeneratorException.class)
+	public void testIndexTooLarge() throws Exception {
+		service.setEngine(Engine.JAVA);
+		IPointGenerator<?> gen = createCompound();
+		gen.getPoint(gen.size());
+	}
+
+	@Test(expected=GeneratorException.class)
+	public void testNegativeIndex() throws Exception {
+		service.setEngine(Engine.JAVA);
+		createCompound().iterator(-1);
+	}
+
+	@Test
+	public void testIteratorFromEnd() throws Exception {
+		service.setEngine(Engine.JAVA);
+		IPointGenerator<?> gen = createCompound();
+		assertFalse(gen.iterator(gen.size()).hasNext());
+	}
+
+	private IPointGenerator<?> createCompound() throws Exception {
+
+		BoundingBox box = new BoundingBox();
+		box.setFastAxisStart(0);
+		box.setSlowAxisStart(0);
+		box.setFastAxisLength(3);
+		box.setSlowAxisLength(3);
+
+		GridModel model = new GridModel("x", "y");
+		model.setSlowAxisPoints(10);
+		model.setFastAxisPoints(12);
+		model.setBoundingBox(box);
+		model.setSnake(true);
+
+		IPointGenerator<StepModel> temp = service.createGenerator(new StepModel("Temperature", 290, 293, 1));
+		IPointGenerator<GridModel> grid = service.createGenerator(model, new CircularROI(1.5, 1.5, 1.5));
+		return service.createCompoundGenerator(temp, grid);
+	}
+
+	private void checkIndices(IPointGenerator<?> gen) throws Exception {
+
+		List<IPosition> points = gen.createPoints();
+		assertEquals(gen.size(), points.size());
+
+		for (int i = 0; i < points.size(); i++) {
+			IPosition point = gen.getPoint(i);
+			assertEquals(points.get(i), point);
+			assertEquals(i, point.getStepIndex());
+		}
+
+		for (int from : new int[]{0, 1, points.size()/2, points.size()-1}) {
+			Iterator<IPosition> it = gen.iterator(from);
+			for (int i = from; i < points.size(); i++) {
+				IPosition point = it.next();
+				assertEquals(points.get(i), point);
+				assertEquals(i, point.getStepIndex());
+			}
+			assertFalse(it.hasNext());
+		}
+	}
+}
@@ -0,0 +1,203 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.test.points;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+import org.eclipse.dawnsci.analysis.dataset.roi.CircularROI;
+import org.eclipse.scanning.api.points.BlockPosition;
+import org.eclipse.scanning.api.points.IPointGenerator;
+import org.eclipse.scanning.api.points.IPointGeneratorService;
+import org.eclipse.scanning.api.points.IPointGeneratorService.Engine;
+import org.eclipse.scanning.api.points.IPosition;
+import org.eclipse.scanning.api.points.IPositionBlockIterator;
+import org.eclipse.scanning.api.points.MapPosition;
+import org.eclipse.scanning.api.points.PositionBlock;
+import org.eclipse.scanning.api.points.models.BoundingBox;
+import org.eclipse.scanning.api.points.models.GridModel;
+import org.eclipse.scanning.api.points.models.StepModel;
+import org.eclipse.scanning.api.scan.rank.IScanRankService;
+import org.eclipse.scanning.api.scan.rank.IScanSlice;
+import org.eclipse.scanning.points.PointGeneratorService;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that the points of a block are the same as those iterated over.
+ */
+public class PositionBlockTest {
+
+	private IPointGeneratorService service;
+
+	@Before
+	public void before() throws Exception {
+		service = new PointGeneratorService();
+	}
+
+	@Test
+	public void testBlockPosition() throws Exception {
+
+		MapPosition pos = new MapPosition("x:0:1.5, y:1:2.5");
+		pos.setStepIndex(3);
+		List<Collection<String>> dnames = Arrays.asList(Arrays.asList("y"), Arrays.asList("x"));
+		pos.setDimensionNames(dnames);
+
+		PositionBlock block = PositionBlock.of(Arrays.<IPosition>asList(pos).iterator(), 10);
+		assertEquals(1, block.size());
+		assertEquals(2, block.getScanRank());
+
+		BlockPosition bpos = block.getPosition(0);
+		assertEquals(pos, bpos);
+		assertEquals(1.5d, bpos.getValue("x"), 0);
+		assertEquals(0, bpos.getIndex("x"));
+		assertEquals(1, bpos.getIndex(0));
+		assertEquals(0, bpos.getIndex(1));
+		assertEquals(3, bpos.getStepIndex());
+		assertEquals(-1, bpos.getIndex("z"));
+		assertNull(bpos.get("z"));
+	}
+
+	@Test
+	public void testBlockSlice() throws Exception {
+
+		service.setEngine(Engine.JAVA);
+		IPointGenerator<?> gen = createCompound();
+		IPosition point = gen.getPoint(17);
+		BlockPosition bpos = gen.createBlock(17, 1).getPosition(0);
+
+		IScanSlice expected = IScanRankService.getScanRankService().createScanSlice(point, 10);
+		IScanSlice actual   = IScanRankService.getScanRankService().createScanSlice(bpos, 10);
+		assertEquals(Arrays.toString(expected.getStart()), Arrays.toString(actual.getStart()));
+		assertEquals(Arrays.toString(expected.getStop()),  Arrays.toString(actual.getStop()));
+	}
+
+	@Test
+	public void testCompoundBlockJava() throws Exception {
+		service.setEngine(Engine.JAVA);
+		checkBlocks(createCompound());
+	}
+
+	@Test
+	public void testCompoundBlockJython() throws Exception {
+		service.setEngine(Engine.JYTHON);
+		checkBlocks(createCompound());
+	}
+
+	@Test
+	public void testStepBlock() throws Exception {
+		checkBlocks(service.createGenerator(new StepModel("Temperature", 290, 295, 0.5)));
+	}
+
+	@Test
+	public void testEmptyBlock() throws Exception {
+		service.setEngine(Engine.JAVA);
+		IPointGenerator<?> gen = createCompound();
+		assertEquals(0, gen.createBlock(gen.size(), 10).size());
+		assertEquals(0, gen.createBlock(0, 0).size());
+	}
+
+	@Test
+	public void testMovingView() throws Exception {
+
+		service.setEngine(Engine.JAVA);
+		IPointGenerator<?> gen   = createCompound();
+		PositionBlock      block = gen.createBlock(0, gen.size());
+
+		BlockPosition view = block.getPosition(0);
+		List<IPosition> points = gen.createPoints();
+		for (int row = 0; row < block.size(); row++) {
+			view.setRow(row);
+			assertEquals(points.get(row), view);
+			assertSame(block.getNames(), view.getNames());
+		}
+	}
+
+	@Test
+	public void testNextBlock() throws Exception {
+
+		service.setEngine(Engine.JAVA);
+		IPointGenerator<?> gen = createCompound();
+		List<IPosition> points = gen.createPoints();
+
+		Iterator<IPosition> it = gen.iterator();
+		assertTrue(it instanceof IPositionBlockIterator);
+		IPositionBlockIterator bit = (IPositionBlockIterator)it;
+
+		// Positions and blocks may be read from the same iterator
+		List<IPosition> read = new ArrayList<>();
+		read.add(bit.next());
+		assertTrue(bit.hasNext()); // The next point has been read ahead
+		for (PositionBlock block = bit.nextBlock(7); block.size()>0; block = bit.nextBlock(7)) {
+			for (IPosition pos : block) read.add(pos);
+			if (bit.hasNext()) read.add(bit.next());
+		}
+		assertFalse(bit.hasNext());
+		assertEquals(points, read);
+	}
+
+	@Test
+	public void testNoNextBlockJython() throws Exception {
+		service.setEngine(Engine.JYTHON);
+		IPointGenerator<?> gen = createCompound();
+		IPositionBlockIterator it = (IPositionBlockIterator)gen.iterator();
+		assertNull(it.nextBlock(7));
+		assertEquals(gen.getFirstPoint(), it.next());
+	}
+
+	private IPointGenerator<?> createCompound() throws Exception {
+
+		BoundingBox box = new BoundingBox();
+		box.setFastAxisStart(0);
+		box.setSlowAxisStart(0);
+		box.setFastAxisLength(3);
+		box.setSlowAxisLength(3);
+
+		GridModel model = new GridModel("x", "y");
+		model.setSlowAxisPoints(8);
+		model.setFastAxisPoints(9);
+		model.setBoundingBox(box);
+		model.setSnake(true);
+
+		IPointGenerator<StepModel> temp = service.createGenerator(new StepModel("Temperature", 290, 293, 1));
+		IPointGenerator<GridModel> grid = service.createGenerator(model, new CircularROI(1.5, 1.5, 1.5));
+		return service.createCompoundGenerator(temp, grid);
+	}
+
+	private void checkBlocks(IPointGenerator<?> gen) throws Exception {
+
+		List<IPosition> points = gen.createPoints();
+
+		PositionBlock all = gen.createBlock(0, points.size()+10);
+		assertEquals(points.size(), all.size());
+
+		int from = points.size()/3;
+		PositionBlock part = gen.createBlock(from, 20);
+		assertEquals(20, part.size());
+
+		int row = 0;
+		for (Iterator<IPosition> it = all.iterator(); it.hasNext(); row++) {
+			IPosition bpos = it.next();
+			assertEquals(points.get(row), bpos);
+			assertEquals(points.get(row).getIndices(), bpos.getIndices());
+		}
+		for (row = 0; row < part.size(); row++) {
+			assertEquals(points.get(from+row), part.getPosition(row));
+		}
+	}
+}
@@ -0,0 +1,95 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.test.points;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import org.eclipse.dawnsci.analysis.dataset.roi.RectangularROI;
+import org.eclipse.scanning.api.points.IPointGenerator;
+import org.eclipse.scanning.api.points.IPointGeneratorService;
+import org.eclipse.scanning.api.points.IPointGeneratorService.Engine;
+import org.eclipse.scanning.api.points.IPosition;
+import org.eclipse.scanning.api.points.PositionBlock;
+import org.eclipse.scanning.api.points.models.GridModel;
+import org.eclipse.scanning.api.points.models.StepModel;
+import org.eclipse.scanning.points.PointGeneratorService;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares the memory allocated and time taken to make the points of a
+ * large scan as a list of positions and as a block.
+ */
+public class PositionBlockTestLarge {
+
+	private static final Logger logger = LoggerFactory.getLogger(PositionBlockTestLarge.class);
+
+	private IPointGeneratorService service;
+
+	@Before
+	public void before() throws Exception {
+		service = new PointGeneratorService();
+		service.setEngine(Engine.JAVA);
+	}
+
+	@Test
+	public void testMillionPointAllocation() throws Exception {
+
+		GridModel model = new GridModel("x", "y");
+		model.setSlowAxisPoints(100);
+		model.setFastAxisPoints(100);
+
+		IPointGenerator<StepModel> temp = service.createGenerator(new StepModel("Temperature", 1, 100, 1));
+		IPointGenerator<GridModel> grid = service.createGenerator(model, new RectangularROI(0, 0, 10, 10, 0));
+		IPointGenerator<?>         gen  = service.createCompoundGenerator(temp, grid);
+		int size = gen.size();
+		assertEquals(1000000, size);
+
+		// Warm up
+		gen.createPoints();
+		gen.createBlock(0, size);
+
+		long bytes  = getAllocatedBytes();
+		long start  = System.currentTimeMillis();
+		List<IPosition> points = gen.createPoints();
+		long listTime  = System.currentTimeMillis()-start;
+		long listBytes = getAllocatedBytes()-bytes;
+		assertEquals(size, points.size());
+		points = null;
+
+		bytes  = getAllocatedBytes();
+		start  = System.currentTimeMillis();
+		PositionBlock block = gen.createBlock(0, size);
+		long blockTime  = System.currentTimeMillis()-start;
+		long blockBytes = getAllocatedBytes()-bytes;
+		assertEquals(size, block.size());
+
+		logger.info("List of {} points allocated {} bytes per point in {}ms", size, listBytes/size, listTime);
+		logger.info("Block of {} points allocated {} bytes per point in {}ms", size, blockBytes/size, blockTime);
+
+		// A row holds a double for each name, an int for each dimension, a step index and an exposure
+		// time. The builder fills arrays which the block copies, so a row is allocated twice.
+		final int names      = block.getNames().size();
+		final int dimensions = block.getDimensionNames().size();
+		final long rowBytes  = 8*names + 4*dimensions + 4 + 8;
+		assertTrue("The block allocated "+blockBytes/size+" bytes per point, each row needs "+rowBytes, blockBytes/size <= 3*rowBytes);
+		assertTrue("The block allocated "+blockBytes+" bytes, the list "+listBytes, blockBytes<listBytes);
+	}
+
+	private static long getAllocatedBytes() {
+		com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+		return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+}
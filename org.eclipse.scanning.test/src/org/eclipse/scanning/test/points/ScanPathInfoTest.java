@@ -0,0 +1,136 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.test.points;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.eclipse.dawnsci.analysis.dataset.roi.CircularROI;
+import org.eclipse.scanning.api.points.AbstractPosition;
+import org.eclipse.scanning.api.points.IPointGenerator;
+import org.eclipse.scanning.api.points.IPointGeneratorService;
+import org.eclipse.scanning.api.points.ScanPathInfo;
+import org.eclipse.scanning.api.points.models.BoundingBox;
+import org.eclipse.scanning.api.points.models.CompoundModel;
+import org.eclipse.scanning.api.points.models.GridModel;
+import org.eclipse.scanning.api.points.models.ScanRegion;
+import org.eclipse.scanning.api.points.models.StepModel;
+import org.eclipse.scanning.api.scan.ScanEstimator;
+import org.eclipse.scanning.points.PointGeneratorService;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that the size, shape and names of a scan are worked out
+ * once and shared by generators made from equal compound models.
+ */
+public class ScanPathInfoTest {
+
+	private IPointGeneratorService service;
+
+	@Before
+	public void before() throws Exception {
+		service = new PointGeneratorService();
+	}
+
+	@Test
+	public void testInfoIsCorrect() throws Exception {
+
+		IPointGenerator<?> gen = service.createCompoundGenerator(createModel(7, 5));
+		ScanPathInfo info = gen.getScanPathInfo();
+
+		IPointGenerator<?> check = service.createCompoundGenerator(
+				service.createGenerator(new StepModel("Temperature", 290, 292, 1)),
+				service.createGenerator(createGrid(7, 5), new CircularROI(1.5, 1.5, 1.5)));
+
+		assertEquals(check.size(), info.getSize());
+		assertArrayEquals(check.getShape(), info.getShape());
+		assertEquals(check.getRank(), info.getRank());
+		assertEquals(((AbstractPosition)check.iterator().next()).getDimensionNames(), info.getDimensionNames());
+		assertEquals(check.iterator().next().getScanRank(), info.getScanRank());
+
+		BoundingBox box = info.getBoundingBox();
+		assertNotNull(box);
+		assertEquals(3, box.getFastAxisLength(), 0.0001);
+	}
+
+	@Test
+	public void testInfoIsShared() throws Exception {
+
+		IPointGenerator<?> gen1 = service.createCompoundGenerator(createModel(8, 6));
+		IPointGenerator<?> gen2 = service.createCompoundGenerator(createModel(8, 6));
+		assertNotSame(gen1, gen2);
+		assertSame(gen1.getScanPathInfo(), gen2.getScanPathInfo());
+
+		// Another service shares them too
+		IPointGenerator<?> gen3 = new PointGeneratorService().createCompoundGenerator(createModel(8, 6));
+		assertSame(gen1.getScanPathInfo(), gen3.getScanPathInfo());
+		assertEquals(gen1.size(), gen3.size());
+	}
+
+	@Test
+	public void testDifferentModelNotShared() throws Exception {
+
+		IPointGenerator<?> gen1 = service.createCompoundGenerator(createModel(9, 6));
+		IPointGenerator<?> gen2 = service.createCompoundGenerator(createModel(9, 7));
+		assertNotSame(gen1.getScanPathInfo(), gen2.getScanPathInfo());
+		assertEquals(gen2.size(), gen2.getScanPathInfo().getSize());
+	}
+
+	@Test
+	public void testEstimatorUsesInfo() throws Exception {
+
+		IPointGenerator<?> gen = service.createCompoundGenerator(createModel(10, 6));
+		ScanEstimator estimator = new ScanEstimator(gen, (Map<String, Object>)null, 100);
+
+		ScanPathInfo info = gen.getScanPathInfo();
+		assertEquals(info.getSize(), estimator.getSize());
+		assertEquals(info.getScanRank(), estimator.getRank());
+		assertArrayEquals(info.getShape(), estimator.getShape());
+		assertEquals(info.getSize()*100, estimator.getEstimatedScanTime());
+	}
+
+	@Test
+	public void testShapeIsCopied() throws Exception {
+
+		ScanPathInfo info = service.createCompoundGenerator(createModel(11, 6)).getScanPathInfo();
+		int[] shape = info.getShape();
+		shape[0] = -1;
+		assertEquals(Arrays.toString(info.getShape()), 3, info.getShape()[0]);
+	}
+
+	private CompoundModel<?> createModel(int fast, int slow) {
+
+		CompoundModel<CircularROI> cmodel = new CompoundModel<>();
+		cmodel.setModelsVarArgs(new StepModel("Temperature", 290, 292, 1), createGrid(fast, slow));
+		cmodel.setRegionsVarArgs(new ScanRegion<>(new CircularROI(1.5, 1.5, 1.5), "x", "y"));
+		return cmodel;
+	}
+
+	private GridModel createGrid(int fast, int slow) {
+
+		BoundingBox box = new BoundingBox();
+		box.setFastAxisStart(0);
+		box.setSlowAxisStart(0);
+		box.setFastAxisLength(3);
+		box.setSlowAxisLength(3);
+
+		GridModel model = new GridModel("x", "y");
+		model.setFastAxisPoints(fast);
+		model.setSlowAxisPoints(slow);
+		model.setBoundingBox(box);
+		return model;
+	}
+}
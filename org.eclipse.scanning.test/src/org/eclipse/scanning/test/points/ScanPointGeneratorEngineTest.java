@@ -0,0 +1,275 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.test.points;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.Iterator;
+
+import org.eclipse.dawnsci.analysis.api.roi.IROI;
+import org.eclipse.dawnsci.analysis.dataset.roi.CircularROI;
+import org.eclipse.dawnsci.analysis.dataset.roi.EllipticalROI;
+import org.eclipse.dawnsci.analysis.dataset.roi.PolygonalROI;
+import org.eclipse.dawnsci.analysis.dataset.roi.RectangularROI;
+import org.eclipse.dawnsci.analysis.dataset.roi.SectorROI;
+import org.eclipse.scanning.api.points.AbstractPosition;
+import org.eclipse.scanning.api.points.IPointGenerator;
+import org.eclipse.scanning.api.points.IPointGeneratorService;
+import org.eclipse.scanning.api.points.IPointGeneratorService.Engine;
+import org.eclipse.scanning.api.points.IPosition;
+import org.eclipse.scanning.api.points.models.ArrayModel;
+import org.eclipse.scanning.api.points.models.BoundingBox;
+import org.eclipse.scanning.api.points.models.BoundingLine;
+import org.eclipse.scanning.api.points.models.GridModel;
+import org.eclipse.scanning.api.points.models.LissajousModel;
+import org.eclipse.scanning.api.points.models.MultiStepModel;
+import org.eclipse.scanning.api.points.models.OneDEqualSpacingModel;
+import org.eclipse.scanning.api.points.models.RandomOffsetGridModel;
+import org.eclipse.scanning.api.points.models.RasterModel;
+import org.eclipse.scanning.api.points.models.SpiralModel;
+import org.eclipse.scanning.api.points.models.StepModel;
+import org.eclipse.scanning.points.PointGeneratorService;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that the Java port of the scanpointgenerator library makes exactly
+ * the same positions as the library running in jython. The jython engine is
+ * the reference so that the test follows any change to the library.
+ */
+public class ScanPointGeneratorEngineTest {
+
+	private IPointGeneratorService jython, java;
+
+	@Before
+	public void before() throws Exception {
+		jython = new PointGeneratorService();
+		jython.setEngine(Engine.JYTHON);
+		java = new PointGeneratorService();
+		java.setEngine(Engine.JAVA);
+	}
+
+	@Test
+	public void testEngine() throws Exception {
+		assertEquals(Engine.JYTHON, jython.getEngine());
+		assertEquals(Engine.JAVA,   java.getEngine());
+	}
+
+	@Test
+	public void testStep() throws Exception {
+		checkSame(new StepModel("Temperature", 290, 295, 0.7));
+		checkSame(new StepModel("Temperature", 295, 290, -1));
+	}
+
+	@Test
+	public void testArray() throws Exception {
+		ArrayModel model = new ArrayModel(1.5, -2.0, 3.25, 10, 0.1);
+		model.setName("x");
+		checkSame(model);
+	}
+
+	@Test
+	public void testMultiStep() throws Exception {
+		MultiStepModel model = new MultiStepModel();
+		model.setName("energy");
+		model.addRange(10, 20, 2);
+		model.addRange(25, 50, 5);
+		model.addRange(100, 500, 50);
+		checkSame(model);
+	}
+
+	@Test
+	public void testOneDEqualSpacing() throws Exception {
+		BoundingLine line = new BoundingLine();
+		line.setxStart(0.5);
+		line.setyStart(-1.0);
+		line.setLength(Math.hypot(3.0, 4.0));
+		line.setAngle(0.6);
+
+		OneDEqualSpacingModel model = new OneDEqualSpacingModel();
+		model.setPoints(17);
+		model.setBoundingLine(line);
+		checkSame(model);
+	}
+
+	@Test
+	public void testGrid() throws Exception {
+		checkSame(createGridModel(false));
+	}
+
+	@Test
+	public void testSnakeGrid() throws Exception {
+		checkSame(createGridModel(true));
+	}
+
+	@Test
+	public void testRaster() throws Exception {
+		RasterModel model = new RasterModel("x", "y");
+		model.setBoundingBox(createBox());
+		model.setFastAxisStep(0.3);
+		model.setSlowAxisStep(0.7);
+		model.setSnake(true);
+		checkSame(model);
+	}
+
+	@Test
+	public void testRandomOffsetGrid() throws Exception {
+		RandomOffsetGridModel model = new RandomOffsetGridModel("x", "y");
+		model.setSlowAxisPoints(7);
+		model.setFastAxisPoints(9);
+		model.setBoundingBox(createBox());
+		model.setSeed(10);
+		model.setOffset(25);
+		checkSame(model);
+	}
+
+	@Test
+	public void testSpiral() throws Exception {
+		SpiralModel model = new SpiralModel("x", "y");
+		model.setBoundingBox(createBox());
+		model.setScale(0.3);
+		checkSame(model);
+	}
+
+	@Test
+	public void testLissajous() throws Exception {
+		LissajousModel model = new LissajousModel();
+		model.setBoundingBox(createBox());
+		model.setPoints(250);
+		model.setA(3);
+		checkSame(model);
+	}
+
+	@Test
+	public void testGridInCircle() throws Exception {
+		checkSame(createGridModel(false), new CircularROI(2, 1, 1));
+		checkSame(createGridModel(true),  new CircularROI(2, 1, 1));
+	}
+
+	@Test
+	public void testGridInRectangle() throws Exception {
+		checkSame(createGridModel(false), new RectangularROI(0.5, 0.5, 2, 1.5, 0));
+		checkSame(createGridModel(true),  new RectangularROI(0.5, 0.5, 2, 1.5, 0.3));
+	}
+
+	@Test
+	public void testGridInPolygon() throws Exception {
+		PolygonalROI diamond = new PolygonalROI(new double[] { 1.5, 0 });
+		diamond.insertPoint(new double[] { 3, 1.5 });
+		diamond.insertPoint(new double[] { 1.5, 3 });
+		diamond.insertPoint(new double[] { 0, 1.5 });
+		checkSame(createGridModel(true), diamond);
+	}
+
+	@Test
+	public void testGridInEllipse() throws Exception {
+		checkSame(createGridModel(true), new EllipticalROI(1.5, 0.75, 0.4, 1.5, 1.5));
+	}
+
+	@Test
+	public void testGridInSector() throws Exception {
+		checkSame(createGridModel(false), new SectorROI(0, 0, 1, 3, 0, Math.PI/3));
+	}
+
+	@Test
+	public void testSpiralInCircle() throws Exception {
+		SpiralModel model = new SpiralModel("x", "y");
+		model.setBoundingBox(createBox());
+		model.setScale(0.3);
+		checkSame(model, new CircularROI(1.5, 1.5, 1.5));
+	}
+
+	@Test
+	public void testCompoundStepGrid() throws Exception {
+		checkSameCompound(jython.createGenerator(new StepModel("Temperature", 290, 295, 1)),
+				          jython.createGenerator(createGridModel(true), new CircularROI(2, 1, 1)),
+				          java.createGenerator(new StepModel("Temperature", 290, 295, 1)),
+				          java.createGenerator(createGridModel(true), new CircularROI(2, 1, 1)));
+	}
+
+	@Test
+	public void testCompoundStepStepGrid() throws Exception {
+		checkSameCompound(jython.createGenerator(new StepModel("Temperature", 290, 295, 1)),
+				          jython.createGenerator(new StepModel("Position", 1, 4, 0.6)),
+				          jython.createGenerator(createGridModel(true)),
+				          java.createGenerator(new StepModel("Temperature", 290, 295, 1)),
+				          java.createGenerator(new StepModel("Position", 1, 4, 0.6)),
+				          java.createGenerator(createGridModel(true)));
+	}
+
+	private GridModel createGridModel(boolean snake) {
+		GridModel model = new GridModel("x", "y");
+		model.setSlowAxisPoints(11);
+		model.setFastAxisPoints(13);
+		model.setBoundingBox(createBox());
+		model.setSnake(snake);
+		return model;
+	}
+
+	private BoundingBox createBox() {
+		BoundingBox box = new BoundingBox();
+		box.setFastAxisStart(0);
+		box.setSlowAxisStart(0);
+		box.setFastAxisLength(3);
+		box.setSlowAxisLength(3);
+		return box;
+	}
+
+	private void checkSame(Object model) throws Exception {
+		checkSame(jython.createGenerator(model), java.createGenerator(model));
+	}
+
+	private void checkSame(Object model, IROI roi) throws Exception {
+		checkSame(jython.createGenerator(model, roi), java.createGenerator(model, roi));
+		checkSame(jython.createCompoundGenerator(jython.createGenerator(model, roi)),
+				  java.createCompoundGenerator(java.createGenerator(model, roi)));
+	}
+
+	/**
+	 * The first half of the generators are made by the jython service and the
+	 * second half by the Java one.
+	 */
+	private void checkSameCompound(IPointGenerator<?>... gens) throws Exception {
+		IPointGenerator<?>[] jgens = new IPointGenerator<?>[gens.length/2];
+		IPointGenerator<?>[] pgens = new IPointGenerator<?>[gens.length/2];
+		System.arraycopy(gens, 0,            jgens, 0, jgens.length);
+		System.arraycopy(gens, jgens.length, pgens, 0, pgens.length);
+		checkSame(jython.createCompoundGenerator(jgens), java.createCompoundGenerator(pgens));
+	}
+
+	private void checkSame(IPointGenerator<?> expected, IPointGenerator<?> actual) throws Exception {
+
+		assertEquals(expected.size(),    actual.size());
+		assertEquals(expected.getRank(), actual.getRank());
+		assertArrayEquals(expected.getShape(), actual.getShape());
+
+		Iterator<IPosition> eit = expected.iterator();
+		Iterator<IPosition> ait = actual.iterator();
+		int count = 0;
+		while(eit.hasNext()) {
+			IPosition epos = eit.next();
+			IPosition apos = ait.next();
+			String msg = "Position "+count+" should be "+epos+" but was "+apos;
+			assertEquals(msg, epos.getClass(), apos.getClass());
+			assertEquals(msg, epos.getNames(), apos.getNames());
+			assertEquals(msg, epos.getIndices(), apos.getIndices());
+			for (String name : epos.getNames()) {
+				// Exactly the same double, not within a tolerance
+				assertEquals(msg, epos.get(name), apos.get(name));
+			}
+			assertEquals(msg, ((AbstractPosition)epos).getDimensionNames(), ((AbstractPosition)apos).getDimensionNames());
+			assertEquals(msg, epos, apos);
+			count++;
+		}
+		assertFalse(ait.hasNext());
+		assertEquals(expected.size(), count);
+	}
+}
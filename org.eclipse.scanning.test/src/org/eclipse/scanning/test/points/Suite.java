@@ -23,11 +23,15 @@ import org.junit.runners.Suite.SuiteClasses;
 	LinearTest.class,
 	// LissajousTest.class, FIXME Why does this not work?
 	MultiStepTest.class,
+	PointIndexTest.class,
 	PointServiceTest.class,
+	PositionBlockTest.class,
 	RandomOffsetDecoratorTest.class,
 	RandomOffsetGridTest.class,
 	RasterTest.class,
 	ScanPointGeneratorFactoryTest.class,
+	ScanPointGeneratorEngineTest.class,
+	ScanPathInfoTest.class,
 	ScanRankTest.class,
 	ScanShapeTest.class,
 	SpiralTest.class,
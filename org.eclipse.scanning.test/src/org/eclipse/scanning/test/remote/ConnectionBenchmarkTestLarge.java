@@ -0,0 +1,168 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.test.remote;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.scanning.api.IScannable;
+import org.eclipse.scanning.api.annotation.ui.DeviceType;
+import org.eclipse.scanning.api.device.IScannableDeviceService;
+import org.eclipse.scanning.api.event.EventConstants;
+import org.eclipse.scanning.api.event.IEventService;
+import org.eclipse.scanning.api.event.core.IDisconnectable;
+import org.eclipse.scanning.api.event.core.IRequester;
+import org.eclipse.scanning.api.event.core.ISubmitter;
+import org.eclipse.scanning.api.event.scan.DeviceRequest;
+import org.eclipse.scanning.api.event.status.StatusBean;
+import org.eclipse.scanning.connector.activemq.ActivemqConnectorService;
+import org.eclipse.scanning.event.EventServiceImpl;
+import org.eclipse.scanning.event.remote.RemoteServiceFactory;
+import org.eclipse.scanning.example.scannable.MockScannableConnector;
+import org.eclipse.scanning.server.servlet.AbstractResponderServlet;
+import org.eclipse.scanning.server.servlet.DeviceServlet;
+import org.eclipse.scanning.server.servlet.Services;
+import org.eclipse.scanning.test.BrokerTest;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measures the requests per second which a single client can make
+ * with the connection pool and without it. Without the pool each request
+ * is made the way it was before pooling, with new connections.
+ */
+public class ConnectionBenchmarkTestLarge extends BrokerTest {
+
+	private static Logger logger = LoggerFactory.getLogger(ConnectionBenchmarkTestLarge.class);
+
+	private static final String POOL_DISABLED = "org.eclipse.scanning.event.pool.disabled";
+	private static final int    COUNT         = 200;
+
+	private static IScannableDeviceService      cservice;
+	private static IEventService                eservice;
+	private static AbstractResponderServlet<?>  dservlet;
+
+	@BeforeClass
+	public static void createServices() throws Exception {
+
+		RemoteServiceFactory.setTimeout(1, TimeUnit.MINUTES);
+
+		// We wire things together without OSGi here
+		// DO NOT COPY THIS IN NON-TEST CODE!
+		setUpNonOSGIActivemqMarshaller();
+		eservice = new EventServiceImpl(new ActivemqConnectorService()); // Do not copy this get the service from OSGi!
+
+		cservice = new MockScannableConnector(eservice.createPublisher(uri, EventConstants.POSITION_TOPIC));
+
+		Services.setEventService(eservice);
+		Services.setConnector(cservice);
+
+		dservlet = new DeviceServlet();
+		dservlet.setBroker(uri.toString());
+		dservlet.setRequestTopic(IEventService.DEVICE_REQUEST_TOPIC);
+		dservlet.setResponseTopic(IEventService.DEVICE_RESPONSE_TOPIC);
+		dservlet.connect();
+	}
+
+	@AfterClass
+	public static void cleanup() throws Exception {
+		dservlet.disconnect();
+	}
+
+	@After
+	public void enablePool() {
+		System.clearProperty(POOL_DISABLED);
+	}
+
+	@Test
+	public void benchmarkRemotePosition() throws Exception {
+
+		// Before, a new requester with its own connections for each request.
+		System.setProperty(POOL_DISABLED, "true");
+		getPositionsUnpooled(10); // Warm up
+		long start = System.nanoTime();
+		getPositionsUnpooled(COUNT);
+		double before = rate(COUNT, start);
+
+		// After, the remote scannable keeps its requester and the connection is shared.
+		System.clearProperty(POOL_DISABLED);
+		IScannableDeviceService rservice = eservice.createRemoteService(uri, IScannableDeviceService.class);
+		try {
+			IScannable<Double> x = rservice.getScannable("x");
+			for (int i = 0; i < 10; i++) x.getPosition(); // Warm up
+			start = System.nanoTime();
+			for (int i = 0; i < COUNT; i++) x.getPosition();
+		} finally {
+			((IDisconnectable)rservice).disconnect();
+		}
+		double after = rate(COUNT, start);
+
+		logger.info("Remote getPosition() requests per second, before {}, after {}", Math.round(before), Math.round(after));
+		assertTrue("Pooled requests should be faster, before "+before+" after "+after, after>before);
+	}
+
+	@Test
+	public void benchmarkSubmit() throws Exception {
+
+		final String queueName = "org.eclipse.scanning.test.benchmark.submit";
+
+		System.setProperty(POOL_DISABLED, "true");
+		double before = submit(queueName);
+
+		System.clearProperty(POOL_DISABLED);
+		double after = submit(queueName);
+
+		logger.info("Submissions per second, before {}, after {}", Math.round(before), Math.round(after));
+		assertTrue("Pooled submission should be faster, before "+before+" after "+after, after>before);
+	}
+
+	private void getPositionsUnpooled(int count) throws Exception {
+		for (int i = 0; i < count; i++) {
+			IRequester<DeviceRequest> requester = eservice.createRequestor(uri, EventConstants.DEVICE_REQUEST_TOPIC, EventConstants.DEVICE_RESPONSE_TOPIC);
+			try {
+				DeviceRequest req = requester.post(new DeviceRequest("x", DeviceType.SCANNABLE));
+				assertEquals("x", req.getDeviceName());
+			} finally {
+				requester.disconnect();
+			}
+		}
+	}
+
+	private double submit(String queueName) throws Exception {
+
+		ISubmitter<StatusBean> submitter = eservice.createSubmitter(uri, queueName);
+		submitter.setStatusTopicName(null);
+		try {
+			submitter.clearQueue(queueName);
+			for (int i = 0; i < 10; i++) submitter.submit(new StatusBean()); // Warm up
+
+			long start = System.nanoTime();
+			for (int i = 0; i < COUNT; i++) {
+				StatusBean bean = new StatusBean();
+				bean.setName("Bean "+i);
+				submitter.submit(bean);
+			}
+			return rate(COUNT, start);
+
+		} finally {
+			submitter.clearQueue(queueName);
+			submitter.disconnect();
+		}
+	}
+
+	private static double rate(int count, long start) {
+		return count/((System.nanoTime()-start)/1e9);
+	}
+}
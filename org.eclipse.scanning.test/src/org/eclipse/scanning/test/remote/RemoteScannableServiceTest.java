@@ -16,16 +16,23 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import org.eclipse.scanning.api.IScannable;
+import org.eclipse.scanning.api.annotation.ui.DeviceType;
 import org.eclipse.scanning.api.device.IScannableDeviceService;
 import org.eclipse.scanning.api.event.EventConstants;
 import org.eclipse.scanning.api.event.EventException;
 import org.eclipse.scanning.api.event.IEventService;
 import org.eclipse.scanning.api.event.core.IDisconnectable;
+import org.eclipse.scanning.api.event.core.IRequester;
+import org.eclipse.scanning.api.event.scan.DeviceAction;
+import org.eclipse.scanning.api.event.scan.DeviceRequest;
 import org.eclipse.scanning.api.scan.PositionEvent;
 import org.eclipse.scanning.api.scan.ScanningException;
 import org.eclipse.scanning.api.scan.event.IPositionListenable;
@@ -157,6 +164,52 @@ public class RemoteScannableServiceTest extends BrokerTest {
 		}
 	}
 
+	@Test
+	public void testGetPositions() throws Exception {
+
+		cservice.getScannable("x").setPosition(1d);
+		cservice.getScannable("y").setPosition(2d);
+		cservice.getScannable("xNex").setPosition(3d);
+
+		List<String> names = Arrays.asList("x", "y", "xNex");
+		Map<String, Object> positions = rservice.getPositions(names);
+		assertEquals(names, new ArrayList<>(positions.keySet()));
+		assertEquals(1d, ((Number)positions.get("x")).doubleValue(), 0.0001);
+		assertEquals(2d, ((Number)positions.get("y")).doubleValue(), 0.0001);
+		assertEquals(3d, ((Number)positions.get("xNex")).doubleValue(), 0.0001);
+	}
+
+	@Test
+	public void testSetPositionsInOneRequest() throws Exception {
+
+		final Map<String, Object> values = new LinkedHashMap<>();
+		values.put("x", 4d);
+		values.put("y", 5d);
+		values.put("T", null); // Read only
+
+		IRequester<DeviceRequest> requester = eservice.createRequestor(uri, EventConstants.DEVICE_REQUEST_TOPIC, EventConstants.DEVICE_RESPONSE_TOPIC);
+		try {
+			requester.setTimeout(1, TimeUnit.MINUTES);
+			DeviceRequest req = new DeviceRequest(DeviceType.SCANNABLE);
+			req.setDeviceAction(DeviceAction.SET);
+			req.setDeviceValues(values);
+			req = requester.post(req);
+			req.checkException();
+
+			assertEquals(4d, ((Number)req.getDeviceValues().get("x")).doubleValue(), 0.0001);
+			assertEquals(5d, ((Number)req.getDeviceValues().get("y")).doubleValue(), 0.0001);
+			IScannable<Number> temp = cservice.getScannable("T");
+			assertEquals(temp.getPosition().doubleValue(), ((Number)req.getDeviceValues().get("T")).doubleValue(), 0.0001);
+
+			IScannable<Number> x = cservice.getScannable("x");
+			IScannable<Number> y = cservice.getScannable("y");
+			assertEquals(4d, x.getPosition().doubleValue(), 0.0001);
+			assertEquals(5d, y.getPosition().doubleValue(), 0.0001);
+		} finally {
+			requester.disconnect();
+		}
+	}
+
 	@Test
 	public void addFive() throws Exception {
 		checkTemperature(5);
@@ -0,0 +1,101 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.test.scan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.scanning.api.IScannable;
+import org.eclipse.scanning.api.device.AbstractRunnableDevice;
+import org.eclipse.scanning.api.event.scan.ScanBean;
+import org.eclipse.scanning.api.points.BlockPosition;
+import org.eclipse.scanning.api.points.IPointGenerator;
+import org.eclipse.scanning.api.points.IPosition;
+import org.eclipse.scanning.api.points.models.BoundingBox;
+import org.eclipse.scanning.api.points.models.GridModel;
+import org.eclipse.scanning.api.points.models.StepModel;
+import org.eclipse.scanning.api.scan.PositionEvent;
+import org.eclipse.scanning.api.scan.ScanningException;
+import org.eclipse.scanning.api.scan.event.IPositionListener;
+import org.eclipse.scanning.api.scan.models.ScanModel;
+import org.eclipse.scanning.example.scannable.MockScannable;
+import org.eclipse.scanning.test.scan.mock.MockDetectorModel;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Runs the scan tests with the Java engine and the positions of the
+ * scan read in blocks, then checks that a compound scan is run with
+ * block positions which are the same as the points of its generator.
+ */
+public class BlockScanTest extends ScanTest {
+
+	@BeforeClass
+	public static void blocks() {
+		System.setProperty("org.eclipse.scanning.points.engine", "java");
+		System.setProperty("org.eclipse.scanning.sequencer.block.size", "4");
+	}
+
+	@AfterClass
+	public static void noBlocks() {
+		System.clearProperty("org.eclipse.scanning.points.engine");
+		System.clearProperty("org.eclipse.scanning.sequencer.block.size");
+	}
+
+	@Test
+	public void testBlockPositions() throws Exception {
+
+		GridModel grid = new GridModel("p", "q");
+		grid.setSlowAxisPoints(5);
+		grid.setFastAxisPoints(5);
+		grid.setBoundingBox(new BoundingBox(0,0,3,3));
+
+		IPointGenerator<?> gen = gservice.createCompoundGenerator(gservice.createGenerator(new StepModel("T", 290, 292, 1)),
+				                                                  gservice.createGenerator(grid));
+		final List<IPosition> positions = Collections.synchronizedList(new ArrayList<>());
+		AbstractRunnableDevice<ScanModel> scanner = createScanner(gen);
+		scanner.addPositionListener(new IPositionListener() {
+			@Override
+			public void positionPerformed(PositionEvent evt) throws ScanningException {
+				positions.add(evt.getPosition());
+			}
+		});
+		scanner.run(null);
+
+		List<IPosition> points = gen.createPoints();
+		assertEquals(points.size(), positions.size()); // 75 points, the last block is not full
+		for (int i = 0; i < points.size(); i++) {
+			assertTrue(positions.get(i) instanceof BlockPosition);
+			assertEquals(points.get(i), positions.get(i));
+		}
+
+		// The motors were moved to the values in the blocks
+		IPosition last = points.get(points.size()-1);
+		IScannable<Number> q = connector.getScannable("q");
+		((MockScannable)q).verify(last.getValue("q"), last);
+	}
+
+	private AbstractRunnableDevice<ScanModel> createScanner(IPointGenerator<?> gen) throws Exception {
+
+		MockDetectorModel dmodel = new MockDetectorModel();
+		dmodel.setExposureTime(0.001);
+		dmodel.setName("detector");
+
+		final ScanModel smodel = new ScanModel();
+		smodel.setPositionIterable(gen);
+		smodel.setDetectors(dservice.createRunnableDevice(dmodel));
+		smodel.setBean(new ScanBean());
+		return (AbstractRunnableDevice<ScanModel>)dservice.createRunnableDevice(smodel);
+	}
+}
@@ -0,0 +1,143 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.test.scan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.eclipse.scanning.api.AbstractScannable;
+import org.eclipse.scanning.api.points.IPosition;
+import org.eclipse.scanning.api.points.MapPosition;
+import org.eclipse.scanning.api.scan.event.IPositioner;
+import org.eclipse.scanning.example.scannable.MockScannableConnector;
+import org.eclipse.scanning.sequencer.RunnableDeviceServiceImpl;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Checks that moving a positioner to the same scannables at every point
+ * does not make new task lists, tasks or positions for each level, by
+ * reading the bytes allocated by the threads which do the moves.
+ */
+public class LevelAllocationTest {
+
+	private static final Logger logger = LoggerFactory.getLogger(LevelAllocationTest.class);
+
+	/**
+	 * What moving one scannable may allocate, mostly the future which runs its
+	 * task in the pool. Making the lists, tasks and positions again for each
+	 * level took more than this.
+	 */
+	private static final long BYTES_PER_SCANNABLE = 512;
+
+	private static final int  MOVES = 10000;
+
+	private MBeanServer       server;
+	private ObjectName        threading;
+	private IPositioner       positioner;
+	private QuietScannable[]  scannables;
+
+	@Before
+	public void before() throws Exception {
+		server    = ManagementFactory.getPlatformMBeanServer();
+		threading = new ObjectName(ManagementFactory.THREAD_MXBEAN_NAME);
+
+		MockScannableConnector connector = new MockScannableConnector(null);
+		scannables = new QuietScannable[4];
+		for (int i = 0; i < scannables.length; i++) {
+			scannables[i] = new QuietScannable("quiet"+i, 1+i%2);
+			connector.register(scannables[i]);
+		}
+		positioner = new RunnableDeviceServiceImpl(connector).createPositioner();
+	}
+
+	@Test
+	public void testLevelsDoNotAllocatePerPoint() throws Exception {
+
+		if (!(Boolean)server.getAttribute(threading, "ThreadAllocatedMemorySupported")) {
+			logger.warn("The allocated bytes of threads cannot be read, the allocation was not checked");
+			return;
+		}
+		final IPosition[] positions = {createPosition(1), createPosition(2)};
+
+		// Warm up, so that the pool has its threads and the code is compiled
+		for (int i = 0; i < MOVES; i++) positioner.setPosition(positions[i%2]);
+
+		final long[] ids    = getMovingThreads();
+		final long   before = getAllocatedBytes(ids);
+		for (int i = 0; i < MOVES; i++) positioner.setPosition(positions[i%2]);
+		final long   bytes  = (getAllocatedBytes(ids)-before)/MOVES;
+		positioner.close();
+
+		for (QuietScannable scannable : scannables) assertEquals(2d, scannable.getPosition(), 0.0001);
+		logger.info("Each move of {} scannables allocated {} bytes", scannables.length, bytes);
+		assertTrue("Each move allocated "+bytes+" bytes", bytes < BYTES_PER_SCANNABLE*scannables.length);
+	}
+
+	/**
+	 * The test thread and those which run the tasks of the sequencer.
+	 */
+	private long[] getMovingThreads() {
+		List<Thread> moving = new ArrayList<>();
+		moving.add(Thread.currentThread());
+		for (Thread thread : Thread.getAllStackTraces().keySet()) {
+			if (thread.getName().startsWith("Scan sequencer") || thread.getName().startsWith("Sequencer timeout")) moving.add(thread);
+		}
+		long[] ids = new long[moving.size()];
+		for (int i = 0; i < ids.length; i++) ids[i] = moving.get(i).getId();
+		return ids;
+	}
+
+	private long getAllocatedBytes(long[] ids) throws Exception {
+		long[] bytes = (long[])server.invoke(threading, "getThreadAllocatedBytes", new Object[]{ids}, new String[]{long[].class.getName()});
+		long total = 0;
+		for (long b : bytes) if (b>0) total+=b; // A thread which has ended is -1
+		return total;
+	}
+
+	private IPosition createPosition(int value) {
+		MapPosition pos = new MapPosition();
+		for (QuietScannable scannable : scannables) pos.put(scannable.getName(), 0, (double)value);
+		return pos;
+	}
+
+	/**
+	 * Moves without sleeping or telling anyone, so that only
+	 * what the positioner allocates is measured.
+	 */
+	private static final class QuietScannable extends AbstractScannable<Double> {
+
+		private volatile double value;
+
+		QuietScannable(String name, int level) {
+			setName(name);
+			setLevel(level);
+		}
+
+		@Override
+		public Double getPosition() throws Exception {
+			return value;
+		}
+
+		@Override
+		public Double setPosition(Double value, IPosition position) throws Exception {
+			this.value = value;
+			return value;
+		}
+	}
+}
@@ -0,0 +1,129 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.test.scan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.scanning.api.annotation.scan.LevelStart;
+import org.eclipse.scanning.api.device.IRunnableDeviceService;
+import org.eclipse.scanning.api.points.MapPosition;
+import org.eclipse.scanning.api.scan.LevelInformation;
+import org.eclipse.scanning.api.scan.event.IPositioner;
+import org.eclipse.scanning.example.scannable.MockScannable;
+import org.eclipse.scanning.example.scannable.MockScannableConnector;
+import org.eclipse.scanning.sequencer.RunnableDeviceServiceImpl;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that a positioner sorts its scannables by level once and
+ * only sorts them again if the scannables or their levels change.
+ */
+public class LevelPlanTest {
+
+	private IRunnableDeviceService dservice;
+	private LevelScannable[]       scannables;
+
+	@Before
+	public void before() {
+		MockScannableConnector connector = new MockScannableConnector(null);
+		scannables = new LevelScannable[6];
+		for (int i = 0; i < scannables.length; i++) {
+			scannables[i] = new LevelScannable("s"+i, 1+i%3);
+			connector.register(scannables[i]);
+		}
+		dservice = new RunnableDeviceServiceImpl(connector);
+	}
+
+	@Test
+	public void testPlanReused() throws Exception {
+
+		IPositioner pos = dservice.createPositioner();
+		for (int i = 0; i < 10; i++) {
+			pos.setPosition(createPosition(i));
+		}
+
+		for (LevelScannable scannable : scannables) {
+			assertEquals(10, scannable.infos.size());
+			LevelInformation first = scannable.infos.get(0);
+			assertEquals(scannable.getLevel(), first.getLevel());
+			for (LevelInformation info : scannable.infos) assertSame(first, info);
+		}
+		// Scannables at the same level share the information
+		assertSame(scannables[0].infos.get(0), scannables[3].infos.get(0));
+		assertNotSame(scannables[0].infos.get(0), scannables[1].infos.get(0));
+	}
+
+	@Test
+	public void testLevelChangeMakesNewPlan() throws Exception {
+
+		IPositioner pos = dservice.createPositioner();
+		pos.setPosition(createPosition(0));
+		LevelInformation before = scannables[0].infos.get(0);
+
+		scannables[0].setLevel(10);
+		pos.setPosition(createPosition(1));
+		LevelInformation after = scannables[0].infos.get(1);
+
+		assertNotSame(before, after);
+		assertEquals(10, after.getLevel());
+		assertEquals(1, after.getObjects().size());
+		assertTrue(scannables[0].time>scannables[2].time); // Level 10 is moved after level 3
+	}
+
+	@Test
+	public void testMonitorsMakeNewPlan() throws Exception {
+
+		IPositioner pos = dservice.createPositioner();
+		pos.setPosition(new MapPosition("s0:0:1"));
+		LevelInformation before = scannables[0].infos.get(0);
+		assertEquals(1, before.getObjects().size());
+
+		pos.setMonitorsPerPoint(scannables[3]);
+		pos.setPosition(new MapPosition("s0:0:2"));
+		LevelInformation after = scannables[0].infos.get(1);
+		assertNotSame(before, after);
+		assertEquals(2, after.getObjects().size());
+		assertEquals(1, scannables[3].infos.size());
+	}
+
+	private MapPosition createPosition(int index) {
+		StringBuilder buf = new StringBuilder();
+		for (int i = 0; i < scannables.length; i++) {
+			if (i>0) buf.append(", ");
+			buf.append(scannables[i].getName()+":"+index+":"+index);
+		}
+		return new MapPosition(buf.toString());
+	}
+
+	public static final class LevelScannable extends MockScannable {
+
+		private final List<LevelInformation> infos = new ArrayList<>();
+		private volatile long time;
+
+		LevelScannable(String name, int level) {
+			super(name, 0d, level);
+		}
+
+		@LevelStart
+		public void levelStart(LevelInformation info) throws InterruptedException {
+			synchronized (infos) {
+				infos.add(info);
+			}
+			time = System.nanoTime();
+			Thread.sleep(1);
+		}
+	}
+}
@@ -0,0 +1,238 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.test.scan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.scanning.api.device.AbstractRunnableDevice;
+import org.eclipse.scanning.api.event.scan.DeviceState;
+import org.eclipse.scanning.api.event.scan.ScanBean;
+import org.eclipse.scanning.api.points.IPointGenerator;
+import org.eclipse.scanning.api.points.IPosition;
+import org.eclipse.scanning.api.points.models.StepModel;
+import org.eclipse.scanning.api.scan.PositionEvent;
+import org.eclipse.scanning.api.scan.ScanningException;
+import org.eclipse.scanning.api.scan.event.IPositionListener;
+import org.eclipse.scanning.api.scan.models.ScanModel;
+import org.eclipse.scanning.example.scannable.MockScannable;
+import org.eclipse.scanning.example.scannable.MockScannableConnector;
+import org.eclipse.scanning.test.scan.mock.MockDetectorModel;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Runs the scan tests with the scan loop pipelined, so that the move
+ * to the next point overlaps the readout of the current one. Also checks
+ * that pause, seek and abort behave as they do without pipelining when
+ * they come in while the move to the next point is in flight.
+ */
+public class PipelinedScanTest extends ScanTest {
+
+	private static final int SIZE = 10;
+
+	@BeforeClass
+	public static void pipeline() {
+		System.setProperty("org.eclipse.scanning.sequencer.pipeline.depth", "2");
+	}
+
+	@AfterClass
+	public static void unpipeline() {
+		System.clearProperty("org.eclipse.scanning.sequencer.pipeline.depth");
+	}
+
+	/**
+	 * A motor which takes a fixed time to move and records when each move starts.
+	 * The move to the block step takes the block time so that the test can act
+	 * while it is in flight.
+	 */
+	private static class SlowScannable extends MockScannable {
+
+		private final long                 moveTime;
+		private final Map<Integer, Long>   starts   = new ConcurrentHashMap<>();
+		private final CountDownLatch       inFlight = new CountDownLatch(1);
+		private final CountDownLatch       interrupted = new CountDownLatch(1);
+		private volatile int               blockStep = -1;
+		private volatile long              blockTime;
+
+		SlowScannable(String name, long moveTime) {
+			super(name, 0d, 1, false);
+			this.moveTime = moveTime;
+		}
+
+		void block(int step, long time) {
+			this.blockStep = step;
+			this.blockTime = time;
+		}
+
+		@Override
+		public Number setPosition(Number value, IPosition loc) throws Exception {
+			long time = moveTime;
+			if (loc!=null) {
+				starts.putIfAbsent(loc.getStepIndex(), System.nanoTime());
+				if (loc.getStepIndex()==blockStep && inFlight.getCount()>0) {
+					time = blockTime;
+					inFlight.countDown();
+				}
+			}
+			try {
+				Thread.sleep(time);
+			} catch (InterruptedException ne) {
+				interrupted.countDown();
+				throw ne;
+			}
+			return super.setPosition(value, loc);
+		}
+	}
+
+	/**
+	 * Records the steps performed and when the listener returned.
+	 */
+	private static class StepRecorder implements IPositionListener {
+
+		private final List<Integer>      steps = Collections.synchronizedList(new ArrayList<>());
+		private final Map<Integer, Long> ends  = new ConcurrentHashMap<>();
+		private final long               sleep;
+
+		StepRecorder(long sleep) {
+			this.sleep = sleep;
+		}
+
+		@Override
+		public void positionPerformed(PositionEvent evt) throws ScanningException {
+			try {
+				Thread.sleep(sleep); // Publishing the point takes some time
+			} catch (InterruptedException e) {
+				throw new ScanningException(e);
+			}
+			steps.add(evt.getPosition().getStepIndex());
+			ends.put(evt.getPosition().getStepIndex(), System.nanoTime());
+		}
+	}
+
+	@Test
+	public void testMovesOverlapPointEnd() throws Exception {
+
+		SlowScannable motor   = new SlowScannable("pipe", 50);
+		StepRecorder  recorder = new StepRecorder(50);
+		AbstractRunnableDevice<ScanModel> scanner = createSlowScanner(motor, recorder);
+		scanner.run(null);
+
+		assertEquals(SIZE, recorder.steps.size());
+		for (int step = 1; step < SIZE; step++) {
+			assertTrue("The move to step "+step+" did not start before step "+(step-1)+" was published",
+					   motor.starts.get(step) < recorder.ends.get(step-1));
+		}
+	}
+
+	@Test
+	public void testPauseWhileMoving() throws Exception {
+
+		SlowScannable motor   = new SlowScannable("pipe", 5);
+		StepRecorder  recorder = new StepRecorder(0);
+		motor.block(4, 500);
+		AbstractRunnableDevice<ScanModel> scanner = createSlowScanner(motor, recorder);
+
+		try {
+			scanner.start(null);
+			assertTrue(motor.inFlight.await(5, TimeUnit.SECONDS));
+			scanner.pause();
+
+			// The move in flight finishes but its point is not run until the scan resumes.
+			Thread.sleep(1000);
+			assertEquals(DeviceState.PAUSED, scanner.getDeviceState());
+			assertEquals(4, recorder.steps.size());
+
+			scanner.resume();
+			assertTrue(scanner.latch(10, TimeUnit.SECONDS));
+			assertEquals(SIZE, recorder.steps.size());
+			for (int step = 0; step < SIZE; step++) assertEquals(step, recorder.steps.get(step).intValue());
+
+		} finally {
+			scanner.abort();
+		}
+	}
+
+	@Test
+	public void testAbortWhileMoving() throws Exception {
+
+		SlowScannable motor   = new SlowScannable("pipe", 5);
+		StepRecorder  recorder = new StepRecorder(0);
+		motor.block(4, 10000);
+		AbstractRunnableDevice<ScanModel> scanner = createSlowScanner(motor, recorder);
+
+		scanner.start(null);
+		assertTrue(motor.inFlight.await(5, TimeUnit.SECONDS));
+		long start = System.currentTimeMillis();
+		scanner.abort();
+
+		assertTrue("The move in flight was not stopped", motor.interrupted.await(5, TimeUnit.SECONDS));
+		scanner.latch(5, TimeUnit.SECONDS);
+		assertTrue("The abort waited for the move", System.currentTimeMillis()-start < 5000);
+		assertEquals(DeviceState.ABORTED, scanner.getDeviceState());
+		assertFalse(recorder.steps.contains(4));
+	}
+
+	@Test
+	public void testSeekWhileMoving() throws Exception {
+
+		SlowScannable motor   = new SlowScannable("pipe", 5);
+		StepRecorder  recorder = new StepRecorder(0);
+		motor.block(4, 500);
+		AbstractRunnableDevice<ScanModel> scanner = createSlowScanner(motor, recorder);
+
+		try {
+			scanner.start(null);
+			assertTrue(motor.inFlight.await(5, TimeUnit.SECONDS));
+			scanner.pause();
+			scanner.seek(0);
+			assertEquals(0d, ((Number)motor.getPosition()).doubleValue(), 0.0001);
+
+			scanner.resume();
+			assertTrue(scanner.latch(10, TimeUnit.SECONDS));
+
+			// As without pipelining the point being run when the scan paused is run
+			// and then the scan restarts from where it was seeked to.
+			assertEquals(4+1+SIZE, recorder.steps.size());
+			assertEquals(SIZE-1, ((Number)motor.getPosition()).doubleValue(), 0.0001);
+
+		} finally {
+			scanner.abort();
+		}
+	}
+
+	private AbstractRunnableDevice<ScanModel> createSlowScanner(SlowScannable motor, StepRecorder recorder) throws Exception {
+
+		((MockScannableConnector)connector).register(motor);
+
+		MockDetectorModel dmodel = new MockDetectorModel();
+		dmodel.setExposureTime(0.001);
+		dmodel.setName("detector");
+
+		IPointGenerator<?> gen = gservice.createGenerator(new StepModel(motor.getName(), 0, SIZE-1, 1));
+		final ScanModel smodel = new ScanModel();
+		smodel.setPositionIterable(gen);
+		smodel.setDetectors(dservice.createRunnableDevice(dmodel));
+		smodel.setBean(new ScanBean());
+
+		AbstractRunnableDevice<ScanModel> scanner = (AbstractRunnableDevice<ScanModel>)dservice.createRunnableDevice(smodel);
+		scanner.addPositionListener(recorder);
+		return scanner;
+	}
+}
@@ -0,0 +1,29 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.test.scan;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+
+/**
+ * Runs the seek tests with the scan loop pipelined, the seek is then done
+ * while the move to the next point may be in flight.
+ */
+public class PipelinedSeekTest extends SeekTest {
+
+	@BeforeClass
+	public static void pipeline() {
+		System.setProperty("org.eclipse.scanning.sequencer.pipeline.depth", "2");
+	}
+
+	@AfterClass
+	public static void unpipeline() {
+		System.clearProperty("org.eclipse.scanning.sequencer.pipeline.depth");
+	}
+}
@@ -0,0 +1,197 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.test.scan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.scanning.api.device.IRunnableDevice;
+import org.eclipse.scanning.api.device.IRunnableDeviceService;
+import org.eclipse.scanning.api.event.EventConstants;
+import org.eclipse.scanning.api.event.IEventService;
+import org.eclipse.scanning.api.event.core.IPublisher;
+import org.eclipse.scanning.api.event.core.ISubscriber;
+import org.eclipse.scanning.api.event.scan.DeviceState;
+import org.eclipse.scanning.api.event.scan.IScanListener;
+import org.eclipse.scanning.api.event.scan.ScanBean;
+import org.eclipse.scanning.api.event.scan.ScanEvent;
+import org.eclipse.scanning.api.points.IPointGenerator;
+import org.eclipse.scanning.api.points.IPointGeneratorService;
+import org.eclipse.scanning.api.points.models.BoundingBox;
+import org.eclipse.scanning.api.points.models.GridModel;
+import org.eclipse.scanning.api.scan.PositionEvent;
+import org.eclipse.scanning.api.scan.event.IPositionListenable;
+import org.eclipse.scanning.api.scan.event.IPositionListener;
+import org.eclipse.scanning.api.scan.models.ScanModel;
+import org.eclipse.scanning.connector.activemq.ActivemqConnectorService;
+import org.eclipse.scanning.event.EventServiceImpl;
+import org.eclipse.scanning.example.scannable.MockScannableConnector;
+import org.eclipse.scanning.points.PointGeneratorService;
+import org.eclipse.scanning.sequencer.RunnableDeviceServiceImpl;
+import org.eclipse.scanning.test.BrokerTest;
+import org.eclipse.scanning.test.scan.mock.MockDetectorModel;
+import org.eclipse.scanning.test.scan.mock.MockWritableDetector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that when the progress rate is limited, state changes are
+ * still all sent in order and progress is coalesced.
+ */
+public class ProgressRateTest extends BrokerTest {
+
+	private IRunnableDeviceService      dservice;
+	private IPointGeneratorService      gservice;
+	private IEventService               eservice;
+
+	@Before
+	public void setup() throws Exception {
+
+		System.setProperty("org.eclipse.scanning.sequencer.progress.rate", "10");
+
+		setUpNonOSGIActivemqMarshaller();
+		eservice  = new EventServiceImpl(new ActivemqConnectorService());
+
+		// We wire things together without OSGi here
+		// DO NOT COPY THIS IN NON-TEST CODE!
+		MockScannableConnector connector = new MockScannableConnector(eservice.createPublisher(uri, EventConstants.POSITION_TOPIC));
+		dservice  = new RunnableDeviceServiceImpl(connector);
+		RunnableDeviceServiceImpl impl = (RunnableDeviceServiceImpl)dservice;
+		impl._register(MockDetectorModel.class, MockWritableDetector.class);
+
+		gservice  = new PointGeneratorService();
+	}
+
+	@After
+	public void dispose() {
+		System.clearProperty("org.eclipse.scanning.sequencer.progress.rate");
+	}
+
+	@Test
+	public void testProgressCoalesced() throws Exception {
+
+		final ScanBean bean = new ScanBean();
+		bean.setName("Fred");
+		bean.setUniqueId("fred");
+
+		final IPublisher<ScanBean>       publisher  = eservice.createPublisher(uri, IEventService.STATUS_TOPIC);
+		final ISubscriber<IScanListener> subscriber = eservice.createSubscriber(uri, IEventService.STATUS_TOPIC);
+
+		final List<ScanBean>    events = Collections.synchronizedList(new ArrayList<ScanBean>(11));
+		final List<DeviceState> states = Collections.synchronizedList(new ArrayList<DeviceState>(11));
+		subscriber.addListener(new IScanListener() {
+			@Override
+			public void scanStateChanged(ScanEvent evt) {
+				states.add(evt.getBean().getDeviceState());
+			}
+			@Override
+			public void scanEventPerformed(ScanEvent evt) {
+				events.add(evt.getBean());
+			}
+		});
+
+		try {
+			MockDetectorModel dmodel = new MockDetectorModel();
+			dmodel.setExposureTime(0.01);
+			dmodel.setName("detector");
+			IRunnableDevice<MockDetectorModel> detector = dservice.createRunnableDevice(dmodel);
+
+			GridModel gmodel = new GridModel("x", "y");
+			gmodel.setSlowAxisPoints(10);
+			gmodel.setFastAxisPoints(10);
+			gmodel.setBoundingBox(new BoundingBox(0,0,3,3));
+			IPointGenerator<?> gen = gservice.createGenerator(gmodel);
+
+			final ScanModel  smodel = new ScanModel();
+			smodel.setPositionIterable(gen);
+			smodel.setDetectors(detector);
+			smodel.setBean(bean);
+
+			IRunnableDevice<ScanModel> scanner = dservice.createRunnableDevice(smodel, publisher);
+			scanner.run(null);
+
+			Thread.sleep(500); // Wait for all events to make it over from ActiveMQ
+
+			assertEquals(gen.size(), dmodel.getRan());
+			assertEquals(Arrays.asList(DeviceState.CONFIGURING, DeviceState.ARMED, DeviceState.RUNNING, DeviceState.ARMED), states);
+
+			// 100 points of at least 10ms is over a second, so we get some progress but far fewer than one per point.
+			assertTrue("Expected progress events but got "+events.size(), events.size()>0);
+			assertTrue("Expected progress to be coalesced but got "+events.size()+" events", events.size()<gen.size()/2);
+
+			for (ScanBean b : events) assertEquals("fred", b.getUniqueId());
+
+		} finally {
+			subscriber.disconnect();
+			publisher.disconnect();
+		}
+	}
+
+	@Test
+	public void testSlowBrokerDoesNotBlockScan() throws Exception {
+
+		final ScanBean bean = new ScanBean();
+		bean.setName("Slow");
+		bean.setUniqueId("slow");
+
+		// Progress takes half a second to send, state changes are sent at once
+		final List<ScanBean> sent = Collections.synchronizedList(new ArrayList<ScanBean>(11));
+		@SuppressWarnings("unchecked")
+		final IPublisher<ScanBean> publisher = (IPublisher<ScanBean>)Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{IPublisher.class}, (proxy, method, args) -> {
+			if (method.getName().equals("broadcast")) {
+				if (Thread.currentThread().getName().equals("Scan progress publisher")) Thread.sleep(500);
+				sent.add((ScanBean)args[0]);
+			}
+			if (method.getReturnType()==boolean.class) return false;
+			return null;
+		});
+
+		MockDetectorModel dmodel = new MockDetectorModel();
+		dmodel.setExposureTime(0.01);
+		dmodel.setName("detector");
+		IRunnableDevice<MockDetectorModel> detector = dservice.createRunnableDevice(dmodel);
+
+		GridModel gmodel = new GridModel("x", "y");
+		gmodel.setSlowAxisPoints(10);
+		gmodel.setFastAxisPoints(10);
+		gmodel.setBoundingBox(new BoundingBox(0,0,3,3));
+
+		final ScanModel  smodel = new ScanModel();
+		smodel.setPositionIterable(gservice.createGenerator(gmodel));
+		smodel.setDetectors(detector);
+		smodel.setBean(bean);
+
+		// The longest time between points, the scan thread publishes progress between them
+		final long[] last = new long[]{System.nanoTime()};
+		final long[] gap  = new long[1];
+		IRunnableDevice<ScanModel> scanner = dservice.createRunnableDevice(smodel, publisher);
+		((IPositionListenable)scanner).addPositionListener(new IPositionListener() {
+			@Override
+			public void positionPerformed(PositionEvent evt) {
+				long time = System.nanoTime();
+				if (evt.getPosition().getStepIndex()>0) gap[0] = Math.max(gap[0], time-last[0]);
+				last[0] = time;
+			}
+		});
+		scanner.run(null);
+
+		assertEquals(100, dmodel.getRan());
+		assertTrue("Nothing was sent", sent.size()>0);
+		assertTrue("The scan waited "+TimeUnit.NANOSECONDS.toMillis(gap[0])+"ms for the broker", gap[0]<TimeUnit.MILLISECONDS.toNanos(250));
+	}
+
+}
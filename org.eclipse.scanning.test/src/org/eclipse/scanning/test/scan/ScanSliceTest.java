@@ -0,0 +1,80 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.test.scan;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.scanning.api.points.IPosition;
+import org.eclipse.scanning.api.points.Point;
+import org.eclipse.scanning.api.scan.rank.IScanRankService;
+import org.eclipse.scanning.api.scan.rank.IScanSlice;
+import org.junit.Test;
+
+/**
+ * Checks the slices made to write a block of positions at once.
+ */
+public class ScanSliceTest {
+
+	private final IScanRankService service = IScanRankService.getScanRankService();
+
+	@Test
+	public void testOneRow() throws Exception {
+
+		List<IScanSlice> slices = service.createScanSlices(row(2, 0, 5), 64, 64);
+		assertEquals(1, slices.size());
+		assertArrayEquals(new int[]{2, 0, 0, 0},  slices.get(0).getStart());
+		assertArrayEquals(new int[]{3, 5, 64, 64}, slices.get(0).getStop());
+	}
+
+	@Test
+	public void testTwoRows() throws Exception {
+
+		List<IPosition> positions = new ArrayList<>(row(0, 3, 5));
+		positions.addAll(row(1, 0, 2));
+		List<IScanSlice> slices = service.createScanSlices(positions);
+		assertEquals(2, slices.size());
+		assertArrayEquals(new int[]{0, 3}, slices.get(0).getStart());
+		assertArrayEquals(new int[]{1, 5}, slices.get(0).getStop());
+		assertArrayEquals(new int[]{1, 0}, slices.get(1).getStart());
+		assertArrayEquals(new int[]{2, 2}, slices.get(1).getStop());
+	}
+
+	@Test
+	public void testSnakeIsNotJoined() throws Exception {
+
+		List<IPosition> positions = Arrays.asList(new Point(4, 0.4, 1, 0.1), new Point(3, 0.3, 1, 0.1));
+		List<IScanSlice> slices = service.createScanSlices(positions);
+		assertEquals(2, slices.size());
+		assertEquals(service.createScanSlice(positions.get(0)), slices.get(0));
+		assertEquals(service.createScanSlice(positions.get(1)), slices.get(1));
+	}
+
+	@Test
+	public void testSingleIsSameAsOne() throws Exception {
+
+		IPosition pos = new Point(7, 0.7, 3, 0.3);
+		List<IScanSlice> slices = service.createScanSlices(Arrays.asList(pos), 10);
+		assertEquals(1, slices.size());
+		assertEquals(service.createScanSlice(pos, 10), slices.get(0));
+	}
+
+	/**
+	 * Positions of the row from the start column to the one before the stop.
+	 */
+	private List<IPosition> row(int row, int start, int stop) {
+		List<IPosition> ret = new ArrayList<>();
+		for (int col = start; col < stop; col++) ret.add(new Point(col, col/10d, row, row/10d));
+		return ret;
+	}
+}
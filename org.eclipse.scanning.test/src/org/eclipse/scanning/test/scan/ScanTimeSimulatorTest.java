@@ -0,0 +1,131 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.test.scan;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.scanning.api.points.IPosition;
+import org.eclipse.scanning.api.points.MapPosition;
+import org.eclipse.scanning.api.scan.ScanEstimator;
+import org.eclipse.scanning.api.scan.timing.DetectorTimingModel;
+import org.eclipse.scanning.api.scan.timing.MotionTimingModel;
+import org.eclipse.scanning.api.scan.timing.ScanTimeSimulator;
+import org.eclipse.scanning.api.scan.timing.ScanTimingModel;
+import org.junit.Test;
+
+/**
+ * Checks the time of a scan simulated from the timing models of its devices.
+ */
+public class ScanTimeSimulatorTest {
+
+	@Test
+	public void testMoveTime() {
+
+		MotionTimingModel motion = new MotionTimingModel(2, 4, 0);
+		assertEquals(0,   motion.getMoveTime(0),     1e-9);
+		assertEquals(2,   motion.getMoveTime(3),     1e-9); // Reaches the velocity
+		assertEquals(2,   motion.getMoveTime(-3),    1e-9);
+		assertEquals(0.5, motion.getMoveTime(0.25),  1e-9); // Too short to reach the velocity
+
+		motion.setSettleTime(0.1);
+		assertEquals(2.1, motion.getMoveTime(3),     1e-9);
+
+		motion.setAcceleration(0);
+		assertEquals(1.6, motion.getMoveTime(3),     1e-9);
+	}
+
+	@Test
+	public void testGrid() throws Exception {
+
+		ScanTimingModel timing = createTiming();
+		ScanTimeSimulator simulator = new ScanTimeSimulator(grid(2, 3), Collections.singletonMap("det", 0.1), timing);
+
+		assertEquals(6, simulator.getSize());
+
+		// The first point does not move, the fast axis takes 1s to step and the slow 2s
+		assertArrayEquals(new double[]{160, 1160, 1160, 2160, 1160, 1160}, simulator.getPointTimes(), 1e-6);
+
+		// With the scan overhead and arming the detector
+		assertEquals(1000+500+6960, simulator.getTotalTime());
+	}
+
+	@Test
+	public void testTopup() throws Exception {
+
+		ScanTimingModel timing = new ScanTimingModel();
+		timing.setTopupPeriod(3);
+		timing.setTopupPause(0.5);
+
+		ScanTimeSimulator walked = new ScanTimeSimulator(grid(1, 10), Collections.singletonMap("det", 1d), timing);
+		assertEquals(11500, walked.getTotalTime());
+		assertEquals(1500, walked.getPointTime(2), 1e-6);
+
+		ScanTimeSimulator uniform = new ScanTimeSimulator(10, Collections.singletonMap("det", 1d), timing);
+		assertEquals(11500, uniform.getTotalTime());
+	}
+
+	@Test
+	public void testEstimatorWithoutTiming() throws Exception {
+
+		ScanEstimator estimator = new ScanEstimator(grid(2, 3), (Collection<Object>)null, 100);
+		assertEquals(600, estimator.getEstimatedScanTime());
+		assertNull(estimator.getPointTimes());
+	}
+
+	@Test
+	public void testEstimatorWithTiming() throws Exception {
+
+		ScanTimingModel timing = createTiming();
+		ScanEstimator estimator = new ScanEstimator(grid(2, 3), (Collection<Object>)null, 100, timing);
+
+		// The time per point takes the place of the detector
+		assertEquals(1000+(10+100)*6+1000*4+2000, estimator.getEstimatedScanTime());
+		assertEquals(6, estimator.getPointTimes().length);
+		assertEquals(110, estimator.getPointTimes()[0], 1e-6);
+	}
+
+	@Test
+	public void testEstimatorWithoutMotion() throws Exception {
+
+		ScanTimingModel timing = new ScanTimingModel();
+		timing.setPointOverhead(0.01);
+		timing.setMoveOverhead(0.02);
+		ScanEstimator estimator = new ScanEstimator(grid(2, 3), (Collection<Object>)null, 100, timing);
+
+		assertEquals((100+10+20)*6, estimator.getEstimatedScanTime());
+		assertEquals(130, estimator.getTimePerPoint());
+	}
+
+	private static ScanTimingModel createTiming() {
+		ScanTimingModel timing = new ScanTimingModel();
+		timing.addMotion("x", new MotionTimingModel(1, 0, 0));
+		timing.addMotion("y", new MotionTimingModel(0.5, 0, 0));
+		timing.addDetector("det", new DetectorTimingModel(0.5, 0.05));
+		timing.setPointOverhead(0.01);
+		timing.setScanOverhead(1);
+		return timing;
+	}
+
+	private static List<IPosition> grid(int rows, int columns) {
+		final List<IPosition> ret = new ArrayList<>(rows*columns);
+		for (int y = 0; y < rows; y++) {
+			for (int x = 0; x < columns; x++) {
+				ret.add(new MapPosition("y:"+y+":"+y+", x:"+x+":"+x));
+			}
+		}
+		return ret;
+	}
+}
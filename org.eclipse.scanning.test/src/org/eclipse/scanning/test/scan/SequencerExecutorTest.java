@@ -0,0 +1,209 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.test.scan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.eclipse.scanning.api.device.IRunnableDeviceService;
+import org.eclipse.scanning.api.points.IPosition;
+import org.eclipse.scanning.api.points.MapPosition;
+import org.eclipse.scanning.api.scan.event.IPositioner;
+import org.eclipse.scanning.example.scannable.MockScannable;
+import org.eclipse.scanning.example.scannable.MockScannableConnector;
+import org.eclipse.scanning.sequencer.RunnableDeviceServiceImpl;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that the level runners share one pool of threads, that aborting
+ * one runner does not stop the others and that runners which are blocked
+ * do not make the others time out, also when one runner is used by a task
+ * of another.
+ */
+public class SequencerExecutorTest {
+
+	private IRunnableDeviceService dservice;
+	private BlockingScannable      blocking;
+
+	@Before
+	public void before() {
+		MockScannableConnector connector = new MockScannableConnector(null);
+		blocking = new BlockingScannable("blocking");
+		connector.register(blocking);
+		connector.register(new MockScannable("fast", 0d));
+		dservice = new RunnableDeviceServiceImpl(connector);
+	}
+
+	@Test
+	public void testThreadsAreShared() throws Exception {
+
+		for (int i = 0; i < 50; i++) {
+			IPositioner pos = dservice.createPositioner();
+			pos.setPosition(new MapPosition("fast:0:"+i));
+			pos.close();
+		}
+
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName  name   = new ObjectName("org.eclipse.scanning.sequencer:type=SequencerExecutor");
+		int max     = (Integer)server.getAttribute(name, "MaximumPoolSize");
+		int largest = (Integer)server.getAttribute(name, "LargestPoolSize");
+		assertTrue(max>0);
+		assertTrue("The pool has had "+largest+" threads", largest<=max);
+
+		long threads = Thread.getAllStackTraces().keySet().stream().filter(t -> t.getName().startsWith("Scan sequencer")).count();
+		assertTrue("There are "+threads+" sequencer threads", threads<=max);
+		assertEquals(0, ((Integer)server.getAttribute(name, "QueueDepth")).intValue());
+	}
+
+	@Test
+	public void testAbortIsPerRunner() throws Exception {
+
+		IPositioner slow = dservice.createPositioner();
+		Thread mover = new Thread(() -> {
+			try {
+				slow.setPosition(new MapPosition("blocking:0:10"));
+			} catch (Exception ignored) {
+				// Expected when aborted
+			}
+		}, "Blocking move");
+		mover.setDaemon(true);
+		mover.start();
+		assertTrue(blocking.started.await(5, TimeUnit.SECONDS));
+
+		// Another runner can still move while the first is blocked
+		IPositioner fast = dservice.createPositioner();
+		fast.setPosition(new MapPosition("fast:0:5"));
+		assertEquals(5d, ((Number)fast.getPosition().get("fast")).doubleValue(), 0.0001);
+
+		// Aborting it does not stop the blocked move
+		fast.abort();
+		assertFalse(blocking.interrupted.await(200, TimeUnit.MILLISECONDS));
+
+		slow.abort();
+		assertTrue(blocking.interrupted.await(5, TimeUnit.SECONDS));
+		mover.join(5000);
+	}
+
+	@Test
+	public void testBlockedRunnersDoNotTimeOutOthers() throws Exception {
+
+		// Block more runners than the pool used to have threads, as long writes would.
+		int count = Math.max(8, Runtime.getRuntime().availableProcessors())+2;
+		MockScannableConnector connector = new MockScannableConnector(null);
+		CountDownLatch started = new CountDownLatch(count);
+		List<IPositioner> writers = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			connector.register(new BlockingScannable("writer"+i, started));
+			IPositioner writer = new RunnableDeviceServiceImpl(connector).createPositioner();
+			writers.add(writer);
+			final String name = "writer"+i;
+			Thread thread = new Thread(() -> {
+				try {
+					writer.setPosition(new MapPosition(name+":0:10"));
+				} catch (Exception ignored) {
+					// Expected when aborted
+				}
+			}, "Blocking write "+i);
+			thread.setDaemon(true);
+			thread.start();
+		}
+
+		try {
+			assertTrue(started.await(5, TimeUnit.SECONDS));
+
+			// A move of another runner with a short timeout is not held up by them
+			MockScannable fast = new MockScannable("fastTimeout", 0d);
+			fast.setTimeout(1);
+			connector.register(fast);
+			IPositioner mover = new RunnableDeviceServiceImpl(connector).createPositioner();
+			long start = System.currentTimeMillis();
+			mover.setPosition(new MapPosition("fastTimeout:0:5"));
+			assertTrue(System.currentTimeMillis()-start < 1000);
+			assertEquals(5d, ((Number)fast.getPosition()).doubleValue(), 0.0001);
+
+		} finally {
+			for (IPositioner writer : writers) writer.abort();
+		}
+	}
+
+	@Test
+	public void testNestedMoveKeepsItsTimeout() throws Exception {
+
+		MockScannableConnector connector = new MockScannableConnector(null);
+		BlockingScannable inner = new BlockingScannable("inner");
+		inner.setTimeout(1);
+		connector.register(inner);
+		IRunnableDeviceService service = new RunnableDeviceServiceImpl(connector);
+
+		// Moves another scannable from a thread of the pool, which may run the inner move itself
+		connector.register(new MockScannable("outer", 0d) {
+			@Override
+			public Number setPosition(Number value, IPosition loc) throws Exception {
+				IPositioner nested = service.createPositioner();
+				try {
+					nested.setPosition(new MapPosition("inner:0:"+value));
+				} finally {
+					nested.close();
+				}
+				return super.setPosition(value, loc);
+			}
+		});
+
+		IPositioner outer = service.createPositioner();
+		long start = System.currentTimeMillis();
+		try {
+			outer.setPosition(new MapPosition("outer:0:5"));
+			fail("The inner move should have timed out");
+		} catch (Exception expected) {
+			// The inner scannable blocks for longer than its timeout
+		}
+		long time = System.currentTimeMillis()-start;
+		assertTrue("The nested move took "+time+"ms", time < 5000);
+		assertTrue(inner.interrupted.await(5, TimeUnit.SECONDS));
+	}
+
+	private static final class BlockingScannable extends MockScannable {
+
+		final CountDownLatch started;
+		final CountDownLatch interrupted = new CountDownLatch(1);
+
+		BlockingScannable(String name) {
+			this(name, new CountDownLatch(1));
+		}
+
+		BlockingScannable(String name, CountDownLatch started) {
+			super(name, 0d);
+			this.started = started;
+		}
+
+		@Override
+		public Number setPosition(Number value, IPosition loc) throws Exception {
+			started.countDown();
+			try {
+				Thread.sleep(TimeUnit.SECONDS.toMillis(8));
+			} catch (InterruptedException ne) {
+				interrupted.countDown();
+				throw ne;
+			}
+			return super.setPosition(value, loc);
+		}
+	}
+}
@@ -19,9 +19,19 @@ import org.junit.runners.Suite.SuiteClasses;
 @SuiteClasses({
 
 	ScanTest.class,
+	PipelinedScanTest.class,
+	BlockScanTest.class,
+	ProgressRateTest.class,
 	ToleranceTest.class,
+	TimingCalibrationTest.class,
     SetPositionTest.class,
+	SequencerExecutorTest.class,
+	LevelAllocationTest.class,
+	LevelPlanTest.class,
+	ScanTimeSimulatorTest.class,
+	ScanSliceTest.class,
 	SeekTest.class,
+	PipelinedSeekTest.class,
 	ParserTest.class,
 	BenchmarkScanTest.class,
 	ScanFinishedTest.class,
@@ -0,0 +1,98 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.test.scan;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.eclipse.scanning.api.device.IRunnableDeviceService;
+import org.eclipse.scanning.api.device.IScannableDeviceService;
+import org.eclipse.scanning.api.points.IPosition;
+import org.eclipse.scanning.api.points.models.StepModel;
+import org.eclipse.scanning.api.scan.ScanningException;
+import org.eclipse.scanning.api.scan.models.ScanModel;
+import org.eclipse.scanning.api.scan.timing.DetectorTimingModel;
+import org.eclipse.scanning.api.scan.timing.ScanTimingModel;
+import org.eclipse.scanning.example.scannable.MockScannableConnector;
+import org.eclipse.scanning.points.PointGeneratorService;
+import org.eclipse.scanning.sequencer.RunnableDeviceServiceImpl;
+import org.eclipse.scanning.test.scan.mock.MockDetectorModel;
+import org.eclipse.scanning.test.scan.mock.MockWritableDetector;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Runs the same scan several times and checks that the timing
+ * calibrated from the stage times of the scans settles on what
+ * the detector really takes.
+ */
+public class TimingCalibrationTest {
+
+	private static final long READOUT = 20; // ms
+
+	/**
+	 * Takes a known time beyond its exposure to read out.
+	 */
+	private static class ReadoutDetector extends MockWritableDetector {
+
+		ReadoutDetector(String name) {
+			super(name);
+		}
+
+		@Override
+		public void run(IPosition pos) throws ScanningException {
+			super.run(pos);
+			try {
+				Thread.sleep(READOUT);
+			} catch (InterruptedException e) {
+				throw new ScanningException("Readout interrupted", e);
+			}
+		}
+	}
+
+	private static IRunnableDeviceService  dservice;
+	private static IScannableDeviceService connector;
+
+	@BeforeClass
+	public static void before() {
+		connector = new MockScannableConnector(null);
+		dservice  = new RunnableDeviceServiceImpl(connector);
+	}
+
+	@Test
+	public void testReadoutConverges() throws Exception {
+
+		final MockDetectorModel dmodel = new MockDetectorModel();
+		dmodel.setName("calibrated");
+		dmodel.setExposureTime(0.01);
+		final ReadoutDetector detector = new ReadoutDetector("calibrated");
+		detector.configure(dmodel);
+
+		final double[] readouts = new double[6];
+		for (int i = 0; i < readouts.length; i++) {
+			ScanModel smodel = new ScanModel();
+			smodel.setPositionIterable(new PointGeneratorService().createGenerator(new StepModel("T5", 1, 20, 1)));
+			smodel.setDetectors(detector);
+			dservice.createRunnableDevice(smodel).run(null);
+
+			ScanTimingModel timing = dservice.getScanTimingModel();
+			DetectorTimingModel calibrated = timing.getDetector("calibrated");
+			assertNotNull("The detector was not calibrated by scan "+i, calibrated);
+			readouts[i] = calibrated.getReadoutTime();
+			assertTrue(timing.getPointOverhead()>=0);
+		}
+
+		// The sleep is the least the readout can be, the rest is the overhead of the mock
+		final double last = readouts[readouts.length-1];
+		assertTrue("The readout is "+Arrays.toString(readouts), last>=READOUT/1000d && last<2*READOUT/1000d);
+		assertTrue("The readout did not settle "+Arrays.toString(readouts), Math.abs(last-readouts[readouts.length-2])<0.005);
+	}
+}
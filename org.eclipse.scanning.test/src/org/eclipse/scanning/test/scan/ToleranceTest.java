@@ -2,20 +2,72 @@ package org.eclipse.scanning.test.scan;
 
 import static org.junit.Assert.assertEquals;
 
+import java.util.Arrays;
+
 import org.eclipse.scanning.api.IScannable;
 import org.eclipse.scanning.api.device.IRunnableDeviceService;
 import org.eclipse.scanning.api.device.IScannableDeviceService;
+import org.eclipse.scanning.api.event.scan.ScanBean;
+import org.eclipse.scanning.api.points.IPosition;
 import org.eclipse.scanning.api.points.MapPosition;
+import org.eclipse.scanning.api.points.models.BoundingBox;
+import org.eclipse.scanning.api.points.models.GridModel;
 import org.eclipse.scanning.api.scan.event.IPositioner;
+import org.eclipse.scanning.api.scan.models.ScanModel;
+import org.eclipse.scanning.example.scannable.MockScannable;
 import org.eclipse.scanning.example.scannable.MockScannableConnector;
+import org.eclipse.scanning.points.PointGeneratorService;
 import org.eclipse.scanning.sequencer.RunnableDeviceServiceImpl;
 import org.eclipse.scanning.server.application.PseudoSpringParser;
+import org.eclipse.scanning.test.scan.mock.MockDetectorModel;
+import org.eclipse.scanning.test.scan.mock.MockWritableDetector;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
 public class ToleranceTest {
 
+	/**
+	 * Counts the reads and moves which would go to the hardware.
+	 */
+	private static class CountingScannable extends MockScannable {
+
+		private int reads, moves;
+
+		CountingScannable(String name, double position) {
+			super(name, position);
+		}
+
+		@Override
+		public Number getPosition() {
+			reads++;
+			return super.getPosition();
+		}
+
+		@Override
+		public Number setPosition(Number value, IPosition loc) throws Exception {
+			moves++;
+			return super.setPosition(value, loc);
+		}
+	}
+
+	/**
+	 * Returns null from a move like most hardware, so the positioner
+	 * does not know where it got to.
+	 */
+	private static class SilentScannable extends CountingScannable {
+
+		SilentScannable(String name, double position) {
+			super(name, position);
+		}
+
+		@Override
+		public Number setPosition(Number value, IPosition loc) throws Exception {
+			super.setPosition(value, loc);
+			return null;
+		}
+	}
+
 	private static IRunnableDeviceService  dservice;
 	private static IScannableDeviceService connector;
 
@@ -23,6 +75,7 @@ public class ToleranceTest {
 	public static void before() {
 		connector = new MockScannableConnector(null);
 		dservice  = new RunnableDeviceServiceImpl(connector);
+		((RunnableDeviceServiceImpl)dservice)._register(MockDetectorModel.class, MockWritableDetector.class);
 		org.eclipse.scanning.example.Services.setScannableDeviceService(connector);
 	}
 
@@ -179,4 +232,133 @@ public class ToleranceTest {
 
 	}
 
+	@Test
+	public void testSlowAxisNotReadAtEachPoint() throws Exception {
+
+		CountingScannable y = new CountingScannable("y", 0d);
+		y.setTolerance(0.01d);
+		IPositioner pos = dservice.createPositioner();
+		pos.setScannables(Arrays.asList(y));
+
+		// The slow axis of a grid is sent to the same value at each inner point
+		for (int i = 0; i < 3; i++) {
+			for (int j = 0; j < 10; j++) {
+				pos.setPosition(new MapPosition("y:"+i+":"+(i+1)));
+			}
+		}
+		pos.close();
+
+		assertEquals(3, y.moves);
+		assertEquals("The position was read for a move which was cached", 1, y.reads);
+		assertEquals(new Double(3d), y.getPosition());
+	}
+
+	@Test
+	public void testExternalMoveForgetsPosition() throws Exception {
+
+		CountingScannable y = new CountingScannable("y", 0d);
+		y.setTolerance(0.01d);
+		IPositioner pos = dservice.createPositioner();
+		pos.setScannables(Arrays.asList(y));
+
+		pos.setPosition(new MapPosition("y:0:1"));
+		y.setPosition(5d); // Something else moves the axis
+		pos.setPosition(new MapPosition("y:0:1"));
+		pos.close();
+
+		assertEquals("The axis was not moved back", new Double(1d), y.getPosition());
+		assertEquals(3, y.moves);
+	}
+
+	@Test
+	public void testEqualValueSkippedWithZeroTolerance() throws Exception {
+
+		CountingScannable y = new CountingScannable("y", 0d);
+		y.setTolerance(0d);
+		IPositioner pos = dservice.createPositioner();
+		pos.setScannables(Arrays.asList(y));
+
+		pos.setPosition(new MapPosition("y:0:1"));
+		pos.setPosition(new MapPosition("y:0:1"));
+		pos.setPosition(new MapPosition("y:0:1.5"));
+		pos.close();
+
+		assertEquals(2, y.moves);
+	}
+
+	@Test
+	public void testEqualValueSkippedWithoutTolerance() throws Exception {
+
+		CountingScannable y = new CountingScannable("y", 0d);
+		IPositioner pos = dservice.createPositioner();
+		pos.setScannables(Arrays.asList(y));
+
+		pos.setPosition(new MapPosition("y:0:1"));
+		pos.setPosition(new MapPosition("y:0:1"));
+		pos.setPosition(new MapPosition("y:0:1.0000001"));
+		pos.close();
+
+		assertEquals(2, y.moves);
+		assertEquals("The position was read without a tolerance", 0, y.reads);
+	}
+
+	@Test
+	public void testExternalMoveWithoutTolerance() throws Exception {
+
+		CountingScannable y = new CountingScannable("y", 0d);
+		IPositioner pos = dservice.createPositioner();
+		pos.setScannables(Arrays.asList(y));
+
+		pos.setPosition(new MapPosition("y:0:1"));
+		y.setPosition(5d); // Something else moves the axis
+		pos.setPosition(new MapPosition("y:0:1"));
+		pos.close();
+
+		assertEquals("The axis was not moved back", new Double(1d), y.getPosition());
+		assertEquals(3, y.moves);
+	}
+
+	@Test
+	public void testCommandedValueCachedWhenMoveReturnsNull() throws Exception {
+
+		CountingScannable y = new SilentScannable("y", 0d);
+		y.setTolerance(0.01d);
+		IPositioner pos = dservice.createPositioner();
+		pos.setScannables(Arrays.asList(y));
+
+		for (int i = 0; i < 10; i++) pos.setPosition(new MapPosition("y:0:1"));
+		pos.close();
+
+		// Read once before the move and once for the position it reached
+		assertEquals(1, y.moves);
+		assertEquals("The position was read for a move which was cached", 2, y.reads);
+	}
+
+	@Test
+	public void testSkippedMovesPublishedWithScan() throws Exception {
+
+		CountingScannable y = new CountingScannable("yTol", 0d);
+		y.setTolerance(0.01d);
+		((MockScannableConnector)connector).register(y);
+
+		GridModel grid = new GridModel("xTol", "yTol");
+		grid.setSlowAxisPoints(4);
+		grid.setFastAxisPoints(5);
+		grid.setBoundingBox(new BoundingBox(0,0,3,3));
+
+		MockDetectorModel dmodel = new MockDetectorModel();
+		dmodel.setExposureTime(0.001);
+		dmodel.setName("detector");
+
+		ScanBean  bean   = new ScanBean();
+		ScanModel smodel = new ScanModel();
+		smodel.setPositionIterable(new PointGeneratorService().createGenerator(grid));
+		smodel.setDetectors(dservice.createRunnableDevice(dmodel));
+		smodel.setBean(bean);
+		dservice.createRunnableDevice(smodel).run(null);
+
+		// The slow axis moves once a row, the fast axis changes at every point so is never skipped
+		assertEquals(4, y.moves);
+		assertEquals(4*(5-1), bean.getSkippedMoves());
+	}
 }
@@ -0,0 +1,76 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.test.scan.nexus;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.scanning.api.scan.IChunkingService;
+import org.eclipse.scanning.api.scan.models.ChunkingModel;
+import org.eclipse.scanning.api.scan.models.ChunkingModel.ReadPattern;
+import org.eclipse.scanning.sequencer.nexus.ChunkingService;
+import org.junit.Test;
+
+public class ChunkingServiceTest {
+
+	private final IChunkingService service = new ChunkingService();
+
+	@Test
+	public void testSmallFramesAreChunkedWhole() {
+		// 64x64 doubles is 32kB, so 32 frames fit in 1MB
+		int[] chunk = service.createChunk(new ChunkingModel(), "det/data", new int[]{10, 50}, Double.class, 64, 64);
+		assertArrayEquals(new int[]{1, 32, 64, 64}, chunk);
+	}
+
+	@Test
+	public void testLargeFramesAreSplitByRow() {
+		// 4096x4096 doubles is 128MB, a chunk is 32 whole rows of one frame
+		int[] chunk = service.createChunk(new ChunkingModel(), "det/data", new int[]{10, 10}, Double.class, 4096, 4096);
+		assertArrayEquals(new int[]{1, 1, 32, 4096}, chunk);
+		assertTrue(size(chunk)*8 <= 1024*1024);
+	}
+
+	@Test
+	public void testScalarsFillTheScan() {
+		int[] chunk = service.createChunk(new ChunkingModel(4096), "x/value", new int[]{100, 100}, Double.class);
+		assertArrayEquals(new int[]{5, 100}, chunk);
+	}
+
+	@Test
+	public void testUnknownScanLength() {
+		int[] chunk = service.createChunk(new ChunkingModel(), "det/data", new int[]{-1}, Integer.class, 256, 256);
+		assertArrayEquals(new int[]{4, 256, 256}, chunk);
+	}
+
+	@Test
+	public void testScanReadPattern() {
+		ChunkingModel model = new ChunkingModel();
+		model.setReadPattern(ReadPattern.SCAN);
+		int[] chunk = service.createChunk(model, "det/data", new int[]{100, 100}, Double.class, 64, 64);
+		assertArrayEquals(new int[]{100, 100, 1, 13}, chunk);
+	}
+
+	@Test
+	public void testOverride() {
+		ChunkingModel model = new ChunkingModel();
+		model.addChunk("det/data", 1, 1, 512, 512);
+		assertArrayEquals(new int[]{1, 1, 512, 512}, service.createChunk(model, "det/data", new int[]{10, 10}, Double.class, 4096, 4096));
+
+		// Another dataset, or a chunk of the wrong rank, is not overridden
+		assertArrayEquals(new int[]{1, 32, 64, 64}, service.createChunk(model, "other/data", new int[]{10, 50}, Double.class, 64, 64));
+		model.addChunk("det/data", 512, 512);
+		assertArrayEquals(new int[]{1, 1, 32, 4096}, service.createChunk(model, "det/data", new int[]{10, 10}, Double.class, 4096, 4096));
+	}
+
+	private static long size(int[] chunk) {
+		long size = 1;
+		for (int i : chunk) size*=i;
+		return size;
+	}
+}
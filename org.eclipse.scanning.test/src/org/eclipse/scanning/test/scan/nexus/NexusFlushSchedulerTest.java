@@ -0,0 +1,134 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.test.scan.nexus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.scanning.sequencer.nexus.NexusFlushScheduler;
+import org.eclipse.scanning.sequencer.nexus.NexusFlushScheduler.Registration;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Checks that files are flushed by time and by bytes written on the flush thread,
+ * and that no flush happens once a file is closed or the scheduler is shut down.
+ */
+public class NexusFlushSchedulerTest {
+
+	private NexusFlushScheduler scheduler;
+
+	@After
+	public void shutdown() {
+		if (scheduler!=null) scheduler.shutdown();
+		scheduler = null;
+	}
+
+	@Test
+	public void testFlushedEachPeriod() throws Exception {
+
+		scheduler = new NexusFlushScheduler(50, 0);
+		final CountDownLatch flushed = new CountDownLatch(3);
+		Registration reg = scheduler.register("periodic.nxs", flushed::countDown);
+		try {
+			assertTrue("The file was not flushed each period", flushed.await(5, TimeUnit.SECONDS));
+			assertEquals(1, scheduler.getOpenFiles().length);
+		} finally {
+			reg.close();
+		}
+		assertTrue(reg.getFlushCount()>=3);
+		assertEquals(0, scheduler.getOpenFiles().length);
+	}
+
+	@Test
+	public void testFlushedWhenBudgetReached() throws Exception {
+
+		scheduler = new NexusFlushScheduler(0, 1000);
+		final CountDownLatch flushed = new CountDownLatch(1);
+		final AtomicInteger  count   = new AtomicInteger();
+		Registration reg = scheduler.register("budget.nxs", () -> {
+			count.incrementAndGet();
+			flushed.countDown();
+		});
+		try {
+			reg.written(600);
+			Thread.sleep(100);
+			assertEquals("The file was flushed before the budget was reached", 0, count.get());
+
+			reg.written(600);
+			assertTrue("The file was not flushed when the budget was reached", flushed.await(5, TimeUnit.SECONDS));
+		} finally {
+			reg.close();
+		}
+		assertEquals(1, count.get());
+		assertEquals(1, scheduler.getFlushCount());
+	}
+
+	@Test
+	public void testCloseWaitsForFlush() throws Exception {
+
+		scheduler = new NexusFlushScheduler(10, 0);
+		final CountDownLatch entered = new CountDownLatch(1);
+		final AtomicInteger  active  = new AtomicInteger();
+		final AtomicInteger  after   = new AtomicInteger();
+		final boolean[]      closed  = new boolean[1];
+		Registration reg = scheduler.register("slow.nxs", () -> {
+			if (closed[0]) after.incrementAndGet();
+			active.incrementAndGet();
+			entered.countDown();
+			Thread.sleep(200); // A slow file system
+			active.decrementAndGet();
+		});
+
+		assertTrue(entered.await(5, TimeUnit.SECONDS));
+		reg.close();
+		assertEquals("The registration closed during a flush", 0, active.get());
+		closed[0] = true;
+
+		Thread.sleep(100);
+		assertEquals("The file was flushed after it was closed", 0, after.get());
+	}
+
+	@Test
+	public void testErrorRecorded() throws Exception {
+
+		scheduler = new NexusFlushScheduler(0, 0);
+		Registration reg = scheduler.register("broken.nxs", () -> {
+			throw new Exception("The file cannot be flushed");
+		});
+		try {
+			reg.flush(); // Does not throw, the scan carries on
+			assertNotNull(reg.getError());
+			assertEquals(0, reg.getFlushCount());
+		} finally {
+			reg.close();
+		}
+	}
+
+	@Test
+	public void testShutdownClosesFiles() throws Exception {
+
+		scheduler = new NexusFlushScheduler(10, 0);
+		final AtomicInteger count = new AtomicInteger();
+		Registration reg = scheduler.register("open.nxs", count::incrementAndGet);
+		scheduler.shutdown();
+
+		assertEquals(0, scheduler.getOpenFiles().length);
+		int flushes = count.get();
+		Thread.sleep(100);
+		assertEquals("The file was flushed after the scheduler was shut down", flushes, count.get());
+		reg.flush();
+		assertEquals("A closed file was flushed", flushes, count.get());
+	}
+}
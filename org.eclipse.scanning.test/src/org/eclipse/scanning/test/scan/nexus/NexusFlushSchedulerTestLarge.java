@@ -0,0 +1,139 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.test.scan.nexus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.dawnsci.hdf5.nexus.NexusFileFactoryHDF5;
+import org.eclipse.dawnsci.nexus.INexusFileFactory;
+import org.eclipse.dawnsci.nexus.NexusFile;
+import org.eclipse.january.dataset.DatasetFactory;
+import org.eclipse.january.dataset.IDataset;
+import org.eclipse.january.dataset.ILazyWriteableDataset;
+import org.eclipse.january.dataset.LazyWriteableDataset;
+import org.eclipse.scanning.sequencer.nexus.NexusFlushScheduler;
+import org.eclipse.scanning.sequencer.nexus.NexusFlushScheduler.Registration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes a SWMR file with the local HDF5 library while another thread
+ * reads it, and measures how long each point takes to be seen by the
+ * reader when the file is flushed by the scheduler.
+ */
+public class NexusFlushSchedulerTestLarge {
+
+	private static Logger logger = LoggerFactory.getLogger(NexusFlushSchedulerTestLarge.class);
+
+	private static final String PATH   = "/entry/data";
+	private static final int    POINTS = 100;
+	private static final long   PERIOD = 100; // ms
+
+	private static INexusFileFactory fileFactory;
+
+	private NexusFlushScheduler scheduler;
+	private File                file;
+
+	@BeforeClass
+	public static void setFactory() {
+		fileFactory = new NexusFileFactoryHDF5();
+	}
+
+	@Before
+	public void before() throws Exception {
+		scheduler = new NexusFlushScheduler(PERIOD, 0);
+		file      = File.createTempFile("flush_latency", ".nxs");
+		file.deleteOnExit();
+	}
+
+	@After
+	public void after() {
+		scheduler.shutdown();
+		file.delete();
+	}
+
+	@Test
+	public void testReaderLatency() throws Exception {
+
+		final NexusFile writer = fileFactory.newNexusFile(file.getAbsolutePath(), true);
+		writer.createAndOpenToWrite();
+		final ILazyWriteableDataset data = new LazyWriteableDataset("data", Integer.class, new int[]{POINTS}, new int[]{POINTS}, new int[]{POINTS}, null);
+		writer.createData(PATH, data, NexusFile.COMPRESSION_NONE, true);
+		writer.activateSwmrMode();
+		writer.flush();
+
+		final long[] written = new long[POINTS];
+		final long[] seen    = new long[POINTS];
+		final Exception[] error = new Exception[1];
+
+		// The reader opens the file each time as a SWMR reader in another process would.
+		Thread reader = new Thread(() -> {
+			try {
+				int next = 0;
+				while (next<POINTS && !Thread.currentThread().isInterrupted()) {
+					IDataset values = read();
+					long now = System.nanoTime();
+					while (next<POINTS && values.getInt(next)==next+1) seen[next++] = now;
+					Thread.sleep(5);
+				}
+			} catch (InterruptedException ie) {
+				return;
+			} catch (Exception ne) {
+				error[0] = ne;
+			}
+		}, "SWMR reader");
+
+		Registration reg = scheduler.register(file.getName(), writer::flush);
+		try {
+			reader.start();
+			for (int i = 0; i < POINTS; i++) {
+				data.setSlice(null, DatasetFactory.createFromObject(new int[]{i+1}), new int[]{i}, new int[]{i+1}, null);
+				written[i] = System.nanoTime();
+				reg.written(4);
+				Thread.sleep(10);
+			}
+			reader.join(TimeUnit.SECONDS.toMillis(10));
+		} finally {
+			reader.interrupt();
+			reg.close();
+			writer.close();
+		}
+
+		assertNull("The reader failed", error[0]);
+		assertTrue("The reader did not see every point", seen[POINTS-1]>0);
+
+		long[] latencies = new long[POINTS];
+		for (int i = 0; i < POINTS; i++) latencies[i] = TimeUnit.NANOSECONDS.toMillis(seen[i]-written[i]);
+		Arrays.sort(latencies);
+		long max = latencies[POINTS-1];
+		long p50 = latencies[POINTS/2];
+		logger.info("Reader latency with a flush each {}ms, median {}ms, maximum {}ms, {} flushes", PERIOD, p50, max, reg.getFlushCount());
+
+		assertTrue("The file was not flushed", reg.getFlushCount()>0);
+		assertTrue("The maximum latency "+max+"ms is longer than a few flush periods", max < 5*PERIOD);
+		assertEquals(0, scheduler.getOpenFiles().length);
+	}
+
+	private IDataset read() throws Exception {
+		try (NexusFile nf = fileFactory.newNexusFile(file.getAbsolutePath())) {
+			nf.openToRead();
+			return nf.getData(PATH+"/data").getDataset().getSlice();
+		}
+	}
+}
@@ -0,0 +1,245 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.test.scan.nexus;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.january.IMonitor;
+import org.eclipse.january.dataset.Dataset;
+import org.eclipse.january.dataset.DatasetFactory;
+import org.eclipse.january.dataset.DatasetUtils;
+import org.eclipse.january.dataset.IDataset;
+import org.eclipse.january.dataset.ILazyWriteableDataset;
+import org.eclipse.january.dataset.LazyWriteableDataset;
+import org.eclipse.january.dataset.SliceND;
+import org.eclipse.january.io.ILazySaver;
+import org.eclipse.scanning.api.scan.ScanningException;
+import org.eclipse.scanning.sequencer.nexus.NexusWriteQueue;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Writes through a {@link NexusWriteQueue} to a saver which is deliberately
+ * slow, as a file system which has stalled would be.
+ */
+public class NexusWriteQueueTest {
+
+	private static class SlowSaver implements ILazySaver {
+
+		private static final long serialVersionUID = 1L;
+
+		private final long           sleep;
+		private final int[]          values;
+		private final List<SliceND>  slices = Collections.synchronizedList(new ArrayList<>());
+		private volatile CountDownLatch gate;
+		private final CountDownLatch entered = new CountDownLatch(1);
+		private volatile boolean     fail;
+		private volatile List<SlowSaver> order;
+
+		SlowSaver(long sleep, int size) {
+			this.sleep  = sleep;
+			this.values = new int[size];
+		}
+
+		@Override
+		public boolean isFileReadable() {
+			return true;
+		}
+
+		@Override
+		public IDataset getDataset(IMonitor mon, SliceND slice) throws IOException {
+			return null;
+		}
+
+		@Override
+		public void initialize() throws IOException {
+			// do nothing
+		}
+
+		@Override
+		public boolean isFileWriteable() {
+			return true;
+		}
+
+		@Override
+		public void setSlice(IMonitor mon, IDataset data, SliceND slice) throws IOException {
+			try {
+				entered.countDown();
+				if (gate!=null) gate.await(10, TimeUnit.SECONDS);
+				Thread.sleep(sleep);
+			} catch (InterruptedException e) {
+				throw new IOException(e);
+			}
+			if (fail) throw new IOException("The disk is full");
+			slices.add(slice);
+			if (order!=null) order.add(this);
+
+			// Record what was written to the fastest axis
+			final Dataset flat = DatasetUtils.convertToDataset(data).flatten();
+			final int[] start = slice.getStart();
+			final int   axis  = start.length-1;
+			final int   width = values.length / (start.length>1 ? slice.getSourceShape()[0] : 1);
+			final int   row   = start.length>1 ? start[0] : 0;
+			for (int i = 0; i < flat.getSize(); i++) {
+				values[row*width+start[axis]+i] = flat.getInt(i);
+			}
+		}
+	}
+
+	private NexusWriteQueue queue;
+
+	@After
+	public void close() throws Exception {
+		if (queue!=null) {
+			try {
+				queue.close();
+			} catch (ScanningException ignored) {
+				// The test has checked it
+			}
+		}
+	}
+
+	@Test
+	public void testScanContinuesWhenFileSystemIsSlow() throws Exception {
+
+		final int size = 50;
+		SlowSaver saver = new SlowSaver(100, size);
+		ILazyWriteableDataset dataset = createDataset("slow", saver, size);
+		queue = new NexusWriteQueue("slow.nxs", 64);
+
+		long start = System.currentTimeMillis();
+		for (int i = 0; i < size; i++) {
+			queue.setSlice(dataset, DatasetFactory.createFromObject(i+1), point(dataset, i));
+			Thread.sleep(1); // The scan does something between points
+		}
+		long time = System.currentTimeMillis()-start;
+		assertTrue("The scan waited "+time+"ms for the file system", time < size*100/2);
+
+		queue.close();
+		assertEquals(size, queue.getWrittenCount());
+		assertTrue("The points were not joined, there were "+saver.slices.size()+" writes", saver.slices.size() < size);
+		assertEquals(saver.slices.size(), queue.getHyperslabCount());
+		for (int i = 0; i < size; i++) assertEquals(i+1, saver.values[i]);
+	}
+
+	@Test
+	public void testBackpressure() throws Exception {
+
+		final int size = 20;
+		SlowSaver saver = new SlowSaver(20, size);
+		ILazyWriteableDataset dataset = createDataset("full", saver, size);
+		queue = new NexusWriteQueue("full.nxs", 4);
+
+		for (int i = 0; i < size; i++) {
+			queue.setSlice(dataset, DatasetFactory.createFromObject(i+1), point(dataset, i));
+		}
+		assertTrue("The queue held more than its capacity", queue.getMaximumDepth()<=4);
+		assertTrue("The queue did not apply backpressure", queue.getStallCount()>0);
+
+		queue.flush();
+		assertEquals(size, queue.getWrittenCount());
+		assertEquals(0, queue.getDepth());
+		for (int i = 0; i < size; i++) assertEquals(i+1, saver.values[i]);
+	}
+
+	@Test
+	public void testJoinedAlongFastAxis() throws Exception {
+
+		SlowSaver saver = new SlowSaver(0, 12);
+		ILazyWriteableDataset dataset = new LazyWriteableDataset("grid", Integer.class, new int[]{3, 4}, new int[]{3, 4}, new int[]{1, 4}, saver);
+		queue = new NexusWriteQueue("grid.nxs", 64);
+
+		saver.gate = new CountDownLatch(1); // Hold the first write until all the other points are queued
+		for (int y = 0; y < 3; y++) {
+			for (int x = 0; x < 4; x++) {
+				SliceND slice = new SliceND(dataset.getShape(), dataset.getMaxShape(), new int[]{y, x}, new int[]{y+1, x+1}, null);
+				queue.setSlice(dataset, DatasetFactory.createFromObject(y*4+x+1), slice);
+				if (x==0 && y==0) assertTrue(saver.entered.await(10, TimeUnit.SECONDS));
+			}
+		}
+		saver.gate.countDown();
+		queue.close();
+
+		// The first point on its own then each row in one write
+		assertEquals(4, saver.slices.size());
+		assertArrayEquals(new int[]{0, 1}, saver.slices.get(1).getStart());
+		assertArrayEquals(new int[]{1, 4}, saver.slices.get(1).getStop());
+		assertArrayEquals(new int[]{2, 0}, saver.slices.get(3).getStart());
+		assertArrayEquals(new int[]{3, 4}, saver.slices.get(3).getStop());
+		for (int i = 0; i < 12; i++) assertEquals(i+1, saver.values[i]);
+	}
+
+	@Test
+	public void testKeyWrittenAfterData() throws Exception {
+
+		SlowSaver dataSaver = new SlowSaver(0, 10);
+		SlowSaver keySaver  = new SlowSaver(0, 10);
+		final List<SlowSaver> order = Collections.synchronizedList(new ArrayList<>());
+		dataSaver.order = order;
+		keySaver.order  = order;
+		ILazyWriteableDataset data = createDataset("data", dataSaver, 10);
+		ILazyWriteableDataset keys = createDataset("keys", keySaver, 10);
+		queue = new NexusWriteQueue("keys.nxs", 64);
+
+		dataSaver.gate = new CountDownLatch(1); // Hold the first write so that the others wait together
+		queue.setSlice(data, DatasetFactory.createFromObject(1), point(data, 0));
+		assertTrue(dataSaver.entered.await(10, TimeUnit.SECONDS));
+
+		// The key of the next point is queued before its data
+		queue.setKeySlice(keys, DatasetFactory.createFromObject(2), point(keys, 1));
+		queue.setSlice(data, DatasetFactory.createFromObject(2), point(data, 1));
+		dataSaver.gate.countDown();
+		queue.close();
+
+		assertEquals(Arrays.asList(dataSaver, dataSaver, keySaver), order);
+		assertEquals(2, keySaver.values[1]);
+	}
+
+	@Test
+	public void testWriteErrorReported() throws Exception {
+
+		SlowSaver saver = new SlowSaver(0, 10);
+		saver.fail = true;
+		ILazyWriteableDataset dataset = createDataset("broken", saver, 10);
+		queue = new NexusWriteQueue("broken.nxs", 64);
+
+		queue.setSlice(dataset, DatasetFactory.createFromObject(1), point(dataset, 0));
+		try {
+			queue.flush();
+			fail("The write error was not reported");
+		} catch (ScanningException expected) {
+			assertTrue(expected.getCause()!=null);
+		}
+		try {
+			queue.setSlice(dataset, DatasetFactory.createFromObject(2), point(dataset, 1));
+			fail("The queue accepted a slice after a write error");
+		} catch (ScanningException expected) {
+			// The scan should stop
+		}
+	}
+
+	private static ILazyWriteableDataset createDataset(String name, ILazySaver saver, int size) {
+		return new LazyWriteableDataset(name, Integer.class, new int[]{size}, new int[]{size}, new int[]{8}, saver);
+	}
+
+	private static SliceND point(ILazyWriteableDataset dataset, int index) {
+		return new SliceND(dataset.getShape(), dataset.getMaxShape(), new int[]{index}, new int[]{index+1}, null);
+	}
+}
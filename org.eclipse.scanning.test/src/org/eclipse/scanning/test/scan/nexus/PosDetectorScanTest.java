@@ -90,6 +90,23 @@ public class PosDetectorScanTest extends NexusTest {
 		checkNexusFile(scanner, scanShape);
 	}
 
+	@Test
+	public void testBatchedPosScan() throws Exception {
+		System.setProperty("org.eclipse.scanning.sequencer.write.batch.size", "4");
+		try {
+			final int[] scanShape = new int[] { 8, 5 };
+			IRunnableDevice<ScanModel> scanner = createGridScan(detector, output, false, scanShape);
+			((IPositionListenable) scanner).addPositionListener(
+					new UniqueKeyChecker(scanner.getModel().getFilePath(), scanShape));
+
+			scanner.run(null);
+
+			checkNexusFile(scanner, scanShape);
+		} finally {
+			System.clearProperty("org.eclipse.scanning.sequencer.write.batch.size");
+		}
+	}
+
 	private static class UniqueKeyChecker implements IPositionListener {
 
 		private final int[] scanShape;
@@ -0,0 +1,253 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.test.scan.nexus;
+
+import static org.eclipse.scanning.sequencer.nexus.SolsticeConstants.FIELD_NAME_UNIQUE_KEYS;
+import static org.eclipse.scanning.sequencer.nexus.SolsticeConstants.GROUP_NAME_KEYS;
+import static org.eclipse.scanning.sequencer.nexus.SolsticeConstants.GROUP_NAME_SOLSTICE_SCAN;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.dawnsci.analysis.api.tree.TreeFile;
+import org.eclipse.dawnsci.json.MarshallerService;
+import org.eclipse.dawnsci.nexus.NXcollection;
+import org.eclipse.dawnsci.nexus.NXentry;
+import org.eclipse.dawnsci.nexus.NXroot;
+import org.eclipse.dawnsci.nexus.NexusFile;
+import org.eclipse.dawnsci.nexus.NexusUtils;
+import org.eclipse.january.dataset.IDataset;
+import org.eclipse.scanning.api.device.IRunnableDevice;
+import org.eclipse.scanning.api.event.scan.ScanBean;
+import org.eclipse.scanning.api.event.status.Status;
+import org.eclipse.scanning.api.scan.PositionEvent;
+import org.eclipse.scanning.api.scan.ScanningException;
+import org.eclipse.scanning.api.scan.checkpoint.IScanCheckpointStore;
+import org.eclipse.scanning.api.scan.checkpoint.ScanCheckpoint;
+import org.eclipse.scanning.api.scan.event.IPositionListenable;
+import org.eclipse.scanning.api.scan.event.IPositionListener;
+import org.eclipse.scanning.api.scan.models.ScanModel;
+import org.eclipse.scanning.example.detector.RandomLineDevice;
+import org.eclipse.scanning.example.detector.RandomLineModel;
+import org.eclipse.scanning.points.serialization.PointsModelMarshaller;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Kills a scan part way through, as the server dying would, and resumes it
+ * from its checkpoint. The points of the two files must together be the
+ * points of the scan, each written once.
+ */
+public class ScanCheckpointTest extends NexusTest {
+
+	private static final int  ROWS      = 4;
+	private static final int  COLUMNS   = 5;
+	private static final long STEP_TIME = 200; // ms, so that the scan is killed before it ends
+
+	private RandomLineDevice linedetector;
+	private File             dir;
+	private File             resumed;
+
+	@Before
+	public void before() throws Exception {
+
+		dir = Files.createTempDirectory("checkpoints").toFile();
+		linedetector = createLineDetector(dir);
+	}
+
+	private static RandomLineDevice createLineDetector(File dir) throws Exception {
+		System.setProperty("org.eclipse.scanning.sequencer.checkpoint.dir", dir.getAbsolutePath());
+		System.setProperty("org.eclipse.scanning.sequencer.checkpoint.period", "0");
+		new org.eclipse.scanning.sequencer.ServiceHolder().setMarshallerService(new MarshallerService(new PointsModelMarshaller()));
+
+		return (RandomLineDevice)dservice.createRunnableDevice(new RandomLineModel());
+	}
+
+	/**
+	 * Runs the scan which {@link #testResumeAfterServerStopped()} kills, in a JVM of its own.
+	 * @param args the file to write and the directory to save the checkpoints in
+	 */
+	public static void main(String[] args) throws Exception {
+
+		setServices();
+		final ScanCheckpointTest test = new ScanCheckpointTest();
+		test.linedetector = createLineDetector(new File(args[1]));
+
+		IRunnableDevice<ScanModel> scanner = test.createScanner("resume", new File(args[0]), 0);
+		((IPositionListenable)scanner).addPositionListener(new IPositionListener() {
+			@Override
+			public void positionPerformed(PositionEvent evt) throws ScanningException {
+				try {
+					Thread.sleep(STEP_TIME);
+				} catch (InterruptedException e) {
+					throw new ScanningException("The scan was interrupted", e);
+				}
+			}
+		});
+		scanner.run(null);
+		System.exit(0); // The test sees that the scan was not killed
+	}
+
+	@After
+	public void after() throws Exception {
+		System.clearProperty("org.eclipse.scanning.sequencer.checkpoint.dir");
+		System.clearProperty("org.eclipse.scanning.sequencer.checkpoint.period");
+		linedetector.setThrowWriteExceptions(false);
+		linedetector.reset();
+		if (resumed!=null) resumed.delete();
+		for (File file : dir.listFiles()) file.delete();
+		dir.delete();
+	}
+
+	@Test
+	public void testNoCheckpointWhenScanCompletes() throws Exception {
+
+		IRunnableDevice<ScanModel> scanner = createScanner("complete", output, 0);
+		scanner.run(null);
+
+		assertEquals(Status.COMPLETE, scanner.getModel().getBean().getStatus());
+		assertNull(dservice.getCheckpointStore().load("complete"));
+		assertEquals(0, dservice.getCheckpointStore().getCheckpoints().size());
+	}
+
+	@Test
+	public void testNoCheckpointWhenScanFails() throws Exception {
+
+		IRunnableDevice<ScanModel> scanner = createScanner("failed", output, 0);
+		((IPositionListenable)scanner).addPositionListener(new IPositionListener() {
+			@Override
+			public void positionPerformed(PositionEvent evt) throws ScanningException {
+				if (evt.getPosition().getStepIndex()==7) linedetector.setThrowWriteExceptions(true);
+			}
+		});
+		try {
+			scanner.run(null);
+			fail("The scan did not fail");
+		} catch (ScanningException expected) {
+			// A failed scan is not resumed
+		}
+
+		assertEquals(Status.FAILED, scanner.getModel().getBean().getStatus());
+		assertNull("The failed scan has a checkpoint", dservice.getCheckpointStore().load("failed"));
+	}
+
+	@Test
+	public void testResumeAfterServerStopped() throws Exception {
+
+		// Kill the server running the scan once a few steps are checkpointed
+		final IScanCheckpointStore store = dservice.getCheckpointStore();
+		final String java = System.getProperty("java.home")+File.separator+"bin"+File.separator+"java";
+		final Process server = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), ScanCheckpointTest.class.getName(),
+				output.getAbsolutePath(), dir.getAbsolutePath()).inheritIO().start();
+		try {
+			final long end = System.currentTimeMillis()+60000;
+			while (getLastStep(store)<7) {
+				assertTrue("The scan ended before it was killed", server.isAlive());
+				assertTrue("The scan was not checkpointed in time", System.currentTimeMillis()<end);
+				Thread.sleep(50);
+			}
+		} finally {
+			server.destroyForcibly();
+		}
+		assertTrue(server.waitFor(10, TimeUnit.SECONDS));
+		assertFalse("The scan ended normally", server.exitValue()==0);
+
+		final ScanCheckpoint checkpoint = store.load("resume");
+		assertNotNull(checkpoint);
+		assertEquals(ROWS*COLUMNS, checkpoint.getSize());
+		assertTrue(checkpoint.getLastStep()>=0 && checkpoint.getLastStep()<ROWS*COLUMNS-1);
+		assertEquals(checkpoint.getLastStep()+1, checkpoint.getNextStep());
+		assertEquals(output.getAbsolutePath(), checkpoint.getFilePath());
+		assertEquals(2, checkpoint.getPosition().size()); // xNex and yNex
+
+		// Resume from the step after the checkpoint into a new file
+		final ScanBean bean = checkpoint.createResumeBean();
+		assertEquals(Status.SUBMITTED, bean.getStatus());
+		assertEquals("resume", bean.getUniqueId());
+		assertEquals(checkpoint.getNextStep(), bean.getScanRequest().getStartStep());
+		assertTrue("The checkpoint was changed", checkpoint.getBean()!=bean);
+		assertEquals(0, checkpoint.getBean().getScanRequest().getStartStep());
+		resumed = new File(ScanCheckpoint.getResumePath(output.getAbsolutePath(), checkpoint.getNextStep()));
+
+		IRunnableDevice<ScanModel> scanner = createScanner("resume", resumed, checkpoint.getNextStep());
+		scanner.run(null);
+		assertEquals(Status.COMPLETE, scanner.getModel().getBean().getStatus());
+		assertNull("The checkpoint was not deleted when the scan completed", store.load("resume"));
+
+		// Each point is in one of the files
+		final IDataset before = getUniqueKeys(output);
+		final IDataset after  = getUniqueKeys(resumed);
+		for (int step = 0; step < ROWS*COLUMNS; step++) {
+			if (step<=checkpoint.getLastStep()) {
+				assertEquals("Step "+step+" is not in the first file", step+1, getKey(before, step));
+			} else {
+				assertEquals("Step "+step+" is not in the resumed file", step+1, getKey(after, step));
+			}
+			if (step<checkpoint.getNextStep()) assertEquals("Step "+step+" was written again", 0, getKey(after, step));
+		}
+	}
+
+	@Test
+	public void testResumePath() {
+		assertEquals("/dls/i05/data/scan-12_from40.nxs", ScanCheckpoint.getResumePath("/dls/i05/data/scan-12.nxs", 40));
+		assertEquals("/dls/i05/data/scan-12_from80.nxs", ScanCheckpoint.getResumePath("/dls/i05/data/scan-12_from40.nxs", 80));
+		assertEquals("scan_from3", ScanCheckpoint.getResumePath("scan", 3));
+	}
+
+	private IRunnableDevice<ScanModel> createScanner(String uniqueId, File file, int startStep) throws Exception {
+
+		final ScanBean bean = new ScanBean();
+		bean.setName("Checkpointed scan");
+		bean.setUniqueId(uniqueId);
+
+		ScanModel smodel = createGridScanModel(linedetector, file, false, ROWS, COLUMNS);
+		smodel.setBean(bean);
+		smodel.setStartStep(startStep);
+		return dservice.createRunnableDevice(smodel, null);
+	}
+
+	/**
+	 * @return the last step checkpointed, -1 if there is no checkpoint yet.
+	 */
+	private static int getLastStep(IScanCheckpointStore store) throws ScanningException {
+		final ScanCheckpoint checkpoint = store.load("resume");
+		return checkpoint!=null ? checkpoint.getLastStep() : -1;
+	}
+
+	private static int getKey(IDataset keys, int step) {
+		final int row = step/COLUMNS;
+		final int col = step%COLUMNS;
+		final int[] shape = keys.getShape();
+		if (row>=shape[0] || col>=shape[1]) return 0; // Not written
+		return keys.getInt(row, col);
+	}
+
+	private static IDataset getUniqueKeys(File file) throws Exception {
+		NexusFile nf = fileFactory.newNexusFile(file.getAbsolutePath());
+		try {
+			nf.openToRead();
+			TreeFile nexusTree = NexusUtils.loadNexusTree(nf);
+			NXroot  root  = (NXroot) nexusTree.getGroupNode();
+			NXentry entry = root.getEntry();
+			NXcollection solsticeScanCollection = entry.getCollection(GROUP_NAME_SOLSTICE_SCAN);
+			NXcollection keysCollection = (NXcollection) solsticeScanCollection.getGroupNode(GROUP_NAME_KEYS);
+			return keysCollection.getDataNode(FIELD_NAME_UNIQUE_KEYS).getDataset().getSlice();
+		} finally {
+			nf.close();
+		}
+	}
+}
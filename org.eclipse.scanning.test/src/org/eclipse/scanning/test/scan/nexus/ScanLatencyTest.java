@@ -0,0 +1,96 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.test.scan.nexus;
+
+import static org.eclipse.scanning.sequencer.nexus.SolsticeConstants.FIELD_NAME_LATENCY_COUNT;
+import static org.eclipse.scanning.sequencer.nexus.SolsticeConstants.FIELD_NAME_LATENCY_MAX;
+import static org.eclipse.scanning.sequencer.nexus.SolsticeConstants.FIELD_NAME_LATENCY_P50;
+import static org.eclipse.scanning.sequencer.nexus.SolsticeConstants.FIELD_NAME_LATENCY_P99;
+import static org.eclipse.scanning.sequencer.nexus.SolsticeConstants.FIELD_NAME_LATENCY_STAGE;
+import static org.eclipse.scanning.sequencer.nexus.SolsticeConstants.GROUP_NAME_LATENCY;
+import static org.eclipse.scanning.sequencer.nexus.SolsticeConstants.GROUP_NAME_SOLSTICE_SCAN;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.dawnsci.nexus.NXcollection;
+import org.eclipse.dawnsci.nexus.NXentry;
+import org.eclipse.january.dataset.IDataset;
+import org.eclipse.scanning.api.device.IRunnableDevice;
+import org.eclipse.scanning.api.scan.models.ScanModel;
+import org.eclipse.scanning.example.detector.MandelbrotModel;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Checks that the latencies of the stages of a scan are
+ * written to the solstice_scan collection when they are recorded.
+ */
+public class ScanLatencyTest extends NexusTest {
+
+	@After
+	public void clearProperty() {
+		System.clearProperty("org.eclipse.scanning.sequencer.latency");
+	}
+
+	@Test
+	public void testLatenciesWritten() throws Exception {
+
+		System.setProperty("org.eclipse.scanning.sequencer.latency", "true");
+		IRunnableDevice<ScanModel> scanner = runScan();
+
+		NXentry entry = getNexusRoot(scanner).getEntry();
+		NXcollection solstice = entry.getCollection(GROUP_NAME_SOLSTICE_SCAN);
+		NXcollection latency  = (NXcollection)solstice.getGroupNode(GROUP_NAME_LATENCY);
+		assertNotNull(latency);
+
+		IDataset stages = latency.getDataNode(FIELD_NAME_LATENCY_STAGE).getDataset().getSlice();
+		List<String> names = new ArrayList<>();
+		for (int i = 0; i < stages.getSize(); i++) names.add(stages.getString(i));
+		assertTrue(names.toString(), names.contains("move"));
+		assertTrue(names.toString(), names.contains("expose"));
+		assertTrue(names.toString(), names.contains("expose.mandelbrot"));
+		assertTrue(names.toString(), names.contains("write.mandelbrot"));
+
+		IDataset count = latency.getDataNode(FIELD_NAME_LATENCY_COUNT).getDataset().getSlice();
+		IDataset p50   = latency.getDataNode(FIELD_NAME_LATENCY_P50).getDataset().getSlice();
+		IDataset p99   = latency.getDataNode(FIELD_NAME_LATENCY_P99).getDataset().getSlice();
+		IDataset max   = latency.getDataNode(FIELD_NAME_LATENCY_MAX).getDataset().getSlice();
+		assertEquals(names.size(), count.getSize());
+
+		int move = names.indexOf("move");
+		assertEquals(6, count.getLong(move));
+		for (int i = 0; i < names.size(); i++) {
+			assertTrue(names.get(i), p50.getLong(i)<=p99.getLong(i));
+			assertTrue(names.get(i), p99.getLong(i)<=max.getLong(i));
+		}
+	}
+
+	@Test
+	public void testNoLatenciesByDefault() throws Exception {
+
+		IRunnableDevice<ScanModel> scanner = runScan();
+
+		NXentry entry = getNexusRoot(scanner).getEntry();
+		NXcollection solstice = entry.getCollection(GROUP_NAME_SOLSTICE_SCAN);
+		assertNull(solstice.getGroupNode(GROUP_NAME_LATENCY));
+	}
+
+	private IRunnableDevice<ScanModel> runScan() throws Exception {
+		MandelbrotModel model = createMandelbrotModel();
+		IRunnableDevice<MandelbrotModel> detector = dservice.createRunnableDevice(model);
+		IRunnableDevice<ScanModel> scanner = createGridScan(detector, output, false, 2, 3);
+		scanner.run(null);
+		return scanner;
+	}
+}
@@ -18,6 +18,7 @@ import static org.eclipse.scanning.sequencer.nexus.SolsticeConstants.FIELD_NAME_
 import static org.eclipse.scanning.sequencer.nexus.SolsticeConstants.FIELD_NAME_SCAN_FINISHED;
 import static org.eclipse.scanning.sequencer.nexus.SolsticeConstants.FIELD_NAME_SCAN_RANK;
 import static org.eclipse.scanning.sequencer.nexus.SolsticeConstants.FIELD_NAME_SCAN_SHAPE;
+import static org.eclipse.scanning.sequencer.nexus.SolsticeConstants.FIELD_NAME_TIMESTAMPS;
 import static org.eclipse.scanning.sequencer.nexus.SolsticeConstants.FIELD_NAME_UNIQUE_KEYS;
 import static org.eclipse.scanning.sequencer.nexus.SolsticeConstants.GROUP_NAME_KEYS;
 import static org.junit.Assert.assertArrayEquals;
@@ -61,6 +62,7 @@ import org.eclipse.scanning.api.points.StaticPosition;
 import org.eclipse.scanning.api.scan.ScanEstimator;
 import org.eclipse.scanning.api.scan.ScanInformation;
 import org.eclipse.scanning.api.scan.models.ScanModel;
+import org.eclipse.scanning.sequencer.nexus.NexusFlushScheduler;
 import org.eclipse.scanning.sequencer.nexus.SolsticeScanMonitor;
 import org.junit.Assert;
 import org.junit.Test;
@@ -182,9 +184,7 @@ public class SolsticeScanMonitorTest {
 		NexusScanInfo scanInfo = new NexusScanInfo();
 		scanInfo.setRank(scanRank);
 		scanInfo.setShape(scanShape);
-		int[] expectedChunking = new int[scanInfo.getRank()];
-		Arrays.fill(expectedChunking, 1);
-		expectedChunking[expectedChunking.length-1] = 8;
+		int[] expectedChunking = scanShape; // The whole scan fits in one chunk
 
 		// Act
 		NXcollection solsticeScanCollection = solsticeScanMonitor.createNexusObject(scanInfo);
@@ -375,6 +375,10 @@ public class SolsticeScanMonitorTest {
 		MockLazySaver uniqueKeysSaver = new MockLazySaver();
 		uniqueKeysDataset.setSaver(uniqueKeysSaver);
 
+		ILazyWriteableDataset timestampsDataset = (ILazyWriteableDataset) solsticeScanCollection.getDataNode(FIELD_NAME_TIMESTAMPS).getDataset();
+		MockLazySaver timestampsSaver = new MockLazySaver();
+		timestampsDataset.setSaver(timestampsSaver);
+
 		// assert links to external nodes
 		assertEquals(3, keysCollection.getNumberOfNodelinks());
 		for (NexusObjectProvider<?> objectProvider : nexusObjectProviders) {
@@ -457,6 +461,121 @@ public class SolsticeScanMonitorTest {
 		assertArrayEquals(uniqueKeysSlice.getStep(), expectedShape); // all ones
 		int[] stopIndices = Arrays.stream(indices).map(x -> x + 1).toArray();
 		assertArrayEquals(uniqueKeysSlice.getStop(), stopIndices);
+
+		// check data written to timestamps dataset
+		IDataset writtenToTimestampsData = timestampsSaver.getLastWrittenData();
+		assertNotNull(writtenToTimestampsData);
+		assertArrayEquals(expectedShape, writtenToTimestampsData.getShape());
+		assertTrue(writtenToTimestampsData.getLong(valuePos)>=0);
+		assertArrayEquals(indices, timestampsSaver.getLastSlice().getStart());
+	}
+
+	@Test
+	public void testWriteScanPointsInBlocks() throws Exception {
+
+		ScanModel scanModel = new ScanModel();
+		Iterable<IPosition> positions = Collections.nCopies(12, new StaticPosition());
+		scanModel.setScanInformation(new ScanInformation(new ScanEstimator(positions, null, 100)));
+
+		// Buffering is switched on by the delay
+		SolsticeScanMonitor solsticeScanMonitor;
+		System.setProperty("org.eclipse.scanning.sequencer.nexus.keys.delay", "60000");
+		try {
+			solsticeScanMonitor = new SolsticeScanMonitor(scanModel);
+		} finally {
+			System.clearProperty("org.eclipse.scanning.sequencer.nexus.keys.delay");
+		}
+		solsticeScanMonitor.setNexusObjectProviders(Collections.emptyList());
+
+		NexusScanInfo scanInfo = new NexusScanInfo();
+		scanInfo.setRank(2);
+		scanInfo.setShape(new int[] { 3, 4 });
+		NXcollection solsticeScanCollection = solsticeScanMonitor.createNexusObject(scanInfo);
+
+		NXcollection keysCollection = (NXcollection) solsticeScanCollection.getGroupNode(GROUP_NAME_KEYS);
+		ILazyWriteableDataset uniqueKeysDataset = (ILazyWriteableDataset) keysCollection.getDataNode(FIELD_NAME_UNIQUE_KEYS).getDataset();
+		MockLazySaver uniqueKeysSaver = new MockLazySaver();
+		uniqueKeysDataset.setSaver(uniqueKeysSaver);
+		ILazyWriteableDataset timestampsDataset = (ILazyWriteableDataset) solsticeScanCollection.getDataNode(FIELD_NAME_TIMESTAMPS).getDataset();
+		timestampsDataset.setSaver(new MockLazySaver());
+
+		// A snake scan, the middle row goes backwards
+		int step = 0;
+		for (int y = 0; y < 3; y++) {
+			for (int i = 0; i < 4; i++) {
+				int x = y%2==0 ? i : 3-i;
+				MapPosition position = new MapPosition();
+				position.put("yPos", y);
+				position.put("xPos", x);
+				position.putIndex("yPos", y);
+				position.putIndex("xPos", x);
+				position.setDimensionNames(Arrays.asList(Arrays.asList("yPos"), Arrays.asList("xPos")));
+				position.setStepIndex(step++);
+				solsticeScanMonitor.setPosition(null, position);
+			}
+		}
+		assertEquals("Points were written before the scan finished", 0, uniqueKeysSaver.getNumberOfWrites());
+		solsticeScanMonitor.scanFinished();
+
+		// One write for each row
+		assertEquals(3, uniqueKeysSaver.getNumberOfWrites());
+		IDataset lastRow = uniqueKeysSaver.getLastWrittenData();
+		assertArrayEquals(new int[] { 1, 4 }, lastRow.getShape());
+		for (int x = 0; x < 4; x++) assertEquals(9+x, lastRow.getInt(0, x));
+		assertArrayEquals(new int[] { 2, 0 }, uniqueKeysSaver.getLastSlice().getStart());
+		assertArrayEquals(new int[] { 3, 4 }, uniqueKeysSaver.getLastSlice().getStop());
+	}
+
+	@Test
+	public void testBufferedPointsWrittenByTimer() throws Exception {
+
+		ScanModel scanModel = new ScanModel();
+		Iterable<IPosition> positions = Collections.nCopies(12, new StaticPosition());
+		scanModel.setScanInformation(new ScanInformation(new ScanEstimator(positions, null, 100)));
+
+		SolsticeScanMonitor solsticeScanMonitor;
+		System.setProperty("org.eclipse.scanning.sequencer.nexus.keys.delay", "1000");
+		try {
+			solsticeScanMonitor = new SolsticeScanMonitor(scanModel);
+		} finally {
+			System.clearProperty("org.eclipse.scanning.sequencer.nexus.keys.delay");
+		}
+		solsticeScanMonitor.setNexusObjectProviders(Collections.emptyList());
+
+		NexusScanInfo scanInfo = new NexusScanInfo();
+		scanInfo.setRank(1);
+		scanInfo.setShape(new int[] { 12 });
+		NXcollection solsticeScanCollection = solsticeScanMonitor.createNexusObject(scanInfo);
+
+		NXcollection keysCollection = (NXcollection) solsticeScanCollection.getGroupNode(GROUP_NAME_KEYS);
+		ILazyWriteableDataset uniqueKeysDataset = (ILazyWriteableDataset) keysCollection.getDataNode(FIELD_NAME_UNIQUE_KEYS).getDataset();
+		MockLazySaver uniqueKeysSaver = new MockLazySaver();
+		uniqueKeysDataset.setSaver(uniqueKeysSaver);
+		ILazyWriteableDataset timestampsDataset = (ILazyWriteableDataset) solsticeScanCollection.getDataNode(FIELD_NAME_TIMESTAMPS).getDataset();
+		timestampsDataset.setSaver(new MockLazySaver());
+
+		NexusFlushScheduler scheduler = new NexusFlushScheduler(0, 0);
+		NexusFlushScheduler.Registration registration = scheduler.register("timer.nxs", () -> {});
+		try {
+			registration.schedule(solsticeScanMonitor::flushPoints, solsticeScanMonitor.getFlushDelay());
+
+			// The first point is buffered, the delay has not passed when it completes
+			MapPosition position = new MapPosition();
+			position.put("xPos", 0);
+			position.putIndex("xPos", 0);
+			position.setDimensionNames(Arrays.asList(Arrays.asList("xPos")));
+			position.setStepIndex(0);
+			solsticeScanMonitor.setPosition(null, position);
+			assertEquals("The point was not buffered", 0, uniqueKeysSaver.getNumberOfWrites());
+
+			// No other point completes, the timer writes it
+			for (int i = 0; i < 150 && uniqueKeysSaver.getNumberOfWrites()==0; i++) Thread.sleep(20);
+			assertEquals(1, uniqueKeysSaver.getNumberOfWrites());
+			assertEquals(1, uniqueKeysSaver.getLastWrittenData().getInt(0));
+		} finally {
+			registration.close();
+			scheduler.shutdown();
+		}
 	}
 
 }
@@ -34,9 +34,14 @@ import org.junit.runners.Suite.SuiteClasses;
 	ScanJythonTest.class,
 	ScanClusterProcessingTest.class,
 	SolsticeScanMonitorTest.class,
+	ScanLatencyTest.class,
+	NexusWriteQueueTest.class,
+	ChunkingServiceTest.class,
+	NexusFlushSchedulerTest.class,
 	LinearScanTest.class,
 	ScanTimeoutTest.class,
-	NexusStepScanSpeedTest.class
+	NexusStepScanSpeedTest.class,
+	ScanCheckpointTest.class
 
 })
 public class Suite {
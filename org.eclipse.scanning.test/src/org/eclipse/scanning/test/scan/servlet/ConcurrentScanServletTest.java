@@ -0,0 +1,250 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2016 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.scanning.test.scan.servlet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.EventListener;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.scanning.api.device.AbstractRunnableDevice;
+import org.eclipse.scanning.api.device.IRunnableDevice;
+import org.eclipse.scanning.api.event.EventException;
+import org.eclipse.scanning.api.event.bean.BeanEvent;
+import org.eclipse.scanning.api.event.bean.IBeanListener;
+import org.eclipse.scanning.api.event.core.IPublisher;
+import org.eclipse.scanning.api.event.core.ISubscriber;
+import org.eclipse.scanning.api.event.scan.ScanBean;
+import org.eclipse.scanning.api.event.scan.ScanRequest;
+import org.eclipse.scanning.api.event.status.Status;
+import org.eclipse.scanning.api.points.models.CompoundModel;
+import org.eclipse.scanning.api.points.models.StepModel;
+import org.eclipse.scanning.sequencer.RunnableDeviceServiceImpl;
+import org.eclipse.scanning.server.servlet.AbstractConsumerServlet;
+import org.eclipse.scanning.server.servlet.ScanProcess;
+import org.eclipse.scanning.server.servlet.ScanServlet;
+import org.eclipse.scanning.test.scan.mock.MockDetectorModel;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Runs scans through the consumer of a scan servlet which
+ * allows two of them to run at the same time.
+ */
+public class ConcurrentScanServletTest extends AbstractServletTest {
+
+	@BeforeClass
+	public static void createOtherDetectors() throws Exception {
+		for (String name : new String[]{"detector2", "detector3"}) {
+			final MockDetectorModel dmodel = new MockDetectorModel();
+			dmodel.setName(name);
+			dmodel.setExposureTime(0.001);
+			((RunnableDeviceServiceImpl)dservice).createRunnableDevice(dmodel);
+		}
+	}
+
+	@Override
+	protected AbstractConsumerServlet<ScanBean> createServlet() throws EventException, URISyntaxException {
+
+		ScanServlet servlet = new ScanServlet() {
+			@Override
+			public ScanProcess createProcess(ScanBean scanBean, IPublisher<ScanBean> response) throws EventException {
+				if (scanBean.getName().startsWith("detached")) {
+					// Returns from start() while the scan runs in a thread of its own.
+					return new ScanProcess(scanBean, response, true) {
+						@Override
+						public boolean isBlocking() {
+							return false;
+						}
+					};
+				}
+				if (!scanBean.getName().startsWith("broken")) return super.createProcess(scanBean, response);
+				// Fails without setting the status, the consumer must do that.
+				return new ScanProcess(scanBean, response, true) {
+					@Override
+					public void execute() throws EventException {
+						throw new EventException("The process of "+scanBean.getName()+" cannot start");
+					}
+				};
+			}
+		};
+		servlet.setBroker(uri.toString());
+		servlet.setSubmitQueue("org.eclipse.scanning.test.servlet.concurrent.submitQueue");
+		servlet.setStatusSet("org.eclipse.scanning.test.servlet.concurrent.statusSet");
+		servlet.setStatusTopic("org.eclipse.scanning.test.servlet.concurrent.statusTopic");
+		servlet.setPauseOnStart(false);
+		servlet.setMaximumRunningProcesses(2);
+		servlet.connect(); // Gets called by Spring automatically
+
+		return servlet;
+	}
+
+	private ISubscriber<EventListener>  subscriber;
+	private Map<String, Long>           starts;
+	private Map<String, Long>           ends;
+	private Map<String, Status>         statuses;
+	private Map<String, CountDownLatch> started;
+	private Map<String, CountDownLatch> finished;
+
+	@Before
+	public void listen() throws Exception {
+
+		starts   = new ConcurrentHashMap<>();
+		ends     = new ConcurrentHashMap<>();
+		statuses = new ConcurrentHashMap<>();
+		started  = new ConcurrentHashMap<>();
+		finished = new ConcurrentHashMap<>();
+
+		subscriber = eservice.createSubscriber(new URI(servlet.getBroker()), servlet.getStatusTopic());
+		subscriber.addListener(new IBeanListener<ScanBean>() {
+			@Override
+			public void beanChangePerformed(BeanEvent<ScanBean> evt) {
+				final ScanBean bean = evt.getBean();
+				if (bean.scanStart()) {
+					starts.putIfAbsent(bean.getName(), System.nanoTime());
+					latch(started, bean.getName()).countDown();
+				}
+				if (bean.getStatus()!=null && bean.getStatus().isFinal()) {
+					ends.putIfAbsent(bean.getName(), System.nanoTime());
+					statuses.putIfAbsent(bean.getName(), bean.getStatus());
+					latch(finished, bean.getName()).countDown();
+				}
+			}
+		});
+	}
+
+	@After
+	public void stopListening() throws Exception {
+		subscriber.disconnect();
+	}
+
+	@Test
+	public void testDisjointScansRunTogether() throws Exception {
+
+		submit(servlet, createScan("first", "T1", "detector", 10, 0.1));
+		submit(servlet, createScan("second", "T2", "detector2", 10, 0.1));
+
+		awaitFinished("first", 30);
+		awaitFinished("second", 30);
+
+		assertTrue("The second scan waited although it uses other devices", starts.get("second") < ends.get("first"));
+	}
+
+	@Test
+	public void testOverlappingScansRunInTurn() throws Exception {
+
+		submit(servlet, createScan("first", "T1", "detector", 10, 0.1));
+		submit(servlet, createScan("second", "T1", "detector2", 10, 0.1));
+
+		awaitFinished("first", 30);
+		awaitFinished("second", 30);
+
+		assertTrue("The second scan moved T1 while the first used it", starts.get("second") > ends.get("first"));
+	}
+
+	@Test
+	public void testFailedStartReleasesSlot() throws Exception {
+
+		// Each would keep a slot if it were not released when start() throws
+		submit(servlet, createScan("broken1", "T1", "detector", 1, 0.001));
+		submit(servlet, createScan("broken2", "T2", "detector2", 1, 0.001));
+		submit(servlet, createScan("working", "T3", "detector", 5, 0.001));
+
+		assertEquals(Status.FAILED, awaitFinished("broken1", 10));
+		assertEquals(Status.FAILED, awaitFinished("broken2", 10));
+		assertEquals(Status.COMPLETE, awaitFinished("working", 30));
+	}
+
+	@Test
+	public void testDetachedScansKeepTheirSlots() throws Exception {
+
+		submit(servlet, createScan("detached1", "T1", "detector", 10, 0.1));
+		submit(servlet, createScan("detached2", "T2", "detector2", 10, 0.1));
+		submit(servlet, createScan("detached3", "T3", "detector3", 10, 0.1));
+
+		assertEquals(Status.COMPLETE, awaitFinished("detached1", 30));
+		assertEquals(Status.COMPLETE, awaitFinished("detached2", 30));
+		assertEquals(Status.COMPLETE, awaitFinished("detached3", 30));
+
+		final long firstEnd = Math.min(ends.get("detached1"), ends.get("detached2"));
+		assertTrue("A third scan ran while two others had not finished", starts.get("detached3") > firstEnd);
+	}
+
+	@Test
+	public void testActiveScannerOfTwoScans() throws Exception {
+
+		submit(servlet, createScan("long", "T1", "detector", 30, 0.1));
+		assertTrue(latch(started, "long").await(10, TimeUnit.SECONDS));
+		submit(servlet, createScan("short", "T2", "detector2", 5, 0.1));
+		assertTrue(latch(started, "short").await(10, TimeUnit.SECONDS));
+
+		// The most recent scan is the active one
+		assertEquals("short", getActiveScanName());
+
+		// The remaining scan is active again when it ends
+		assertEquals(Status.COMPLETE, awaitFinished("short", 10));
+		assertTrue(waitForActiveScan("long"));
+		assertFalse("The long scan ended before the test could check it", ends.containsKey("long"));
+
+		assertEquals(Status.COMPLETE, awaitFinished("long", 30));
+		assertTrue(waitForActiveScan(null));
+		assertNull(dservice.getActiveScanner());
+	}
+
+	private ScanBean createScan(String name, String scannableName, String detectorName, int size, double exposure) {
+
+		final ScanBean bean = new ScanBean();
+		bean.setName(name);
+
+		final ScanRequest<?> req = new ScanRequest<>();
+		req.setCompoundModel(new CompoundModel<>(new StepModel(scannableName, 1, size, 1)));
+
+		final MockDetectorModel dmodel = new MockDetectorModel();
+		dmodel.setName(detectorName);
+		dmodel.setExposureTime(exposure);
+		req.putDetector(detectorName, dmodel);
+
+		bean.setScanRequest(req);
+		return bean;
+	}
+
+	private Status awaitFinished(String name, long timeS) throws Exception {
+		if (!latch(finished, name).await(timeS, TimeUnit.SECONDS)) throw new Exception("The scan '"+name+"' did not finish!");
+		return statuses.get(name);
+	}
+
+	private boolean waitForActiveScan(String name) throws InterruptedException {
+		for (int i = 0; i < 100; i++) {
+			String active = getActiveScanName();
+			if (name==null ? active==null : name.equals(active)) return true;
+			Thread.sleep(10);
+		}
+		return false;
+	}
+
+	private String getActiveScanName() {
+		final IRunnableDevice<?> scanner = dservice.getActiveScanner();
+		if (scanner==null) return null;
+		return ((AbstractRunnableDevice<?>)scanner).getBean().getName();
+	}
+
+	private static CountDownLatch latch(Map<String, CountDownLatch> latches, String name) {
+		return latches.computeIfAbsent(name, n -> new CountDownLatch(1));
+	}
+}
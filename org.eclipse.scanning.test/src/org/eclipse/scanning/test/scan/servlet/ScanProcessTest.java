@@ -11,6 +11,7 @@
  *******************************************************************************/
 package org.eclipse.scanning.test.scan.servlet;
 
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.hasItems;
 import static org.hamcrest.CoreMatchers.is;
@@ -18,13 +19,18 @@ import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.dawnsci.analysis.api.io.ILoaderService;
 import org.eclipse.dawnsci.analysis.api.roi.IROI;
@@ -44,12 +50,15 @@ import org.eclipse.dawnsci.nexus.builder.impl.DefaultNexusBuilderFactory;
 import org.eclipse.dawnsci.remotedataset.test.mock.LoaderServiceMock;
 import org.eclipse.january.dataset.IDataset;
 import org.eclipse.scanning.api.IScannable;
+import org.eclipse.scanning.api.device.IDeviceLock;
 import org.eclipse.scanning.api.device.IDeviceWatchdogService;
 import org.eclipse.scanning.api.device.IRunnableDeviceService;
 import org.eclipse.scanning.api.device.IScannableDeviceService;
+import org.eclipse.scanning.api.event.EventException;
 import org.eclipse.scanning.api.event.IEventService;
 import org.eclipse.scanning.api.event.scan.ScanBean;
 import org.eclipse.scanning.api.event.scan.ScanRequest;
+import org.eclipse.scanning.api.event.status.Status;
 import org.eclipse.scanning.api.points.IPointGeneratorService;
 import org.eclipse.scanning.api.points.MapPosition;
 import org.eclipse.scanning.api.points.models.BoundingBox;
@@ -245,6 +254,154 @@ public class ScanProcessTest {
 
 	}
 
+	@Test
+	public void testDetectorConfigureTimes() throws Exception {
+		// Arrange
+		MandelbrotModel model2 = new MandelbrotModel("xNex", "yNex");
+		model2.setName("mandelbrot2");
+		model2.setExposureTime(0.001);
+		dservice.createRunnableDevice(model2);
+
+		ScanBean scanBean = new ScanBean();
+		ScanRequest<?> scanRequest = new ScanRequest<>();
+
+		CompoundModel cmodel = new CompoundModel<>(Arrays.asList(new GridModel("xNex", "yNex",2,2)));
+		cmodel.setRegions(Arrays.asList(new ScanRegion<IROI>(new RectangularROI(0, 0, 3, 3, 0), "xNex", "yNex")));
+		scanRequest.setCompoundModel(cmodel);
+
+		final Map<String, Object> dmodels = new HashMap<String, Object>(3);
+		MandelbrotModel model = new MandelbrotModel("xNex", "yNex");
+		model.setName("mandelbrot");
+		model.setExposureTime(0.001);
+		dmodels.put("mandelbrot", model);
+		dmodels.put("mandelbrot2", model2);
+		scanRequest.setDetectors(dmodels);
+
+		final File tmp = File.createTempFile("scan_configure_test", ".nxs");
+		tmp.deleteOnExit();
+		scanRequest.setFilePath(tmp.getAbsolutePath());
+
+		scanBean.setScanRequest(scanRequest);
+		ScanProcess process = new ScanProcess(scanBean, null, true);
+
+		// Act
+		process.execute();
+
+		// Assert
+		assertThat(scanBean.getConfigureTimes(), is(notNullValue()));
+		assertThat(scanBean.getConfigureTimes().keySet(), hasItems("mandelbrot", "mandelbrot2"));
+		for (Long time : scanBean.getConfigureTimes().values()) assertTrue(time>=0);
+	}
+
+	@Test
+	public void testDetectorConfigureFails() throws Exception {
+		// Arrange
+		ConfigureDetector broken = new ConfigureDetector("configureFails", false);
+		ScanBean scanBean = createConfigureScan(broken);
+
+		// Act
+		try {
+			new ScanProcess(scanBean, null, true).execute();
+			fail("The scan ran although a detector could not be configured");
+		} catch (EventException expected) {
+			// The scan fails
+		}
+
+		// Assert
+		assertEquals(Status.FAILED, scanBean.getStatus());
+		assertThat(scanBean.getMessage(), containsString("configureFails"));
+		assertTrue(scanBean.getConfigureTimes().containsKey("mandelbrot"));
+		assertFalse(scanBean.getConfigureTimes().containsKey("configureFails"));
+	}
+
+	@Test
+	public void testDetectorConfigureTimesOut() throws Exception {
+		// Arrange
+		ConfigureDetector hanging = new ConfigureDetector("configureHangs", true);
+		ScanBean scanBean = createConfigureScan(hanging);
+
+		// Act
+		System.setProperty("org.eclipse.scanning.server.configure.timeout", "1");
+		final long start = System.currentTimeMillis();
+		try {
+			new ScanProcess(scanBean, null, true).execute();
+			fail("The scan ran although a detector took too long to configure");
+		} catch (EventException expected) {
+			// The scan fails
+		} finally {
+			System.clearProperty("org.eclipse.scanning.server.configure.timeout");
+		}
+
+		// Assert
+		assertTrue("The configure was not stopped at its timeout", System.currentTimeMillis()-start < ConfigureDetector.HANG);
+		assertTrue(hanging.interrupted.await(5, TimeUnit.SECONDS));
+		assertEquals(Status.FAILED, scanBean.getStatus());
+		assertThat(scanBean.getMessage(), containsString("configureHangs"));
+		assertThat(scanBean.getMessage(), containsString("Timed out"));
+		assertTrue(scanBean.getConfigureTimes().containsKey("mandelbrot"));
+		assertFalse(scanBean.getConfigureTimes().containsKey("configureHangs"));
+	}
+
+	/**
+	 * A scan of the mandelbrot detector and the detector given, which
+	 * is at the same level so that both are configured together.
+	 */
+	private ScanBean createConfigureScan(ConfigureDetector detector) throws Exception {
+
+		detector.setLevel(dservice.getRunnableDevice("mandelbrot").getLevel());
+		((RunnableDeviceServiceImpl)dservice)._register(detector.getName(), detector);
+
+		ScanBean scanBean = new ScanBean();
+		ScanRequest<?> scanRequest = new ScanRequest<>();
+		scanRequest.setCompoundModel(new CompoundModel<>(new StepModel("T", 290, 300, 5)));
+
+		final Map<String, Object> dmodels = new HashMap<String, Object>(3);
+		MandelbrotModel model = new MandelbrotModel("xNex", "yNex");
+		model.setName("mandelbrot");
+		model.setExposureTime(0.001);
+		dmodels.put("mandelbrot", model);
+		MockDetectorModel dmodel = new MockDetectorModel();
+		dmodel.setName(detector.getName());
+		dmodel.setExposureTime(0.001);
+		dmodels.put(detector.getName(), dmodel);
+		scanRequest.setDetectors(dmodels);
+
+		final File tmp = File.createTempFile("scan_configure_test", ".nxs");
+		tmp.deleteOnExit();
+		scanRequest.setFilePath(tmp.getAbsolutePath());
+
+		scanBean.setScanRequest(scanRequest);
+		return scanBean;
+	}
+
+	/**
+	 * Fails to configure, or takes longer to configure than it is allowed to.
+	 */
+	private static final class ConfigureDetector extends MockWritableDetector {
+
+		private static final long HANG = 10000; // ms
+
+		private final boolean        hang;
+		private final CountDownLatch interrupted = new CountDownLatch(1);
+
+		ConfigureDetector(String name, boolean hang) {
+			super(name);
+			this.hang = hang;
+		}
+
+		@Override
+		public void configure(MockDetectorModel model) throws ScanningException {
+			if (!hang) throw new ScanningException("The detector "+getName()+" is broken");
+			try {
+				Thread.sleep(HANG);
+			} catch (InterruptedException ne) {
+				interrupted.countDown();
+				throw new ScanningException("Configure of "+getName()+" interrupted", ne);
+			}
+			super.configure(model);
+		}
+	}
+
 	@Test
 	public void testScannableAndMonitor() throws Exception {
 		// Arrange
@@ -416,4 +573,88 @@ public class ScanProcessTest {
 		// exception would be thrown by DummyMalcolmDevice.validate()
 	}
 
+	@Test
+	public void testOverlappingScanWaits() throws Exception {
+
+		// Another scan is using fred
+		IDeviceLock lock = dservice.getDeviceLockManager().lock("first", Arrays.asList("fred"), 1, TimeUnit.SECONDS);
+		assertNotNull(lock);
+
+		ScanBean scanBean = createStepScan("second", "fred");
+		CountDownLatch done = executeInThread(new ScanProcess(scanBean, null, true));
+		try {
+			assertFalse("The scan ran while its scannable was used by another", done.await(2, TimeUnit.SECONDS));
+			assertEquals(Status.QUEUED, scanBean.getStatus());
+			assertThat(scanBean.getMessage(), containsString("fred"));
+			assertThat(scanBean.getMessage(), containsString("first"));
+		} finally {
+			lock.close();
+		}
+
+		assertTrue("The scan did not run when fred was released", done.await(10, TimeUnit.SECONDS));
+		assertEquals(Status.COMPLETE, scanBean.getStatus());
+		assertTrue(dservice.getDeviceLockManager().getOwners().isEmpty());
+	}
+
+	@Test
+	public void testDisjointScanRuns() throws Exception {
+
+		// Another scan is using T
+		IDeviceLock lock = dservice.getDeviceLockManager().lock("first", Arrays.asList("T"), 1, TimeUnit.SECONDS);
+		assertNotNull(lock);
+
+		ScanBean scanBean = createStepScan("second", "fred");
+		try {
+			CountDownLatch done = executeInThread(new ScanProcess(scanBean, null, true));
+			assertTrue("The scan waited for a device it does not use", done.await(10, TimeUnit.SECONDS));
+			assertEquals(Status.COMPLETE, scanBean.getStatus());
+		} finally {
+			lock.close();
+		}
+	}
+
+	@Test
+	public void testTerminateWhileWaiting() throws Exception {
+
+		IDeviceLock lock = dservice.getDeviceLockManager().lock("first", Arrays.asList("fred"), 1, TimeUnit.SECONDS);
+		assertNotNull(lock);
+
+		ScanBean scanBean = createStepScan("second", "fred");
+		ScanProcess process = new ScanProcess(scanBean, null, true);
+		try {
+			CountDownLatch done = executeInThread(process);
+			assertFalse(done.await(1, TimeUnit.SECONDS));
+			process.terminate();
+			assertTrue("The scan kept waiting after it was terminated", done.await(5, TimeUnit.SECONDS));
+			assertEquals(Status.TERMINATED, scanBean.getStatus());
+		} finally {
+			lock.close();
+		}
+	}
+
+	private ScanBean createStepScan(String name, String scannableName) {
+		ScanBean scanBean = new ScanBean();
+		scanBean.setName(name);
+		ScanRequest<?> scanRequest = new ScanRequest<>();
+		scanRequest.setCompoundModel(new CompoundModel<>(new StepModel(scannableName, 0, 9, 1)));
+		scanBean.setScanRequest(scanRequest);
+		return scanBean;
+	}
+
+	private CountDownLatch executeInThread(ScanProcess process) {
+		final CountDownLatch done = new CountDownLatch(1);
+		Thread thread = new Thread(() -> {
+			try {
+				process.execute();
+			} catch (Exception ne) {
+				ne.printStackTrace();
+			} finally {
+				done.countDown();
+			}
+		}, "Run "+process.getBean().getName());
+		thread.setDaemon(true);
+		thread.start();
+		return done;
+	}
+
 }
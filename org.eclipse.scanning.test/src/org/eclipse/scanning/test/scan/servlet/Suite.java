@@ -17,6 +17,7 @@ import org.junit.runners.Suite.SuiteClasses;
 @RunWith(org.junit.runners.Suite.class)
 @SuiteClasses({
 
+	ConcurrentScanServletTest.class,
 	ScanProcessTest.class,
 	ScanServletTest.class,
 	StartServerTest.class